@@ -0,0 +1,103 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.service.IndiceBusqueda;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ==========================================
+ * BÚSQUEDA POR NOMBRE: IndiceBusqueda vs recorrido con contains
+ *
+ * - recorrido: lo que hacía ContainingIgnoreCase, pero en memoria
+ *   (sin el viaje a la BD, que era lo más caro)
+ * - indice*: una tecla del cuadro de búsqueda ("lim"), una palabra
+ *   completa sin tilde ("limon"), una con error ("cevihce") y dos
+ *   palabras ("ceviche mix")
+ * ==========================================
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusquedaBenchmark {
+
+    private static final String[] PALABRAS = {
+        "ceviche", "mixto", "pescado", "limón", "ají", "amarillo", "rocoto", "cebolla", "culantro",
+        "choclo", "camote", "pulpo", "langostino", "conchas", "negras", "leche", "tigre", "chicharrón",
+        "calamar", "jalea", "arroz", "mariscos", "chaufa", "causa", "limeña", "tiradito", "olivo",
+        "maracuyá", "chicha", "morada", "inca", "kola", "cerveza", "pisco", "sour", "trucha", "lenguado"
+    };
+
+    @Param({ "500", "5000" })
+    private int nombres;
+
+    private IndiceBusqueda indice;
+    private Map<Long, String> porId;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        porId = new HashMap<>();
+        for (long id = 1; id <= nombres; id++) {
+            StringBuilder nombre = new StringBuilder();
+            int palabras = 1 + random.nextInt(4);
+            for (int p = 0; p < palabras; p++) {
+                String palabra = PALABRAS[random.nextInt(PALABRAS.length)];
+                nombre.append(p == 0 ? Character.toUpperCase(palabra.charAt(0)) + palabra.substring(1) : palabra).append(' ');
+            }
+            porId.put(id, nombre.append(id).toString());
+        }
+        indice = IndiceBusqueda.de(porId);
+    }
+
+    @Benchmark
+    public List<Long> recorrido() {
+        String consulta = "limon".toLowerCase(Locale.ROOT);
+        List<Long> resultado = new ArrayList<>();
+        for (Map.Entry<Long, String> nombre : porId.entrySet()) {
+            if (nombre.getValue().toLowerCase(Locale.ROOT).contains(consulta)) {
+                resultado.add(nombre.getKey());
+            }
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public List<Long> indicePrefijo() {
+        return indice.buscar("lim");
+    }
+
+    @Benchmark
+    public List<Long> indiceSinTilde() {
+        return indice.buscar("limon");
+    }
+
+    @Benchmark
+    public List<Long> indiceConError() {
+        return indice.buscar("cevihce");
+    }
+
+    @Benchmark
+    public List<Long> indiceDosPalabras() {
+        return indice.buscar("ceviche mix");
+    }
+}
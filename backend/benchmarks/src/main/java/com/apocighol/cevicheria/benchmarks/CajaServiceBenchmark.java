@@ -0,0 +1,39 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.MovimientoCaja;
+import com.apocighol.cevicheria.service.CajaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CajaService: venta registrada en la caja abierta por SembradorDatos
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CajaServiceBenchmark extends ContextoCevicheria {
+
+    private static final String[] METODOS = { "Efectivo", "Yape", "Plin", "Tarjeta" };
+
+    private CajaService cajaService;
+
+    @Override
+    protected void preparar() {
+        cajaService = bean(CajaService.class);
+    }
+
+    @Benchmark
+    public MovimientoCaja registrarVenta() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return cajaService.registrarVenta(
+            1 + random.nextInt(SembradorDatos.MESAS),
+            Dinero.deCentimos(1000 + random.nextInt(10000)),
+            METODOS[random.nextInt(METODOS.length)],
+            null, null, "benchmark");
+    }
+}
@@ -0,0 +1,77 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.CevicheriaApplication;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+
+/**
+ * ==========================================
+ * CONTEXTO SPRING PARA BENCHMARKS DE SERVICIOS
+ *
+ * Cada trial levanta la aplicación completa sobre un H2 nuevo,
+ * sembrado por SembradorDatos antes de ApplicationReadyEvent
+ * (los cachés en memoria se reconstruyen como en un arranque real).
+ *
+ * Tamaño configurable con -p:
+ * - dias: días de historial de pedidos cobrados
+ * - productos: tamaño de la carta (con receta de 3 insumos)
+ * - pedidosPorDia: pedidos por día de historial (hoy: la mitad, activos)
+ * ==========================================
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class ContextoCevicheria {
+
+    @Param({ "30" })
+    protected int dias;
+
+    @Param({ "40" })
+    protected int productos;
+
+    @Param({ "120" })
+    protected int pedidosPorDia;
+
+    protected ConfigurableApplicationContext contexto;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(CevicheriaApplication.class, SembradorDatos.class)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:bench_" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "benchmark.dias=" + dias,
+                "benchmark.productos=" + productos,
+                "benchmark.pedidos-por-dia=" + pedidosPorDia)
+            .run();
+
+        preparar();
+    }
+
+    /**
+     * Obtiene los beans que usa cada benchmark
+     */
+    protected abstract void preparar();
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        if (contexto != null) {
+            contexto.close();
+        }
+    }
+
+    protected <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+}
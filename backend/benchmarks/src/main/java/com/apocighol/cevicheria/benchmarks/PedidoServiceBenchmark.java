@@ -0,0 +1,68 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.dto.SolicitudPedido;
+import com.apocighol.cevicheria.model.Pedido;
+import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.repository.ProductoRepository;
+import com.apocighol.cevicheria.service.PedidoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PedidoService: alta de pedidos y consultas por rol (ADMIN, COCINA, MESERO)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PedidoServiceBenchmark extends ContextoCevicheria {
+
+    private PedidoService pedidoService;
+    private List<Producto> carta;
+
+    @Override
+    protected void preparar() {
+        pedidoService = bean(PedidoService.class);
+        carta = bean(ProductoRepository.class).findAll();
+    }
+
+    @Benchmark
+    public Pedido crearPedido() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return pedidoService.crearPedido(new SolicitudPedido(
+            1 + random.nextInt(SembradorDatos.MESAS),
+            SembradorDatos.MESEROS[random.nextInt(SembradorDatos.MESEROS.length)],
+            null,
+            SembradorDatos.items(carta, random)));
+    }
+
+    // ==========================================
+    // CONSULTAS POR ROL
+    // ==========================================
+
+    @Benchmark
+    public List<PedidoDetalle> admin() {
+        return pedidoService.pedidosDelDia();
+    }
+
+    @Benchmark
+    public List<PedidoDetalle> cocina() {
+        return pedidoService.pedidosActivosDelDia();
+    }
+
+    @Benchmark
+    public List<PedidoDetalle> cocinaPorEstado() {
+        return pedidoService.pedidosActivosPorEstado("LISTO");
+    }
+
+    @Benchmark
+    public List<PedidoDetalle> mesero() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return pedidoService.pedidosPorMeseroDelDia(SembradorDatos.MESEROS[random.nextInt(SembradorDatos.MESEROS.length)]);
+    }
+}
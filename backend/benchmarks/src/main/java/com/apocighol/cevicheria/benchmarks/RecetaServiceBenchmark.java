@@ -0,0 +1,40 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.dto.ProductoVendido;
+import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.repository.ProductoRepository;
+import com.apocighol.cevicheria.service.RecetaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RecetaService: descuento de insumos de un pedido de 3 líneas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecetaServiceBenchmark extends ContextoCevicheria {
+
+    private RecetaService recetaService;
+    private List<Producto> carta;
+
+    @Override
+    protected void preparar() {
+        recetaService = bean(RecetaService.class);
+        carta = bean(ProductoRepository.class).findAll();
+    }
+
+    @Benchmark
+    public Map<String, Object> descontarInsumosDePedido() {
+        List<ProductoVendido> vendidos = SembradorDatos.items(carta, ThreadLocalRandom.current()).stream()
+            .map(item -> new ProductoVendido(item.idProducto(), item.cantidad()))
+            .toList();
+        return recetaService.descontarInsumosDePedido(vendidos);
+    }
+}
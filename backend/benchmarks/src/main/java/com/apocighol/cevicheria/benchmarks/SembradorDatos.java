@@ -0,0 +1,206 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.dto.SolicitudPedido;
+import com.apocighol.cevicheria.model.DetallePedido;
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.Insumo;
+import com.apocighol.cevicheria.model.Pedido;
+import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.model.Receta;
+import com.apocighol.cevicheria.repository.InsumoRepository;
+import com.apocighol.cevicheria.repository.PedidoRepository;
+import com.apocighol.cevicheria.repository.ProductoRepository;
+import com.apocighol.cevicheria.repository.RecetaRepository;
+import com.apocighol.cevicheria.service.CajaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ==========================================
+ * DATOS SEMBRADOS PARA BENCHMARKS
+ *
+ * Corre como ApplicationRunner: antes de ApplicationReadyEvent,
+ * así TableroPedidos, AcumuladorCaja y EstadisticasService
+ * arrancan con los datos ya cargados.
+ *
+ * - Carta de N productos, cada uno con receta de 3 insumos
+ * - Historial de pedidos COBRADO de los últimos días
+ * - Pedidos activos de hoy repartidos entre meseros y mesas
+ * - Una caja abierta
+ * Semilla fija: dos corridas con los mismos -p siembran lo mismo.
+ * ==========================================
+ */
+public class SembradorDatos implements ApplicationRunner {
+
+    static final String[] MESEROS = { "Ana", "Luis", "Rosa", "Jorge", "Carmen", "Pedro" };
+    static final int MESAS = 20;
+    private static final int LINEAS_POR_PEDIDO = 3;
+    private static final int LOTE = 500;
+
+    @Value("${benchmark.dias:30}")
+    private int dias;
+
+    @Value("${benchmark.productos:40}")
+    private int cantidadProductos;
+
+    @Value("${benchmark.pedidos-por-dia:120}")
+    private int pedidosPorDia;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private CajaService cajaService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Random random = new Random(42);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Producto> carta = sembrarCarta();
+        sembrarPedidos(carta);
+        cajaService.abrirCaja(new BigDecimal("200"), "benchmark");
+    }
+
+    // ==========================================
+    // CARTA
+    // ==========================================
+
+    private List<Producto> sembrarCarta() {
+        List<Insumo> insumos = new ArrayList<>();
+        for (int i = 0; i < cantidadProductos / 2 + 5; i++) {
+            Insumo insumo = new Insumo();
+            insumo.setNombreInsumo("Insumo " + i);
+            // Suficiente para no agotarse durante la medición
+            insumo.setStockActual(new BigDecimal("1000000"));
+            insumo.setStockMinimo(BigDecimal.TEN);
+            insumo.setFechaCreacion(LocalDateTime.now());
+            insumos.add(insumo);
+        }
+        insumos = insumoRepository.saveAll(insumos);
+
+        List<Producto> carta = new ArrayList<>();
+        for (int i = 0; i < cantidadProductos; i++) {
+            Producto producto = new Producto();
+            producto.setNombreProducto("Plato " + i);
+            producto.setCategoriaProducto("Categoría " + (i % 6));
+            producto.setPrecioProducto(BigDecimal.valueOf(350 + 50L * random.nextInt(114), 2));
+            producto.setDisponibleProducto(true);
+            producto.setCreatedAtProducto(LocalDateTime.now());
+            carta.add(producto);
+        }
+        carta = productoRepository.saveAll(carta);
+
+        List<Receta> recetas = new ArrayList<>();
+        for (Producto producto : carta) {
+            int primero = random.nextInt(insumos.size());
+            for (int j = 0; j < 3; j++) {
+                Receta receta = new Receta();
+                receta.setIdProducto(producto.getIdProducto());
+                receta.setIdInsumo(insumos.get((primero + j) % insumos.size()).getIdInsumo());
+                receta.setCantidadNecesaria(BigDecimal.valueOf(50 + random.nextInt(450), 3));
+                recetas.add(receta);
+            }
+        }
+        recetaRepository.saveAll(recetas);
+        return carta;
+    }
+
+    // ==========================================
+    // PEDIDOS
+    // ==========================================
+
+    private void sembrarPedidos(List<Producto> carta) {
+        LocalDate hoy = LocalDate.now();
+        List<Pedido> lote = new ArrayList<>();
+
+        for (int d = dias; d >= 1; d--) {
+            for (int n = 0; n < pedidosPorDia; n++) {
+                lote.add(pedido(carta, hoy.minusDays(d), "HIS-" + d + "-" + n, EstadoPedido.COBRADO));
+                guardarSiLleno(lote);
+            }
+        }
+
+        EstadoPedido[] activos = EstadoPedido.ACTIVOS.toArray(new EstadoPedido[0]);
+        for (int n = 0; n < pedidosPorDia / 2; n++) {
+            lote.add(pedido(carta, hoy, "HOY-" + n, activos[n % activos.length]));
+            guardarSiLleno(lote);
+        }
+        guardar(lote);
+    }
+
+    private Pedido pedido(List<Producto> carta, LocalDate fecha, String codigo, EstadoPedido estado) {
+        Pedido pedido = new Pedido();
+        pedido.setCodigoPedido(codigo);
+        pedido.setNumeroMesa(1 + random.nextInt(MESAS));
+        pedido.setMesero(MESEROS[random.nextInt(MESEROS.length)]);
+        pedido.setFechaPedido(fecha);
+        pedido.setHoraPedido(LocalTime.of(11 + random.nextInt(6), random.nextInt(60)));
+        pedido.setEstadoPedido(estado);
+
+        for (int i = 0; i < LINEAS_POR_PEDIDO; i++) {
+            Producto producto = carta.get(random.nextInt(carta.size()));
+            DetallePedido detalle = new DetallePedido();
+            detalle.setIdProducto(producto.getIdProducto());
+            detalle.setNombreProducto(producto.getNombreProducto());
+            detalle.setCantidad(1 + random.nextInt(3));
+            detalle.setPrecioUnitario(Dinero.de(producto.getPrecioProducto()));
+            detalle.calcularSubtotal();
+            detalle.setPedido(pedido);
+            pedido.getDetalles().add(detalle);
+        }
+        pedido.recalcularTotal();
+        return pedido;
+    }
+
+    private void guardarSiLleno(List<Pedido> lote) {
+        if (lote.size() >= LOTE) {
+            guardar(lote);
+        }
+    }
+
+    private void guardar(List<Pedido> lote) {
+        transactionTemplate.executeWithoutResult(status -> pedidoRepository.saveAll(lote));
+        lote.clear();
+    }
+
+    // ==========================================
+    // ITEMS PARA LOS BENCHMARKS
+    // ==========================================
+
+    /**
+     * Items de un pedido con la misma forma que envía el frontend
+     */
+    static List<SolicitudPedido.Item> items(List<Producto> carta, Random random) {
+        List<SolicitudPedido.Item> items = new ArrayList<>(LINEAS_POR_PEDIDO);
+        for (int i = 0; i < LINEAS_POR_PEDIDO; i++) {
+            Producto producto = carta.get(random.nextInt(carta.size()));
+            items.add(new SolicitudPedido.Item(producto.getIdProducto(), producto.getNombreProducto(),
+                producto.getCategoriaProducto(), 1 + random.nextInt(3), Dinero.de(producto.getPrecioProducto())));
+        }
+        return items;
+    }
+}
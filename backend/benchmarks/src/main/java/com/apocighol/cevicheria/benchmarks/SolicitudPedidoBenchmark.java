@@ -0,0 +1,105 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.dto.SolicitudPedido;
+import com.apocighol.cevicheria.model.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ==========================================
+ * CUERPO DE POST /api/pedidos: Map vs SolicitudPedido
+ *
+ * Mismos bytes JSON (forma del frontend) leídos de dos maneras,
+ * hasta tener el total del pedido:
+ *
+ * - mapa: Map<String, Object> + item.get(...).toString() → Integer.valueOf / Dinero.de
+ *   (como hacía PedidoController antes)
+ * - solicitud: Jackson llena el record directo (int, Dinero) y se suma
+ *
+ * Con -prof gc se ve la diferencia en bytes asignados por pedido.
+ * ==========================================
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolicitudPedidoBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {};
+
+    @Param({ "3", "8", "20" })
+    private int lineas;
+
+    // Igual que Spring Boot: se ignoran campos que el backend no usa (subtotal)
+    private final JsonMapper mapper = JsonMapper.builder()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
+    private byte[] cuerpo;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"mesa\":7,\"mesero\":\"Rosa\",\"nota\":\"sin ají\",\"productos\":[");
+        for (int i = 0; i < lineas; i++) {
+            long centimos = 350 + 50L * random.nextInt(114);
+            int cantidad = 1 + random.nextInt(4);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"nombre\":\"Ceviche ").append(i)
+                .append("\",\"categoria\":\"Ceviches\",\"cantidad\":").append(cantidad)
+                .append(",\"precioUnitario\":").append(Dinero.deCentimos(centimos))
+                .append(",\"subtotal\":").append(Dinero.deCentimos(centimos * cantidad))
+                .append('}');
+        }
+        cuerpo = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Dinero mapa() {
+        Map<String, Object> datos = mapper.readValue(cuerpo, MAPA);
+        Integer.valueOf(datos.get("mesa").toString());
+        List<Map<String, Object>> productos = (List<Map<String, Object>>) datos.get("productos");
+
+        long total = 0;
+        for (Map<String, Object> item : productos) {
+            Integer cantidad = Integer.valueOf(item.get("cantidad").toString());
+            Dinero precio = Dinero.de(item.get("precioUnitario").toString());
+            total += precio.por(cantidad).centimos();
+        }
+        return Dinero.deCentimos(total);
+    }
+
+    @Benchmark
+    public Dinero solicitud() {
+        SolicitudPedido solicitud = mapper.readValue(cuerpo, SolicitudPedido.class);
+
+        long total = 0;
+        for (SolicitudPedido.Item item : solicitud.productos()) {
+            total += item.precioUnitario().centimos() * item.cantidad();
+        }
+        return Dinero.deCentimos(total);
+    }
+}
@@ -0,0 +1,105 @@
+package com.apocighol.cevicheria.benchmarks;
+
+import com.apocighol.cevicheria.model.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ==========================================
+ * TOTAL DE UN PEDIDO: BigDecimal vs Dinero
+ *
+ * Reproduce el bucle de PedidoService.crearPedido:
+ * por cada línea precio × cantidad y suma al total.
+ *
+ * - desdeTexto*: incluye leer el precio del JSON (item.get("precioUnitario").toString())
+ * - desdeMontos*: solo la aritmética, con precios ya leídos
+ *
+ * Con -prof gc se ve la diferencia en bytes asignados por operación.
+ * ==========================================
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalesPedidoBenchmark {
+
+    @Param({ "3", "8", "20" })
+    private int lineas;
+
+    private String[] preciosTexto;
+    private BigDecimal[] preciosBigDecimal;
+    private Dinero[] preciosDinero;
+    private int[] cantidades;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        preciosTexto = new String[lineas];
+        preciosBigDecimal = new BigDecimal[lineas];
+        preciosDinero = new Dinero[lineas];
+        cantidades = new int[lineas];
+
+        for (int i = 0; i < lineas; i++) {
+            // Precios de carta: entre S/ 3.50 y S/ 60.00, en múltiplos de 0.50
+            long centimos = 350 + 50L * random.nextInt(114);
+            preciosTexto[i] = BigDecimal.valueOf(centimos, 2).toPlainString();
+            preciosBigDecimal[i] = new BigDecimal(preciosTexto[i]);
+            preciosDinero[i] = Dinero.deCentimos(centimos);
+            cantidades[i] = 1 + random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal desdeTextoBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lineas; i++) {
+            BigDecimal precio = new BigDecimal(preciosTexto[i]);
+            BigDecimal subtotal = precio.multiply(BigDecimal.valueOf(cantidades[i]));
+            total = total.add(subtotal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Dinero desdeTextoDinero() {
+        long total = 0;
+        for (int i = 0; i < lineas; i++) {
+            Dinero precio = Dinero.de(preciosTexto[i]);
+            total += precio.centimos() * cantidades[i];
+        }
+        return Dinero.deCentimos(total);
+    }
+
+    @Benchmark
+    public BigDecimal desdeMontosBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lineas; i++) {
+            total = total.add(preciosBigDecimal[i].multiply(BigDecimal.valueOf(cantidades[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Dinero desdeMontosDinero() {
+        long total = 0;
+        for (int i = 0; i < lineas; i++) {
+            total += preciosDinero[i].centimos() * cantidades[i];
+        }
+        return Dinero.deCentimos(total);
+    }
+}
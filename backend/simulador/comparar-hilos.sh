@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# ==========================================
+# HILOS DE PLATAFORMA vs HILOS VIRTUALES bajo la hora punta
+#
+# Levanta el backend dos veces sobre H2 en memoria (mismo código, misma
+# carga): primero con el pool de Tomcat y luego con -Philos-virtuales.
+# Deja un reporte JSON por modo en target/ y la traza de hilos fijados
+# (jdk.tracePinnedThreads) en target/backend-virtual.log.
+#
+# Requiere JAVA_HOME con JDK 21. Uso (desde backend/simulador):
+#   ./comparar-hilos.sh
+#   ./comparar-hilos.sh --mesas=1500 --meseros=150 --pantallas=20 --minutos=60 --minuto-ms=250
+# ==========================================
+set -euo pipefail
+
+cd "$(dirname "$0")"
+mkdir -p target
+
+if [ "$(nproc)" -lt 2 ]; then
+    echo "⚠️ Solo $(nproc) CPU: backend y simulador compiten por ella y los hilos virtuales" \
+         "corren en un único portador; los números no representan al servidor real" >&2
+fi
+
+ARGS="${*:---mesas=800 --meseros=80 --pantallas=12 --minutos=60 --minuto-ms=250 --sondeo-ms=1000}"
+H2="--spring.datasource.url=jdbc:h2:mem:cevicheria_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1 \
+--spring.datasource.username=sa --spring.datasource.password= --spring.datasource.driver-class-name=org.h2.Driver \
+--spring.jpa.hibernate.ddl-auto=create-drop --spring.jpa.show-sql=false"
+
+detener_backend() {
+    pkill -f "com.apocighol.cevicheria.CevicheriaApplication" || true
+    sleep 3
+}
+trap detener_backend EXIT
+
+correr() {
+    local modo=$1
+    shift
+
+    if curl -s -o /dev/null localhost:8085; then
+        echo "❌ El puerto 8085 ya está en uso: detenga el backend antes de comparar" >&2
+        exit 1
+    fi
+
+    echo "🚀 Backend con hilos $modo"
+    (cd .. && mvn -B -q spring-boot:run "$@" -Dspring-boot.run.useTestClasspath=true \
+        -Dspring-boot.run.arguments="$H2" > "simulador/target/backend-$modo.log" 2>&1 &)
+
+    for _ in $(seq 1 90); do
+        curl -s -o /dev/null localhost:8085/api/caja/estado && break
+        sleep 2
+    done
+
+    mvn -B -q compile exec:java -Dexec.args="$ARGS --json=target/hilos-$modo.json"
+    detener_backend
+}
+
+correr plataforma
+correr virtual -Philos-virtuales
+
+echo
+echo "📊 Reportes: target/hilos-plataforma.json y target/hilos-virtual.json"
+grep -c "VirtualThread" target/backend-virtual.log | xargs -I{} echo "📌 Líneas de hilos fijados en la traza: {}"
@@ -0,0 +1,85 @@
+package com.apocighol.cevicheria.simulador;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * ==========================================
+ * CLIENTE HTTP DE LA API (medido)
+ *
+ * Un solo HttpClient compartido por todos los hilos virtuales.
+ * Cada llamada registra su latencia en Metricas bajo la plantilla
+ * del endpoint; un status >= 400 o una excepción cuentan como error
+ * y devuelven null (la mesa simulada decide cómo seguir).
+ * ==========================================
+ */
+public class ClienteApi {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String url;
+    private final Metricas metricas;
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final HttpClient http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+
+    public ClienteApi(String url, Metricas metricas) {
+        this.url = url;
+        this.metricas = metricas;
+    }
+
+    public JsonNode get(String plantilla, String ruta) {
+        return enviar("GET", plantilla, ruta, null);
+    }
+
+    public JsonNode post(String plantilla, String ruta, Object cuerpo) {
+        return enviar("POST", plantilla, ruta, cuerpo);
+    }
+
+    public JsonNode put(String plantilla, String ruta, Object cuerpo) {
+        return enviar("PUT", plantilla, ruta, cuerpo);
+    }
+
+    private JsonNode enviar(String metodo, String plantilla, String ruta, Object cuerpo) {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(url + ruta))
+            .timeout(TIMEOUT)
+            .header("Accept", "application/json");
+        if (cuerpo != null) {
+            peticion.header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(cuerpo)));
+        } else {
+            peticion.method(metodo, HttpRequest.BodyPublishers.noBody());
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> respuesta = http.send(peticion.build(), HttpResponse.BodyHandlers.ofString());
+            boolean error = respuesta.statusCode() >= 400;
+            metricas.registrar(metodo + " " + plantilla, (System.nanoTime() - inicio) / 1000, error);
+            if (error || respuesta.body().isEmpty()) {
+                return null;
+            }
+            return mapper.readTree(respuesta.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            metricas.registrar(metodo + " " + plantilla, (System.nanoTime() - inicio) / 1000, true);
+            return null;
+        }
+    }
+
+    public String aJson(Object valor) {
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(valor);
+    }
+}
@@ -0,0 +1,63 @@
+package com.apocighol.cevicheria.simulador;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ==========================================
+ * PARÁMETROS DE LA SIMULACIÓN (--clave=valor)
+ *
+ * --url         API del backend (http://localhost:8085)
+ * --mesas       mesas simuladas, cada una en su hilo virtual (40)
+ * --meseros     meseros que atienden las mesas (8)
+ * --pantallas   pantallas de cocina haciendo polling (3)
+ * --minutos     duración de la hora punta en minutos simulados (120 = 12:30–14:30)
+ * --minuto-ms   cuánto dura un minuto simulado en ms reales (1000)
+ * --sondeo-ms   intervalo real de polling de las pantallas de cocina (2000)
+ * --json        archivo donde guardar el reporte (opcional)
+ * ==========================================
+ */
+public record Configuracion(String url, int mesas, int meseros, int pantallas,
+                            int minutos, long minutoMs, long sondeoMs, String json) {
+
+    public static Configuracion desde(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --clave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+
+        Configuracion configuracion = new Configuracion(
+            valores.getOrDefault("url", "http://localhost:8085"),
+            entero(valores, "mesas", 40),
+            entero(valores, "meseros", 8),
+            entero(valores, "pantallas", 3),
+            entero(valores, "minutos", 120),
+            entero(valores, "minuto-ms", 1000),
+            entero(valores, "sondeo-ms", 2000),
+            valores.get("json"));
+
+        valores.keySet().removeAll(
+            List.of("url", "mesas", "meseros", "pantallas", "minutos", "minuto-ms", "sondeo-ms", "json"));
+        if (!valores.isEmpty()) {
+            throw new IllegalArgumentException("Opciones desconocidas: " + valores.keySet());
+        }
+        if (configuracion.mesas < 1 || configuracion.meseros < 1 || configuracion.pantallas < 1) {
+            throw new IllegalArgumentException("mesas, meseros y pantallas deben ser al menos 1");
+        }
+        return configuracion;
+    }
+
+    private static int entero(Map<String, String> valores, String clave, int porDefecto) {
+        String valor = valores.get(clave);
+        return valor != null ? Integer.parseInt(valor) : porDefecto;
+    }
+
+    public String mesero(int numeroMesa) {
+        return "Mesero " + (1 + (numeroMesa - 1) % meseros);
+    }
+}
@@ -0,0 +1,157 @@
+package com.apocighol.cevicheria.simulador;
+
+import tools.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ==========================================
+ * UNA MESA DURANTE LA HORA PUNTA (hilo virtual)
+ *
+ * Ciclo repetido mientras el local está abierto:
+ * ocupar → pedir (1 o 2 rondas) → esperar que cocina sirva →
+ * comer → pagar en caja → cobrar pedidos → liberar → siguiente grupo.
+ *
+ * Mientras espera, el mesero consulta los pendientes de la mesa
+ * cada minuto simulado (como la app del mesero).
+ * ==========================================
+ */
+public class MesaSimulada implements Runnable {
+
+    private static final String[] METODOS_PAGO = { "Efectivo", "Efectivo", "Yape", "Plin", "Tarjeta" };
+    private static final int MAX_ESPERA_MINUTOS = 60;
+
+    private final int numero;
+    private final String mesero;
+    private final ClienteApi api;
+    private final Reloj reloj;
+    private final List<JsonNode> carta;
+
+    private int grupos = 0;
+
+    public MesaSimulada(int numero, String mesero, ClienteApi api, Reloj reloj, List<JsonNode> carta) {
+        this.numero = numero;
+        this.mesero = mesero;
+        this.api = api;
+        this.reloj = reloj;
+        this.carta = carta;
+    }
+
+    public int grupos() {
+        return grupos;
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Las mesas no se llenan todas a las 12:30 en punto
+            reloj.esperar(0, 15);
+            while (reloj.abierto()) {
+                atenderGrupo();
+                reloj.esperar(1, 3);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void atenderGrupo() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        Map<String, Object> ocupacion = new HashMap<>();
+        ocupacion.put("personas", 1 + random.nextInt(6));
+        ocupacion.put("mesero", mesero);
+        if (api.put("/api/mesas/{n}/ocupar", "/api/mesas/" + numero + "/ocupar", ocupacion) == null) {
+            return;
+        }
+        grupos++;
+
+        // Leer la carta y pedir; a veces una segunda ronda (bebidas, postre)
+        reloj.esperar(2, 5);
+        long totalCentimos = pedir(random);
+        if (random.nextInt(100) < 30) {
+            reloj.esperar(8, 15);
+            totalCentimos += pedir(random);
+        }
+
+        esperarServido();
+        reloj.esperar(15, 30);
+
+        if (totalCentimos > 0) {
+            pagar(totalCentimos, random);
+            api.put("/api/pedidos/mesa/{n}/cobrar", "/api/pedidos/mesa/" + numero + "/cobrar", Map.of());
+        }
+        api.put("/api/mesas/{n}/liberar", "/api/mesas/" + numero + "/liberar", Map.of());
+    }
+
+    /**
+     * Envía un pedido de 1 a 4 platos; devuelve su total en céntimos (0 si falló)
+     */
+    private long pedir(ThreadLocalRandom random) {
+        List<Map<String, Object>> productos = new ArrayList<>();
+        int platos = 1 + random.nextInt(4);
+        for (int i = 0; i < platos; i++) {
+            JsonNode producto = carta.get(random.nextInt(carta.size()));
+            Map<String, Object> item = new HashMap<>();
+            item.put("idProducto", producto.get("idProducto").asLong());
+            item.put("nombre", producto.get("nombreProducto").asString());
+            item.put("categoria", producto.path("categoriaProducto").asString(null));
+            item.put("cantidad", 1 + random.nextInt(2));
+            item.put("precioUnitario", producto.get("precioProducto").decimalValue());
+            productos.add(item);
+        }
+
+        Map<String, Object> pedido = new HashMap<>();
+        pedido.put("mesa", numero);
+        pedido.put("mesero", mesero);
+        pedido.put("productos", productos);
+
+        JsonNode respuesta = api.post("/api/pedidos", "/api/pedidos", pedido);
+        if (respuesta == null) {
+            return 0;
+        }
+        return respuesta.get("total").decimalValue().movePointRight(2).longValue();
+    }
+
+    private void esperarServido() throws InterruptedException {
+        double limite = reloj.minutoActual() + MAX_ESPERA_MINUTOS;
+        while (reloj.minutoActual() < limite) {
+            reloj.esperar(1, 1);
+            JsonNode pendientes = api.get("/api/pedidos/mesa/{n}/pendientes", "/api/pedidos/mesa/" + numero + "/pendientes");
+            if (pendientes != null && todosServidos(pendientes)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean todosServidos(JsonNode pedidos) {
+        for (JsonNode pedido : pedidos) {
+            if (!"SERVIDO".equals(pedido.path("estadoPedido").asString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void pagar(long totalCentimos, ThreadLocalRandom random) {
+        String metodo = METODOS_PAGO[random.nextInt(METODOS_PAGO.length)];
+
+        Map<String, Object> venta = new HashMap<>();
+        venta.put("numeroMesa", numero);
+        venta.put("monto", BigDecimal.valueOf(totalCentimos, 2));
+        venta.put("metodoPago", metodo);
+        venta.put("registradoPor", mesero);
+        if ("Efectivo".equals(metodo)) {
+            // Paga con el siguiente múltiplo de S/ 10
+            long recibido = (totalCentimos / 1000 + 1) * 1000;
+            venta.put("montoRecibido", BigDecimal.valueOf(recibido, 2));
+            venta.put("vuelto", BigDecimal.valueOf(recibido - totalCentimos, 2));
+        }
+        api.post("/api/caja/venta", "/api/caja/venta", venta);
+    }
+}
@@ -0,0 +1,105 @@
+package com.apocighol.cevicheria.simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ==========================================
+ * LATENCIAS Y ERRORES POR ENDPOINT
+ *
+ * Guarda cada muestra (en µs) para calcular percentiles exactos al final:
+ * un millón de peticiones ocupan ~8 MB.
+ * La clave es la plantilla ("PUT /api/pedidos/{id}/estado"), no la URL.
+ * ==========================================
+ */
+public class Metricas {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void registrar(String plantilla, long micros, boolean error) {
+        endpoints.computeIfAbsent(plantilla, k -> new Endpoint()).registrar(micros, error);
+    }
+
+    public void reiniciar() {
+        endpoints.clear();
+    }
+
+    public long totalPeticiones() {
+        return endpoints.values().stream().mapToLong(e -> e.peticiones.sum()).sum();
+    }
+
+    public long totalErrores() {
+        return endpoints.values().stream().mapToLong(e -> e.errores.sum()).sum();
+    }
+
+    /**
+     * Resumen por endpoint, ordenado por plantilla
+     */
+    public List<Map<String, Object>> resumen(double segundos) {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entrada : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint endpoint = entrada.getValue();
+            long[] muestras = endpoint.ordenadas();
+            long peticiones = endpoint.peticiones.sum();
+            long errores = endpoint.errores.sum();
+
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("endpoint", entrada.getKey());
+            fila.put("peticiones", peticiones);
+            fila.put("porSegundo", redondear(peticiones / segundos));
+            fila.put("errores", errores);
+            fila.put("tasaError", peticiones > 0 ? redondear(100.0 * errores / peticiones) : 0.0);
+            fila.put("p50ms", percentil(muestras, 50));
+            fila.put("p95ms", percentil(muestras, 95));
+            fila.put("p99ms", percentil(muestras, 99));
+            fila.put("maxms", muestras.length > 0 ? redondear(muestras[muestras.length - 1] / 1000.0) : 0.0);
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0.0;
+        }
+        int rango = (int) Math.ceil(p / 100.0 * ordenadas.length);
+        return redondear(ordenadas[Math.max(rango, 1) - 1] / 1000.0);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+
+    private static final class Endpoint {
+
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private long[] muestras = new long[1024];
+        private int cantidad = 0;
+
+        void registrar(long micros, boolean error) {
+            peticiones.increment();
+            if (error) {
+                errores.increment();
+            }
+            synchronized (this) {
+                if (cantidad == muestras.length) {
+                    muestras = Arrays.copyOf(muestras, cantidad * 2);
+                }
+                muestras[cantidad++] = micros;
+            }
+        }
+
+        synchronized long[] ordenadas() {
+            long[] copia = Arrays.copyOf(muestras, cantidad);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+}
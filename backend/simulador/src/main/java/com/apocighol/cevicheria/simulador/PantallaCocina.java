@@ -0,0 +1,105 @@
+package com.apocighol.cevicheria.simulador;
+
+import tools.jackson.databind.JsonNode;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ==========================================
+ * PANTALLA DE COCINA (hilo virtual)
+ *
+ * Hace polling de GET /api/pedidos/cocina cada sondeoMs reales
+ * y avanza los pedidos que le tocan (idPedido % pantallas):
+ * PENDIENTE → PREPARANDO (0–1 min) → LISTO (5–12 min) → SERVIDO (1–2 min)
+ * Los tiempos son minutos simulados.
+ * ==========================================
+ */
+public class PantallaCocina implements Runnable {
+
+    private final int indice;
+    private final int pantallas;
+    private final long sondeoMs;
+    private final ClienteApi api;
+    private final Reloj reloj;
+    private final BooleanSupplier terminado;
+
+    /** idPedido → (estado observado, minuto simulado en que avanza) */
+    private final Map<Long, Plan> planes = new HashMap<>();
+
+    private record Plan(String estado, double minuto) {
+    }
+
+    public PantallaCocina(int indice, int pantallas, long sondeoMs, ClienteApi api, Reloj reloj, BooleanSupplier terminado) {
+        this.indice = indice;
+        this.pantallas = pantallas;
+        this.sondeoMs = sondeoMs;
+        this.api = api;
+        this.reloj = reloj;
+        this.terminado = terminado;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!terminado.getAsBoolean()) {
+                JsonNode pedidos = api.get("/api/pedidos/cocina", "/api/pedidos/cocina");
+                if (pedidos != null) {
+                    avanzar(pedidos);
+                }
+                Thread.sleep(sondeoMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void avanzar(JsonNode pedidos) {
+        double ahora = reloj.minutoActual();
+        Set<Long> vistos = new HashSet<>();
+
+        for (JsonNode pedido : pedidos) {
+            long id = pedido.get("idPedido").asLong();
+            if (id % pantallas != indice) {
+                continue;
+            }
+            vistos.add(id);
+
+            String estado = pedido.path("estadoPedido").asString();
+            String siguiente = siguiente(estado);
+            if (siguiente == null) {
+                continue;
+            }
+
+            Plan plan = planes.get(id);
+            if (plan == null || !plan.estado().equals(estado)) {
+                planes.put(id, new Plan(estado, ahora + demora(estado)));
+            } else if (ahora >= plan.minuto()) {
+                api.put("/api/pedidos/{id}/estado", "/api/pedidos/" + id + "/estado", Map.of("estado", siguiente));
+            }
+        }
+        planes.keySet().retainAll(vistos);
+    }
+
+    private static String siguiente(String estado) {
+        return switch (estado) {
+            case "PENDIENTE" -> "PREPARANDO";
+            case "PREPARANDO" -> "LISTO";
+            case "LISTO" -> "SERVIDO";
+            default -> null;
+        };
+    }
+
+    private static double demora(String estado) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (estado) {
+            case "PENDIENTE" -> random.nextDouble();
+            case "PREPARANDO" -> 5 + random.nextDouble() * 7;
+            default -> 1 + random.nextDouble();
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.apocighol.cevicheria.simulador;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tiempo simulado: un minuto de la hora punta dura minutoMs reales.
+ */
+public class Reloj {
+
+    private final long minutoMs;
+    private final long inicio = System.nanoTime();
+    private final long fin;
+
+    public Reloj(long minutoMs, int minutos) {
+        this.minutoMs = minutoMs;
+        this.fin = inicio + minutos * minutoMs * 1_000_000L;
+    }
+
+    /** Aún dentro de la hora punta (se aceptan clientes nuevos) */
+    public boolean abierto() {
+        return System.nanoTime() < fin;
+    }
+
+    /** Minutos simulados desde el inicio */
+    public double minutoActual() {
+        return (System.nanoTime() - inicio) / (minutoMs * 1_000_000.0);
+    }
+
+    /** Espera entre min y max minutos simulados */
+    public void esperar(double min, double max) throws InterruptedException {
+        double minutos = min + ThreadLocalRandom.current().nextDouble() * (max - min);
+        Thread.sleep((long) (minutos * minutoMs));
+    }
+}
@@ -0,0 +1,193 @@
+package com.apocighol.cevicheria.simulador;
+
+import tools.jackson.databind.JsonNode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ==========================================
+ * SIMULADOR DE HORA PUNTA (12:30 – 14:30)
+ *
+ * Maneja la API REST real con:
+ * - una mesa por hilo virtual (ocupar, pedir, cobrar, liberar)
+ * - N pantallas de cocina haciendo polling y avanzando estados
+ *
+ * Antes de empezar deja el backend listo: carta con productos,
+ * mesas 1..N creadas y libres, y una caja abierta.
+ * Al final imprime p50/p95/p99 y tasa de error por endpoint.
+ *
+ * Ejemplo (300 mesas, 2 h simuladas en 1 minuto real):
+ *   mvn -B compile exec:java -Dexec.args="--mesas=300 --meseros=40 --pantallas=6 --minuto-ms=500 --json=target/hora-punta.json"
+ * ==========================================
+ */
+public class SimuladorHoraPunta {
+
+    public static void main(String[] args) throws Exception {
+        Configuracion configuracion = Configuracion.desde(args);
+        Map<String, Object> reporte = new SimuladorHoraPunta(configuracion).ejecutar();
+
+        if (configuracion.json() != null) {
+            Path archivo = Path.of(configuracion.json());
+            if (archivo.getParent() != null) {
+                Files.createDirectories(archivo.getParent());
+            }
+            Files.writeString(archivo, new ClienteApi(configuracion.url(), new Metricas()).aJson(reporte));
+            System.out.println("💾 Reporte guardado en " + archivo);
+        }
+    }
+
+    private final Configuracion configuracion;
+    private final Metricas metricas = new Metricas();
+    private final ClienteApi api;
+
+    public SimuladorHoraPunta(Configuracion configuracion) {
+        this.configuracion = configuracion;
+        this.api = new ClienteApi(configuracion.url(), metricas);
+    }
+
+    public Map<String, Object> ejecutar() throws InterruptedException {
+        List<JsonNode> carta = prepararCarta();
+        prepararMesas();
+        prepararCaja();
+        metricas.reiniciar();
+
+        System.out.println("🍽️ Hora punta: " + configuracion.mesas() + " mesas, " + configuracion.meseros() + " meseros, "
+            + configuracion.pantallas() + " pantallas de cocina, " + configuracion.minutos() + " min simulados ("
+            + configuracion.minutoMs() + " ms por minuto)");
+
+        Reloj reloj = new Reloj(configuracion.minutoMs(), configuracion.minutos());
+        AtomicBoolean mesasTerminadas = new AtomicBoolean(false);
+        long inicio = System.nanoTime();
+
+        List<MesaSimulada> mesas = new ArrayList<>();
+        try (ExecutorService cocina = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < configuracion.pantallas(); i++) {
+                cocina.submit(new PantallaCocina(i, configuracion.pantallas(), configuracion.sondeoMs(),
+                    api, reloj, mesasTerminadas::get));
+            }
+            Thread progreso = Thread.ofVirtual().start(() -> mostrarProgreso(reloj, mesasTerminadas));
+
+            // Las mesas terminan el grupo en curso aunque la hora punta ya haya acabado
+            try (ExecutorService salon = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int numero = 1; numero <= configuracion.mesas(); numero++) {
+                    MesaSimulada mesa = new MesaSimulada(numero, configuracion.mesero(numero), api, reloj, carta);
+                    mesas.add(mesa);
+                    salon.submit(mesa);
+                }
+            }
+            mesasTerminadas.set(true);
+            progreso.interrupt();
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        return reportar(segundos, mesas.stream().mapToInt(MesaSimulada::grupos).sum());
+    }
+
+    // ==========================================
+    // PREPARACIÓN
+    // ==========================================
+
+    private List<JsonNode> prepararCarta() {
+        JsonNode disponibles = api.get("/api/productos/disponibles", "/api/productos/disponibles");
+        if (disponibles == null) {
+            throw new IllegalStateException("No se pudo leer la carta en " + configuracion.url() + " (¿backend levantado?)");
+        }
+
+        List<JsonNode> carta = new ArrayList<>();
+        disponibles.forEach(carta::add);
+        if (carta.isEmpty()) {
+            String[] platos = { "Ceviche clásico", "Ceviche mixto", "Leche de tigre", "Chicharrón de pescado",
+                "Arroz con mariscos", "Jalea", "Causa limeña", "Tiradito", "Chicha morada", "Inca Kola" };
+            for (int i = 0; i < platos.length; i++) {
+                Map<String, Object> producto = new LinkedHashMap<>();
+                producto.put("nombreProducto", platos[i]);
+                producto.put("precioProducto", 8 + i * 3.5);
+                producto.put("categoriaProducto", i < 8 ? "Platos" : "Bebidas");
+                JsonNode creado = api.post("/api/productos", "/api/productos", producto);
+                if (creado != null) {
+                    carta.add(creado);
+                }
+            }
+            System.out.println("📋 Carta vacía: se crearon " + carta.size() + " productos de prueba");
+        }
+        if (carta.isEmpty()) {
+            throw new IllegalStateException("No hay productos disponibles para pedir");
+        }
+        return carta;
+    }
+
+    private void prepararMesas() {
+        Set<Integer> existentes = new HashSet<>();
+        JsonNode mesas = api.get("/api/mesas", "/api/mesas");
+        if (mesas != null) {
+            mesas.forEach(m -> existentes.add(m.get("numeroMesa").asInt()));
+        }
+
+        for (int numero = 1; numero <= configuracion.mesas(); numero++) {
+            if (!existentes.contains(numero)) {
+                api.post("/api/mesas", "/api/mesas", Map.of("numeroMesa", numero, "capacidadMesa", 4));
+            } else {
+                // Restos de una corrida anterior
+                api.put("/api/mesas/{n}/liberar", "/api/mesas/" + numero + "/liberar", Map.of());
+            }
+        }
+    }
+
+    private void prepararCaja() {
+        JsonNode estado = api.get("/api/caja/estado", "/api/caja/estado");
+        if (estado == null || !estado.path("cajaAbierta").asBoolean()) {
+            api.post("/api/caja/abrir", "/api/caja/abrir", Map.of("montoInicial", 200, "responsable", "simulador"));
+        }
+    }
+
+    // ==========================================
+    // REPORTE
+    // ==========================================
+
+    private void mostrarProgreso(Reloj reloj, AtomicBoolean terminado) {
+        try {
+            while (!terminado.get()) {
+                Thread.sleep(10_000);
+                System.out.printf("⏱️ minuto %.0f | %d peticiones | %d errores%n",
+                    reloj.minutoActual(), metricas.totalPeticiones(), metricas.totalErrores());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> reportar(double segundos, int grupos) {
+        List<Map<String, Object>> filas = metricas.resumen(segundos);
+
+        System.out.println();
+        System.out.printf("✅ %d grupos atendidos en %.1f s | %d peticiones (%.1f req/s) | %d errores%n",
+            grupos, segundos, metricas.totalPeticiones(), metricas.totalPeticiones() / segundos, metricas.totalErrores());
+        System.out.printf("%-38s %9s %8s %7s %9s %9s %9s %9s%n",
+            "ENDPOINT", "PETIC.", "REQ/S", "ERR%", "P50 ms", "P95 ms", "P99 ms", "MAX ms");
+        for (Map<String, Object> fila : filas) {
+            System.out.printf("%-38s %9d %8.1f %7.2f %9.2f %9.2f %9.2f %9.2f%n",
+                fila.get("endpoint"), fila.get("peticiones"), fila.get("porSegundo"), fila.get("tasaError"),
+                fila.get("p50ms"), fila.get("p95ms"), fila.get("p99ms"), fila.get("maxms"));
+        }
+
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("configuracion", configuracion);
+        reporte.put("segundos", Math.round(segundos * 10) / 10.0);
+        reporte.put("grupos", grupos);
+        reporte.put("peticiones", metricas.totalPeticiones());
+        reporte.put("porSegundo", Math.round(metricas.totalPeticiones() / segundos * 10) / 10.0);
+        reporte.put("errores", metricas.totalErrores());
+        reporte.put("endpoints", filas);
+        return reporte;
+    }
+}
@@ -0,0 +1,15 @@
+package com.apocighol.cevicheria.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita @Async (listeners que no deben bloquear el hilo del request)
+ * y @Scheduled (tareas periódicas). Usa los executors que autoconfigura Spring Boot.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
@@ -16,6 +16,9 @@ public class CorsConfig {
         config.addAllowedOriginPattern("*");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        // Paginación keyset: el navegador solo deja leer las cabeceras expuestas
+        config.addExposedHeader("X-Siguiente-Cursor");
+        config.addExposedHeader("Link");
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
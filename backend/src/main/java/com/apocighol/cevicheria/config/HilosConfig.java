@@ -0,0 +1,39 @@
+package com.apocighol.cevicheria.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Informa al arrancar con qué hilos atiende la aplicación.
+ *
+ * Con el perfil "virtual" (application-virtual.properties) Spring Boot usa
+ * hilos virtuales en Tomcat, @Async y @Scheduled, pero solo desde Java 21:
+ * en Java 17 la propiedad se ignora y se avisa aquí.
+ */
+@Slf4j
+@Component
+public class HilosConfig {
+
+    @Autowired
+    private Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void informarModo() {
+        boolean pedidos = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("🧵 Hilos virtuales: requests, @Async y @Scheduled | pool BD: {} conexiones",
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", "10"));
+        } else if (pedidos) {
+            log.warn("⚠️ spring.threads.virtual.enabled=true pero Java {} no tiene hilos virtuales (requiere 21+): se usan hilos de plataforma",
+                Runtime.version().feature());
+        } else {
+            log.info("🧵 Hilos de plataforma (pool de Tomcat)");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.apocighol.cevicheria.controller;
+
+import com.apocighol.cevicheria.model.EventoAuditoria;
+import com.apocighol.cevicheria.service.RegistroAuditoria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST de consulta de la auditoría (solo lectura)
+ * Base URL: /api/auditoria
+ */
+@RestController
+@RequestMapping("/api/auditoria")
+@CrossOrigin(origins = "*")
+public class AuditoriaController {
+
+    private static final int LIMITE_MAXIMO = 500;
+
+    @Autowired
+    private RegistroAuditoria registroAuditoria;
+
+    /**
+     * GET /api/auditoria?tipo=PEDIDO_ANULADO&desde=2025-01-01&hasta=2025-01-31&limite=100
+     * Últimos eventos (por defecto los de hoy, de todos los tipos)
+     */
+    @GetMapping
+    public ResponseEntity<?> buscar(
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "100") int limite) {
+        try {
+            LocalDate hoy = LocalDate.now();
+            List<EventoAuditoria> eventos = registroAuditoria.buscar(tipo,
+                desde != null ? desde : hoy,
+                hasta != null ? hasta : hoy,
+                Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+            return ResponseEntity.ok(eventos);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Tipo de evento no válido: " + tipo);
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * GET /api/auditoria/{entidad}/{id}
+     * Historial de una entidad (ej. /api/auditoria/pedido/15)
+     */
+    @GetMapping("/{entidad}/{id}")
+    public ResponseEntity<List<EventoAuditoria>> historial(@PathVariable String entidad, @PathVariable Long id) {
+        return ResponseEntity.ok(registroAuditoria.historial(entidad, id));
+    }
+}
@@ -1,7 +1,10 @@
 package com.apocighol.cevicheria.controller;
 
+import com.apocighol.cevicheria.dto.SolicitudVenta;
 import com.apocighol.cevicheria.model.Caja;
+import com.apocighol.cevicheria.model.Dinero;
 import com.apocighol.cevicheria.model.MovimientoCaja;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.service.CajaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +24,9 @@ public class CajaController {
     @Autowired
     private CajaService cajaService;
 
+    @Autowired
+    private RespuestaPaginada respuestaPaginada;
+
     @GetMapping("/estado")
     public ResponseEntity<Map<String, Object>> verificarEstado() {
         Map<String, Object> response = new HashMap<>();
@@ -52,12 +58,6 @@ public class CajaController {
     @PostMapping("/abrir")
     public ResponseEntity<?> abrirCaja(@RequestBody Map<String, Object> datos) {
         try {
-            if (cajaService.hayCajaAbierta()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Ya existe una caja abierta");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
             BigDecimal montoInicial = BigDecimal.ZERO;
             if (datos.containsKey("montoInicial")) {
                 montoInicial = new BigDecimal(datos.get("montoInicial").toString());
@@ -87,7 +87,7 @@ public class CajaController {
     public ResponseEntity<?> registrarGasto(@RequestBody Map<String, Object> datos) {
         try {
             String concepto = (String) datos.get("concepto");
-            BigDecimal monto = new BigDecimal(datos.get("monto").toString());
+            Dinero monto = Dinero.de(datos.get("monto").toString());
             String registradoPor = (String) datos.get("registradoPor");
 
             if (concepto == null || concepto.trim().isEmpty()) {
@@ -96,7 +96,7 @@ public class CajaController {
                 return ResponseEntity.badRequest().body(error);
             }
 
-            if (monto.compareTo(BigDecimal.ZERO) <= 0) {
+            if (monto.esNegativo() || monto.esCero()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "El monto debe ser mayor a 0");
                 return ResponseEntity.badRequest().body(error);
@@ -121,31 +121,16 @@ public class CajaController {
         }
     }
 
+    /**
+     * POST /api/caja/venta
+     * El cuerpo se lee y valida como SolicitudVenta (montos directo a Dinero)
+     */
     @PostMapping("/venta")
-    public ResponseEntity<?> registrarVenta(@RequestBody Map<String, Object> datos) {
+    public ResponseEntity<?> registrarVenta(@RequestBody SolicitudVenta venta) {
         try {
-            Integer numeroMesa = null;
-            if (datos.containsKey("numeroMesa")) {
-                numeroMesa = Integer.parseInt(datos.get("numeroMesa").toString());
-            }
-            
-            BigDecimal monto = new BigDecimal(datos.get("monto").toString());
-            String metodoPago = (String) datos.get("metodoPago");
-            
-            BigDecimal montoRecibido = null;
-            if (datos.containsKey("montoRecibido")) {
-                montoRecibido = new BigDecimal(datos.get("montoRecibido").toString());
-            }
-            
-            BigDecimal vuelto = null;
-            if (datos.containsKey("vuelto")) {
-                vuelto = new BigDecimal(datos.get("vuelto").toString());
-            }
-            
-            String registradoPor = (String) datos.get("registradoPor");
-            
             MovimientoCaja movimiento = cajaService.registrarVenta(
-                numeroMesa, monto, metodoPago, montoRecibido, vuelto, registradoPor
+                venta.numeroMesa(), venta.monto(), venta.metodoPago(),
+                venta.montoRecibido(), venta.vuelto(), venta.registradoPor()
             );
             
             Map<String, Object> response = new HashMap<>();
@@ -200,10 +185,21 @@ public class CajaController {
         return ResponseEntity.ok(movimientos);
     }
 
+    /**
+     * GET /api/caja/historial?limite=10&cursor=...
+     * Cajas cerradas paginadas (keyset); la siguiente página va en X-Siguiente-Cursor
+     */
     @GetMapping("/historial")
-    public ResponseEntity<List<Caja>> obtenerHistorial() {
-        List<Caja> cajas = cajaService.listarCajasCerradas();
-        return ResponseEntity.ok(cajas);
+    public ResponseEntity<?> obtenerHistorial(@RequestParam(required = false) Integer limite,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) String campos) {
+        try {
+            return respuestaPaginada.responder(cajaService.listarCajasCerradas(cursor, Pagina.limiteValido(limite)), campos);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @GetMapping("/{id}")
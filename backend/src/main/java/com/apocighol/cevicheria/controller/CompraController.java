@@ -1,6 +1,9 @@
 package com.apocighol.cevicheria.controller;
 
+import com.apocighol.cevicheria.dto.CompraResumen;
+import com.apocighol.cevicheria.dto.SolicitudCompra;
 import com.apocighol.cevicheria.model.Compra;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.service.CompraService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -27,17 +30,28 @@ public class CompraController {
     @Autowired
     private CompraService compraService;
     
+    @Autowired
+    private RespuestaPaginada respuestaPaginada;
+    
     // ==========================================
     // CRUD BÁSICO
     // ==========================================
     
     /**
-     * GET /api/compras
-     * Lista todas las compras (más recientes primero)
+     * GET /api/compras?limite=50&cursor=...&campos=...
+     * Compras paginadas (más recientes primero); la siguiente página va en X-Siguiente-Cursor
      */
     @GetMapping
-    public ResponseEntity<List<Compra>> listarTodas() {
-        return ResponseEntity.ok(compraService.listarTodas());
+    public ResponseEntity<?> listarTodas(@RequestParam(required = false) Integer limite,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) String campos) {
+        try {
+            return respuestaPaginada.responder(compraService.listarPagina(cursor, Pagina.limiteValido(limite)), campos);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
     
     /**
@@ -79,41 +93,16 @@ public class CompraController {
      *     { "idInsumo": 2, "cantidad": 10, "precioUnitario": 15.00 }
      *   ]
      * }
+     * Se lee y valida como SolicitudCompra
      */
     @PostMapping
-    public ResponseEntity<?> registrarCompra(@RequestBody Map<String, Object> datos) {
+    public ResponseEntity<?> registrarCompra(@RequestBody SolicitudCompra solicitud) {
         try {
-            // Validar datos requeridos
-            if (!datos.containsKey("idProveedor")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe seleccionar un proveedor");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            if (!datos.containsKey("detalles")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe incluir al menos un insumo");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            Long idProveedor = Long.valueOf(datos.get("idProveedor").toString());
-            String observaciones = datos.get("observaciones") != null ? 
-                datos.get("observaciones").toString() : null;
-            
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> detalles = (List<Map<String, Object>>) datos.get("detalles");
-            
-            if (detalles.isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe incluir al menos un insumo");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            Compra compra = compraService.registrarCompra(idProveedor, detalles, observaciones);
+            Compra compra = compraService.registrarCompra(solicitud);
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Compra registrada correctamente");
-            response.put("compra", compra);
+            response.put("idCompra", compra.getIdCompra());
             response.put("codigoCompra", compra.getCodigoCompra());
             response.put("total", compra.getTotalCompra());
             
@@ -135,7 +124,7 @@ public class CompraController {
      * Lista compras del día
      */
     @GetMapping("/hoy")
-    public ResponseEntity<List<Compra>> comprasDelDia() {
+    public ResponseEntity<List<CompraResumen>> comprasDelDia() {
         return ResponseEntity.ok(compraService.comprasDelDia());
     }
     
@@ -144,7 +133,7 @@ public class CompraController {
      * Lista compras entre fechas
      */
     @GetMapping("/fecha")
-    public ResponseEntity<List<Compra>> comprasEntreFechas(
+    public ResponseEntity<List<CompraResumen>> comprasEntreFechas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
         return ResponseEntity.ok(compraService.comprasEntreFechas(inicio, fin));
@@ -155,7 +144,7 @@ public class CompraController {
      * Lista compras de un proveedor
      */
     @GetMapping("/proveedor/{idProveedor}")
-    public ResponseEntity<List<Compra>> comprasDeProveedor(@PathVariable Long idProveedor) {
+    public ResponseEntity<List<CompraResumen>> comprasDeProveedor(@PathVariable Long idProveedor) {
         return ResponseEntity.ok(compraService.comprasDeProveedor(idProveedor));
     }
     
@@ -0,0 +1,47 @@
+package com.apocighol.cevicheria.controller;
+
+import com.apocighol.cevicheria.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+/**
+ * ==========================================
+ * DASHBOARD CONTROLLER
+ * API REST: /api/dashboard
+ *
+ * 🔥 /snapshot: todo el dashboard en una sola llamada,
+ * con ETag → 304 Not Modified si nada cambió.
+ * ==========================================
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * GET /api/dashboard/snapshot
+     * Con If-None-Match igual a la versión actual responde 304 sin cuerpo.
+     * El ETag enviado es el del snapshot devuelto: si entre la comprobación y el
+     * armado cambió la versión, el cliente recibe la nueva y no una etiqueta vieja.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> snapshot(WebRequest request) {
+        if (request.checkNotModified(dashboardService.etagActual())) {
+            return null;
+        }
+
+        DashboardService.Snapshot snapshot = dashboardService.snapshot();
+        return ResponseEntity.ok()
+            .eTag(snapshot.etag())
+            .cacheControl(CacheControl.noCache())
+            .body(snapshot.datos());
+    }
+}
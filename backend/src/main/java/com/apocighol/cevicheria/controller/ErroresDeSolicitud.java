@@ -0,0 +1,36 @@
+package com.apocighol.cevicheria.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import tools.jackson.core.JacksonException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ==========================================
+ * ERRORES AL LEER EL CUERPO (@RequestBody tipado)
+ *
+ * Las solicitudes (SolicitudPedido, SolicitudVenta, ...) se validan en su
+ * constructor mientras Jackson las lee, antes de entrar al controlador.
+ * Aquí se devuelve el mismo { "error": "..." } que usan los controladores.
+ * ==========================================
+ */
+@RestControllerAdvice
+public class ErroresDeSolicitud {
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> cuerpoInvalido(HttpMessageNotReadableException e) {
+        Throwable causa = e.getMostSpecificCause();
+
+        Map<String, String> error = new HashMap<>();
+        if (causa instanceof JacksonException jackson) {
+            error.put("error", "Solicitud inválida: " + jackson.getOriginalMessage());
+        } else {
+            error.put("error", causa.getMessage());
+        }
+        return ResponseEntity.badRequest().body(error);
+    }
+}
@@ -1,6 +1,7 @@
 package com.apocighol.cevicheria.controller;
 
 import com.apocighol.cevicheria.model.Insumo;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.service.InsumoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -24,17 +25,28 @@ public class InsumoController {
     @Autowired
     private InsumoService insumoService;
     
+    @Autowired
+    private RespuestaPaginada respuestaPaginada;
+    
     // ==========================================
     // CRUD BÁSICO
     // ==========================================
     
     /**
-     * GET /api/insumos
-     * Lista todos los insumos
+     * GET /api/insumos?limite=50&cursor=...&campos=...
+     * Insumos paginados por nombre; la siguiente página va en X-Siguiente-Cursor
      */
     @GetMapping
-    public ResponseEntity<List<Insumo>> listarTodos() {
-        return ResponseEntity.ok(insumoService.listarTodos());
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) Integer limite,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) String campos) {
+        try {
+            return respuestaPaginada.responder(insumoService.listarPagina(cursor, Pagina.limiteValido(limite)), campos);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
     
     /**
@@ -203,11 +203,6 @@ public class MesaController {
     // ==========================================
     @GetMapping("/estadisticas")
     public ResponseEntity<?> obtenerEstadisticas() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("total", mesaService.listarMesas().size());
-        stats.put("disponibles", mesaService.contarPorEstado("disponible"));
-        stats.put("ocupadas", mesaService.contarPorEstado("ocupada"));
-        stats.put("reservadas", mesaService.contarPorEstado("reservada"));
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(mesaService.obtenerEstadisticas());
     }
 }
\ No newline at end of file
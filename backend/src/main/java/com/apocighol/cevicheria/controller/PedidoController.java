@@ -1,11 +1,18 @@
 package com.apocighol.cevicheria.controller;
 
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.dto.PedidoResumen;
+import com.apocighol.cevicheria.dto.SolicitudPedido;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.model.Pedido;
 import com.apocighol.cevicheria.service.PedidoService;
+import com.apocighol.cevicheria.service.PedidoStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +27,10 @@ import java.util.Map;
  * - /admin: Todos los pedidos del día
  * - /cocina: Solo activos (pendiente→servido)
  * - /mesero/{nombre}: Pedidos de un mesero
+ * - /stream: SSE con snapshot + deltas (sin polling)
+ *
+ * Responde PedidoDetalle (con líneas) o PedidoResumen (listados),
+ * nunca la entidad Pedido.
  * ==========================================
  */
 @RestController
@@ -30,39 +41,24 @@ public class PedidoController {
     @Autowired
     private PedidoService pedidoService;
 
+    @Autowired
+    private PedidoStreamService pedidoStreamService;
+
+    @Autowired
+    private RespuestaPaginada respuestaPaginada;
+
     // ==========================================
     // CREAR PEDIDO
     // ==========================================
 
+    /**
+     * POST /api/pedidos
+     * El cuerpo se lee y valida como SolicitudPedido (errores → ErroresDeSolicitud)
+     */
     @PostMapping
-    public ResponseEntity<?> crearPedido(@RequestBody Map<String, Object> datos) {
+    public ResponseEntity<?> crearPedido(@RequestBody SolicitudPedido solicitud) {
         try {
-            if (!datos.containsKey("mesa")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe especificar el número de mesa");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            if (!datos.containsKey("productos")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe incluir al menos un producto");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            Integer numeroMesa = Integer.valueOf(datos.get("mesa").toString());
-            String mesero = (String) datos.get("mesero");
-            String nota = (String) datos.get("nota");
-            
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> productos = (List<Map<String, Object>>) datos.get("productos");
-            
-            if (productos.isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe incluir al menos un producto");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            Pedido pedido = pedidoService.crearPedido(numeroMesa, mesero, nota, productos);
+            Pedido pedido = pedidoService.crearPedido(solicitud);
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Pedido creado exitosamente");
@@ -88,18 +84,21 @@ public class PedidoController {
      * Para ADMIN: Todos los pedidos del día (incluye cobrados)
      */
     @GetMapping("/admin")
-    public ResponseEntity<List<Pedido>> pedidosParaAdmin() {
-        List<Pedido> pedidos = pedidoService.pedidosDelDia();
+    public ResponseEntity<List<PedidoDetalle>> pedidosParaAdmin() {
+        List<PedidoDetalle> pedidos = pedidoService.pedidosDelDia();
         return ResponseEntity.ok(pedidos);
     }
 
     /**
      * GET /api/pedidos/cocina
+     * GET /api/pedidos/cocina?estado=LISTO
      * Para COCINA: Solo pedidos activos (pendiente, preparando, listo, servido)
      */
     @GetMapping("/cocina")
-    public ResponseEntity<List<Pedido>> pedidosParaCocina() {
-        List<Pedido> pedidos = pedidoService.pedidosActivosDelDia();
+    public ResponseEntity<List<PedidoDetalle>> pedidosParaCocina(@RequestParam(required = false) String estado) {
+        List<PedidoDetalle> pedidos = estado == null
+            ? pedidoService.pedidosActivosDelDia()
+            : pedidoService.pedidosActivosPorEstado(estado);
         return ResponseEntity.ok(pedidos);
     }
 
@@ -108,18 +107,45 @@ public class PedidoController {
      * Para MESERO: Solo sus pedidos activos del día
      */
     @GetMapping("/mesero/{nombre}")
-    public ResponseEntity<List<Pedido>> pedidosParaMesero(@PathVariable String nombre) {
-        List<Pedido> pedidos = pedidoService.pedidosPorMeseroDelDia(nombre);
+    public ResponseEntity<List<PedidoDetalle>> pedidosParaMesero(@PathVariable String nombre) {
+        List<PedidoDetalle> pedidos = pedidoService.pedidosPorMeseroDelDia(nombre);
         return ResponseEntity.ok(pedidos);
     }
 
+    // ==========================================
+    // 🔥 STREAM EN TIEMPO REAL (SSE)
+    // ==========================================
+
+    /**
+     * GET /api/pedidos/stream
+     * GET /api/pedidos/stream?mesero=Juan
+     * Evento "snapshot" al conectar (pedidos activos del día) y luego
+     * eventos "delta" {tipo, pedido} por cada cambio confirmado.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String mesero) {
+        return pedidoStreamService.suscribir(mesero);
+    }
+
     // ==========================================
     // CONSULTAS GENERALES
     // ==========================================
 
+    /**
+     * GET /api/pedidos?limite=50&cursor=...&campos=codigoPedido,totalPedido
+     * Historial paginado (keyset); la siguiente página va en X-Siguiente-Cursor
+     */
     @GetMapping
-    public ResponseEntity<List<Pedido>> listarTodos() {
-        return ResponseEntity.ok(pedidoService.listarTodos());
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) Integer limite,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) String campos) {
+        try {
+            return respuestaPaginada.responder(pedidoService.listarPagina(cursor, Pagina.limiteValido(limite)), campos);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @GetMapping("/{id}")
@@ -137,23 +163,29 @@ public class PedidoController {
     }
 
     @GetMapping("/mesa/{numeroMesa}")
-    public ResponseEntity<List<Pedido>> pedidosPorMesa(@PathVariable Integer numeroMesa) {
+    public ResponseEntity<List<PedidoResumen>> pedidosPorMesa(@PathVariable Integer numeroMesa) {
         return ResponseEntity.ok(pedidoService.pedidosPorMesa(numeroMesa));
     }
 
     @GetMapping("/mesa/{numeroMesa}/pendientes")
-    public ResponseEntity<List<Pedido>> pedidosPendientesMesa(@PathVariable Integer numeroMesa) {
+    public ResponseEntity<List<PedidoDetalle>> pedidosPendientesMesa(@PathVariable Integer numeroMesa) {
         return ResponseEntity.ok(pedidoService.pedidosPendientesMesa(numeroMesa));
     }
 
     @GetMapping("/hoy")
-    public ResponseEntity<List<Pedido>> pedidosDelDia() {
+    public ResponseEntity<List<PedidoDetalle>> pedidosDelDia() {
         return ResponseEntity.ok(pedidoService.pedidosDelDia());
     }
 
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<List<Pedido>> pedidosPorEstado(@PathVariable String estado) {
-        return ResponseEntity.ok(pedidoService.pedidosPorEstado(estado.toUpperCase()));
+    public ResponseEntity<?> pedidosPorEstado(@PathVariable String estado) {
+        try {
+            return ResponseEntity.ok(pedidoService.pedidosPorEstado(estado));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     // ==========================================
@@ -170,8 +202,8 @@ public class PedidoController {
                 return ResponseEntity.badRequest().body(error);
             }
             
-            Pedido pedido = pedidoService.cambiarEstado(id, nuevoEstado.toUpperCase());
-            return ResponseEntity.ok(pedido);
+            Pedido pedido = pedidoService.cambiarEstado(id, nuevoEstado);
+            return ResponseEntity.ok(PedidoDetalle.de(pedido));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -182,7 +214,7 @@ public class PedidoController {
     @PutMapping("/{id}/entregar")
     public ResponseEntity<?> marcarEntregado(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(pedidoService.marcarEntregado(id));
+            return ResponseEntity.ok(PedidoDetalle.de(pedidoService.marcarEntregado(id)));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -193,7 +225,7 @@ public class PedidoController {
     @PutMapping("/{id}/pagar")
     public ResponseEntity<?> marcarPagado(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(pedidoService.marcarPagado(id));
+            return ResponseEntity.ok(PedidoDetalle.de(pedidoService.marcarPagado(id)));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -204,7 +236,27 @@ public class PedidoController {
     @PutMapping("/{id}/cancelar")
     public ResponseEntity<?> cancelarPedido(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(pedidoService.cancelarPedido(id));
+            return ResponseEntity.ok(PedidoDetalle.de(pedidoService.cancelarPedido(id)));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * PUT /api/pedidos/mesa/{numeroMesa}/cobrar
+     * Marca como COBRADO los pedidos servidos de la mesa (después del pago en caja)
+     */
+    @PutMapping("/mesa/{numeroMesa}/cobrar")
+    public ResponseEntity<?> cobrarMesa(@PathVariable Integer numeroMesa) {
+        try {
+            List<Pedido> cobrados = pedidoService.cobrarPedidosMesa(numeroMesa);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("mensaje", "Pedidos de la mesa " + numeroMesa + " cobrados");
+            response.put("pedidosCobrados", cobrados.size());
+            return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -232,7 +284,7 @@ public class PedidoController {
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Pedido anulado correctamente");
-            response.put("pedido", pedido);
+            response.put("pedido", PedidoDetalle.de(pedido));
             
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
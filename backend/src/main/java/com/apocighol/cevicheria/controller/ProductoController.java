@@ -1,8 +1,11 @@
 package com.apocighol.cevicheria.controller;
 
+import com.apocighol.cevicheria.dto.ProductoCarta;
 import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.service.CartaProductos;
 import com.apocighol.cevicheria.service.ProductoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -50,8 +53,9 @@ public class ProductoController {
      * Lista todos los productos
      */
     @GetMapping
-    public ResponseEntity<List<Producto>> listarTodos() {
-        return ResponseEntity.ok(productoService.listarTodos());
+    public ResponseEntity<List<ProductoCarta>> listarTodos() {
+        CartaProductos.Carta carta = productoService.carta();
+        return conVersion(carta, carta.todos());
     }
 
     /**
@@ -59,8 +63,9 @@ public class ProductoController {
      * Lista solo productos disponibles
      */
     @GetMapping("/disponibles")
-    public ResponseEntity<List<Producto>> listarDisponibles() {
-        return ResponseEntity.ok(productoService.listarDisponibles());
+    public ResponseEntity<List<ProductoCarta>> listarDisponibles() {
+        CartaProductos.Carta carta = productoService.carta();
+        return conVersion(carta, carta.disponibles());
     }
 
     /**
@@ -235,7 +240,7 @@ public class ProductoController {
      * GET /api/productos/buscar?q=ceviche
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<Producto>> buscar(@RequestParam String q) {
+    public ResponseEntity<List<ProductoCarta>> buscar(@RequestParam String q) {
         return ResponseEntity.ok(productoService.buscarPorNombre(q));
     }
 
@@ -243,8 +248,9 @@ public class ProductoController {
      * GET /api/productos/categoria/{categoria}
      */
     @GetMapping("/categoria/{categoria}")
-    public ResponseEntity<List<Producto>> filtrarPorCategoria(@PathVariable String categoria) {
-        return ResponseEntity.ok(productoService.filtrarPorCategoria(categoria));
+    public ResponseEntity<List<ProductoCarta>> filtrarPorCategoria(@PathVariable String categoria) {
+        CartaProductos.Carta carta = productoService.carta();
+        return conVersion(carta, carta.categoria(categoria));
     }
 
     // ==========================================
@@ -258,4 +264,19 @@ public class ProductoController {
     public ResponseEntity<Map<String, Object>> obtenerEstadisticas() {
         return ResponseEntity.ok(productoService.obtenerEstadisticas());
     }
-}
\ No newline at end of file
+
+    // ==========================================
+    // ETAG DE LA CARTA
+    // ==========================================
+
+    /**
+     * ETag = versión de la carta en memoria. Si el cliente manda el mismo en
+     * If-None-Match, Spring responde 304 sin cuerpo; no-cache obliga a revalidar.
+     */
+    private static <T> ResponseEntity<T> conVersion(CartaProductos.Carta carta, T cuerpo) {
+        return ResponseEntity.ok()
+            .eTag(carta.etag())
+            .cacheControl(CacheControl.noCache())
+            .body(cuerpo);
+    }
+}
@@ -1,5 +1,7 @@
 package com.apocighol.cevicheria.controller;
 
+import com.apocighol.cevicheria.dto.ProductoVendido;
+import com.apocighol.cevicheria.dto.SolicitudReceta;
 import com.apocighol.cevicheria.model.Receta;
 import com.apocighol.cevicheria.service.RecetaService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,7 +9,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -69,18 +70,9 @@ public class RecetaController {
     @PostMapping("/producto/{idProducto}")
     public ResponseEntity<?> asignarReceta(
             @PathVariable Long idProducto, 
-            @RequestBody Map<String, Object> datos) {
+            @RequestBody SolicitudReceta solicitud) {
         try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> insumos = (List<Map<String, Object>>) datos.get("insumos");
-            
-            if (insumos == null || insumos.isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe incluir al menos un insumo");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            List<Receta> receta = recetaService.asignarReceta(idProducto, insumos);
+            List<Receta> receta = recetaService.asignarReceta(idProducto, solicitud.insumos());
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Receta asignada correctamente");
@@ -105,10 +97,9 @@ public class RecetaController {
     public ResponseEntity<?> agregarInsumoAReceta(
             @PathVariable Long idProducto,
             @PathVariable Long idInsumo,
-            @RequestBody Map<String, Object> datos) {
+            @RequestBody SolicitudReceta.Item datos) {
         try {
-            BigDecimal cantidad = new BigDecimal(datos.get("cantidad").toString());
-            Receta receta = recetaService.agregarInsumoAReceta(idProducto, idInsumo, cantidad);
+            Receta receta = recetaService.agregarInsumoAReceta(idProducto, idInsumo, datos.cantidad());
             return ResponseEntity.ok(receta);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -166,18 +157,9 @@ public class RecetaController {
      * }
      */
     @PostMapping("/descontar")
-    public ResponseEntity<?> descontarInsumos(@RequestBody Map<String, Object> datos) {
+    public ResponseEntity<?> descontarInsumos(@RequestBody ProductoVendido.Lista datos) {
         try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> productos = (List<Map<String, Object>>) datos.get("productos");
-            
-            if (productos == null || productos.isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Debe incluir al menos un producto");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            Map<String, Object> resultado = recetaService.descontarInsumosDePedido(productos);
+            Map<String, Object> resultado = recetaService.descontarInsumosDePedido(datos.productos());
             return ResponseEntity.ok(resultado);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -193,12 +175,9 @@ public class RecetaController {
      * Body: { "idProducto": 1, "cantidad": 5 }
      */
     @PostMapping("/verificar-disponibilidad")
-    public ResponseEntity<?> verificarDisponibilidad(@RequestBody Map<String, Object> datos) {
+    public ResponseEntity<?> verificarDisponibilidad(@RequestBody ProductoVendido datos) {
         try {
-            Long idProducto = Long.valueOf(datos.get("idProducto").toString());
-            int cantidad = Integer.parseInt(datos.get("cantidad").toString());
-            
-            Map<String, Object> resultado = recetaService.verificarDisponibilidad(idProducto, cantidad);
+            Map<String, Object> resultado = recetaService.verificarDisponibilidad(datos.idProducto(), datos.cantidad());
             return ResponseEntity.ok(resultado);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -207,6 +186,29 @@ public class RecetaController {
         }
     }
     
+    /**
+     * GET /api/recetas/disponibilidad-menu
+     * Para cada producto con receta: ¿hay insumos para 1 porción?
+     * 
+     * Respuesta: { "1": true, "2": false, ... }
+     */
+    @GetMapping("/disponibilidad-menu")
+    public ResponseEntity<Map<Long, Boolean>> disponibilidadMenu() {
+        return ResponseEntity.ok(recetaService.disponibilidadMenu());
+    }
+    
+    /**
+     * GET /api/recetas/porciones-disponibles
+     * Máximo de porciones que se pueden preparar ahora por producto
+     * (null si ningún insumo de su receta lo limita)
+     * 
+     * Respuesta: { "1": 12, "2": 0, ... }
+     */
+    @GetMapping("/porciones-disponibles")
+    public ResponseEntity<Map<Long, Long>> porcionesDisponibles() {
+        return ResponseEntity.ok(recetaService.porcionesDisponibles());
+    }
+    
     // ==========================================
     // CONSULTAS AUXILIARES
     // ==========================================
@@ -0,0 +1,79 @@
+package com.apocighol.cevicheria.controller;
+
+import com.apocighol.cevicheria.model.Pagina;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ==========================================
+ * RESPUESTA DE LISTADOS PAGINADOS
+ *
+ * El cuerpo sigue siendo un arreglo JSON (el frontend no cambia);
+ * la siguiente página va en cabeceras:
+ *   X-Siguiente-Cursor: <cursor>   (ausente en la última página)
+ *   Link: <url con ?cursor=...>; rel="next"
+ *
+ * ?campos=a,b,c devuelve solo esos campos de cada elemento.
+ * ==========================================
+ */
+@Component
+public class RespuestaPaginada {
+
+    public static final String CABECERA_CURSOR = "X-Siguiente-Cursor";
+
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {};
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    public <T> ResponseEntity<List<?>> responder(Pagina<T> pagina, String campos) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.siguienteCursor() != null) {
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", pagina.siguienteCursor())
+                .toUriString();
+            respuesta.header(CABECERA_CURSOR, pagina.siguienteCursor())
+                .header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        return respuesta.body(proyectar(pagina.items(), campos));
+    }
+
+    private List<?> proyectar(List<?> items, String campos) {
+        Set<String> seleccion = new LinkedHashSet<>();
+        if (campos != null) {
+            Arrays.stream(campos.split(","))
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .forEach(seleccion::add);
+        }
+        if (seleccion.isEmpty()) {
+            return items;
+        }
+
+        List<Map<String, Object>> proyectados = new ArrayList<>(items.size());
+        for (Object item : items) {
+            Map<String, Object> completo = jsonMapper.convertValue(item, MAPA);
+            Map<String, Object> parcial = new LinkedHashMap<>();
+            for (String campo : seleccion) {
+                if (completo.containsKey(campo)) {
+                    parcial.put(campo, completo.get(campo));
+                }
+            }
+            proyectados.add(parcial);
+        }
+        return proyectados;
+    }
+}
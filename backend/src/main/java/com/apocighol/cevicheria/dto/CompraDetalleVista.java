@@ -0,0 +1,24 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Compra;
+import com.apocighol.cevicheria.model.Dinero;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Vista completa de una compra (cabecera, proveedor y líneas) para /api/compras/{id}.
+ * Se arma desde una Compra leída con su @EntityGraph.
+ */
+public record CompraDetalleVista(Long idCompra, String codigoCompra, Long idProveedor, String nombreProveedor,
+                                 LocalDate fechaCompra, LocalTime horaCompra, Dinero totalCompra,
+                                 String observaciones, List<LineaCompra> detalles) {
+
+    public static CompraDetalleVista de(Compra compra) {
+        return new CompraDetalleVista(compra.getIdCompra(), compra.getCodigoCompra(), compra.getIdProveedor(),
+            compra.getProveedor() != null ? compra.getProveedor().getNombreProveedor() : null,
+            compra.getFechaCompra(), compra.getHoraCompra(), compra.getTotalCompra(), compra.getObservaciones(),
+            compra.getDetalles().stream().map(LineaCompra::de).toList());
+    }
+}
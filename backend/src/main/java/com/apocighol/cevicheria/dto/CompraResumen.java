@@ -0,0 +1,15 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Dinero;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Cabecera de una compra con el nombre del proveedor, para listados.
+ * Se lee con SELECT new ... (sin cargar el Proveedor ni las líneas).
+ */
+public record CompraResumen(Long idCompra, String codigoCompra, Long idProveedor, String nombreProveedor,
+                            LocalDate fechaCompra, LocalTime horaCompra, Dinero totalCompra,
+                            String observaciones) {
+}
@@ -0,0 +1,20 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.CompraDetalle;
+import com.apocighol.cevicheria.model.Dinero;
+
+import java.math.BigDecimal;
+
+/**
+ * Línea de una compra con el nombre y unidad del insumo.
+ */
+public record LineaCompra(Long idDetalle, Long idInsumo, String nombreInsumo, String unidadMedida,
+                          BigDecimal cantidad, Dinero precioUnitario, Dinero subtotal) {
+
+    public static LineaCompra de(CompraDetalle detalle) {
+        return new LineaCompra(detalle.getIdDetalle(), detalle.getIdInsumo(),
+            detalle.getInsumo() != null ? detalle.getInsumo().getNombreInsumo() : null,
+            detalle.getInsumo() != null ? detalle.getInsumo().getUnidadMedida() : null,
+            detalle.getCantidad(), detalle.getPrecioUnitario(), detalle.getSubtotal());
+    }
+}
@@ -0,0 +1,16 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.DetallePedido;
+import com.apocighol.cevicheria.model.Dinero;
+
+/**
+ * Línea de un pedido tal como la ven cocina, meseros y admin.
+ */
+public record LineaPedido(Long idDetalle, Long idProducto, String nombreProducto, Integer cantidad,
+                          Dinero precioUnitario, Dinero subtotal, String observaciones) {
+
+    public static LineaPedido de(DetallePedido detalle) {
+        return new LineaPedido(detalle.getIdDetalle(), detalle.getIdProducto(), detalle.getNombreProducto(),
+            detalle.getCantidad(), detalle.getPrecioUnitario(), detalle.getSubtotal(), detalle.getObservaciones());
+    }
+}
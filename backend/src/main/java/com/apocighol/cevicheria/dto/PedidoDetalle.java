@@ -0,0 +1,35 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.Pedido;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Vista completa de un pedido (cabecera + líneas), inmutable.
+ *
+ * Es lo que guarda TableroPedidos y lo que viaja por /api/pedidos/{id},
+ * los endpoints por rol y el stream SSE. Los nombres de campo son los
+ * mismos que tenía la entidad en JSON, así el frontend no cambia.
+ *
+ * Se arma desde un Pedido con los detalles ya cargados (ver los
+ * @EntityGraph de PedidoRepository).
+ */
+public record PedidoDetalle(Long idPedido, String codigoPedido, Integer numeroMesa, String mesero,
+                            LocalDate fechaPedido, LocalTime horaPedido, EstadoPedido estadoPedido,
+                            Dinero totalPedido, String observaciones, List<LineaPedido> detalles) {
+
+    public static PedidoDetalle de(Pedido pedido) {
+        return new PedidoDetalle(pedido.getIdPedido(), pedido.getCodigoPedido(), pedido.getNumeroMesa(),
+            pedido.getMesero(), pedido.getFechaPedido(), pedido.getHoraPedido(), pedido.getEstadoPedido(),
+            pedido.getTotalPedido(), pedido.getObservaciones(),
+            pedido.getDetalles().stream().map(LineaPedido::de).toList());
+    }
+
+    public static List<PedidoDetalle> de(List<Pedido> pedidos) {
+        return pedidos.stream().map(PedidoDetalle::de).toList();
+    }
+}
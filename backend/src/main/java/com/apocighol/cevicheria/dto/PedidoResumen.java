@@ -0,0 +1,16 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.EstadoPedido;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Cabecera de un pedido sin sus líneas, para listados e historial.
+ * Se lee con SELECT new ... (una fila por pedido, sin tocar detalle_pedidos).
+ */
+public record PedidoResumen(Long idPedido, String codigoPedido, Integer numeroMesa, String mesero,
+                            LocalDate fechaPedido, LocalTime horaPedido, EstadoPedido estadoPedido,
+                            Dinero totalPedido) {
+}
@@ -0,0 +1,17 @@
+package com.apocighol.cevicheria.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Producto tal como lo sirve la carta en memoria (inmutable, mismo JSON que la entidad).
+ * Se lee con una proyección (ProductoRepository.findCarta).
+ */
+public record ProductoCarta(Long idProducto, String codigoProducto, String nombreProducto,
+                            String descripcionProducto, BigDecimal precioProducto, String categoriaProducto,
+                            Boolean disponibleProducto, LocalDateTime createdAtProducto) {
+
+    public boolean disponible() {
+        return !Boolean.FALSE.equals(disponibleProducto);
+    }
+}
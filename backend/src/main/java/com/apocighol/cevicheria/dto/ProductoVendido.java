@@ -0,0 +1,33 @@
+package com.apocighol.cevicheria.dto;
+
+import java.util.List;
+
+/**
+ * Producto y unidades vendidas, para descontar insumos o verificar stock.
+ *
+ * Cuerpo de POST /api/recetas/verificar-disponibilidad: { "idProducto": 1, "cantidad": 5 }
+ */
+public record ProductoVendido(long idProducto, int cantidad) {
+
+    public ProductoVendido {
+        if (idProducto <= 0) {
+            throw new RuntimeException("Debe indicar el producto");
+        }
+        if (cantidad <= 0) {
+            throw new RuntimeException("Cantidad inválida para el producto " + idProducto + ": " + cantidad);
+        }
+    }
+
+    /**
+     * Cuerpo de POST /api/recetas/descontar: { "productos": [ { "idProducto": 1, "cantidad": 2 } ] }
+     */
+    public record Lista(List<ProductoVendido> productos) {
+
+        public Lista {
+            if (productos == null || productos.isEmpty()) {
+                throw new RuntimeException("Debe incluir al menos un producto");
+            }
+            productos = List.copyOf(productos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Dinero;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/compras. La cantidad es BigDecimal porque
+ * los insumos se compran por kg/litro (2.5), el precio es Dinero.
+ *
+ * { "idProveedor": 1, "observaciones": "Compra semanal",
+ *   "detalles": [ { "idInsumo": 1, "cantidad": 50, "precioUnitario": 0.50 } ] }
+ */
+public record SolicitudCompra(long idProveedor, String observaciones, List<Item> detalles) {
+
+    public SolicitudCompra {
+        if (idProveedor <= 0) {
+            throw new RuntimeException("Debe seleccionar un proveedor");
+        }
+        if (detalles == null || detalles.isEmpty()) {
+            throw new RuntimeException("Debe incluir al menos un insumo");
+        }
+        detalles = List.copyOf(detalles);
+    }
+
+    public record Item(long idInsumo, BigDecimal cantidad, Dinero precioUnitario) {
+
+        public Item {
+            if (idInsumo <= 0) {
+                throw new RuntimeException("Cada detalle debe indicar el insumo");
+            }
+            if (cantidad == null || cantidad.signum() <= 0) {
+                throw new RuntimeException("Cantidad inválida para el insumo " + idInsumo);
+            }
+            if (precioUnitario == null || precioUnitario.esNegativo()) {
+                throw new RuntimeException("Precio inválido para el insumo " + idInsumo);
+            }
+        }
+    }
+}
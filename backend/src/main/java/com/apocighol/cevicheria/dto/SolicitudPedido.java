@@ -0,0 +1,48 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/pedidos, leído por Jackson directo a campos tipados
+ * (int, Dinero) sin pasar por Map ni toString(). Se valida una sola vez
+ * aquí; PedidoService ya recibe datos correctos.
+ *
+ * { "mesa": 4, "mesero": "Ana", "nota": "sin ají",
+ *   "productos": [ { "nombre": "Ceviche", "categoria": "Ceviches", "cantidad": 2, "precioUnitario": 28.00 } ] }
+ */
+public record SolicitudPedido(int mesa, String mesero, String nota, List<Item> productos) {
+
+    public SolicitudPedido {
+        if (mesa <= 0) {
+            throw new RuntimeException("Debe especificar el número de mesa");
+        }
+        if (productos == null || productos.isEmpty()) {
+            throw new RuntimeException("Debe incluir al menos un producto");
+        }
+        productos = List.copyOf(productos);
+    }
+
+    // subtotal lo manda el frontend pero se recalcula; declarado aquí se salta
+    // sin copiarlo a un buffer (un record desconocido sí se bufferiza)
+    @JsonIgnoreProperties({ "subtotal" })
+    public record Item(Long idProducto, String nombre, String categoria, int cantidad, Dinero precioUnitario) {
+
+        public Item {
+            if (nombre == null || nombre.isBlank()) {
+                throw new RuntimeException("Cada producto debe tener nombre");
+            }
+            if (cantidad <= 0) {
+                throw new RuntimeException("Cantidad inválida para " + nombre + ": " + cantidad);
+            }
+            if (precioUnitario == null || precioUnitario.esNegativo()) {
+                throw new RuntimeException("Precio inválido para " + nombre);
+            }
+            if (categoria == null) {
+                categoria = "Sin categoría";
+            }
+        }
+    }
+}
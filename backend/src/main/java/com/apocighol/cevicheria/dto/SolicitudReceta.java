@@ -0,0 +1,32 @@
+package com.apocighol.cevicheria.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/recetas/producto/{idProducto}.
+ *
+ * { "insumos": [ { "idInsumo": 1, "cantidad": 10 }, { "idInsumo": 2, "cantidad": 0.25 } ] }
+ */
+public record SolicitudReceta(List<Item> insumos) {
+
+    public SolicitudReceta {
+        if (insumos == null || insumos.isEmpty()) {
+            throw new RuntimeException("Debe incluir al menos un insumo");
+        }
+        insumos = List.copyOf(insumos);
+    }
+
+    /**
+     * Un insumo con su cantidad por porción. También es el cuerpo de
+     * PUT /producto/{idProducto}/insumo/{idInsumo} (ahí idInsumo va en la URL).
+     */
+    public record Item(long idInsumo, BigDecimal cantidad) {
+
+        public Item {
+            if (cantidad == null || cantidad.signum() <= 0) {
+                throw new RuntimeException("Cantidad inválida para el insumo " + idInsumo);
+            }
+        }
+    }
+}
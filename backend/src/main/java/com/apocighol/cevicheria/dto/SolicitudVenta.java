@@ -0,0 +1,20 @@
+package com.apocighol.cevicheria.dto;
+
+import com.apocighol.cevicheria.model.Dinero;
+
+/**
+ * Cuerpo de POST /api/caja/venta. Los montos llegan como Dinero
+ * (leídos del token JSON); montoRecibido y vuelto son opcionales.
+ */
+public record SolicitudVenta(Integer numeroMesa, Dinero monto, String metodoPago,
+                             Dinero montoRecibido, Dinero vuelto, String registradoPor) {
+
+    public SolicitudVenta {
+        if (monto == null) {
+            throw new RuntimeException("El monto es obligatorio");
+        }
+        if (monto.esNegativo() || monto.esCero()) {
+            throw new RuntimeException("El monto debe ser mayor a 0");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.apocighol.cevicheria.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado por los servicios en operaciones que deben quedar auditadas
+ * (anulaciones, ajustes manuales de stock, apertura / cierre de caja, eliminaciones).
+ * RegistroAuditoria lo encola después del commit; si la transacción se revierte
+ * no queda rastro.
+ *
+ * referencia: código legible de la entidad (codigo_pedido, codigo_caja, nombre...).
+ */
+public record AuditoriaEvento(Tipo tipo, String entidad, Long idEntidad, String referencia,
+                              String usuario, String detalle, LocalDateTime fechaHora) {
+
+    public AuditoriaEvento(Tipo tipo, String entidad, Long idEntidad, String referencia,
+                           String usuario, String detalle) {
+        this(tipo, entidad, idEntidad, referencia, usuario, detalle, LocalDateTime.now());
+    }
+
+    public enum Tipo {
+        PEDIDO_ANULADO,
+        STOCK_AJUSTADO,
+        CAJA_ABIERTA,
+        CAJA_CERRADA,
+        ELIMINADO
+    }
+}
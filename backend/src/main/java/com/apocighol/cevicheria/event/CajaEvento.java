@@ -0,0 +1,18 @@
+package com.apocighol.cevicheria.event;
+
+import com.apocighol.cevicheria.model.MovimientoCaja;
+import com.apocighol.cevicheria.model.ReferenciaCaja;
+
+/**
+ * Evento publicado por CajaService al abrir, registrar un movimiento o cerrar caja.
+ * movimiento es null en ABIERTA y CERRADA.
+ */
+public record CajaEvento(Tipo tipo, ReferenciaCaja caja, MovimientoCaja movimiento) {
+
+    public enum Tipo {
+        ABIERTA,
+        VENTA,
+        EGRESO,
+        CERRADA
+    }
+}
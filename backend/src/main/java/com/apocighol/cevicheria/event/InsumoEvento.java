@@ -0,0 +1,9 @@
+package com.apocighol.cevicheria.event;
+
+/**
+ * Evento publicado por InsumoService cuando un insumo se crea, cambia
+ * de datos (nombre, unidad, categoría) o se elimina. Los movimientos de
+ * stock van por StockEvento.
+ */
+public record InsumoEvento(Long idInsumo) {
+}
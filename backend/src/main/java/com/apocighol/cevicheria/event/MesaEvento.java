@@ -0,0 +1,11 @@
+package com.apocighol.cevicheria.event;
+
+import com.apocighol.cevicheria.model.Mesa;
+
+/**
+ * Evento publicado por MesaService cuando una mesa cambia de estado,
+ * se crea (estadoAnterior null) o se elimina (estadoNuevo null).
+ * Si solo cambia el consumo, ambos estados son iguales.
+ */
+public record MesaEvento(Mesa mesa, String estadoAnterior, String estadoNuevo) {
+}
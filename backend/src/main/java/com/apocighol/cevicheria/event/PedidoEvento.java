@@ -0,0 +1,32 @@
+package com.apocighol.cevicheria.event;
+
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.Pedido;
+
+/**
+ * Evento de dominio publicado por PedidoService en cada mutación de un pedido.
+ * Los listeners lo consumen después del commit (@TransactionalEventListener),
+ * así nunca ven cambios que luego se revierten.
+ *
+ * pedido: copia inmutable tomada al publicar (dentro de la transacción), así
+ * los listeners no dependen de la sesión de Hibernate ni de colecciones LAZY.
+ * estadoAnterior: estado antes del cambio (null en CREADO).
+ */
+public record PedidoEvento(Tipo tipo, PedidoDetalle pedido, EstadoPedido estadoAnterior) {
+
+    public PedidoEvento(Tipo tipo, Pedido pedido, EstadoPedido estadoAnterior) {
+        this(tipo, PedidoDetalle.de(pedido), estadoAnterior);
+    }
+
+    public PedidoEvento(Tipo tipo, Pedido pedido) {
+        this(tipo, pedido, null);
+    }
+
+    public enum Tipo {
+        CREADO,
+        ESTADO_CAMBIADO,
+        ANULADO,
+        ELIMINADO
+    }
+}
@@ -0,0 +1,8 @@
+package com.apocighol.cevicheria.event;
+
+/**
+ * Evento publicado por ProductoService cuando un producto se crea,
+ * modifica, cambia de disponibilidad o se elimina.
+ */
+public record ProductoEvento(Long idProducto) {
+}
@@ -0,0 +1,8 @@
+package com.apocighol.cevicheria.event;
+
+/**
+ * Evento publicado por ProveedorService cuando un proveedor se crea,
+ * se modifica o se elimina.
+ */
+public record ProveedorEvento(Long idProveedor) {
+}
@@ -0,0 +1,8 @@
+package com.apocighol.cevicheria.event;
+
+/**
+ * Evento publicado por RecetaService cuando cambia la receta de un producto
+ * (asignada, insumo agregado / quitado o receta eliminada).
+ */
+public record RecetaEvento(Long idProducto) {
+}
@@ -0,0 +1,10 @@
+package com.apocighol.cevicheria.event;
+
+import java.util.Collection;
+
+/**
+ * Evento publicado cuando cambia el stock_actual de uno o más insumos
+ * (compra, venta, descuento por receta, ajuste manual o eliminación).
+ */
+public record StockEvento(Collection<Long> idsInsumo) {
+}
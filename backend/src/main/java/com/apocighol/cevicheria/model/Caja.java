@@ -1,5 +1,6 @@
 package com.apocighol.cevicheria.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -17,7 +18,9 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cajas")
+@Table(name = "cajas", indexes = {
+    @Index(name = "idx_cajas_estado_fecha_hora", columnList = "estado_caja, fecha_apertura, hora_apertura, id_caja")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Caja {
     
@@ -77,6 +80,23 @@ public class Caja {
     @Column(name = "observaciones", columnDefinition = "TEXT")
     private String observaciones;
     
+    /**
+     * TRUE mientras la caja está ABIERTA, NULL al cerrarla.
+     * El índice UNIQUE admite muchos NULL pero un solo TRUE:
+     * la BD garantiza que no haya dos cajas abiertas a la vez.
+     */
+    @JsonIgnore
+    @Column(name = "marca_abierta", unique = true)
+    private Boolean marcaAbierta;
+    
+    /**
+     * Bloqueo optimista: cada venta o egreso lo incrementa,
+     * así el cierre no puede pisar totales registrados mientras tanto
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
     // ==========================================
     // MÉTODOS
     // ==========================================
@@ -89,8 +109,5 @@ public class Caja {
         if (horaApertura == null) {
             horaApertura = LocalTime.now();
         }
-        if (codigoCaja == null || codigoCaja.isEmpty()) {
-            codigoCaja = "CAJA-" + System.currentTimeMillis();
-        }
     }
 }
\ No newline at end of file
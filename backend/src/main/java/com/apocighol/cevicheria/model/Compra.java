@@ -6,7 +6,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -23,7 +23,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "compras")
+@Table(name = "compras", indexes = {
+    @Index(name = "idx_compras_fecha_hora", columnList = "fecha_compra, hora_compra, id_compra")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Compra {
     
@@ -45,7 +47,7 @@ public class Compra {
     private LocalTime horaCompra;
     
     @Column(name = "total_compra", precision = 10, scale = 2)
-    private BigDecimal totalCompra = BigDecimal.ZERO;
+    private Dinero totalCompra = Dinero.CERO;
     
     @Column(name = "observaciones", columnDefinition = "TEXT")
     private String observaciones;
@@ -61,17 +63,20 @@ public class Compra {
      * Relación con Proveedor
      * JsonIgnoreProperties evita ciclos infinitos
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_proveedor", insertable = false, updatable = false)
     @JsonIgnoreProperties({"compras", "hibernateLazyInitializer", "handler"})
     private Proveedor proveedor;
     
     /**
      * Relación con Detalles de Compra
-     * 🔥 FetchType.EAGER para cargar siempre los detalles
+     * 🔥 LAZY: los listados leen CompraResumen; el detalle de una compra
+     * se carga con @EntityGraph (CompraRepository.findConDetallesByIdCompra)
      * JsonManagedReference evita ciclos infinitos
+     * BatchSize: si varias compras inicializan sus detalles, salen en un solo SELECT ... IN
      */
-    @OneToMany(mappedBy = "compra", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "compra", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<CompraDetalle> detalles = new ArrayList<>();
     
@@ -79,13 +84,6 @@ public class Compra {
     // MÉTODOS DE NEGOCIO
     // ==========================================
     
-    /**
-     * Genera código único para la compra
-     */
-    public void generarCodigo() {
-        this.codigoCompra = "COMP-" + System.currentTimeMillis();
-    }
-    
     /**
      * Agrega un detalle a la compra
      */
@@ -100,9 +98,11 @@ public class Compra {
      * Recalcula el total de la compra sumando todos los detalles
      */
     public void recalcularTotal() {
-        this.totalCompra = detalles.stream()
-            .map(CompraDetalle::getSubtotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long centimos = 0;
+        for (CompraDetalle detalle : detalles) {
+            centimos += detalle.getSubtotal().centimos();
+        }
+        this.totalCompra = Dinero.deCentimos(centimos);
     }
     
     /**
@@ -121,8 +121,5 @@ public class Compra {
         if (horaCompra == null) {
             horaCompra = LocalTime.now();
         }
-        if (codigoCompra == null || codigoCompra.isEmpty()) {
-            generarCodigo();
-        }
     }
 }
\ No newline at end of file
@@ -37,10 +37,10 @@ public class CompraDetalle {
     private BigDecimal cantidad;
     
     @Column(name = "precio_unitario", nullable = false, precision = 10, scale = 2)
-    private BigDecimal precioUnitario;
+    private Dinero precioUnitario;
     
     @Column(name = "subtotal", precision = 10, scale = 2)
-    private BigDecimal subtotal;
+    private Dinero subtotal;
     
     // ==========================================
     // RELACIONES - 🔥 CORREGIDAS
@@ -58,7 +58,7 @@ public class CompraDetalle {
     /**
      * Relación con Insumo
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_insumo", insertable = false, updatable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Insumo insumo;
@@ -72,7 +72,7 @@ public class CompraDetalle {
      */
     public void calcularSubtotal() {
         if (this.cantidad != null && this.precioUnitario != null) {
-            this.subtotal = this.cantidad.multiply(this.precioUnitario);
+            this.subtotal = this.precioUnitario.por(this.cantidad);
         }
     }
     
@@ -0,0 +1,75 @@
+package com.apocighol.cevicheria.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Posición de la última fila de una página (keyset / seek).
+ *
+ * La siguiente página se pide "después de" esos valores de ordenamiento
+ * (ej. fecha, hora, id) en vez de con OFFSET: el costo no crece con el
+ * historial y no se saltan ni repiten filas si entran nuevas mientras se pagina.
+ *
+ * Viaja al cliente como texto opaco (Base64 URL-safe).
+ */
+public record CursorKeyset(List<String> valores) {
+
+    // Separador de unidad ASCII: no aparece en nombres ni fechas
+    private static final String SEPARADOR = "\u001F";
+
+    public static CursorKeyset de(Object... valores) {
+        List<String> textos = new ArrayList<>(valores.length);
+        for (Object valor : valores) {
+            textos.add(valor != null ? valor.toString() : "");
+        }
+        return new CursorKeyset(List.copyOf(textos));
+    }
+
+    public static CursorKeyset decodificar(String cursor, int cantidadValores) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] valores = texto.split(Pattern.quote(SEPARADOR), -1);
+            if (valores.length != cantidadValores) {
+                throw new IllegalArgumentException();
+            }
+            return new CursorKeyset(List.of(valores));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor de paginación no válido");
+        }
+    }
+
+    public String codificar() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(String.join(SEPARADOR, valores).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate fecha(int indice) {
+        return convertir(indice, LocalDate::parse);
+    }
+
+    public LocalTime hora(int indice) {
+        return convertir(indice, LocalTime::parse);
+    }
+
+    public Long id(int indice) {
+        return convertir(indice, Long::valueOf);
+    }
+
+    public String texto(int indice) {
+        return valores.get(indice);
+    }
+
+    private <T> T convertir(int indice, Function<String, T> conversion) {
+        try {
+            return conversion.apply(valores.get(indice));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor de paginación no válido");
+        }
+    }
+}
@@ -6,7 +6,6 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 
 /**
  * Entidad DetallePedido - Detalle de cada pedido
@@ -21,7 +20,8 @@ import java.math.BigDecimal;
 public class DetallePedido {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_pedidos_seq")
+    @SequenceGenerator(name = "detalle_pedidos_seq", sequenceName = "detalle_pedidos_seq", allocationSize = 50)
     @Column(name = "id_detalle")
     private Long idDetalle;
     
@@ -35,10 +35,10 @@ public class DetallePedido {
     private Integer cantidad;
     
     @Column(name = "precio_unitario", precision = 10, scale = 2)
-    private BigDecimal precioUnitario;
+    private Dinero precioUnitario;
     
     @Column(name = "subtotal", precision = 10, scale = 2)
-    private BigDecimal subtotal;
+    private Dinero subtotal;
     
     @Column(name = "observaciones", columnDefinition = "TEXT")
     private String observaciones;
@@ -58,7 +58,7 @@ public class DetallePedido {
     
     public void calcularSubtotal() {
         if (this.cantidad != null && this.precioUnitario != null) {
-            this.subtotal = this.precioUnitario.multiply(BigDecimal.valueOf(this.cantidad));
+            this.subtotal = this.precioUnitario.por(this.cantidad);
         }
     }
     
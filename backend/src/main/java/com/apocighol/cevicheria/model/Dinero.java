@@ -0,0 +1,175 @@
+package com.apocighol.cevicheria.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.annotation.JsonDeserialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * ==========================================
+ * DINERO (soles en céntimos, punto fijo)
+ *
+ * Reemplaza a BigDecimal en montos de pedidos, movimientos de caja
+ * y compras: sumar y multiplicar son operaciones sobre un long,
+ * sin crear objetos intermedios (los bucles trabajan con centimos()).
+ *
+ * - En BD: DECIMAL(10,2) vía DineroConverter
+ * - En JSON: el mismo número con 2 decimales que antes (25.00);
+ *   al leer se parsea directo del token (sin BigDecimal ni double)
+ * ==========================================
+ */
+@JsonDeserialize(using = Dinero.Lector.class)
+public record Dinero(long centimos) implements Comparable<Dinero> {
+
+    public static final Dinero CERO = new Dinero(0);
+
+    public static Dinero deCentimos(long centimos) {
+        return centimos == 0 ? CERO : new Dinero(centimos);
+    }
+
+    /**
+     * Desde BigDecimal (redondeo HALF_UP a 2 decimales)
+     */
+    public static Dinero de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        return deCentimos(valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    /**
+     * Desde texto ("25", "25.5", "-3.40") sin pasar por BigDecimal.
+     * Formatos raros (exponente, más de 2 decimales) caen a BigDecimal.
+     */
+    public static Dinero de(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String valor = texto.trim();
+        int i = 0;
+        boolean negativo = false;
+        if (i < valor.length() && (valor.charAt(i) == '-' || valor.charAt(i) == '+')) {
+            negativo = valor.charAt(i) == '-';
+            i++;
+        }
+
+        long entero = 0;
+        int digitos = 0;
+        while (i < valor.length() && Character.isDigit(valor.charAt(i)) && digitos < 15) {
+            entero = entero * 10 + (valor.charAt(i++) - '0');
+            digitos++;
+        }
+
+        long decimales = 0;
+        int cantidadDecimales = 0;
+        if (i < valor.length() && valor.charAt(i) == '.') {
+            i++;
+            while (i < valor.length() && Character.isDigit(valor.charAt(i)) && cantidadDecimales < 2) {
+                decimales = decimales * 10 + (valor.charAt(i++) - '0');
+                cantidadDecimales++;
+            }
+        }
+
+        if (i != valor.length() || (digitos == 0 && cantidadDecimales == 0)) {
+            try {
+                return de(new BigDecimal(valor));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Monto inválido: " + texto);
+            }
+        }
+
+        if (cantidadDecimales == 1) {
+            decimales *= 10;
+        }
+        long centimos = entero * 100 + decimales;
+        return deCentimos(negativo ? -centimos : centimos);
+    }
+
+    // ==========================================
+    // ARITMÉTICA
+    // ==========================================
+
+    public Dinero mas(Dinero otro) {
+        return deCentimos(Math.addExact(centimos, otro.centimos));
+    }
+
+    public Dinero menos(Dinero otro) {
+        return deCentimos(Math.subtractExact(centimos, otro.centimos));
+    }
+
+    public Dinero por(int cantidad) {
+        return deCentimos(Math.multiplyExact(centimos, (long) cantidad));
+    }
+
+    /**
+     * Por una cantidad fraccionaria (p. ej. 2.5 kg de insumo), redondeo HALF_UP
+     */
+    public Dinero por(BigDecimal cantidad) {
+        return de(BigDecimal.valueOf(centimos, 2).multiply(cantidad));
+    }
+
+    public Dinero negar() {
+        return deCentimos(-centimos);
+    }
+
+    public Dinero abs() {
+        return centimos < 0 ? negar() : this;
+    }
+
+    public boolean esCero() {
+        return centimos == 0;
+    }
+
+    public boolean esNegativo() {
+        return centimos < 0;
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centimos, otro.centimos);
+    }
+
+    // ==========================================
+    // CONVERSIÓN
+    // ==========================================
+
+    @JsonValue
+    public BigDecimal aBigDecimal() {
+        return BigDecimal.valueOf(centimos, 2);
+    }
+
+    @Override
+    public String toString() {
+        return aBigDecimal().toPlainString();
+    }
+
+    // ==========================================
+    // JSON → DINERO
+    // ==========================================
+
+    /**
+     * Enteros (25) van directo a céntimos; decimales y texto ("25.50")
+     * pasan por de(String), que no crea BigDecimal en el caso normal.
+     */
+    static final class Lector extends ValueDeserializer<Dinero> {
+
+        @Override
+        public Dinero deserialize(JsonParser p, DeserializationContext ctxt) {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT) {
+                return deCentimos(p.getIntValue() * 100L);
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                    || token == JsonToken.VALUE_STRING) {
+                String texto = p.getString();
+                return texto.isBlank() ? null : de(texto);
+            }
+            return (Dinero) ctxt.handleUnexpectedToken(Dinero.class, p);
+        }
+    }
+}
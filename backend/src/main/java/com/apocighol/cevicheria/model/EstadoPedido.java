@@ -0,0 +1,95 @@
+package com.apocighol.cevicheria.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ==========================================
+ * ESTADOS DEL PEDIDO (máquina de estados)
+ *
+ * PENDIENTE → PREPARANDO → LISTO → SERVIDO → COBRADO
+ *
+ * - ENTREGADO / PAGADO: variantes de SERVIDO / COBRADO
+ * - CANCELADO: antes de que salga de cocina
+ * - ANULADO: en cualquier momento antes del cobro
+ *
+ * Las transiciones permitidas se guardan como máscara de bits:
+ * validar un cambio es un AND, sin listas ni toUpperCase().
+ * ==========================================
+ */
+public enum EstadoPedido {
+
+    PENDIENTE,
+    PREPARANDO,
+    LISTO,
+    SERVIDO,
+    ENTREGADO,
+    COBRADO,
+    PAGADO,
+    CANCELADO,
+    ANULADO;
+
+    /** Pedidos que siguen en el tablero de cocina / mesero */
+    public static final Set<EstadoPedido> ACTIVOS = EnumSet.of(PENDIENTE, PREPARANDO, LISTO, SERVIDO);
+
+    /** Pedidos que aún no llegaron a la mesa (bloquean el cobro) */
+    public static final Set<EstadoPedido> SIN_SERVIR = EnumSet.of(PENDIENTE, PREPARANDO, LISTO);
+
+    /** Pedidos que se pueden cobrar */
+    public static final Set<EstadoPedido> POR_COBRAR = EnumSet.of(SERVIDO, ENTREGADO);
+
+    private static final Map<String, EstadoPedido> POR_NOMBRE = new HashMap<>();
+
+    private int siguientes;
+
+    static {
+        permitir(PENDIENTE, PREPARANDO, CANCELADO, ANULADO);
+        permitir(PREPARANDO, LISTO, CANCELADO, ANULADO);
+        permitir(LISTO, SERVIDO, ENTREGADO, ANULADO);
+        permitir(SERVIDO, ENTREGADO, COBRADO, PAGADO, ANULADO);
+        permitir(ENTREGADO, COBRADO, PAGADO, ANULADO);
+
+        // El frontend y los datos antiguos usan minúsculas ('servido')
+        for (EstadoPedido estado : values()) {
+            POR_NOMBRE.put(estado.name(), estado);
+            POR_NOMBRE.put(estado.name().toLowerCase(), estado);
+        }
+    }
+
+    private static void permitir(EstadoPedido origen, EstadoPedido... destinos) {
+        for (EstadoPedido destino : destinos) {
+            origen.siguientes |= 1 << destino.ordinal();
+        }
+    }
+
+    public boolean puedePasarA(EstadoPedido destino) {
+        return (siguientes & (1 << destino.ordinal())) != 0;
+    }
+
+    public boolean esActivo() {
+        return ACTIVOS.contains(this);
+    }
+
+    /**
+     * Convierte el texto recibido (API o BD) al enum.
+     * Mayúsculas y minúsculas exactas se resuelven con un solo lookup.
+     */
+    @JsonCreator
+    public static EstadoPedido desde(String texto) {
+        if (texto == null) {
+            throw new RuntimeException("Debe especificar el estado del pedido");
+        }
+        EstadoPedido estado = POR_NOMBRE.get(texto);
+        if (estado == null) {
+            estado = POR_NOMBRE.get(texto.trim().toUpperCase());
+        }
+        if (estado == null) {
+            throw new RuntimeException("Estado de pedido inválido: " + texto);
+        }
+        return estado;
+    }
+}
@@ -0,0 +1,23 @@
+package com.apocighol.cevicheria.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda EstadoPedido en la misma columna VARCHAR estado_pedido
+ * (siempre en MAYÚSCULAS para que idx_estado_pedido sirva a los IN (...)).
+ * Lee también filas antiguas en minúsculas.
+ */
+@Converter(autoApply = true)
+public class EstadoPedidoConverter implements AttributeConverter<EstadoPedido, String> {
+
+    @Override
+    public String convertToDatabaseColumn(EstadoPedido estado) {
+        return estado != null ? estado.name() : null;
+    }
+
+    @Override
+    public EstadoPedido convertToEntityAttribute(String valor) {
+        return valor != null ? EstadoPedido.desde(valor) : null;
+    }
+}
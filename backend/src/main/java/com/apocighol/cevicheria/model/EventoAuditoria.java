@@ -0,0 +1,52 @@
+package com.apocighol.cevicheria.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de auditoría (solo se inserta, nunca se actualiza).
+ *
+ * Lo escribe RegistroAuditoria en lotes desde su propio hilo; por eso
+ * el id sale de una secuencia y no de IDENTITY (permite batch JDBC).
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "auditoria", indexes = {
+    @Index(name = "idx_auditoria_entidad", columnList = "entidad, id_entidad"),
+    @Index(name = "idx_auditoria_tipo_fecha", columnList = "tipo, fecha_hora")
+})
+public class EventoAuditoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditoria_seq")
+    @SequenceGenerator(name = "auditoria_seq", sequenceName = "auditoria_seq", allocationSize = 50)
+    @Column(name = "id_evento")
+    private Long idEvento;
+
+    @Column(name = "fecha_hora", nullable = false, updatable = false)
+    private LocalDateTime fechaHora;
+
+    @Column(name = "tipo", length = 30, nullable = false, updatable = false)
+    private String tipo;
+
+    @Column(name = "entidad", length = 30, nullable = false, updatable = false)
+    private String entidad;
+
+    @Column(name = "id_entidad", updatable = false)
+    private Long idEntidad;
+
+    @Column(name = "referencia", length = 60, updatable = false)
+    private String referencia;
+
+    @Column(name = "usuario", length = 100, updatable = false)
+    private String usuario;
+
+    @Column(name = "detalle", length = 500, updatable = false)
+    private String detalle;
+}
@@ -15,7 +15,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "insumos")
+@Table(name = "insumos", indexes = {
+    @Index(name = "idx_insumos_nombre", columnList = "nombre_insumo, id_insumo")
+})
 public class Insumo {
     
     @Id
@@ -5,7 +5,6 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -32,16 +31,16 @@ public class MovimientoCaja {
     private String descripcion;
     
     @Column(name = "monto", precision = 10, scale = 2)
-    private BigDecimal monto = BigDecimal.ZERO;
+    private Dinero monto = Dinero.CERO;
     
     @Column(name = "metodo_pago", length = 30)
     private String metodoPago;
     
     @Column(name = "monto_recibido", precision = 10, scale = 2)
-    private BigDecimal montoRecibido = BigDecimal.ZERO;
+    private Dinero montoRecibido = Dinero.CERO;
     
     @Column(name = "vuelto", precision = 10, scale = 2)
-    private BigDecimal vuelto = BigDecimal.ZERO;
+    private Dinero vuelto = Dinero.CERO;
     
     @Column(name = "fecha_movimiento")
     private LocalDate fechaMovimiento;
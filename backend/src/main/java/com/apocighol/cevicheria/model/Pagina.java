@@ -0,0 +1,34 @@
+package com.apocighol.cevicheria.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Una página de resultados y el cursor de la siguiente (null si es la última).
+ */
+public record Pagina<T>(List<T> items, String siguienteCursor) {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Ajusta el tamaño pedido por el cliente a [1, LIMITE_MAXIMO]
+     */
+    public static int limiteValido(Integer limite) {
+        if (limite == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    /**
+     * filas: resultado de consultar limite + 1; la fila extra solo indica que hay más
+     */
+    public static <T> Pagina<T> de(List<T> filas, int limite, Function<T, CursorKeyset> cursorDe) {
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> items = filas.subList(0, limite);
+        return new Pagina<>(items, cursorDe.apply(items.get(limite - 1)).codificar());
+    }
+}
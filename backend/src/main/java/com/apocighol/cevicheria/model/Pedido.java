@@ -6,7 +6,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -20,12 +20,20 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    @Index(name = "idx_pedidos_fecha_hora", columnList = "fecha_pedido, hora_pedido, id_pedido")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Pedido {
     
+    /**
+     * ID por secuencia (no IDENTITY) para que Hibernate pueda agrupar
+     * los INSERT del pedido y sus detalles en un solo batch JDBC.
+     * En MySQL la secuencia se emula con la tabla pedidos_seq.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_seq")
+    @SequenceGenerator(name = "pedidos_seq", sequenceName = "pedidos_seq", allocationSize = 50)
     @Column(name = "id_pedido")
     private Long idPedido;
     
@@ -45,10 +53,10 @@ public class Pedido {
     private LocalTime horaPedido;
     
     @Column(name = "estado_pedido", length = 20)
-    private String estadoPedido = "PENDIENTE";
+    private EstadoPedido estadoPedido = EstadoPedido.PENDIENTE;
     
     @Column(name = "total_pedido", precision = 10, scale = 2)
-    private BigDecimal totalPedido = BigDecimal.ZERO;
+    private Dinero totalPedido = Dinero.CERO;
     
     @Column(name = "observaciones", columnDefinition = "TEXT")
     private String observaciones;
@@ -57,7 +65,11 @@ public class Pedido {
     // RELACIONES
     // ==========================================
     
-    @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // LAZY: los listados leen PedidoResumen sin tocar detalle_pedidos; quien necesita
+    // las líneas las pide con @EntityGraph (ver PedidoRepository)
+    // BatchSize: si varios pedidos inicializan sus detalles, salen en un solo SELECT ... IN
+    @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<DetallePedido> detalles = new ArrayList<>();
     
@@ -72,9 +84,11 @@ public class Pedido {
     }
     
     public void recalcularTotal() {
-        this.totalPedido = detalles.stream()
-            .map(DetallePedido::getSubtotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long centimos = 0;
+        for (DetallePedido detalle : detalles) {
+            centimos += detalle.getSubtotal().centimos();
+        }
+        this.totalPedido = Dinero.deCentimos(centimos);
     }
     
     @PrePersist
@@ -86,7 +100,7 @@ public class Pedido {
             horaPedido = LocalTime.now();
         }
         if (estadoPedido == null) {
-            estadoPedido = "PENDIENTE";
+            estadoPedido = EstadoPedido.PENDIENTE;
         }
     }
 }
\ No newline at end of file
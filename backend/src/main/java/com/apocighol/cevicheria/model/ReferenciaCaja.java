@@ -0,0 +1,14 @@
+package com.apocighol.cevicheria.model;
+
+import java.time.LocalDate;
+
+/**
+ * Identidad de una caja sin sus totales (que cambian con cada venta).
+ * Es lo que guarda CajaAbiertaHolder y lo que viaja en CajaEvento.
+ */
+public record ReferenciaCaja(Long idCaja, String codigoCaja, LocalDate fechaApertura) {
+
+    public static ReferenciaCaja de(Caja caja) {
+        return new ReferenciaCaja(caja.getIdCaja(), caja.getCodigoCaja(), caja.getFechaApertura());
+    }
+}
@@ -0,0 +1,29 @@
+package com.apocighol.cevicheria.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Último número reservado de una secuencia de códigos
+ * Tabla: secuencias_codigo
+ *
+ * La clave es prefijo + día ("PED-20261018"), así que cada día
+ * empieza en 1 sin borrar nada. GeneradorCodigos la avanza por
+ * bloques y reparte los números desde memoria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "secuencias_codigo")
+public class SecuenciaCodigo {
+
+    @Id
+    @Column(name = "clave", length = 30)
+    private String clave;
+
+    @Column(name = "ultimo", nullable = false)
+    private long ultimo;
+}
@@ -1,25 +1,34 @@
 package com.apocighol.cevicheria.repository;
 
 import com.apocighol.cevicheria.model.Caja;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CajaRepository extends JpaRepository<Caja, Long> {
     
-    // Buscar caja abierta (una sola)
-    Optional<Caja> findByEstadoCaja(String estadoCaja);
-    
     // Buscar TODAS las cajas por estado (lista)
     List<Caja> findAllByEstadoCajaOrderByFechaAperturaDesc(String estadoCaja);
     
+    // 🔥 Paginación keyset por estado (idx_cajas_estado_fecha_hora)
+    List<Caja> findByEstadoCajaOrderByFechaAperturaDescHoraAperturaDescIdCajaDesc(String estadoCaja, Limit limite);
+    
+    @Query("SELECT c FROM Caja c WHERE c.estadoCaja = :estado AND (c.fechaApertura < :fecha " +
+           "OR (c.fechaApertura = :fecha AND (c.horaApertura < :hora OR (c.horaApertura = :hora AND c.idCaja < :id)))) " +
+           "ORDER BY c.fechaApertura DESC, c.horaApertura DESC, c.idCaja DESC")
+    List<Caja> buscarPaginaDespuesDe(@Param("estado") String estadoCaja, @Param("fecha") LocalDate fecha,
+                                     @Param("hora") LocalTime hora, @Param("id") Long id, Limit limite);
+    
     // Buscar por código
     Optional<Caja> findByCodigoCaja(String codigoCaja);
     
@@ -33,6 +42,36 @@ public interface CajaRepository extends JpaRepository<Caja, Long> {
     @Query("SELECT COALESCE(SUM(c.totalVentas), 0) FROM Caja c WHERE c.fechaApertura = :fecha")
     BigDecimal sumVentasByFecha(@Param("fecha") LocalDate fecha);
     
+    // Suma de ventas por fecha sin la caja abierta (sus totales en la fila pueden ir atrasados)
+    @Query("SELECT COALESCE(SUM(c.totalVentas), 0) FROM Caja c WHERE c.fechaApertura = :fecha AND c.marcaAbierta IS NULL")
+    BigDecimal sumVentasCerradasByFecha(@Param("fecha") LocalDate fecha);
+    
+    // Caja abierta según la marca única (como máximo una fila)
+    Optional<Caja> findByMarcaAbiertaTrue();
+
+    // 🔥 Volcado de los acumuladores en memoria (AcumuladorCaja): suma en la BD, sin leer la fila.
+    // 0 filas = la caja ya no está abierta. VERSIONED para que un cierre concurrente lo note.
+    @Modifying
+    @Query("UPDATE VERSIONED Caja c SET c.totalVentas = c.totalVentas + :ventas, " +
+           "c.totalEfectivo = c.totalEfectivo + :efectivo, c.totalYape = c.totalYape + :yape, " +
+           "c.totalPlin = c.totalPlin + :plin, c.totalTarjeta = c.totalTarjeta + :tarjeta, " +
+           "c.totalEgresos = c.totalEgresos + :egresos " +
+           "WHERE c.idCaja = :idCaja AND c.marcaAbierta = TRUE")
+    int sumarTotales(@Param("idCaja") Long idCaja, @Param("ventas") BigDecimal ventas,
+                     @Param("efectivo") BigDecimal efectivo, @Param("yape") BigDecimal yape,
+                     @Param("plin") BigDecimal plin, @Param("tarjeta") BigDecimal tarjeta,
+                     @Param("egresos") BigDecimal egresos);
+
+    // Totales recalculados desde movimientos_caja (al reiniciar)
+    @Modifying
+    @Query("UPDATE VERSIONED Caja c SET c.totalVentas = :ventas, c.totalEfectivo = :efectivo, " +
+           "c.totalYape = :yape, c.totalPlin = :plin, c.totalTarjeta = :tarjeta, c.totalEgresos = :egresos " +
+           "WHERE c.idCaja = :idCaja")
+    int establecerTotales(@Param("idCaja") Long idCaja, @Param("ventas") BigDecimal ventas,
+                          @Param("efectivo") BigDecimal efectivo, @Param("yape") BigDecimal yape,
+                          @Param("plin") BigDecimal plin, @Param("tarjeta") BigDecimal tarjeta,
+                          @Param("egresos") BigDecimal egresos);
+
     // Contar cajas abiertas
     long countByEstadoCaja(String estadoCaja);
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.apocighol.cevicheria.repository;
 
+import com.apocighol.cevicheria.dto.CompraResumen;
 import com.apocighol.cevicheria.model.Compra;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,25 +23,53 @@ import java.util.Optional;
 @Repository
 public interface CompraRepository extends JpaRepository<Compra, Long> {
     
+    // 🔥 Cabecera + nombre del proveedor en una sola fila, sin cargar Proveedor ni líneas
+    String RESUMEN = "SELECT new com.apocighol.cevicheria.dto.CompraResumen(c.idCompra, c.codigoCompra, " +
+                     "c.idProveedor, p.nombreProveedor, c.fechaCompra, c.horaCompra, c.totalCompra, c.observaciones) " +
+                     "FROM Compra c LEFT JOIN c.proveedor p ";
+    
     // ==========================================
-    // BÚSQUEDAS
+    // CON DETALLES (fetch plan explícito)
     // ==========================================
     
+    @EntityGraph(attributePaths = {"proveedor", "detalles", "detalles.insumo"})
+    Optional<Compra> findConDetallesByIdCompra(Long idCompra);
+    
+    @EntityGraph(attributePaths = {"proveedor", "detalles", "detalles.insumo"})
     Optional<Compra> findByCodigoCompra(String codigoCompra);
     
+    // ==========================================
+    // BÚSQUEDAS
+    // ==========================================
+    
     List<Compra> findByFechaCompra(LocalDate fechaCompra);
     
     List<Compra> findByIdProveedor(Long idProveedor);
     
-    List<Compra> findByIdProveedorOrderByFechaCompraDesc(Long idProveedor);
+    List<Compra> findAllByOrderByFechaCompraDescHoraCompraDesc();
     
     // ==========================================
-    // ORDENADOS
+    // RESÚMENES (SELECT new CompraResumen)
     // ==========================================
     
-    List<Compra> findAllByOrderByFechaCompraDescHoraCompraDesc();
+    @Query(RESUMEN + "WHERE c.fechaCompra = :fecha ORDER BY c.horaCompra DESC")
+    List<CompraResumen> resumenPorFecha(@Param("fecha") LocalDate fecha);
+    
+    @Query(RESUMEN + "WHERE c.fechaCompra BETWEEN :inicio AND :fin ORDER BY c.fechaCompra DESC")
+    List<CompraResumen> resumenEntreFechas(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+    
+    @Query(RESUMEN + "WHERE c.idProveedor = :idProveedor ORDER BY c.fechaCompra DESC")
+    List<CompraResumen> resumenPorProveedor(@Param("idProveedor") Long idProveedor);
+    
+    // 🔥 Paginación keyset (idx_compras_fecha_hora)
+    @Query(RESUMEN + "ORDER BY c.fechaCompra DESC, c.horaCompra DESC, c.idCompra DESC")
+    List<CompraResumen> resumenPrimeraPagina(Limit limite);
     
-    List<Compra> findByFechaCompraBetweenOrderByFechaCompraDesc(LocalDate inicio, LocalDate fin);
+    @Query(RESUMEN + "WHERE c.fechaCompra < :fecha " +
+           "OR (c.fechaCompra = :fecha AND (c.horaCompra < :hora OR (c.horaCompra = :hora AND c.idCompra < :id))) " +
+           "ORDER BY c.fechaCompra DESC, c.horaCompra DESC, c.idCompra DESC")
+    List<CompraResumen> resumenDespuesDe(@Param("fecha") LocalDate fecha, @Param("hora") LocalTime hora,
+                                         @Param("id") Long id, Limit limite);
     
     // ==========================================
     // CONTEOS
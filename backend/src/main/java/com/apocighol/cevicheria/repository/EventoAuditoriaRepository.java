@@ -0,0 +1,29 @@
+package com.apocighol.cevicheria.repository;
+
+import com.apocighol.cevicheria.model.EventoAuditoria;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ==========================================
+ * EVENTO AUDITORIA REPOSITORY
+ * ==========================================
+ */
+@Repository
+public interface EventoAuditoriaRepository extends JpaRepository<EventoAuditoria, Long> {
+
+    // Historial de una entidad (ej. pedido 15), en orden cronológico
+    List<EventoAuditoria> findByEntidadAndIdEntidadOrderByIdEventoAsc(String entidad, Long idEntidad);
+
+    // Últimos eventos de un tipo en un rango de fechas
+    List<EventoAuditoria> findByTipoAndFechaHoraBetweenOrderByIdEventoDesc(String tipo, LocalDateTime desde,
+                                                                           LocalDateTime hasta, Limit limite);
+
+    // Últimos eventos de cualquier tipo
+    List<EventoAuditoria> findByFechaHoraBetweenOrderByIdEventoDesc(LocalDateTime desde, LocalDateTime hasta,
+                                                                    Limit limite);
+}
@@ -1,11 +1,16 @@
 package com.apocighol.cevicheria.repository;
 
 import com.apocighol.cevicheria.model.Insumo;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +19,7 @@ import java.util.Optional;
  * Proporciona métodos CRUD y consultas personalizadas
  */
 @Repository
-public interface InsumoRepository extends JpaRepository<Insumo, Long> {
+public interface InsumoRepository extends JpaRepository<Insumo, Long>, InsumoRepositoryCustom {
     
     // ==========================================
     // BÚSQUEDAS BÁSICAS
@@ -26,9 +31,16 @@ public interface InsumoRepository extends JpaRepository<Insumo, Long> {
     Optional<Insumo> findByNombreInsumo(String nombreInsumo);
     
     /**
-     * Busca insumos que contengan el texto en el nombre
+     * Nombres de todos los insumos (id, nombre) para el índice de búsqueda
      */
-    List<Insumo> findByNombreInsumoContainingIgnoreCase(String nombre);
+    @Query("SELECT i.idInsumo, i.nombreInsumo FROM Insumo i")
+    List<Object[]> findNombres();
+    
+    /**
+     * Nombre leído de la fila (no de una entidad en caché del contexto de persistencia)
+     */
+    @Query("SELECT i.nombreInsumo FROM Insumo i WHERE i.idInsumo = :id")
+    Optional<String> findNombreById(@Param("id") Long id);
     
     /**
      * Busca insumos por categoría
@@ -40,6 +52,15 @@ public interface InsumoRepository extends JpaRepository<Insumo, Long> {
      */
     List<Insumo> findAllByOrderByNombreInsumoAsc();
     
+    /**
+     * Paginación keyset por nombre (idx_insumos_nombre); el id desempata nombres iguales
+     */
+    List<Insumo> findAllByOrderByNombreInsumoAscIdInsumoAsc(Limit limite);
+    
+    @Query("SELECT i FROM Insumo i WHERE i.nombreInsumo > :nombre OR (i.nombreInsumo = :nombre AND i.idInsumo > :id) " +
+           "ORDER BY i.nombreInsumo ASC, i.idInsumo ASC")
+    List<Insumo> buscarPaginaDespuesDe(@Param("nombre") String nombre, @Param("id") Long id, Limit limite);
+    
     // ==========================================
     // CONSULTAS DE STOCK
     // ==========================================
@@ -66,7 +87,52 @@ public interface InsumoRepository extends JpaRepository<Insumo, Long> {
      * Busca insumos con stock mayor a cierta cantidad
      */
     @Query("SELECT i FROM Insumo i WHERE i.stockActual >= :cantidad")
-    List<Insumo> findInsumosConStockMayorA(@Param("cantidad") java.math.BigDecimal cantidad);
+    List<Insumo> findInsumosConStockMayorA(@Param("cantidad") BigDecimal cantidad);
+    
+    /**
+     * Stock actual de todos los insumos (id, stock) en una sola consulta
+     */
+    @Query("SELECT i.idInsumo, i.stockActual FROM Insumo i")
+    List<Object[]> findStockActual();
+    
+    /**
+     * Stock actual (id, stock) solo de los insumos indicados
+     */
+    @Query("SELECT i.idInsumo, i.stockActual FROM Insumo i WHERE i.idInsumo IN :ids")
+    List<Object[]> findStockActualDe(@Param("ids") Collection<Long> ids);
+    
+    // ==========================================
+    // MOVIMIENTOS ATÓMICOS DE STOCK
+    // 🔥 La BD hace el cálculo en un solo UPDATE: dos pedidos
+    // simultáneos no pueden pisarse el stock (sin read-modify-write)
+    // ==========================================
+    
+    /**
+     * Suma al stock actual
+     * @return filas afectadas (0 si el insumo no existe)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Insumo i SET i.stockActual = COALESCE(i.stockActual, 0) + :cantidad, i.fechaActualizacion = :ahora " +
+           "WHERE i.idInsumo = :id")
+    int sumarStock(@Param("id") Long id, @Param("cantidad") BigDecimal cantidad, @Param("ahora") LocalDateTime ahora);
+    
+    /**
+     * Resta solo si alcanza el stock
+     * @return 1 si se descontó, 0 si no alcanzó (o no existe)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Insumo i SET i.stockActual = i.stockActual - :cantidad, i.fechaActualizacion = :ahora " +
+           "WHERE i.idInsumo = :id AND i.stockActual >= :cantidad")
+    int restarSiAlcanza(@Param("id") Long id, @Param("cantidad") BigDecimal cantidad, @Param("ahora") LocalDateTime ahora);
+    
+    /**
+     * Deja el stock en cero solo si no alcanza para la cantidad pedida
+     * @return 1 si se agotó, 0 si entretanto volvió a alcanzar
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Insumo i SET i.stockActual = 0, i.fechaActualizacion = :ahora " +
+           "WHERE i.idInsumo = :id AND (i.stockActual < :cantidad OR i.stockActual IS NULL)")
+    int agotarSiNoAlcanza(@Param("id") Long id, @Param("cantidad") BigDecimal cantidad, @Param("ahora") LocalDateTime ahora);
     
     // ==========================================
     // CONSULTAS PARA REPORTES
@@ -0,0 +1,26 @@
+package com.apocighol.cevicheria.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de stock en lote (implementadas con JDBC)
+ */
+public interface InsumoRepositoryCustom {
+
+    /**
+     * Resultado del descuento de un insumo
+     */
+    record DescuentoStock(Long idInsumo, String nombreInsumo, BigDecimal cantidadDescontada,
+                          BigDecimal stockRestante, BigDecimal stockMinimo, boolean descontadoCompletamente) {
+    }
+
+    /**
+     * Descuenta varias cantidades en una sola pasada:
+     * 1 SELECT ... FOR UPDATE + 1 batch de UPDATE (sin bajar de 0).
+     *
+     * @param cantidades idInsumo → cantidad total a descontar
+     */
+    List<DescuentoStock> descontarStockEnLote(Map<Long, BigDecimal> cantidades);
+}
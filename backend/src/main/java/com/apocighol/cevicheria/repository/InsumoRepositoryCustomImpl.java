@@ -0,0 +1,99 @@
+package com.apocighol.cevicheria.repository;
+
+import com.apocighol.cevicheria.model.Insumo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Implementación JDBC de InsumoRepositoryCustom.
+ * Participa en la transacción JPA del servicio que la llama; como los
+ * @Modifying de InsumoRepository, vuelca antes los cambios pendientes y
+ * después deja los Insumo cargados con el stock que quedó en la fila.
+ */
+public class InsumoRepositoryCustomImpl implements InsumoRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DescuentoStock> descontarStockEnLote(Map<Long, BigDecimal> cantidades) {
+        if (cantidades.isEmpty()) {
+            return List.of();
+        }
+
+        // Orden por id: todas las transacciones bloquean en el mismo orden (sin deadlocks)
+        TreeMap<Long, BigDecimal> porInsumo = new TreeMap<>(cantidades);
+        entityManager.flush();
+        String marcadores = String.join(",", Collections.nCopies(porInsumo.size(), "?"));
+
+        List<DescuentoStock> resultado = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT id_insumo, nombre_insumo, stock_actual, stock_minimo FROM insumos " +
+            "WHERE id_insumo IN (" + marcadores + ") ORDER BY id_insumo FOR UPDATE",
+            rs -> {
+                Long id = rs.getLong("id_insumo");
+                BigDecimal stock = valor(rs.getBigDecimal("stock_actual"));
+                BigDecimal cantidad = porInsumo.get(id);
+                boolean completo = stock.compareTo(cantidad) >= 0;
+
+                resultado.add(new DescuentoStock(
+                    id,
+                    rs.getString("nombre_insumo"),
+                    cantidad,
+                    completo ? stock.subtract(cantidad) : BigDecimal.ZERO,
+                    valor(rs.getBigDecimal("stock_minimo")),
+                    completo));
+            },
+            porInsumo.keySet().toArray());
+
+        if (resultado.size() != porInsumo.size()) {
+            resultado.forEach(d -> porInsumo.remove(d.idInsumo()));
+            throw new RuntimeException("Insumo no encontrado: " + porInsumo.firstKey());
+        }
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> parametros = new ArrayList<>();
+        for (DescuentoStock descuento : resultado) {
+            parametros.add(new Object[] { descuento.cantidadDescontada(), ahora, descuento.idInsumo() });
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE insumos SET stock_actual = GREATEST(stock_actual - ?, 0), fecha_actualizacion = ? WHERE id_insumo = ?",
+            parametros);
+
+        refrescarCargados(porInsumo.keySet());
+        return resultado;
+    }
+
+    /**
+     * El UPDATE no pasa por Hibernate: un Insumo ya cargado en la transacción
+     * seguiría con el stock anterior y un save() posterior lo escribiría de vuelta.
+     * getReference no consulta la BD; solo se relee lo que ya estaba cargado.
+     */
+    private void refrescarCargados(Iterable<Long> ids) {
+        for (Long id : ids) {
+            Insumo enContexto = entityManager.getReference(Insumo.class, id);
+            if (Hibernate.isInitialized(enContexto)) {
+                entityManager.refresh(enContexto);
+            }
+        }
+    }
+
+    private static BigDecimal valor(BigDecimal numero) {
+        return numero != null ? numero : BigDecimal.ZERO;
+    }
+}
@@ -47,6 +47,10 @@ public interface MesaRepository extends JpaRepository<Mesa, Long> {
     @Query("SELECT COUNT(m) FROM Mesa m WHERE m.estadoMesa = ?1 AND (m.activaMesa = true OR m.activaMesa IS NULL)")
     long countByEstadoMesa(String estado);
 
+    // Contar activas agrupadas por estado (una sola consulta)
+    @Query("SELECT m.estadoMesa, COUNT(m) FROM Mesa m WHERE m.activaMesa = true OR m.activaMesa IS NULL GROUP BY m.estadoMesa")
+    List<Object[]> contarActivasPorEstado();
+
     // Contar activas
     @Query("SELECT COUNT(m) FROM Mesa m WHERE m.activaMesa = true OR m.activaMesa IS NULL")
     long countActivas();
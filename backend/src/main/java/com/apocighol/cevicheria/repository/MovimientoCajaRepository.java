@@ -35,4 +35,9 @@ public interface MovimientoCajaRepository extends JpaRepository<MovimientoCaja,
     // Suma de ventas por caja
     @Query("SELECT COALESCE(SUM(m.monto), 0) FROM MovimientoCaja m WHERE m.idCaja = :idCaja AND m.tipoMovimiento = 'VENTA'")
     BigDecimal sumVentasByCaja(@Param("idCaja") Long idCaja);
-}
\ No newline at end of file
+    
+    // Sumas por tipo y método de pago (fuente de verdad de los totales de la caja)
+    @Query("SELECT m.tipoMovimiento, LOWER(m.metodoPago), COALESCE(SUM(m.monto), 0) FROM MovimientoCaja m " +
+           "WHERE m.idCaja = :idCaja GROUP BY m.tipoMovimiento, LOWER(m.metodoPago)")
+    List<Object[]> sumarPorTipoYMetodo(@Param("idCaja") Long idCaja);
+}
@@ -1,6 +1,10 @@
 package com.apocighol.cevicheria.repository;
 
+import com.apocighol.cevicheria.dto.PedidoResumen;
+import com.apocighol.cevicheria.model.EstadoPedido;
 import com.apocighol.cevicheria.model.Pedido;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,34 +12,83 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     
-    Optional<Pedido> findByCodigoPedido(String codigoPedido);
+    // 🔥 Cabecera sin líneas: una fila por pedido, sin tocar detalle_pedidos
+    String RESUMEN = "SELECT new com.apocighol.cevicheria.dto.PedidoResumen(p.idPedido, p.codigoPedido, " +
+                     "p.numeroMesa, p.mesero, p.fechaPedido, p.horaPedido, p.estadoPedido, p.totalPedido) FROM Pedido p ";
     
-    List<Pedido> findByNumeroMesa(Integer numeroMesa);
+    // ==========================================
+    // CON DETALLES (fetch plan explícito: pedido + líneas en un solo SELECT)
+    // ==========================================
     
-    List<Pedido> findByNumeroMesaOrderByHoraPedidoDesc(Integer numeroMesa);
+    @Override
+    @EntityGraph(attributePaths = "detalles")
+    Optional<Pedido> findById(Long id);
     
-    List<Pedido> findByNumeroMesaAndEstadoPedido(Integer numeroMesa, String estadoPedido);
+    @EntityGraph(attributePaths = "detalles")
+    Optional<Pedido> findByCodigoPedido(String codigoPedido);
     
-    List<Pedido> findByEstadoPedido(String estadoPedido);
+    // 🔥 Un solo IN (...) sobre idx_estado_pedido
+    @EntityGraph(attributePaths = "detalles")
+    List<Pedido> findByNumeroMesaAndEstadoPedidoIn(Integer numeroMesa, Collection<EstadoPedido> estados);
     
+    // Reconstrucción de TableroPedidos al arrancar
+    @EntityGraph(attributePaths = "detalles")
     List<Pedido> findByFechaPedido(LocalDate fechaPedido);
     
+    // ==========================================
+    // SIN DETALLES
+    // ==========================================
+    
+    List<Pedido> findByNumeroMesa(Integer numeroMesa);
+    
+    List<Pedido> findByNumeroMesaAndEstadoPedido(Integer numeroMesa, EstadoPedido estadoPedido);
+    
+    List<Pedido> findByEstadoPedido(EstadoPedido estadoPedido);
+    
+    long countByNumeroMesaAndEstadoPedidoIn(Integer numeroMesa, Collection<EstadoPedido> estados);
+    
     List<Pedido> findAllByOrderByFechaPedidoDescHoraPedidoDesc();
     
+    // ==========================================
+    // RESÚMENES (SELECT new PedidoResumen)
+    // ==========================================
+    
+    @Query(RESUMEN + "WHERE p.numeroMesa = :numeroMesa ORDER BY p.horaPedido DESC")
+    List<PedidoResumen> resumenPorMesa(@Param("numeroMesa") Integer numeroMesa);
+    
+    @Query(RESUMEN + "WHERE p.estadoPedido = :estado")
+    List<PedidoResumen> resumenPorEstado(@Param("estado") EstadoPedido estado);
+    
+    // 🔥 Paginación keyset (idx_pedidos_fecha_hora): primera página y "después de" un cursor
+    @Query(RESUMEN + "ORDER BY p.fechaPedido DESC, p.horaPedido DESC, p.idPedido DESC")
+    List<PedidoResumen> resumenPrimeraPagina(Limit limite);
+    
+    @Query(RESUMEN + "WHERE p.fechaPedido < :fecha " +
+           "OR (p.fechaPedido = :fecha AND (p.horaPedido < :hora OR (p.horaPedido = :hora AND p.idPedido < :id))) " +
+           "ORDER BY p.fechaPedido DESC, p.horaPedido DESC, p.idPedido DESC")
+    List<PedidoResumen> resumenDespuesDe(@Param("fecha") LocalDate fecha, @Param("hora") LocalTime hora,
+                                         @Param("id") Long id, Limit limite);
+    
     long countByFechaPedido(LocalDate fechaPedido);
     
-    long countByEstadoPedido(String estadoPedido);
+    long countByEstadoPedido(EstadoPedido estadoPedido);
+    
+    @Query("SELECT p.estadoPedido, COUNT(p) FROM Pedido p GROUP BY p.estadoPedido")
+    List<Object[]> contarPorEstado();
     
     @Query("SELECT COALESCE(SUM(p.totalPedido), 0) FROM Pedido p WHERE p.fechaPedido = :fecha")
     BigDecimal sumTotalByFechaPedido(@Param("fecha") LocalDate fecha);
     
-    // Contar pedidos NO servidos de una mesa
-    @Query("SELECT COUNT(p) FROM Pedido p WHERE p.numeroMesa = :numeroMesa AND p.estadoPedido != 'SERVIDO' AND p.estadoPedido != 'COBRADO'")
-    long countPedidosNoServidos(@Param("numeroMesa") Integer numeroMesa);
+    // Contar pedidos NO servidos de una mesa (PENDIENTE, PREPARANDO, LISTO)
+    default long countPedidosNoServidos(Integer numeroMesa) {
+        return countByNumeroMesaAndEstadoPedidoIn(numeroMesa, EstadoPedido.SIN_SERVIR);
+    }
 }
\ No newline at end of file
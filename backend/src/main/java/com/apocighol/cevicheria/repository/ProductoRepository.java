@@ -1,8 +1,10 @@
 package com.apocighol.cevicheria.repository;
 
+import com.apocighol.cevicheria.dto.ProductoCarta;
 import com.apocighol.cevicheria.model.Producto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -28,15 +30,10 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     @Query("SELECT p.codigoProducto FROM Producto p WHERE p.codigoProducto LIKE 'PROD-%' ORDER BY p.codigoProducto DESC")
     List<String> findAllCodigosOrdenados();
     
-    /**
-     * Cuenta productos para generar código
-     */
-    @Query("SELECT COUNT(p) FROM Producto p")
-    long contarProductos();
-    
     /**
      * 🔥 CORREGIDO: Obtener el número máximo usando JPQL
      * Evita problemas con nombres de columnas en query nativa
+     * Recorre todos los códigos: solo se usa para sembrar la secuencia PROD
      */
     @Query("SELECT MAX(CAST(SUBSTRING(p.codigoProducto, 6, 10) AS int)) FROM Producto p WHERE p.codigoProducto LIKE 'PROD-%'")
     Integer obtenerMaximoNumeroCodigo();
@@ -47,8 +44,6 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     
     Optional<Producto> findByCodigoProducto(String codigoProducto);
     
-    List<Producto> findByNombreProductoContainingIgnoreCase(String nombre);
-    
     List<Producto> findByCategoriaProducto(String categoria);
     
     List<Producto> findByDisponibleProductoTrue();
@@ -72,4 +67,20 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     boolean existsByCodigoProducto(String codigoProducto);
     
     boolean existsByNombreProductoIgnoreCase(String nombreProducto);
+    
+    // ==========================================
+    // CARTA EN MEMORIA
+    // 🔥 Proyección: siempre lee la fila de la BD, nunca una entidad
+    // que ya esté en el contexto de persistencia
+    // ==========================================
+    
+    @Query("SELECT new com.apocighol.cevicheria.dto.ProductoCarta(p.idProducto, p.codigoProducto, p.nombreProducto, " +
+           "p.descripcionProducto, p.precioProducto, p.categoriaProducto, p.disponibleProducto, p.createdAtProducto) " +
+           "FROM Producto p")
+    List<ProductoCarta> findCarta();
+    
+    @Query("SELECT new com.apocighol.cevicheria.dto.ProductoCarta(p.idProducto, p.codigoProducto, p.nombreProducto, " +
+           "p.descripcionProducto, p.precioProducto, p.categoriaProducto, p.disponibleProducto, p.createdAtProducto) " +
+           "FROM Producto p WHERE p.idProducto = :id")
+    Optional<ProductoCarta> findCartaById(@Param("id") Long id);
 }
\ No newline at end of file
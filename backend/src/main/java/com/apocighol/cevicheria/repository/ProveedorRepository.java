@@ -3,6 +3,7 @@ package com.apocighol.cevicheria.repository;
 import com.apocighol.cevicheria.model.Proveedor;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,9 +25,16 @@ public interface ProveedorRepository extends JpaRepository<Proveedor, Long> {
     Optional<Proveedor> findByNombreProveedor(String nombreProveedor);
     
     /**
-     * Busca proveedores que contengan texto en el nombre
+     * Nombres de todos los proveedores (id, nombre) para el índice de búsqueda
      */
-    List<Proveedor> findByNombreProveedorContainingIgnoreCase(String nombre);
+    @Query("SELECT p.idProveedor, p.nombreProveedor FROM Proveedor p")
+    List<Object[]> findNombres();
+    
+    /**
+     * Nombre leído de la fila (no de una entidad en caché del contexto de persistencia)
+     */
+    @Query("SELECT p.nombreProveedor FROM Proveedor p WHERE p.idProveedor = :id")
+    Optional<String> findNombreById(@Param("id") Long id);
     
     /**
      * Busca proveedor por RUC/DNI
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,6 +36,11 @@ public interface RecetaRepository extends JpaRepository<Receta, Long> {
      */
     boolean existsByIdProducto(Long idProducto);
     
+    /**
+     * Recetas de varios productos en una sola consulta (descuento de un pedido completo)
+     */
+    List<Receta> findByIdProductoIn(Collection<Long> idsProducto);
+    
     // ==========================================
     // BÚSQUEDAS POR INSUMO
     // ==========================================
@@ -98,4 +104,11 @@ public interface RecetaRepository extends JpaRepository<Receta, Long> {
      */
     @Query("SELECT DISTINCT r.idProducto FROM Receta r")
     List<Long> findProductosConReceta();
-}
\ No newline at end of file
+    
+    /**
+     * Todas las líneas de receta (producto, insumo, cantidad) sin cargar entidades.
+     * Base del grafo en memoria de GrafoRecetas.
+     */
+    @Query("SELECT r.idProducto, r.idInsumo, r.cantidadNecesaria FROM Receta r ORDER BY r.idProducto, r.idInsumo")
+    List<Object[]> findLineasDeReceta();
+}
@@ -0,0 +1,43 @@
+package com.apocighol.cevicheria.repository;
+
+import com.apocighol.cevicheria.model.SecuenciaCodigo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * ==========================================
+ * SECUENCIA CODIGO REPOSITORY
+ * ==========================================
+ */
+@Repository
+public interface SecuenciaCodigoRepository extends JpaRepository<SecuenciaCodigo, String> {
+
+    // Avanza la secuencia un bloque; el UPDATE bloquea la fila hasta el commit
+    @Modifying
+    @Query("UPDATE SecuenciaCodigo s SET s.ultimo = s.ultimo + :bloque WHERE s.clave = :clave")
+    int avanzar(@Param("clave") String clave, @Param("bloque") long bloque);
+
+    // Nunca retrocede: solo sube si el número es mayor
+    @Modifying
+    @Query("UPDATE SecuenciaCodigo s SET s.ultimo = :numero WHERE s.clave = :clave AND s.ultimo < :numero")
+    int elevar(@Param("clave") String clave, @Param("numero") long numero);
+
+    @Query("SELECT s.ultimo FROM SecuenciaCodigo s WHERE s.clave = :clave")
+    long ultimo(@Param("clave") String clave);
+
+    // Primera reserva del día: si otro servidor crea la fila a la vez, la BD
+    // espera su commit y este INSERT pasa a avanzarla (no falla por la PK)
+    @Modifying
+    @Query(value = "INSERT INTO secuencias_codigo (clave, ultimo) VALUES (:clave, :inicial + :bloque) " +
+                   "ON DUPLICATE KEY UPDATE ultimo = ultimo + :bloque", nativeQuery = true)
+    int crearOAvanzar(@Param("clave") String clave, @Param("inicial") long inicial, @Param("bloque") long bloque);
+
+    // Igual que elevar, creando la fila si todavía no existe
+    @Modifying
+    @Query(value = "INSERT INTO secuencias_codigo (clave, ultimo) VALUES (:clave, :numero) " +
+                   "ON DUPLICATE KEY UPDATE ultimo = GREATEST(ultimo, :numero)", nativeQuery = true)
+    int crearOElevar(@Param("clave") String clave, @Param("numero") long numero);
+}
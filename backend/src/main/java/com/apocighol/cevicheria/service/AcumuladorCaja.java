@@ -0,0 +1,338 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.CajaEvento;
+import com.apocighol.cevicheria.model.Caja;
+import com.apocighol.cevicheria.model.MovimientoCaja;
+import com.apocighol.cevicheria.model.ReferenciaCaja;
+import com.apocighol.cevicheria.repository.CajaRepository;
+import com.apocighol.cevicheria.repository.MovimientoCajaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * ==========================================
+ * TOTALES DE LA CAJA ABIERTA (acumuladores en memoria)
+ *
+ * 🔥 Una venta ya no reescribe la fila de cajas: solo inserta su
+ * movimiento y, tras el commit, suma en un LongAdder (céntimos)
+ * de su método de pago. Cada pocos segundos lo pendiente se vuelca
+ * con un solo UPDATE ... SET total = total + ?.
+ *
+ * movimientos_caja es la fuente de verdad: al arrancar y al cerrar
+ * la caja, los totales se recalculan desde ahí.
+ *
+ * Ventas y volcados toman el candado de lectura (no se bloquean
+ * entre sí) hasta que termina su transacción; el cierre toma el de
+ * escritura y espera a que no quede ningún movimiento en curso.
+ * ==========================================
+ */
+@Slf4j
+@Component
+public class AcumuladorCaja {
+
+    private static final int VENTAS = 0;
+    private static final int EFECTIVO = 1;
+    private static final int YAPE = 2;
+    private static final int PLIN = 3;
+    private static final int TARJETA = 4;
+    private static final int EGRESOS = 5;
+    private static final int TOTALES = 6;
+
+    private final ReentrantReadWriteLock cierre = new ReentrantReadWriteLock();
+
+    // ReentrantLock y no synchronized: el volcado hace I/O a la BD y con
+    // hilos virtuales un monitor retenido durante I/O fija el hilo portador
+    private final ReentrantLock lockVolcado = new ReentrantLock();
+
+    private volatile Pendientes pendientes;
+    private volatile Long idCajaCerrada;
+
+    @Autowired
+    private CajaRepository cajaRepository;
+
+    @Autowired
+    private MovimientoCajaRepository movimientoCajaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // ==========================================
+    // MOVIMIENTOS Y CIERRE
+    // ==========================================
+
+    /**
+     * Se llama al inicio de una venta / egreso: impide que la caja se cierre
+     * hasta que termine la transacción actual.
+     */
+    public void iniciarMovimiento(ReferenciaCaja caja, String mensajeSiCerrada) {
+        bloquearHastaFinDeTransaccion(cierre.readLock(), null);
+        if (caja.idCaja().equals(idCajaCerrada)) {
+            throw new RuntimeException(mensajeSiCerrada);
+        }
+    }
+
+    /**
+     * Se llama al inicio de cerrarCaja: espera a las ventas en curso y
+     * rechaza las nuevas hasta que el cierre confirme (o se deshaga).
+     */
+    public void prepararCierre(Long idCaja) {
+        Long anterior = idCajaCerrada;
+        bloquearHastaFinDeTransaccion(cierre.writeLock(), confirmado -> {
+            if (!confirmado) {
+                idCajaCerrada = anterior;
+            }
+        });
+        idCajaCerrada = idCaja;
+    }
+
+    /**
+     * Copia en la entidad los totales calculados desde movimientos_caja
+     */
+    public void aplicarTotalesDesdeMovimientos(Caja caja) {
+        BigDecimal[] totales = totalesDesdeMovimientos(caja.getIdCaja());
+        caja.setTotalVentas(totales[VENTAS]);
+        caja.setTotalEfectivo(totales[EFECTIVO]);
+        caja.setTotalYape(totales[YAPE]);
+        caja.setTotalPlin(totales[PLIN]);
+        caja.setTotalTarjeta(totales[TARJETA]);
+        caja.setTotalEgresos(totales[EGRESOS]);
+    }
+
+    @TransactionalEventListener
+    public void onCajaEvento(CajaEvento evento) {
+        Long idCaja = evento.caja().idCaja();
+        switch (evento.tipo()) {
+            case ABIERTA -> pendientes = new Pendientes(idCaja);
+            case VENTA -> {
+                Pendientes actuales = pendientesDe(idCaja);
+                if (actuales != null) {
+                    MovimientoCaja movimiento = evento.movimiento();
+                    long monto = movimiento.getMonto().centimos();
+                    actuales.sumas[VENTAS].add(monto);
+                    int metodo = indiceMetodo(movimiento.getMetodoPago());
+                    if (metodo >= 0) {
+                        actuales.sumas[metodo].add(monto);
+                    }
+                }
+            }
+            case EGRESO -> {
+                Pendientes actuales = pendientesDe(idCaja);
+                if (actuales != null) {
+                    // registrarEgreso guarda el monto en negativo, registrarGasto en positivo
+                    actuales.sumas[EGRESOS].add(Math.abs(evento.movimiento().getMonto().centimos()));
+                }
+            }
+            case CERRADA -> {
+                if (pendientesDe(idCaja) != null) {
+                    pendientes = null; // el cierre ya recalculó los totales desde movimientos
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // VOLCADO A LA FILA DE cajas
+    // ==========================================
+
+    /**
+     * Suma a la fila lo acumulado desde el último volcado (1 UPDATE).
+     * También se llama antes de leer la caja para devolver totales al día.
+     */
+    @Scheduled(fixedDelayString = "${caja.volcado-ms:2000}")
+    public void volcar() {
+        lockVolcado.lock();
+        try {
+            volcarPendientes();
+        } finally {
+            lockVolcado.unlock();
+        }
+    }
+
+    private void volcarPendientes() {
+        Pendientes actuales = pendientes;
+        if (actuales == null) {
+            return;
+        }
+
+        // sum() nunca se resetea: lo que llegue mientras se lee queda para el próximo volcado
+        long[] delta = new long[TOTALES];
+        boolean hayCambios = false;
+        for (int i = 0; i < TOTALES; i++) {
+            delta[i] = actuales.sumas[i].sum() - actuales.volcado[i];
+            hayCambios |= delta[i] != 0;
+        }
+        if (!hayCambios) {
+            return;
+        }
+
+        Integer filas = nuevaTransaccion().execute(estado -> {
+            bloquearHastaFinDeTransaccion(cierre.readLock(), null);
+            return cajaRepository.sumarTotales(actuales.idCaja,
+                aSoles(delta[VENTAS]), aSoles(delta[EFECTIVO]), aSoles(delta[YAPE]),
+                aSoles(delta[PLIN]), aSoles(delta[TARJETA]), aSoles(delta[EGRESOS]));
+        });
+
+        // Se marca como volcado en ambos casos: con 0 filas la caja ya se cerró y lo
+        // pendiente se descarta a propósito (cerrarCaja recalculó desde movimientos_caja)
+        for (int i = 0; i < TOTALES; i++) {
+            actuales.volcado[i] += delta[i];
+        }
+        if (filas != null && filas > 0) {
+            log.debug("💾 Totales de caja volcados: ventas +S/. {} | egresos +S/. {}", aSoles(delta[VENTAS]), aSoles(delta[EGRESOS]));
+        }
+    }
+
+    /**
+     * Al arrancar: lo que estaba en memoria se perdió, así que la caja
+     * abierta toma sus totales de movimientos_caja.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        Optional<Caja> abierta = cajaRepository.findByMarcaAbiertaTrue();
+        if (abierta.isEmpty()) {
+            pendientes = null;
+            return;
+        }
+
+        Long idCaja = abierta.get().getIdCaja();
+        nuevaTransaccion().executeWithoutResult(estado -> {
+            bloquearHastaFinDeTransaccion(cierre.readLock(), null);
+            BigDecimal[] totales = totalesDesdeMovimientos(idCaja);
+            cajaRepository.establecerTotales(idCaja, totales[VENTAS], totales[EFECTIVO], totales[YAPE],
+                totales[PLIN], totales[TARJETA], totales[EGRESOS]);
+        });
+        pendientes = new Pendientes(idCaja);
+        log.info("💾 Totales de caja reconstruidos desde movimientos: {}", abierta.get().getCodigoCaja());
+    }
+
+    /**
+     * Totales de la caja sumados desde movimientos_caja, en céntimos.
+     * No dependen de lo que falte volcar a la fila de cajas.
+     */
+    public Totales totalesDe(Long idCaja) {
+        long[] centimos = centimosDesdeMovimientos(idCaja);
+        return new Totales(centimos[VENTAS], centimos[EFECTIVO], centimos[YAPE],
+            centimos[PLIN], centimos[TARJETA], centimos[EGRESOS]);
+    }
+
+    public record Totales(long ventas, long efectivo, long yape, long plin, long tarjeta, long egresos) {
+    }
+
+    // ==========================================
+    // INTERNOS
+    // ==========================================
+
+    private BigDecimal[] totalesDesdeMovimientos(Long idCaja) {
+        long[] centimos = centimosDesdeMovimientos(idCaja);
+        BigDecimal[] totales = new BigDecimal[TOTALES];
+        for (int i = 0; i < TOTALES; i++) {
+            totales[i] = aSoles(centimos[i]);
+        }
+        return totales;
+    }
+
+    private long[] centimosDesdeMovimientos(Long idCaja) {
+        long[] centimos = new long[TOTALES];
+        for (Object[] fila : movimientoCajaRepository.sumarPorTipoYMetodo(idCaja)) {
+            String tipo = (String) fila[0];
+            long monto = aCentimos((BigDecimal) fila[2]);
+            if ("VENTA".equals(tipo)) {
+                centimos[VENTAS] += monto;
+                int metodo = indiceMetodo((String) fila[1]);
+                if (metodo >= 0) {
+                    centimos[metodo] += monto;
+                }
+            } else if ("EGRESO".equals(tipo) || "GASTO".equals(tipo)) {
+                centimos[EGRESOS] += Math.abs(monto);
+            }
+        }
+        return centimos;
+    }
+
+    private Pendientes pendientesDe(Long idCaja) {
+        Pendientes actuales = pendientes;
+        return actuales != null && actuales.idCaja.equals(idCaja) ? actuales : null;
+    }
+
+    private TransactionTemplate nuevaTransaccion() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /**
+     * Toma el candado y lo suelta cuando termina la transacción en curso (commit o rollback)
+     */
+    private static void bloquearHastaFinDeTransaccion(Lock candado, Consumer<Boolean> alTerminar) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Los movimientos de caja requieren una transacción activa");
+        }
+        candado.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                try {
+                    if (alTerminar != null) {
+                        alTerminar.accept(estado == STATUS_COMMITTED);
+                    }
+                } finally {
+                    candado.unlock();
+                }
+            }
+        });
+    }
+
+    private static int indiceMetodo(String metodoPago) {
+        if (metodoPago == null) {
+            return -1;
+        }
+        return switch (metodoPago.toLowerCase()) {
+            case "efectivo" -> EFECTIVO;
+            case "yape" -> YAPE;
+            case "plin" -> PLIN;
+            case "tarjeta" -> TARJETA;
+            default -> -1;
+        };
+    }
+
+    private static long aCentimos(BigDecimal monto) {
+        return monto == null ? 0 : monto.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal aSoles(long centimos) {
+        return BigDecimal.valueOf(centimos, 2);
+    }
+
+    private static final class Pendientes {
+
+        private final Long idCaja;
+        private final LongAdder[] sumas = new LongAdder[TOTALES];
+        private final long[] volcado = new long[TOTALES];
+
+        Pendientes(Long idCaja) {
+            this.idCaja = idCaja;
+            for (int i = 0; i < TOTALES; i++) {
+                sumas[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.InsumoEvento;
+import com.apocighol.cevicheria.event.ProveedorEvento;
+import com.apocighol.cevicheria.repository.InsumoRepository;
+import com.apocighol.cevicheria.repository.ProveedorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * ==========================================
+ * BUSCADOR DE INSUMOS Y PROVEEDORES (en memoria)
+ *
+ * 🔥 El cuadro de búsqueda consulta en cada tecla: los nombres viven
+ * en un IndiceBusqueda y la BD solo se toca para traer las filas que
+ * calzaron (findAllById).
+ *
+ * Cada InsumoEvento / ProveedorEvento confirmado relee ese nombre y
+ * publica un índice nuevo (copy-on-write), como CartaProductos. Los
+ * productos se buscan en la carta (CartaProductos.Carta.buscar).
+ * ==========================================
+ */
+@Slf4j
+@Component
+public class BuscadorCatalogo {
+
+    // ReentrantLock y no synchronized: se retiene durante I/O a la BD y con
+    // hilos virtuales un monitor retenido durante I/O fija el hilo portador
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile IndiceBusqueda insumos;
+    private volatile IndiceBusqueda proveedores;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    /**
+     * Ids de insumos cuyo nombre calza, del más relevante al menos
+     */
+    public List<Long> buscarInsumos(String texto) {
+        IndiceBusqueda indice = insumos;
+        if (indice == null) {
+            lock.lock();
+            try {
+                if (insumos == null) {
+                    insumos = IndiceBusqueda.de(nombres(insumoRepository.findNombres()));
+                    log.info("🔎 Índice de insumos: {} nombres", insumos.tamano());
+                }
+                indice = insumos;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return indice.buscar(texto);
+    }
+
+    /**
+     * Ids de proveedores cuyo nombre calza, del más relevante al menos
+     */
+    public List<Long> buscarProveedores(String texto) {
+        IndiceBusqueda indice = proveedores;
+        if (indice == null) {
+            lock.lock();
+            try {
+                if (proveedores == null) {
+                    proveedores = IndiceBusqueda.de(nombres(proveedorRepository.findNombres()));
+                    log.info("🔎 Índice de proveedores: {} nombres", proveedores.tamano());
+                }
+                indice = proveedores;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return indice.buscar(texto);
+    }
+
+    /**
+     * Tras el commit se relee el nombre dentro del candado: la última
+     * versión en la BD es la que queda en el índice. Con una consulta
+     * escalar y no findById: en AFTER_COMMIT el contexto de persistencia
+     * de la transacción sigue abierto y devolvería su entidad en caché.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInsumoEvento(InsumoEvento evento) {
+        lock.lock();
+        try {
+            if (insumos != null) {
+                String nombre = insumoRepository.findNombreById(evento.idInsumo()).orElse(null);
+                insumos = insumos.con(evento.idInsumo(), nombre);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProveedorEvento(ProveedorEvento evento) {
+        lock.lock();
+        try {
+            if (proveedores != null) {
+                String nombre = proveedorRepository.findNombreById(evento.idProveedor()).orElse(null);
+                proveedores = proveedores.con(evento.idProveedor(), nombre);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Filas de findAllById (que no respeta el orden) en el orden de los ids
+     */
+    static <T> List<T> enOrden(List<Long> ids, List<T> filas, Function<T, Long> id) {
+        Map<Long, T> porId = new HashMap<>();
+        filas.forEach(fila -> porId.put(id.apply(fila), fila));
+        List<T> ordenadas = new ArrayList<>(ids.size());
+        for (Long clave : ids) {
+            T fila = porId.get(clave);
+            if (fila != null) {
+                ordenadas.add(fila);
+            }
+        }
+        return ordenadas;
+    }
+
+    private static Map<Long, String> nombres(List<Object[]> filas) {
+        Map<Long, String> nombres = new HashMap<>();
+        for (Object[] fila : filas) {
+            nombres.put((Long) fila[0], (String) fila[1]);
+        }
+        return nombres;
+    }
+}
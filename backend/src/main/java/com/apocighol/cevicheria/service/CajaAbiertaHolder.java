@@ -0,0 +1,79 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.CajaEvento;
+import com.apocighol.cevicheria.model.ReferenciaCaja;
+import com.apocighol.cevicheria.repository.CajaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+
+/**
+ * ==========================================
+ * CAJA ABIERTA (en memoria)
+ *
+ * Guarda qué caja está abierta para que ventas y egresos no
+ * busquen findByMarcaAbiertaTrue() en cada llamada.
+ *
+ * Solo abrirCaja / cerrarCaja la invalidan (al terminar su
+ * transacción); la siguiente consulta la recarga con 1 SELECT.
+ * ==========================================
+ */
+@Component
+public class CajaAbiertaHolder {
+
+    private volatile Optional<ReferenciaCaja> actual;
+    private long generacion = 0;
+
+    @Autowired
+    private CajaRepository cajaRepository;
+
+    /**
+     * Caja abierta actual (vacío si no hay ninguna)
+     */
+    public Optional<ReferenciaCaja> cajaAbierta() {
+        Optional<ReferenciaCaja> cacheada = actual;
+        if (cacheada != null) {
+            return cacheada;
+        }
+
+        long generacionLeida;
+        synchronized (this) {
+            if (actual != null) {
+                return actual;
+            }
+            generacionLeida = generacion;
+        }
+
+        Optional<ReferenciaCaja> leida = cajaRepository.findByMarcaAbiertaTrue().map(ReferenciaCaja::de);
+
+        // Si se abrió o cerró una caja mientras se leía, no se guarda lo leído
+        synchronized (this) {
+            if (generacion == generacionLeida) {
+                actual = leida;
+            }
+        }
+        return leida;
+    }
+
+    /**
+     * Caja abierta o excepción con el mensaje indicado
+     */
+    public ReferenciaCaja requerirCajaAbierta(String mensajeSiNoHay) {
+        return cajaAbierta().orElseThrow(() -> new RuntimeException(mensajeSiNoHay));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onCajaEvento(CajaEvento evento) {
+        if (evento.tipo() == CajaEvento.Tipo.ABIERTA || evento.tipo() == CajaEvento.Tipo.CERRADA) {
+            invalidar();
+        }
+    }
+
+    public synchronized void invalidar() {
+        generacion++;
+        actual = null;
+    }
+}
@@ -1,17 +1,29 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.event.CajaEvento;
 import com.apocighol.cevicheria.model.Caja;
+import com.apocighol.cevicheria.model.CursorKeyset;
+import com.apocighol.cevicheria.model.Dinero;
 import com.apocighol.cevicheria.model.MovimientoCaja;
+import com.apocighol.cevicheria.model.Pagina;
+import com.apocighol.cevicheria.model.ReferenciaCaja;
 import com.apocighol.cevicheria.repository.CajaRepository;
 import com.apocighol.cevicheria.repository.MovimientoCajaRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,6 +35,7 @@ import java.util.Optional;
  * 🔥 Gestión completa de caja registradora
  * ==========================================
  */
+@Slf4j
 @Service
 @Transactional
 public class CajaService {
@@ -30,9 +43,24 @@ public class CajaService {
     @Autowired
     private CajaRepository cajaRepository;
 
+    @Autowired
+    private GeneradorCodigos generadorCodigos;
+
     @Autowired
     private MovimientoCajaRepository movimientoCajaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private CajaAbiertaHolder cajaAbiertaHolder;
+
+    @Autowired
+    private AcumuladorCaja acumuladorCaja;
+
     // ==========================================
     // VERIFICAR ESTADO
     // ==========================================
@@ -41,14 +69,20 @@ public class CajaService {
      * Verifica si hay una caja abierta
      */
     public boolean hayCajaAbierta() {
-        return cajaRepository.findByEstadoCaja("ABIERTA").isPresent();
+        return cajaAbiertaHolder.cajaAbierta().isPresent();
     }
 
     /**
-     * Obtiene la caja abierta actual
+     * Obtiene la caja abierta actual (con sus totales al día)
+     * Sin transacción: volcar() abre la suya y, si esta ya tuviera una
+     * conexión del pool, cada consulta de estado necesitaría dos.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Caja obtenerCajaAbierta() {
-        return cajaRepository.findByEstadoCaja("ABIERTA").orElse(null);
+        acumuladorCaja.volcar();
+        return cajaAbiertaHolder.cajaAbierta()
+            .flatMap(ref -> cajaRepository.findById(ref.idCaja()))
+            .orElse(null);
     }
 
     // ==========================================
@@ -57,15 +91,11 @@ public class CajaService {
 
     /**
      * Abre una nueva caja
+     * 🔥 La unicidad la garantiza la BD (marca_abierta UNIQUE), no un SELECT previo
      */
     public Caja abrirCaja(BigDecimal montoInicial, String responsable) {
-        // Verificar que no haya caja abierta
-        if (hayCajaAbierta()) {
-            throw new RuntimeException("Ya existe una caja abierta. Ciérrela antes de abrir otra.");
-        }
-
         Caja caja = new Caja();
-        caja.setCodigoCaja("CAJA-" + System.currentTimeMillis());
+        caja.setCodigoCaja(generadorCodigos.siguiente(GeneradorCodigos.CAJA));
         caja.setFechaApertura(LocalDate.now());
         caja.setHoraApertura(LocalTime.now());
         caja.setMontoInicial(montoInicial != null ? montoInicial : BigDecimal.ZERO);
@@ -76,11 +106,21 @@ public class CajaService {
         caja.setTotalTarjeta(BigDecimal.ZERO);
         caja.setTotalEgresos(BigDecimal.ZERO);
         caja.setEstadoCaja("ABIERTA");
+        caja.setMarcaAbierta(Boolean.TRUE);
         caja.setResponsable(responsable);
 
-        Caja cajaGuardada = cajaRepository.save(caja);
-        System.out.println("✅ Caja abierta: " + cajaGuardada.getCodigoCaja() + 
-                          " | Monto inicial: S/. " + montoInicial);
+        Caja cajaGuardada;
+        try {
+            cajaGuardada = cajaRepository.saveAndFlush(caja);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Ya existe una caja abierta. Ciérrela antes de abrir otra.");
+        }
+        log.info("✅ Caja abierta: {} | Monto inicial: S/. {}", cajaGuardada.getCodigoCaja(), montoInicial);
+        
+        eventPublisher.publishEvent(new CajaEvento(CajaEvento.Tipo.ABIERTA, ReferenciaCaja.de(cajaGuardada), null));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.CAJA_ABIERTA, "CAJA",
+            cajaGuardada.getIdCaja(), cajaGuardada.getCodigoCaja(), responsable,
+            "Monto inicial: S/. " + cajaGuardada.getMontoInicial()));
         
         return cajaGuardada;
     }
@@ -92,18 +132,17 @@ public class CajaService {
     /**
      * Registra una venta en la caja abierta
      */
-    public MovimientoCaja registrarVenta(Integer numeroMesa, BigDecimal monto, 
-                                         String metodoPago, BigDecimal montoRecibido,
-                                         BigDecimal vuelto, String registradoPor) {
+    @Timed(value = "cevicheria.caja.venta", description = "Registro de una venta en la caja abierta")
+    public MovimientoCaja registrarVenta(Integer numeroMesa, Dinero monto, 
+                                         String metodoPago, Dinero montoRecibido,
+                                         Dinero vuelto, String registradoPor) {
         
-        Caja caja = obtenerCajaAbierta();
-        if (caja == null) {
-            throw new RuntimeException("No hay caja abierta para registrar la venta");
-        }
+        ReferenciaCaja caja = cajaAbiertaHolder.requerirCajaAbierta("No hay caja abierta para registrar la venta");
+        acumuladorCaja.iniciarMovimiento(caja, "No hay caja abierta para registrar la venta");
 
         // Crear movimiento
         MovimientoCaja movimiento = new MovimientoCaja();
-        movimiento.setIdCaja(caja.getIdCaja());
+        movimiento.setIdCaja(caja.idCaja());
         movimiento.setTipoMovimiento("VENTA");
         movimiento.setDescripcion("Venta Mesa " + (numeroMesa != null ? numeroMesa : "N/A"));
         movimiento.setMonto(monto);
@@ -114,30 +153,12 @@ public class CajaService {
         movimiento.setHoraMovimiento(LocalTime.now());
         movimiento.setRegistradoPor(registradoPor);
 
+        // 🔥 La fila de cajas no se toca: el total se acumula en memoria tras el commit
         MovimientoCaja movimientoGuardado = movimientoCajaRepository.save(movimiento);
 
-        // Actualizar totales de caja
-        caja.setTotalVentas(caja.getTotalVentas().add(monto));
+        log.info("💵 Venta registrada: Mesa {} | S/. {} ({})", numeroMesa, monto, metodoPago);
         
-        switch (metodoPago.toLowerCase()) {
-            case "efectivo":
-                caja.setTotalEfectivo(caja.getTotalEfectivo().add(monto));
-                break;
-            case "yape":
-                caja.setTotalYape(caja.getTotalYape().add(monto));
-                break;
-            case "plin":
-                caja.setTotalPlin(caja.getTotalPlin().add(monto));
-                break;
-            case "tarjeta":
-                caja.setTotalTarjeta(caja.getTotalTarjeta().add(monto));
-                break;
-        }
-
-        cajaRepository.save(caja);
-
-        System.out.println("💵 Venta registrada: Mesa " + numeroMesa + 
-                          " | S/. " + monto + " (" + metodoPago + ")");
+        eventPublisher.publishEvent(new CajaEvento(CajaEvento.Tipo.VENTA, caja, movimientoGuardado));
         
         return movimientoGuardado;
     }
@@ -145,17 +166,15 @@ public class CajaService {
     /**
      * Registra un egreso/gasto
      */
-    public MovimientoCaja registrarEgreso(String descripcion, BigDecimal monto, String registradoPor) {
-        Caja caja = obtenerCajaAbierta();
-        if (caja == null) {
-            throw new RuntimeException("No hay caja abierta para registrar el egreso");
-        }
+    public MovimientoCaja registrarEgreso(String descripcion, Dinero monto, String registradoPor) {
+        ReferenciaCaja caja = cajaAbiertaHolder.requerirCajaAbierta("No hay caja abierta para registrar el egreso");
+        acumuladorCaja.iniciarMovimiento(caja, "No hay caja abierta para registrar el egreso");
 
         MovimientoCaja movimiento = new MovimientoCaja();
-        movimiento.setIdCaja(caja.getIdCaja());
+        movimiento.setIdCaja(caja.idCaja());
         movimiento.setTipoMovimiento("EGRESO");
         movimiento.setDescripcion(descripcion);
-        movimiento.setMonto(monto.negate()); // Negativo para egresos
+        movimiento.setMonto(monto.negar()); // Negativo para egresos
         movimiento.setMetodoPago("Efectivo");
         movimiento.setFechaMovimiento(LocalDate.now());
         movimiento.setHoraMovimiento(LocalTime.now());
@@ -163,11 +182,9 @@ public class CajaService {
 
         MovimientoCaja movimientoGuardado = movimientoCajaRepository.save(movimiento);
 
-        // Actualizar totales
-        caja.setTotalEgresos(caja.getTotalEgresos().add(monto));
-        cajaRepository.save(caja);
-
-        System.out.println("📤 Egreso registrado: " + descripcion + " | S/. " + monto);
+        log.info("📤 Egreso registrado: {} | S/. {}", descripcion, monto);
+        
+        eventPublisher.publishEvent(new CajaEvento(CajaEvento.Tipo.EGRESO, caja, movimientoGuardado));
         
         return movimientoGuardado;
     }
@@ -175,14 +192,12 @@ public class CajaService {
     /**
      * Registra un gasto en la caja actual
      */
-    public MovimientoCaja registrarGasto(String concepto, BigDecimal monto, String registradoPor) {
-        Caja caja = obtenerCajaAbierta();
-        if (caja == null) {
-            throw new RuntimeException("No hay caja abierta para registrar el gasto");
-        }
+    public MovimientoCaja registrarGasto(String concepto, Dinero monto, String registradoPor) {
+        ReferenciaCaja caja = cajaAbiertaHolder.requerirCajaAbierta("No hay caja abierta para registrar el gasto");
+        acumuladorCaja.iniciarMovimiento(caja, "No hay caja abierta para registrar el gasto");
 
         MovimientoCaja movimiento = new MovimientoCaja();
-        movimiento.setIdCaja(caja.getIdCaja());
+        movimiento.setIdCaja(caja.idCaja());
         movimiento.setTipoMovimiento("GASTO");
         movimiento.setDescripcion(concepto);
         movimiento.setMonto(monto);
@@ -193,11 +208,9 @@ public class CajaService {
 
         MovimientoCaja movimientoGuardado = movimientoCajaRepository.save(movimiento);
 
-        // Actualizar total de gastos
-        caja.setTotalEgresos(caja.getTotalEgresos().add(monto));
-        cajaRepository.save(caja);
-
-        System.out.println("💸 Gasto registrado: " + concepto + " | S/. " + monto);
+        log.info("💸 Gasto registrado: {} | S/. {}", concepto, monto);
+        
+        eventPublisher.publishEvent(new CajaEvento(CajaEvento.Tipo.EGRESO, caja, movimientoGuardado));
         
         return movimientoGuardado;
     }
@@ -210,8 +223,13 @@ public class CajaService {
      * Cierra la caja actual
      */
     public Caja cerrarCaja(BigDecimal montoFinal, String responsable) {
-        Caja caja = obtenerCajaAbierta();
+        ReferenciaCaja abierta = cajaAbiertaHolder.requerirCajaAbierta("No hay caja abierta para cerrar");
+        acumuladorCaja.prepararCierre(abierta.idCaja());
+        Caja caja = cajaRepository.findById(abierta.idCaja())
+            .filter(c -> Boolean.TRUE.equals(c.getMarcaAbierta()))
+            .orElse(null);
         if (caja == null) {
+            cajaAbiertaHolder.invalidar();
             throw new RuntimeException("No hay caja abierta para cerrar");
         }
 
@@ -219,11 +237,15 @@ public class CajaService {
         caja.setHoraCierre(LocalTime.now());
         caja.setMontoFinal(montoFinal);
         caja.setEstadoCaja("CERRADA");
+        caja.setMarcaAbierta(null);
         
         if (responsable != null && !responsable.trim().isEmpty()) {
             caja.setResponsable(responsable);
         }
 
+        // Totales definitivos desde movimientos_caja (incluye lo que aún no se volcó)
+        acumuladorCaja.aplicarTotalesDesdeMovimientos(caja);
+
         // Calcular diferencia
         BigDecimal montoEsperado = caja.getMontoInicial()
             .add(caja.getTotalEfectivo())
@@ -231,11 +253,22 @@ public class CajaService {
         
         caja.setDiferencia(montoFinal.subtract(montoEsperado));
 
-        Caja cajaCerrada = cajaRepository.save(caja);
+        // @Version: si otra escritura tocó la fila desde que se leyó, el cierre falla en vez de pisarla
+        Caja cajaCerrada;
+        try {
+            cajaCerrada = cajaRepository.saveAndFlush(caja);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new RuntimeException("Se registró un movimiento mientras se cerraba la caja. Intente cerrar nuevamente.");
+        }
 
-        System.out.println("🔒 Caja cerrada: " + cajaCerrada.getCodigoCaja() + 
-                          " | Total ventas: S/. " + cajaCerrada.getTotalVentas() +
-                          " | Diferencia: S/. " + cajaCerrada.getDiferencia());
+        log.info("🔒 Caja cerrada: {} | Total ventas: S/. {} | Diferencia: S/. {}",
+                 cajaCerrada.getCodigoCaja(), cajaCerrada.getTotalVentas(), cajaCerrada.getDiferencia());
+        
+        eventPublisher.publishEvent(new CajaEvento(CajaEvento.Tipo.CERRADA, ReferenciaCaja.de(cajaCerrada), null));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.CAJA_CERRADA, "CAJA",
+            cajaCerrada.getIdCaja(), cajaCerrada.getCodigoCaja(), cajaCerrada.getResponsable(),
+            "Total ventas: S/. " + cajaCerrada.getTotalVentas() + " | Monto final: S/. " + montoFinal +
+            " | Diferencia: S/. " + cajaCerrada.getDiferencia()));
         
         return cajaCerrada;
     }
@@ -262,11 +295,9 @@ public class CajaService {
      * Obtener movimientos de la caja actual
      */
     public List<MovimientoCaja> obtenerMovimientosCajaActual() {
-        Caja caja = obtenerCajaAbierta();
-        if (caja == null) {
-            return List.of();
-        }
-        return movimientoCajaRepository.findByIdCajaOrderByHoraMovimientoDesc(caja.getIdCaja());
+        return cajaAbiertaHolder.cajaAbierta()
+            .map(caja -> movimientoCajaRepository.findByIdCajaOrderByHoraMovimientoDesc(caja.idCaja()))
+            .orElse(List.of());
     }
 
     /**
@@ -283,6 +314,21 @@ public class CajaService {
         return cajaRepository.findAllByEstadoCajaOrderByFechaAperturaDesc("CERRADA");
     }
 
+    /**
+     * Historial de cajas cerradas paginado (más recientes primero)
+     */
+    public Pagina<Caja> listarCajasCerradas(String cursor, int limite) {
+        Limit consulta = Limit.of(limite + 1);
+        List<Caja> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = cajaRepository.findByEstadoCajaOrderByFechaAperturaDescHoraAperturaDescIdCajaDesc("CERRADA", consulta);
+        } else {
+            CursorKeyset despuesDe = CursorKeyset.decodificar(cursor, 3);
+            filas = cajaRepository.buscarPaginaDespuesDe("CERRADA", despuesDe.fecha(0), despuesDe.hora(1), despuesDe.id(2), consulta);
+        }
+        return Pagina.de(filas, limite, c -> CursorKeyset.de(c.getFechaApertura(), c.getHoraApertura(), c.getIdCaja()));
+    }
+
     /**
      * Obtiene una caja por su ID
      */
@@ -296,31 +342,9 @@ public class CajaService {
     // ==========================================
 
     /**
-     * Obtiene estadísticas de caja
+     * Obtiene estadísticas de caja (contadores en memoria, sin consultas)
      */
     public Map<String, Object> obtenerEstadisticas() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        Caja cajaActual = obtenerCajaAbierta();
-        
-        if (cajaActual != null) {
-            stats.put("cajaAbierta", true);
-            stats.put("totalVentas", cajaActual.getTotalVentas());
-            stats.put("totalEfectivo", cajaActual.getTotalEfectivo());
-            stats.put("totalYape", cajaActual.getTotalYape());
-            stats.put("totalPlin", cajaActual.getTotalPlin());
-            stats.put("totalTarjeta", cajaActual.getTotalTarjeta());
-            stats.put("totalEgresos", cajaActual.getTotalEgresos());
-            stats.put("cantidadMovimientos", movimientoCajaRepository.countByIdCaja(cajaActual.getIdCaja()));
-        } else {
-            stats.put("cajaAbierta", false);
-            stats.put("totalVentas", BigDecimal.ZERO);
-        }
-        
-        // Ventas del día (todas las cajas)
-        BigDecimal ventasHoy = cajaRepository.sumVentasByFecha(LocalDate.now());
-        stats.put("ventasHoy", ventasHoy != null ? ventasHoy : BigDecimal.ZERO);
-        
-        return stats;
+        return estadisticasService.estadisticasCaja();
     }
-}
\ No newline at end of file
+}
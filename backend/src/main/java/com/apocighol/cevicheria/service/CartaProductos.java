@@ -0,0 +1,219 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.ProductoCarta;
+import com.apocighol.cevicheria.event.ProductoEvento;
+import com.apocighol.cevicheria.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ==========================================
+ * CARTA DE PRODUCTOS (en memoria)
+ *
+ * 🔥 La carta cambia pocas veces al día y se lee en cada pantalla:
+ * se guarda una foto inmutable (Carta) y las lecturas no tocan la BD.
+ *
+ * - todos: ordenados por nombre (igual que el listado original)
+ * - disponibles: BitSet sobre esas posiciones
+ * - porCategoria: listas ya agrupadas (clave en minúsculas, como
+ *   compara MySQL)
+ * - busqueda: IndiceBusqueda sobre los nombres (sin tildes, prefijos,
+ *   errores de tipeo)
+ *
+ * Cada ProductoEvento confirmado relee ese producto y publica una
+ * foto nueva con version + 1 (copy-on-write): quien está leyendo
+ * la foto anterior no ve cambios a medias. La versión es el ETag
+ * de las respuestas HTTP.
+ * ==========================================
+ */
+@Slf4j
+@Component
+public class CartaProductos {
+
+    private static final Comparator<ProductoCarta> POR_NOMBRE = Comparator
+        .comparing(ProductoCarta::nombreProducto, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+        .thenComparing(ProductoCarta::idProducto, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // Distingue las versiones de un arranque y del siguiente (la versión vuelve a 1)
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    // ReentrantLock y no synchronized: se retiene durante I/O a la BD y con
+    // hilos virtuales un monitor retenido durante I/O fija el hilo portador
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Carta carta;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    /**
+     * Foto vigente (la primera vez la carga con una consulta)
+     */
+    public Carta carta() {
+        Carta actual = carta;
+        if (actual != null) {
+            return actual;
+        }
+
+        lock.lock();
+        try {
+            if (carta == null) {
+                carta = new Carta(1, arranque, leerTodos());
+            }
+            return carta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        lock.lock();
+        try {
+            long version = carta != null ? carta.version + 1 : 1;
+            carta = new Carta(version, arranque, leerTodos());
+            log.info("📖 Carta en memoria: {} productos ({} disponibles)", carta.total(), carta.totalDisponibles());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tras el commit se relee el producto dentro del candado: aunque dos
+     * cambios confirmen en un orden y sus eventos lleguen en otro, la foto
+     * termina con lo último que quedó en la BD.
+     *
+     * La relectura es una proyección (findCartaById) y no findById: en
+     * AFTER_COMMIT el contexto de persistencia de la transacción sigue
+     * abierto y findById devolvería su entidad en caché, no la fila actual.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductoEvento(ProductoEvento evento) {
+        lock.lock();
+        try {
+            Carta actual = carta;
+            if (actual == null) {
+                return; // la próxima lectura carga todo
+            }
+            Map<Long, ProductoCarta> productos = new LinkedHashMap<>(actual.porId);
+            productoRepository.findCartaById(evento.idProducto()).ifPresentOrElse(
+                producto -> productos.put(producto.idProducto(), producto),
+                () -> productos.remove(evento.idProducto()));
+            carta = new Carta(actual.version + 1, arranque, productos.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<ProductoCarta> leerTodos() {
+        return productoRepository.findCarta();
+    }
+
+    // ==========================================
+    // FOTO INMUTABLE
+    // ==========================================
+
+    public static final class Carta {
+
+        private final long version;
+        private final String etag;
+        private final List<ProductoCarta> todos;
+        private final BitSet disponibles;
+        private final List<ProductoCarta> listaDisponibles;
+        private final Map<String, List<ProductoCarta>> porCategoria;
+        private final Map<Long, ProductoCarta> porId;
+        private final IndiceBusqueda busqueda;
+
+        Carta(long version, String arranque, Collection<ProductoCarta> productos) {
+            this.version = version;
+            this.etag = "\"carta-" + arranque + "-" + version + "\"";
+
+            List<ProductoCarta> ordenados = new ArrayList<>(productos);
+            ordenados.sort(POR_NOMBRE);
+            this.todos = List.copyOf(ordenados);
+
+            this.disponibles = new BitSet(todos.size());
+            List<ProductoCarta> listaDisponibles = new ArrayList<>();
+            Map<String, List<ProductoCarta>> porCategoria = new HashMap<>();
+            Map<Long, ProductoCarta> porId = new LinkedHashMap<>();
+            for (int i = 0; i < todos.size(); i++) {
+                ProductoCarta producto = todos.get(i);
+                if (producto.disponible()) {
+                    disponibles.set(i);
+                    listaDisponibles.add(producto);
+                }
+                if (producto.categoriaProducto() != null) {
+                    porCategoria.computeIfAbsent(clave(producto.categoriaProducto()), k -> new ArrayList<>()).add(producto);
+                }
+                porId.put(producto.idProducto(), producto);
+            }
+            this.listaDisponibles = List.copyOf(listaDisponibles);
+            porCategoria.replaceAll((categoria, lista) -> List.copyOf(lista));
+            this.porCategoria = Map.copyOf(porCategoria);
+            this.porId = porId;
+
+            Map<Long, String> nombres = new HashMap<>();
+            todos.forEach(producto -> nombres.put(producto.idProducto(), producto.nombreProducto()));
+            this.busqueda = IndiceBusqueda.de(nombres);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public List<ProductoCarta> todos() {
+            return todos;
+        }
+
+        public List<ProductoCarta> disponibles() {
+            return listaDisponibles;
+        }
+
+        public List<ProductoCarta> categoria(String categoria) {
+            return categoria == null ? List.of() : porCategoria.getOrDefault(clave(categoria), List.of());
+        }
+
+        /**
+         * Productos cuyo nombre calza con el texto, del más relevante al menos
+         */
+        public List<ProductoCarta> buscar(String texto) {
+            return busqueda.buscar(texto).stream().map(porId::get).toList();
+        }
+
+        public Optional<ProductoCarta> producto(Long idProducto) {
+            return Optional.ofNullable(porId.get(idProducto));
+        }
+
+        public int total() {
+            return todos.size();
+        }
+
+        public int totalDisponibles() {
+            return disponibles.cardinality();
+        }
+
+        private static String clave(String categoria) {
+            return categoria.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
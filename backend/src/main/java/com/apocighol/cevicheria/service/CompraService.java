@@ -1,11 +1,20 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.dto.CompraDetalleVista;
+import com.apocighol.cevicheria.dto.CompraResumen;
+import com.apocighol.cevicheria.dto.SolicitudCompra;
 import com.apocighol.cevicheria.model.Compra;
 import com.apocighol.cevicheria.model.CompraDetalle;
+import com.apocighol.cevicheria.model.CursorKeyset;
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.repository.CompraRepository;
 import com.apocighol.cevicheria.repository.CompraDetalleRepository;
 import com.apocighol.cevicheria.repository.ProveedorRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +34,7 @@ import java.util.Optional;
  * 🔥 CORREGIDO: Guarda correctamente los detalles
  * ==========================================
  */
+@Slf4j
 @Service
 @Transactional
 public class CompraService {
@@ -32,6 +42,9 @@ public class CompraService {
     @Autowired
     private CompraRepository compraRepository;
 
+    @Autowired
+    private GeneradorCodigos generadorCodigos;
+
     @Autowired
     private CompraDetalleRepository compraDetalleRepository;
 
@@ -48,12 +61,12 @@ public class CompraService {
     /**
      * Registra una compra y aumenta el stock de insumos automáticamente
      * 
-     * @param idProveedor ID del proveedor
-     * @param detalles Lista de detalles [{idInsumo, cantidad, precioUnitario}]
-     * @param observaciones Notas opcionales
+     * @param solicitud Proveedor, observaciones y detalles ya validados
      * @return La compra registrada
      */
-    public Compra registrarCompra(Long idProveedor, List<Map<String, Object>> detalles, String observaciones) {
+    @Timed(value = "cevicheria.compras.registro", description = "Registro de una compra con aumento de stock")
+    public Compra registrarCompra(SolicitudCompra solicitud) {
+        long idProveedor = solicitud.idProveedor();
         
         // Validar proveedor
         if (!proveedorRepository.existsById(idProveedor)) {
@@ -62,25 +75,25 @@ public class CompraService {
 
         // Crear la compra
         Compra compra = new Compra();
-        compra.setCodigoCompra("COMP-" + System.currentTimeMillis());
+        compra.setCodigoCompra(generadorCodigos.siguiente(GeneradorCodigos.COMPRA));
         compra.setIdProveedor(idProveedor);
         compra.setFechaCompra(LocalDate.now());
         compra.setHoraCompra(LocalTime.now());
-        compra.setObservaciones(observaciones);
-        compra.setTotalCompra(BigDecimal.ZERO);
+        compra.setObservaciones(solicitud.observaciones());
+        compra.setTotalCompra(Dinero.CERO);
 
         // 🔥 GUARDAR COMPRA PRIMERO para obtener el ID
         Compra compraGuardada = compraRepository.save(compra);
-        System.out.println("✅ Compra creada: " + compraGuardada.getCodigoCompra());
+        log.debug("✅ Compra creada: {}", compraGuardada.getCodigoCompra());
 
-        BigDecimal totalCompra = BigDecimal.ZERO;
+        long totalCentimos = 0;
 
         // Procesar cada detalle
-        for (Map<String, Object> item : detalles) {
-            Long idInsumo = Long.valueOf(item.get("idInsumo").toString());
-            BigDecimal cantidad = new BigDecimal(item.get("cantidad").toString());
-            BigDecimal precioUnitario = new BigDecimal(item.get("precioUnitario").toString());
-            BigDecimal subtotal = cantidad.multiply(precioUnitario);
+        for (SolicitudCompra.Item item : solicitud.detalles()) {
+            long idInsumo = item.idInsumo();
+            BigDecimal cantidad = item.cantidad();
+            Dinero precioUnitario = item.precioUnitario();
+            Dinero subtotal = precioUnitario.por(cantidad);
 
             // Crear detalle
             CompraDetalle detalle = new CompraDetalle();
@@ -92,25 +105,25 @@ public class CompraService {
 
             // 🔥 GUARDAR DETALLE
             compraDetalleRepository.save(detalle);
-            System.out.println("   📦 Detalle guardado: Insumo " + idInsumo + " x " + cantidad);
+            log.debug("   📦 Detalle guardado: Insumo {} x {}", idInsumo, cantidad);
 
-            totalCompra = totalCompra.add(subtotal);
+            totalCentimos += subtotal.centimos();
 
             // 🔥 AUMENTAR STOCK DEL INSUMO
             try {
                 insumoService.aumentarStock(idInsumo, cantidad);
-                System.out.println("   📈 Stock aumentado: Insumo " + idInsumo + " + " + cantidad);
+                log.debug("   📈 Stock aumentado: Insumo {} + {}", idInsumo, cantidad);
             } catch (Exception e) {
-                System.err.println("   ⚠️ Error aumentando stock: " + e.getMessage());
+                log.error("   ⚠️ Error aumentando stock del insumo {}: {}", idInsumo, e.getMessage());
             }
         }
 
         // Actualizar total de la compra
+        Dinero totalCompra = Dinero.deCentimos(totalCentimos);
         compraGuardada.setTotalCompra(totalCompra);
         compraRepository.save(compraGuardada);
 
-        System.out.println("✅ Compra registrada: " + compraGuardada.getCodigoCompra() + 
-                          " | Total: S/. " + totalCompra);
+        log.info("✅ Compra registrada: {} | Total: S/. {}", compraGuardada.getCodigoCompra(), totalCompra);
 
         return compraGuardada;
     }
@@ -126,6 +139,21 @@ public class CompraService {
         return compraRepository.findAllByOrderByFechaCompraDescHoraCompraDesc();
     }
 
+    /**
+     * Compras paginadas (más recientes primero)
+     */
+    public Pagina<CompraResumen> listarPagina(String cursor, int limite) {
+        Limit consulta = Limit.of(limite + 1);
+        List<CompraResumen> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = compraRepository.resumenPrimeraPagina(consulta);
+        } else {
+            CursorKeyset despuesDe = CursorKeyset.decodificar(cursor, 3);
+            filas = compraRepository.resumenDespuesDe(despuesDe.fecha(0), despuesDe.hora(1), despuesDe.id(2), consulta);
+        }
+        return Pagina.de(filas, limite, c -> CursorKeyset.de(c.fechaCompra(), c.horaCompra(), c.idCompra()));
+    }
+
     /**
      * Buscar compra por ID
      */
@@ -134,45 +162,40 @@ public class CompraService {
     }
 
     /**
-     * 🔥 Buscar compra por ID con detalles cargados
+     * 🔥 Compra con proveedor, detalles e insumos en un solo SELECT (@EntityGraph)
      */
-    public Optional<Compra> buscarPorIdConDetalles(Long id) {
-        Optional<Compra> compraOpt = compraRepository.findById(id);
-        if (compraOpt.isPresent()) {
-            Compra compra = compraOpt.get();
-            // Forzar carga de detalles
-            compra.getDetalles().size();
-            return Optional.of(compra);
-        }
-        return Optional.empty();
+    @Transactional(readOnly = true)
+    public Optional<CompraDetalleVista> buscarPorIdConDetalles(Long id) {
+        return compraRepository.findConDetallesByIdCompra(id).map(CompraDetalleVista::de);
     }
 
     /**
      * Buscar por código
      */
-    public Optional<Compra> buscarPorCodigo(String codigo) {
-        return compraRepository.findByCodigoCompra(codigo);
+    @Transactional(readOnly = true)
+    public Optional<CompraDetalleVista> buscarPorCodigo(String codigo) {
+        return compraRepository.findByCodigoCompra(codigo).map(CompraDetalleVista::de);
     }
 
     /**
      * Compras del día
      */
-    public List<Compra> comprasDelDia() {
-        return compraRepository.findByFechaCompra(LocalDate.now());
+    public List<CompraResumen> comprasDelDia() {
+        return compraRepository.resumenPorFecha(LocalDate.now());
     }
 
     /**
      * Compras entre fechas
      */
-    public List<Compra> comprasEntreFechas(LocalDate inicio, LocalDate fin) {
-        return compraRepository.findByFechaCompraBetweenOrderByFechaCompraDesc(inicio, fin);
+    public List<CompraResumen> comprasEntreFechas(LocalDate inicio, LocalDate fin) {
+        return compraRepository.resumenEntreFechas(inicio, fin);
     }
 
     /**
      * Compras de un proveedor
      */
-    public List<Compra> comprasDeProveedor(Long idProveedor) {
-        return compraRepository.findByIdProveedorOrderByFechaCompraDesc(idProveedor);
+    public List<CompraResumen> comprasDeProveedor(Long idProveedor) {
+        return compraRepository.resumenPorProveedor(idProveedor);
     }
 
     // ==========================================
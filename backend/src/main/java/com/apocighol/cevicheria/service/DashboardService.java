@@ -0,0 +1,124 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.model.Mesa;
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ==========================================
+ * DASHBOARD SERVICE
+ *
+ * 🔥 Un solo snapshot compacto para el dashboard:
+ * tarjetas (ventas, mesas, pedidos), mesas ocupadas y últimos pedidos.
+ *
+ * El snapshot se arma una vez por versión de EstadisticasService
+ * y se comparte entre todas las pantallas; si nada cambió, el
+ * controller responde 304 sin construir nada.
+ * ==========================================
+ */
+@Service
+public class DashboardService {
+
+    private static final int ULTIMOS_PEDIDOS = 10;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private TableroPedidos tableroPedidos;
+
+    @Autowired
+    private MesaService mesaService;
+
+    // La versión de EstadisticasService vuelve a 0 al reiniciar: sin esto un ETag viejo daría 304
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile Snapshot ultimo;
+
+    /**
+     * Datos del dashboard junto con el ETag de la versión con la que se armaron
+     */
+    public record Snapshot(String etag, Map<String, Object> datos) {
+    }
+
+    /**
+     * ETag de la versión actual (incluye la fecha: al cambiar de día cambia aunque no haya eventos,
+     * y el arranque: tras reiniciar no coincide con los de antes)
+     */
+    public String etagActual() {
+        return "\"" + LocalDate.now() + "-" + arranque + "-" + estadisticasService.version() + "\"";
+    }
+
+    /**
+     * El ETag que acompaña a los datos es el que se leyó antes de armarlos:
+     * el controller debe enviar ese y no volver a calcularlo.
+     */
+    public Snapshot snapshot() {
+        String etag = etagActual();
+        Snapshot actual = ultimo;
+        if (actual != null && actual.etag().equals(etag)) {
+            return actual;
+        }
+
+        Snapshot nuevo = new Snapshot(etag, construir(etag));
+        ultimo = nuevo;
+        return nuevo;
+    }
+
+    private Map<String, Object> construir(String etag) {
+        Map<String, Object> caja = estadisticasService.estadisticasCaja();
+        Map<String, Object> pedidos = estadisticasService.estadisticasPedidos();
+        Map<String, Object> mesas = estadisticasService.estadisticasMesas();
+
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("version", etag.replace("\"", ""));
+        datos.put("ventasHoy", caja.get("ventasHoy"));
+        datos.put("cajaAbierta", caja.get("cajaAbierta"));
+        datos.put("pedidosHoy", pedidos.get("totalPedidosHoy"));
+        datos.put("totalMesas", mesas.get("total"));
+        datos.put("mesasOcupadas", mesas.get("ocupadas"));
+        datos.put("listaMesasOcupadas", resumenMesas(mesaService.listarMesasOcupadas()));
+        datos.put("ultimosPedidos", resumenPedidos(tableroPedidos.pedidosDelDia()));
+        return datos;
+    }
+
+    private List<Map<String, Object>> resumenMesas(List<Mesa> ocupadas) {
+        List<Map<String, Object>> lista = new ArrayList<>();
+        for (Mesa mesa : ocupadas) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("numeroMesa", mesa.getNumeroMesa());
+            item.put("mesero", mesa.getMeseroAsignado());
+            item.put("personas", mesa.getPersonasActuales());
+            item.put("totalConsumo", mesa.getTotalConsumoMesa());
+            item.put("horaOcupacion", mesa.getHoraOcupacionMesa());
+            lista.add(item);
+        }
+        return lista;
+    }
+
+    private List<Map<String, Object>> resumenPedidos(List<PedidoDetalle> delDia) {
+        List<Map<String, Object>> lista = new ArrayList<>();
+        delDia.stream()
+            .sorted(Comparator.comparing(PedidoDetalle::horaPedido, Comparator.nullsLast(Comparator.reverseOrder())))
+            .limit(ULTIMOS_PEDIDOS)
+            .forEach(pedido -> {
+                Map<String, Object> item = new HashMap<>();
+                item.put("codigoPedido", pedido.codigoPedido());
+                item.put("numeroMesa", pedido.numeroMesa());
+                item.put("mesero", pedido.mesero());
+                item.put("estadoPedido", pedido.estadoPedido());
+                item.put("totalPedido", pedido.totalPedido());
+                item.put("horaPedido", pedido.horaPedido());
+                lista.add(item);
+            });
+        return lista;
+    }
+}
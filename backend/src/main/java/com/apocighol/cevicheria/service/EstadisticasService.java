@@ -0,0 +1,408 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.event.CajaEvento;
+import com.apocighol.cevicheria.event.MesaEvento;
+import com.apocighol.cevicheria.event.PedidoEvento;
+import com.apocighol.cevicheria.model.Caja;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.Mesa;
+import com.apocighol.cevicheria.repository.CajaRepository;
+import com.apocighol.cevicheria.repository.MesaRepository;
+import com.apocighol.cevicheria.repository.MovimientoCajaRepository;
+import com.apocighol.cevicheria.repository.PedidoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ==========================================
+ * ESTADÍSTICAS SERVICE
+ *
+ * 🔥 Contadores pre-agregados para el dashboard:
+ * - Pedidos: del día (cantidad y total) y por estado
+ * - Caja: totales de la caja abierta y ventas del día
+ * - Mesas: total y activas por estado
+ *
+ * Se actualizan con los eventos de Pedido/Caja/Mesa después del commit
+ * y se leen en tiempo constante. Los montos se guardan en céntimos.
+ * Un job periódico los reconcilia contra la BD.
+ *
+ * version: sube con cada cambio aplicado (ETag del dashboard).
+ * ==========================================
+ */
+@Slf4j
+@Service
+public class EstadisticasService {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private CajaRepository cajaRepository;
+
+    @Autowired
+    private MovimientoCajaRepository movimientoCajaRepository;
+
+    @Autowired
+    private MesaRepository mesaRepository;
+
+    @Autowired
+    private AcumuladorCaja acumuladorCaja;
+
+    // Las escrituras se serializan con el lock; las lecturas no lo necesitan
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong eventosAplicados = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private volatile LocalDate fechaHoy = LocalDate.now();
+
+    // Pedidos
+    private final AtomicLong pedidosHoy = new AtomicLong();
+    private final AtomicLong ventasPedidosHoyCentimos = new AtomicLong();
+    private final AtomicLongArray pedidosPorEstado = new AtomicLongArray(EstadoPedido.values().length);
+
+    // Caja abierta
+    private volatile boolean cajaAbierta = false;
+    private final AtomicLong cajaVentas = new AtomicLong();
+    private final AtomicLong cajaEfectivo = new AtomicLong();
+    private final AtomicLong cajaYape = new AtomicLong();
+    private final AtomicLong cajaPlin = new AtomicLong();
+    private final AtomicLong cajaTarjeta = new AtomicLong();
+    private final AtomicLong cajaEgresos = new AtomicLong();
+    private final AtomicLong cajaMovimientos = new AtomicLong();
+    private final AtomicLong ventasCajaHoyCentimos = new AtomicLong();
+
+    // Mesas
+    private final AtomicLong mesasTotal = new AtomicLong();
+    private final Map<String, AtomicLong> mesasPorEstado = new ConcurrentHashMap<>();
+
+    // ==========================================
+    // LECTURAS (tiempo constante)
+    // ==========================================
+
+    public long version() {
+        return version.get();
+    }
+
+    public Map<String, Object> estadisticasPedidos() {
+        verificarCambioDeDia();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalPedidosHoy", pedidosHoy.get());
+        stats.put("pedidosPendientes", pedidosPorEstado.get(EstadoPedido.PENDIENTE.ordinal()));
+        stats.put("pedidosPreparando", pedidosPorEstado.get(EstadoPedido.PREPARANDO.ordinal()));
+        stats.put("pedidosListos", pedidosPorEstado.get(EstadoPedido.LISTO.ordinal()));
+        stats.put("pedidosServidos", pedidosPorEstado.get(EstadoPedido.SERVIDO.ordinal()));
+        stats.put("pedidosPagados", pedidosPorEstado.get(EstadoPedido.PAGADO.ordinal()));
+        stats.put("totalVentasHoy", deCentimos(ventasPedidosHoyCentimos.get()));
+        return stats;
+    }
+
+    public Map<String, Object> estadisticasCaja() {
+        verificarCambioDeDia();
+
+        Map<String, Object> stats = new HashMap<>();
+        if (cajaAbierta) {
+            stats.put("cajaAbierta", true);
+            stats.put("totalVentas", deCentimos(cajaVentas.get()));
+            stats.put("totalEfectivo", deCentimos(cajaEfectivo.get()));
+            stats.put("totalYape", deCentimos(cajaYape.get()));
+            stats.put("totalPlin", deCentimos(cajaPlin.get()));
+            stats.put("totalTarjeta", deCentimos(cajaTarjeta.get()));
+            stats.put("totalEgresos", deCentimos(cajaEgresos.get()));
+            stats.put("cantidadMovimientos", cajaMovimientos.get());
+        } else {
+            stats.put("cajaAbierta", false);
+            stats.put("totalVentas", BigDecimal.ZERO);
+        }
+        stats.put("ventasHoy", deCentimos(ventasCajaHoyCentimos.get()));
+        return stats;
+    }
+
+    public Map<String, Object> estadisticasMesas() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("total", mesasTotal.get());
+        stats.put("disponibles", mesasEnEstado("disponible"));
+        stats.put("ocupadas", mesasEnEstado("ocupada"));
+        stats.put("reservadas", mesasEnEstado("reservada"));
+        return stats;
+    }
+
+    /**
+     * Mesas ocupadas ahora mismo (gauge de MetricasNegocio)
+     */
+    public long mesasOcupadas() {
+        return mesasEnEstado("ocupada");
+    }
+
+    private long mesasEnEstado(String estado) {
+        AtomicLong contador = mesasPorEstado.get(estado);
+        return contador != null ? contador.get() : 0;
+    }
+
+    // ==========================================
+    // ACTUALIZACIÓN POR EVENTOS
+    // ==========================================
+
+    @TransactionalEventListener
+    public void onPedidoEvento(PedidoEvento evento) {
+        PedidoDetalle pedido = evento.pedido();
+
+        lock.lock();
+        try {
+            verificarCambioDeDia();
+            boolean esDeHoy = fechaHoy.equals(pedido.fechaPedido());
+
+            switch (evento.tipo()) {
+                case CREADO -> {
+                    pedidosPorEstado.incrementAndGet(pedido.estadoPedido().ordinal());
+                    if (esDeHoy) {
+                        pedidosHoy.incrementAndGet();
+                        ventasPedidosHoyCentimos.addAndGet(pedido.totalPedido().centimos());
+                    }
+                }
+                case ESTADO_CAMBIADO, ANULADO -> {
+                    pedidosPorEstado.decrementAndGet(evento.estadoAnterior().ordinal());
+                    pedidosPorEstado.incrementAndGet(pedido.estadoPedido().ordinal());
+                }
+                case ELIMINADO -> {
+                    pedidosPorEstado.decrementAndGet(evento.estadoAnterior().ordinal());
+                    if (esDeHoy) {
+                        pedidosHoy.decrementAndGet();
+                        ventasPedidosHoyCentimos.addAndGet(-pedido.totalPedido().centimos());
+                    }
+                }
+            }
+            eventosAplicados.incrementAndGet();
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCajaEvento(CajaEvento evento) {
+        lock.lock();
+        try {
+            verificarCambioDeDia();
+
+            switch (evento.tipo()) {
+                case ABIERTA -> {
+                    reiniciarCaja();
+                    cajaAbierta = true;
+                }
+                case VENTA -> {
+                    long monto = evento.movimiento().getMonto().centimos();
+                    cajaVentas.addAndGet(monto);
+                    AtomicLong porMetodo = totalPorMetodo(evento.movimiento().getMetodoPago());
+                    if (porMetodo != null) {
+                        porMetodo.addAndGet(monto);
+                    }
+                    cajaMovimientos.incrementAndGet();
+                    if (fechaHoy.equals(evento.caja().fechaApertura())) {
+                        ventasCajaHoyCentimos.addAndGet(monto);
+                    }
+                }
+                case EGRESO -> {
+                    // registrarEgreso guarda el monto en negativo, registrarGasto en positivo
+                    cajaEgresos.addAndGet(Math.abs(evento.movimiento().getMonto().centimos()));
+                    cajaMovimientos.incrementAndGet();
+                }
+                case CERRADA -> {
+                    reiniciarCaja();
+                    cajaAbierta = false;
+                }
+            }
+            eventosAplicados.incrementAndGet();
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // MesaService no es @Transactional: sin transacción se ejecuta al publicar
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMesaEvento(MesaEvento evento) {
+        Mesa mesa = evento.mesa();
+        boolean activa = mesa.getActivaMesa() == null || mesa.getActivaMesa();
+
+        lock.lock();
+        try {
+            if (evento.estadoAnterior() == null) {
+                mesasTotal.incrementAndGet();
+            }
+            if (evento.estadoNuevo() == null) {
+                mesasTotal.decrementAndGet();
+            }
+            if (activa) {
+                if (evento.estadoAnterior() != null) {
+                    contadorMesa(evento.estadoAnterior()).decrementAndGet();
+                }
+                if (evento.estadoNuevo() != null) {
+                    contadorMesa(evento.estadoNuevo()).incrementAndGet();
+                }
+            }
+            eventosAplicados.incrementAndGet();
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AtomicLong totalPorMetodo(String metodoPago) {
+        if (metodoPago == null) {
+            return null;
+        }
+        switch (metodoPago.toLowerCase()) {
+            case "efectivo": return cajaEfectivo;
+            case "yape": return cajaYape;
+            case "plin": return cajaPlin;
+            case "tarjeta": return cajaTarjeta;
+            default: return null;
+        }
+    }
+
+    private AtomicLong contadorMesa(String estado) {
+        return mesasPorEstado.computeIfAbsent(estado.toLowerCase(), k -> new AtomicLong());
+    }
+
+    private void reiniciarCaja() {
+        cajaVentas.set(0);
+        cajaEfectivo.set(0);
+        cajaYape.set(0);
+        cajaPlin.set(0);
+        cajaTarjeta.set(0);
+        cajaEgresos.set(0);
+        cajaMovimientos.set(0);
+    }
+
+    private void verificarCambioDeDia() {
+        LocalDate hoy = LocalDate.now();
+        if (fechaHoy.equals(hoy)) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (!fechaHoy.equals(hoy)) {
+                fechaHoy = hoy;
+                pedidosHoy.set(0);
+                ventasPedidosHoyCentimos.set(0);
+                ventasCajaHoyCentimos.set(0);
+                version.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==========================================
+    // 🔥 RECONCILIACIÓN CONTRA LA BD
+    // ==========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        reconciliar();
+    }
+
+    /**
+     * Recalcula todos los contadores desde la BD.
+     * Si llegó algún evento mientras se leía, se descarta esta pasada
+     * (los números leídos podrían no incluirlo) y se corrige en la siguiente.
+     *
+     * La caja abierta se suma desde movimientos_caja: su fila solo se
+     * actualiza cada caja.volcado-ms (AcumuladorCaja) y la reconciliación
+     * devolvería el dashboard a totales atrasados.
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.reconciliacion-ms:300000}",
+               initialDelayString = "${estadisticas.reconciliacion-ms:300000}")
+    public void reconciliar() {
+        long eventosAntes = eventosAplicados.get();
+        LocalDate hoy = LocalDate.now();
+
+        long pedidosDelDia = pedidoRepository.countByFechaPedido(hoy);
+        long ventasPedidos = aCentimos(pedidoRepository.sumTotalByFechaPedido(hoy));
+        long[] porEstado = new long[EstadoPedido.values().length];
+        for (Object[] fila : pedidoRepository.contarPorEstado()) {
+            porEstado[((EstadoPedido) fila[0]).ordinal()] = (Long) fila[1];
+        }
+
+        Optional<Caja> caja = cajaRepository.findByMarcaAbiertaTrue();
+        long movimientos = caja.map(c -> movimientoCajaRepository.countByIdCaja(c.getIdCaja())).orElse(0L);
+        AcumuladorCaja.Totales totales = caja.map(c -> acumuladorCaja.totalesDe(c.getIdCaja()))
+            .orElse(new AcumuladorCaja.Totales(0, 0, 0, 0, 0, 0));
+        long ventasCajas = aCentimos(cajaRepository.sumVentasCerradasByFecha(hoy))
+            + (caja.isPresent() && hoy.equals(caja.get().getFechaApertura()) ? totales.ventas() : 0);
+
+        long totalMesas = mesaRepository.count();
+        Map<String, Long> mesas = new HashMap<>();
+        for (Object[] fila : mesaRepository.contarActivasPorEstado()) {
+            mesas.merge(((String) fila[0]).toLowerCase(), (Long) fila[1], Long::sum);
+        }
+
+        lock.lock();
+        try {
+            if (eventosAplicados.get() != eventosAntes) {
+                log.debug("⏭️ Reconciliación de estadísticas pospuesta (hubo cambios durante la lectura)");
+                return;
+            }
+
+            if (pedidosHoy.get() != pedidosDelDia || ventasPedidosHoyCentimos.get() != ventasPedidos) {
+                log.warn("⚠️ Estadísticas de pedidos corregidas: {} → {}", pedidosHoy.get(), pedidosDelDia);
+            }
+
+            fechaHoy = hoy;
+            pedidosHoy.set(pedidosDelDia);
+            ventasPedidosHoyCentimos.set(ventasPedidos);
+            for (int i = 0; i < porEstado.length; i++) {
+                pedidosPorEstado.set(i, porEstado[i]);
+            }
+
+            cajaAbierta = caja.isPresent();
+            cajaVentas.set(totales.ventas());
+            cajaEfectivo.set(totales.efectivo());
+            cajaYape.set(totales.yape());
+            cajaPlin.set(totales.plin());
+            cajaTarjeta.set(totales.tarjeta());
+            cajaEgresos.set(totales.egresos());
+            cajaMovimientos.set(movimientos);
+            ventasCajaHoyCentimos.set(ventasCajas);
+
+            mesasTotal.set(totalMesas);
+            mesasPorEstado.clear();
+            mesas.forEach((estado, cantidad) -> mesasPorEstado.put(estado, new AtomicLong(cantidad)));
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==========================================
+    // CÉNTIMOS
+    // ==========================================
+
+    private static long aCentimos(BigDecimal monto) {
+        if (monto == null) {
+            return 0;
+        }
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal deCentimos(long centimos) {
+        return BigDecimal.valueOf(centimos, 2);
+    }
+}
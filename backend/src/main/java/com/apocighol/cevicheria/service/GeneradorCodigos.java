@@ -0,0 +1,243 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.model.SecuenciaCodigo;
+import com.apocighol.cevicheria.repository.SecuenciaCodigoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * ==========================================
+ * GENERADOR DE CÓDIGOS (PED-20261018-0042)
+ *
+ * 🔥 Un contador por prefijo que vuelve a 1 cada día. Los números
+ * salen de un bloque en memoria; solo al agotarlo se reserva el
+ * siguiente en secuencias_codigo (UPDATE + SELECT).
+ *
+ * La reserva va en la transacción de quien pide el código (no pide
+ * otra conexión al pool: con el pool lleno eso se bloquearía) y el
+ * candado del prefijo se retiene hasta su commit. Nadie más usa el
+ * bloque antes de que quede confirmado; si hay rollback, se descarta.
+ *
+ * - Nunca repite, aunque haya varios servidores: la fila del día se
+ *   crea con INSERT ... ON DUPLICATE KEY UPDATE, así que dos servidores
+ *   que la crean a la vez terminan con bloques distintos.
+ * - Puede saltar números: lo que quedaba del bloque al reiniciar
+ *   el servidor no se reparte.
+ *
+ * Las secuencias continuas (PROD-001...) no se reinician ni saltan:
+ * van de uno en uno y guardan en memoria el último número para la
+ * vista previa del frontend.
+ * ==========================================
+ */
+@Slf4j
+@Component
+public class GeneradorCodigos {
+
+    public static final String PEDIDO = "PED";
+    public static final String CAJA = "CAJA";
+    public static final String COMPRA = "COMP";
+
+    private static final DateTimeFormatter DIA = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Map<String, Bloque> bloques = new ConcurrentHashMap<>();
+    private final Map<String, Continua> continuas = new ConcurrentHashMap<>();
+    private final SecuenciaCodigoRepository secuenciaRepository;
+    private final TransactionTemplate transaccion;
+    private final int tamanoBloque;
+
+    public GeneradorCodigos(SecuenciaCodigoRepository secuenciaRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${codigos.tamano-bloque:20}") int tamanoBloque) {
+        this.secuenciaRepository = secuenciaRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * Siguiente código del prefijo para hoy: "PED" → "PED-20261018-0042"
+     */
+    public String siguiente(String prefijo) {
+        Bloque bloque = bloques.computeIfAbsent(prefijo, p -> new Bloque());
+        LocalDate hoy = LocalDate.now();
+        String claveDia;
+        long numero;
+
+        bloque.lock.lock();
+        try {
+            if (!hoy.equals(bloque.fecha) || bloque.siguiente > bloque.limite) {
+                String clave = prefijo + "-" + hoy.format(DIA);
+                long ultimo = reservar(bloque.lock, clave, tamanoBloque, () -> 0, confirmado -> {
+                    if (!confirmado) {
+                        bloque.limite = 0; // la BD deshizo la reserva: el próximo la vuelve a pedir
+                    }
+                });
+                bloque.fecha = hoy;
+                bloque.claveDia = clave;
+                bloque.siguiente = ultimo - tamanoBloque + 1;
+                bloque.limite = ultimo;
+                log.debug("🔢 Bloque de códigos {}: {}..{}", clave, bloque.siguiente, bloque.limite);
+            }
+            claveDia = bloque.claveDia;
+            numero = bloque.siguiente++;
+        } finally {
+            bloque.lock.unlock();
+        }
+
+        return formatear(claveDia, numero);
+    }
+
+    // ==========================================
+    // SECUENCIAS CONTINUAS (sin día, sin huecos)
+    // ==========================================
+
+    /**
+     * Reserva el siguiente número de la secuencia (UPDATE + SELECT).
+     * La primera vez la fila se crea desde inicial (ej. el mayor código existente).
+     */
+    public long siguienteNumero(String clave, LongSupplier inicial) {
+        Continua continua = continuas.computeIfAbsent(clave, c -> new Continua());
+        continua.lock.lock();
+        try {
+            long anterior = continua.ultimo;
+            long numero = reservar(continua.lock, clave, 1, inicial, confirmado -> {
+                if (!confirmado) {
+                    continua.ultimo = anterior;
+                }
+            });
+            continua.ultimo = numero;
+            return numero;
+        } finally {
+            continua.lock.unlock();
+        }
+    }
+
+    /**
+     * Último número entregado, desde memoria (solo la primera vez lee la BD)
+     */
+    public long ultimoNumero(String clave, LongSupplier inicial) {
+        Continua continua = continuas.computeIfAbsent(clave, c -> new Continua());
+        long ultimo = continua.ultimo;
+        if (ultimo >= 0) {
+            return ultimo;
+        }
+
+        continua.lock.lock();
+        try {
+            if (continua.ultimo < 0) {
+                continua.ultimo = secuenciaRepository.findById(clave)
+                    .map(SecuenciaCodigo::getUltimo)
+                    .orElseGet(inicial::getAsLong);
+            }
+            return continua.ultimo;
+        } finally {
+            continua.lock.unlock();
+        }
+    }
+
+    /**
+     * Un número puesto a mano (ej. PROD-150): la secuencia sigue desde ahí
+     */
+    public void elevarHasta(String clave, long numero, LongSupplier inicial) {
+        Continua continua = continuas.computeIfAbsent(clave, c -> new Continua());
+        continua.lock.lock();
+        try {
+            long anterior = continua.ultimo;
+            enTransaccion(continua.lock, () -> {
+                if (secuenciaRepository.elevar(clave, numero) == 0 && !secuenciaRepository.existsById(clave)) {
+                    secuenciaRepository.crearOElevar(clave, Math.max(numero, inicial.getAsLong()));
+                }
+                return numero;
+            }, confirmado -> {
+                if (!confirmado) {
+                    continua.ultimo = anterior;
+                }
+            });
+            continua.ultimo = Math.max(continua.ultimo, numero);
+        } finally {
+            continua.lock.unlock();
+        }
+    }
+
+    // ==========================================
+    // INTERNOS
+    // ==========================================
+
+    /**
+     * Avanza la fila un bloque y devuelve el último número reservado.
+     * Sin fila (primera vez del día) se crea con un upsert: inicial solo
+     * se calcula en ese caso.
+     */
+    private long reservar(ReentrantLock candado, String clave, long bloque, LongSupplier inicial,
+                          Consumer<Boolean> alTerminar) {
+        return enTransaccion(candado, () -> {
+            if (secuenciaRepository.avanzar(clave, bloque) == 0) {
+                secuenciaRepository.crearOAvanzar(clave, inicial.getAsLong(), bloque);
+            }
+            return secuenciaRepository.ultimo(clave);
+        }, alTerminar);
+    }
+
+    /**
+     * Con transacción activa: trabaja en ella y retiene el candado (ya tomado
+     * por el llamador) hasta su commit o rollback. Sin transacción: abre una
+     * propia, que confirma antes de devolver.
+     */
+    private long enTransaccion(ReentrantLock candado, LongSupplier trabajo, Consumer<Boolean> alTerminar) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transaccion.execute(estado -> trabajo.getAsLong());
+        }
+
+        long resultado = trabajo.getAsLong();
+        candado.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                try {
+                    alTerminar.accept(estado == STATUS_COMMITTED);
+                } finally {
+                    candado.unlock();
+                }
+            }
+        });
+        return resultado;
+    }
+
+    // Al menos 4 dígitos: PED-20261018-0042, PED-20261018-12345
+    private static String formatear(String claveDia, long numero) {
+        String digitos = Long.toString(numero);
+        StringBuilder codigo = new StringBuilder(claveDia.length() + 1 + Math.max(4, digitos.length()));
+        codigo.append(claveDia).append('-');
+        for (int i = digitos.length(); i < 4; i++) {
+            codigo.append('0');
+        }
+        return codigo.append(digitos).toString();
+    }
+
+    // ReentrantLock y no synchronized: se retiene durante I/O a la BD y con
+    // hilos virtuales un monitor retenido durante I/O fija el hilo portador
+    private static final class Bloque {
+        final ReentrantLock lock = new ReentrantLock();
+        LocalDate fecha;
+        String claveDia;
+        long siguiente = 1;
+        long limite = 0;
+    }
+
+    private static final class Continua {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long ultimo = -1;
+    }
+}
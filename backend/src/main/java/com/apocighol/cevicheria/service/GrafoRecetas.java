@@ -0,0 +1,204 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.RecetaEvento;
+import com.apocighol.cevicheria.repository.RecetaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ==========================================
+ * GRAFO DE RECETAS (en memoria)
+ *
+ * producto → (insumo, cantidad) en arreglos primitivos:
+ * - productos[p]: ids de producto ordenados (búsqueda binaria)
+ * - las líneas del producto p van de inicio[p] a inicio[p + 1]
+ * - insumoDeLinea[k]: posición del insumo en insumos[]
+ * - cantidadDeLinea[k]: cantidad en milésimas (la columna es scale 3)
+ *
+ * Se carga con una sola consulta la primera vez que se usa y se
+ * descarta cuando termina una transacción que cambió alguna receta.
+ * ==========================================
+ */
+@Component
+public class GrafoRecetas {
+
+    private volatile Grafo grafo;
+    private long generacion = 0;
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    /**
+     * Grafo vigente (lo construye si fue invalidado)
+     */
+    public Grafo grafo() {
+        Grafo actual = grafo;
+        if (actual != null) {
+            return actual;
+        }
+
+        long generacionLeida;
+        synchronized (this) {
+            if (grafo != null) {
+                return grafo;
+            }
+            generacionLeida = generacion;
+        }
+
+        Grafo nuevo = construir(recetaRepository.findLineasDeReceta());
+
+        // Si una receta cambió mientras se leía, este grafo ya nace viejo: se usa pero no se guarda
+        synchronized (this) {
+            if (generacion == generacionLeida) {
+                grafo = nuevo;
+            }
+        }
+        return nuevo;
+    }
+
+    /**
+     * Tras commit o rollback: si hubo rollback, el grafo pudo leer filas que ya no existen
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onRecetaEvento(RecetaEvento evento) {
+        invalidar();
+    }
+
+    public synchronized void invalidar() {
+        generacion++;
+        grafo = null;
+    }
+
+    // ==========================================
+    // CONSTRUCCIÓN
+    // ==========================================
+
+    /**
+     * @param lineas (idProducto, idInsumo, cantidad) ordenadas por producto e insumo
+     */
+    private static Grafo construir(List<Object[]> lineas) {
+        long[] insumos = lineas.stream()
+            .mapToLong(fila -> ((Number) fila[1]).longValue())
+            .sorted()
+            .distinct()
+            .toArray();
+
+        long[] productos = new long[lineas.size()];
+        int[] inicio = new int[lineas.size() + 1];
+        int[] insumoDeLinea = new int[lineas.size()];
+        long[] cantidadDeLinea = new long[lineas.size()];
+
+        int p = -1;
+        int k = -1;
+        for (Object[] fila : lineas) {
+            long idProducto = ((Number) fila[0]).longValue();
+            int insumo = Arrays.binarySearch(insumos, ((Number) fila[1]).longValue());
+            long cantidad = aMilesimas((BigDecimal) fila[2], RoundingMode.CEILING);
+
+            if (p < 0 || productos[p] != idProducto) {
+                productos[++p] = idProducto;
+                inicio[p] = k + 1;
+            } else if (insumoDeLinea[k] == insumo) {
+                // Mismo insumo repetido en la receta: se suma, igual que en el descuento
+                cantidadDeLinea[k] += cantidad;
+                continue;
+            }
+            insumoDeLinea[++k] = insumo;
+            cantidadDeLinea[k] = cantidad;
+        }
+        inicio[p + 1] = k + 1;
+
+        return new Grafo(
+            Arrays.copyOf(productos, p + 1),
+            Arrays.copyOf(inicio, p + 2),
+            Arrays.copyOf(insumoDeLinea, k + 1),
+            Arrays.copyOf(cantidadDeLinea, k + 1),
+            insumos);
+    }
+
+    static long aMilesimas(BigDecimal valor, RoundingMode redondeo) {
+        if (valor == null) {
+            return 0;
+        }
+        return valor.movePointRight(3).setScale(0, redondeo).longValueExact();
+    }
+
+    // ==========================================
+    // GRAFO (inmutable)
+    // ==========================================
+
+    public record Grafo(long[] productos, int[] inicio, int[] insumoDeLinea, long[] cantidadDeLinea, long[] insumos) {
+
+        public int cantidadProductos() {
+            return productos.length;
+        }
+
+        public long idProducto(int p) {
+            return productos[p];
+        }
+
+        /**
+         * @return posición del producto, o negativo si no tiene receta
+         */
+        public int indiceProducto(long idProducto) {
+            return Arrays.binarySearch(productos, idProducto);
+        }
+
+        public long idInsumoDeLinea(int k) {
+            return insumos[insumoDeLinea[k]];
+        }
+
+        /**
+         * Stock alineado con insumos[] en milésimas.
+         * Un insumo de receta que ya no existe queda en -1 (nunca alcanza).
+         *
+         * @param filas (idInsumo, stockActual) de InsumoRepository.findStockActual()
+         */
+        public long[] stockEnMilesimas(List<Object[]> filas) {
+            long[] stock = new long[insumos.length];
+            Arrays.fill(stock, -1);
+            for (Object[] fila : filas) {
+                int i = Arrays.binarySearch(insumos, ((Number) fila[0]).longValue());
+                if (i >= 0) {
+                    stock[i] = aMilesimas((BigDecimal) fila[1], RoundingMode.FLOOR);
+                }
+            }
+            return stock;
+        }
+
+        /**
+         * ¿Alcanza el stock para preparar 'unidades' del producto en la posición p?
+         */
+        public boolean alcanza(int p, long unidades, long[] stock) {
+            for (int k = inicio[p]; k < inicio[p + 1]; k++) {
+                if (stock[insumoDeLinea[k]] < cantidadDeLinea[k] * unidades) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Porciones del producto p que alcanzan con el stock dado
+         * (mínimo de stock / cantidad entre sus insumos; -1 si ninguno lo limita)
+         */
+        public long porciones(int p, long[] stock) {
+            long minimo = -1;
+            for (int k = inicio[p]; k < inicio[p + 1]; k++) {
+                if (cantidadDeLinea[k] <= 0) {
+                    continue;
+                }
+                long alcanza = Math.max(stock[insumoDeLinea[k]], 0) / cantidadDeLinea[k];
+                minimo = minimo < 0 ? alcanza : Math.min(minimo, alcanza);
+            }
+            return minimo;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.apocighol.cevicheria.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ==========================================
+ * ÍNDICE DE BÚSQUEDA POR NOMBRE (inmutable)
+ *
+ * Reemplaza LIKE '%x%' (recorre toda la tabla y "limon" no encuentra
+ * "Limón"). Los nombres se normalizan: sin tildes, minúsculas, solo
+ * letras y dígitos. Cada palabra de la consulta debe calzar con alguna
+ * palabra del nombre, de mejor a peor:
+ *
+ *   0 igual · 1 prefijo (mientras se escribe) · 2 contenida · 3+d con d errores
+ *
+ * - palabras[]: diccionario ordenado → prefijos por búsqueda binaria
+ * - trigramas: trigrama → palabras; solo se verifican las palabras que
+ *   comparten suficientes trigramas con la consulta (cada error de
+ *   tipeo rompe a lo más 3)
+ * - errores tolerados: 0 hasta 3 letras, 1 hasta 7, 2 desde 8 (Levenshtein)
+ *
+ * Orden del resultado: menor costo, palabra más al inicio del nombre,
+ * nombre más corto, alfabético. Para cambiar un nombre se crea otro
+ * índice (con): quien está buscando sigue con el anterior.
+ * ==========================================
+ */
+public final class IndiceBusqueda {
+
+    private static final int[] NINGUNA = new int[0];
+
+    private final Map<Long, String> nombres;
+
+    // Entradas ordenadas por nombre normalizado
+    private final long[] ids;
+    private final String[] normalizados;
+
+    // Diccionario de palabras: palabra p → entradas que la contienen y en qué posición del nombre
+    private final String[] palabras;
+    private final int[][] entradasDePalabra;
+    private final int[][] posicionesDePalabra;
+    private final Map<String, int[]> trigramas;
+
+    private IndiceBusqueda(Map<Long, String> nombres) {
+        this.nombres = nombres;
+
+        List<Map.Entry<Long, String>> entradas = new ArrayList<>();
+        for (Map.Entry<Long, String> nombre : nombres.entrySet()) {
+            entradas.add(Map.entry(nombre.getKey(), normalizar(nombre.getValue())));
+        }
+        entradas.sort(Map.Entry.<Long, String>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+
+        int n = entradas.size();
+        this.ids = new long[n];
+        this.normalizados = new String[n];
+        TreeMap<String, List<int[]>> diccionario = new TreeMap<>();
+        for (int e = 0; e < n; e++) {
+            ids[e] = entradas.get(e).getKey();
+            normalizados[e] = entradas.get(e).getValue();
+            String[] partes = normalizados[e].isEmpty() ? new String[0] : normalizados[e].split(" ");
+            for (int p = 0; p < partes.length; p++) {
+                List<int[]> apariciones = diccionario.computeIfAbsent(partes[p], k -> new ArrayList<>());
+                if (apariciones.isEmpty() || apariciones.get(apariciones.size() - 1)[0] != e) {
+                    apariciones.add(new int[] { e, p });
+                }
+            }
+        }
+
+        int w = diccionario.size();
+        this.palabras = new String[w];
+        this.entradasDePalabra = new int[w][];
+        this.posicionesDePalabra = new int[w][];
+        Map<String, List<Integer>> porTrigrama = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, List<int[]>> palabra : diccionario.entrySet()) {
+            palabras[i] = palabra.getKey();
+            List<int[]> apariciones = palabra.getValue();
+            entradasDePalabra[i] = new int[apariciones.size()];
+            posicionesDePalabra[i] = new int[apariciones.size()];
+            for (int k = 0; k < apariciones.size(); k++) {
+                entradasDePalabra[i][k] = apariciones.get(k)[0];
+                posicionesDePalabra[i][k] = apariciones.get(k)[1];
+            }
+            for (String trigrama : trigramasDe(palabras[i])) {
+                List<Integer> lista = porTrigrama.computeIfAbsent(trigrama, k -> new ArrayList<>());
+                if (lista.isEmpty() || lista.get(lista.size() - 1) != i) {
+                    lista.add(i);
+                }
+            }
+            i++;
+        }
+
+        this.trigramas = new HashMap<>(porTrigrama.size() * 2);
+        porTrigrama.forEach((trigrama, lista) ->
+            trigramas.put(trigrama, lista.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Índice sobre id → nombre
+     */
+    public static IndiceBusqueda de(Map<Long, String> nombres) {
+        Map<Long, String> copia = new HashMap<>();
+        nombres.forEach((id, nombre) -> {
+            if (id != null && nombre != null) {
+                copia.put(id, nombre);
+            }
+        });
+        return new IndiceBusqueda(Map.copyOf(copia));
+    }
+
+    /**
+     * Otro índice con ese nombre cambiado (nombre null = quitar el id)
+     */
+    public IndiceBusqueda con(Long id, String nombre) {
+        Map<Long, String> copia = new LinkedHashMap<>(nombres);
+        if (nombre == null) {
+            copia.remove(id);
+        } else {
+            copia.put(id, nombre);
+        }
+        return de(copia);
+    }
+
+    public int tamano() {
+        return ids.length;
+    }
+
+    // ==========================================
+    // BÚSQUEDA
+    // ==========================================
+
+    /**
+     * Ids que calzan con la consulta, del más al menos relevante.
+     * Consulta vacía = todos, por nombre.
+     */
+    public List<Long> buscar(String consulta) {
+        String normalizada = normalizar(consulta);
+        if (normalizada.isEmpty()) {
+            List<Long> todos = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                todos.add(id);
+            }
+            return todos;
+        }
+
+        String[] tokens = normalizada.split(" ");
+        int n = ids.length;
+        int[] cumplidos = new int[n];  // cuántos tokens ya calzaron
+        int[] costo = new int[n];
+        int[] posicion = new int[n];
+        int[] mejor = new int[n];      // mejor (costo, posición) del token actual + 1; 0 = ninguno
+        int[] tocadas = new int[n];
+        int ultimas = 0;
+
+        for (int t = 0; t < tokens.length; t++) {
+            int cantidadTocadas = 0;
+            for (long coincidencia : palabrasQueCalzan(tokens[t])) {
+                int palabra = (int) (coincidencia >>> 8);
+                int costoPalabra = (int) (coincidencia & 0xFF);
+                int[] entradas = entradasDePalabra[palabra];
+                int[] posiciones = posicionesDePalabra[palabra];
+                for (int k = 0; k < entradas.length; k++) {
+                    int e = entradas[k];
+                    if (cumplidos[e] != t) {
+                        continue;
+                    }
+                    int codigo = (costoPalabra << 8 | Math.min(posiciones[k], 0xFF)) + 1;
+                    if (mejor[e] == 0) {
+                        tocadas[cantidadTocadas++] = e;
+                        mejor[e] = codigo;
+                    } else if (codigo < mejor[e]) {
+                        mejor[e] = codigo;
+                    }
+                }
+            }
+            if (cantidadTocadas == 0) {
+                return List.of();
+            }
+            for (int k = 0; k < cantidadTocadas; k++) {
+                int e = tocadas[k];
+                cumplidos[e] = t + 1;
+                costo[e] += (mejor[e] - 1) >>> 8;
+                if (t == 0) {
+                    posicion[e] = (mejor[e] - 1) & 0xFF;
+                }
+                mejor[e] = 0;
+            }
+            ultimas = cantidadTocadas;
+        }
+
+        // Las tocadas por el último token cumplieron todos. Una clave long por
+        // entrada (costo | posición | largo | entrada) y se ordena sin objetos.
+        long[] claves = new long[ultimas];
+        for (int k = 0; k < ultimas; k++) {
+            int e = tocadas[k];
+            claves[k] = (long) Math.min(costo[e], 0xFFF) << 51
+                | (long) posicion[e] << 43
+                | (long) Math.min(normalizados[e].length(), 0xFFF) << 31
+                | e;
+        }
+        Arrays.sort(claves);
+
+        List<Long> resultado = new ArrayList<>(ultimas);
+        for (long clave : claves) {
+            resultado.add(ids[(int) (clave & 0x7FFFFFFF)]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Palabras del diccionario que calzan con el token, como (palabra << 8 | costo)
+     */
+    private long[] palabrasQueCalzan(String token) {
+        Map<Integer, Integer> costos = new HashMap<>();
+
+        // Igual o prefijo: rango contiguo del diccionario ordenado
+        int desde = Arrays.binarySearch(palabras, token);
+        for (int p = desde >= 0 ? desde : -desde - 1; p < palabras.length && palabras[p].startsWith(token); p++) {
+            costos.put(p, palabras[p].length() == token.length() ? 0 : 1);
+        }
+
+        if (token.length() >= 3) {
+            int tolerancia = token.length() <= 3 ? 0 : token.length() <= 7 ? 1 : 2;
+            String[] delToken = trigramasDe(token);
+            // Contenida: comparte todos sus trigramas internos; con d errores: pierde a lo más 3 por error
+            int minimo = Math.max(1, Math.min(token.length() - 2, delToken.length - 3 * tolerancia - 1));
+
+            int[] comunes = new int[palabras.length];
+            List<Integer> candidatas = new ArrayList<>();
+            for (String trigrama : delToken) {
+                for (int p : trigramas.getOrDefault(trigrama, NINGUNA)) {
+                    if (++comunes[p] == minimo) {
+                        candidatas.add(p);
+                    }
+                }
+            }
+            for (int p : candidatas) {
+                if (costos.containsKey(p)) {
+                    continue;
+                }
+                if (palabras[p].contains(token)) {
+                    costos.put(p, 2);
+                } else if (tolerancia > 0) {
+                    int distancia = distancia(token, palabras[p], tolerancia);
+                    if (distancia <= tolerancia) {
+                        costos.put(p, 3 + distancia);
+                    }
+                }
+            }
+        }
+
+        long[] coincidencias = new long[costos.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> costo : costos.entrySet()) {
+            coincidencias[i++] = (long) costo.getKey() << 8 | costo.getValue();
+        }
+        return coincidencias;
+    }
+
+    // ==========================================
+    // NORMALIZACIÓN Y DISTANCIA
+    // ==========================================
+
+    /**
+     * "Limón  (Tahití)" → "limon tahiti"
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder resultado = new StringBuilder(descompuesto.length());
+        boolean espacio = false;
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // tilde, diéresis, virgulilla de la ñ
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (espacio && resultado.length() > 0) {
+                    resultado.append(' ');
+                }
+                resultado.append(Character.toLowerCase(c));
+                espacio = false;
+            } else {
+                espacio = true;
+            }
+        }
+        return resultado.toString();
+    }
+
+    // Con un '$' a cada lado: los trigramas del borde dan peso al inicio y fin de la palabra
+    private static String[] trigramasDe(String palabra) {
+        String marcada = "$" + palabra + "$";
+        String[] resultado = new String[marcada.length() - 2];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = marcada.substring(i, i + 3);
+        }
+        return resultado;
+    }
+
+    /**
+     * Levenshtein entre el token y la palabra, o entre el token y un prefijo
+     * de la palabra (se está escribiendo); el menor. Corta al pasar el máximo.
+     */
+    static int distancia(String token, String palabra, int maximo) {
+        int m = token.length();
+        int n = Math.min(palabra.length(), m + maximo);
+        int[] anterior = new int[n + 1];
+        int[] actual = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            anterior[j] = j;
+        }
+
+        for (int i = 1; i <= m; i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            char c = token.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                int sustitucion = anterior[j - 1] + (c == palabra.charAt(j - 1) ? 0 : 1);
+                actual[j] = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] cambio = anterior;
+            anterior = actual;
+            actual = cambio;
+        }
+
+        int mejor = palabra.length() <= n ? anterior[palabra.length()] : maximo + 1;
+        for (int j = Math.max(0, m - maximo); j <= n; j++) {
+            mejor = Math.min(mejor, anterior[j]);
+        }
+        return mejor;
+    }
+}
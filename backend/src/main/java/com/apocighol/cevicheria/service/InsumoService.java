@@ -1,8 +1,16 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.event.InsumoEvento;
+import com.apocighol.cevicheria.event.StockEvento;
+import com.apocighol.cevicheria.model.CursorKeyset;
 import com.apocighol.cevicheria.model.Insumo;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.repository.InsumoRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,13 +25,23 @@ import java.util.Optional;
  * Servicio para gestión de Insumos
  * Contiene la lógica de negocio para el inventario
  */
+@Slf4j
 @Service
 @Transactional
 public class InsumoService {
     
+    // Cada vuelta exige que una compra caiga justo entre los dos UPDATE
+    private static final int MAX_INTENTOS_DESCUENTO = 10;
+    
     @Autowired
     private InsumoRepository insumoRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private BuscadorCatalogo buscadorCatalogo;
+    
     // ==========================================
     // CRUD BÁSICO
     // ==========================================
@@ -35,6 +53,21 @@ public class InsumoService {
         return insumoRepository.findAllByOrderByNombreInsumoAsc();
     }
     
+    /**
+     * Insumos paginados por nombre
+     */
+    public Pagina<Insumo> listarPagina(String cursor, int limite) {
+        Limit consulta = Limit.of(limite + 1);
+        List<Insumo> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = insumoRepository.findAllByOrderByNombreInsumoAscIdInsumoAsc(consulta);
+        } else {
+            CursorKeyset despuesDe = CursorKeyset.decodificar(cursor, 2);
+            filas = insumoRepository.buscarPaginaDespuesDe(despuesDe.texto(0), despuesDe.id(1), consulta);
+        }
+        return Pagina.de(filas, limite, i -> CursorKeyset.de(i.getNombreInsumo(), i.getIdInsumo()));
+    }
+    
     /**
      * Busca insumo por ID
      */
@@ -72,7 +105,9 @@ public class InsumoService {
         insumo.setFechaCreacion(LocalDateTime.now());
         insumo.setFechaActualizacion(LocalDateTime.now());
         
-        return insumoRepository.save(insumo);
+        Insumo guardado = insumoRepository.save(insumo);
+        eventPublisher.publishEvent(new InsumoEvento(guardado.getIdInsumo()));
+        return guardado;
     }
     
     /**
@@ -88,17 +123,22 @@ public class InsumoService {
         insumo.setCategoriaInsumo(datosActualizados.getCategoriaInsumo());
         insumo.setFechaActualizacion(LocalDateTime.now());
         
-        return insumoRepository.save(insumo);
+        Insumo guardado = insumoRepository.save(insumo);
+        eventPublisher.publishEvent(new InsumoEvento(id));
+        return guardado;
     }
     
     /**
      * Elimina un insumo
      */
     public void eliminar(Long id) {
-        if (!insumoRepository.existsById(id)) {
-            throw new RuntimeException("Insumo no encontrado");
-        }
-        insumoRepository.deleteById(id);
+        Insumo insumo = insumoRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Insumo no encontrado"));
+        insumoRepository.delete(insumo);
+        eventPublisher.publishEvent(new StockEvento(List.of(id)));
+        eventPublisher.publishEvent(new InsumoEvento(id));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.ELIMINADO, "INSUMO", id,
+            insumo.getNombreInsumo(), null, "Stock al eliminar: " + insumo.getStockActual()));
     }
     
     // ==========================================
@@ -107,33 +147,56 @@ public class InsumoService {
     
     /**
      * Aumenta el stock de un insumo (usado en COMPRAS)
+     * 🔥 UPDATE atómico: stock = stock + cantidad
      */
     public Insumo aumentarStock(Long idInsumo, BigDecimal cantidad) {
+        if (cantidad != null && cantidad.compareTo(BigDecimal.ZERO) > 0
+                && insumoRepository.sumarStock(idInsumo, cantidad, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Insumo no encontrado: " + idInsumo);
+        }
+        
         Insumo insumo = insumoRepository.findById(idInsumo)
             .orElseThrow(() -> new RuntimeException("Insumo no encontrado: " + idInsumo));
         
-        insumo.aumentarStock(cantidad);
-        
-        System.out.println("📦 Stock aumentado: " + insumo.getNombreInsumo() + 
-                          " +" + cantidad + " = " + insumo.getStockActual());
+        log.info("📦 Stock aumentado: {} +{} = {}", insumo.getNombreInsumo(), cantidad, insumo.getStockActual());
+        eventPublisher.publishEvent(new StockEvento(List.of(idInsumo)));
         
-        return insumoRepository.save(insumo);
+        return insumo;
     }
     
     /**
      * Disminuye el stock de un insumo (usado en PEDIDOS/VENTAS)
+     * 🔥 UPDATE condicional (stock >= cantidad): sin pérdidas con pedidos simultáneos.
+     * Si no alcanza, deja el stock en 0 como antes.
+     * Si las compras siguen cruzándose tras MAX_INTENTOS_DESCUENTO vueltas, falla
+     * (y la transacción se revierte) en lugar de girar sin fin.
      * @return true si se pudo descontar completamente
      */
     public boolean disminuirStock(Long idInsumo, BigDecimal cantidad) {
-        Insumo insumo = insumoRepository.findById(idInsumo)
-            .orElseThrow(() -> new RuntimeException("Insumo no encontrado: " + idInsumo));
+        if (cantidad == null || cantidad.compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
         
-        boolean resultado = insumo.disminuirStock(cantidad);
-        insumoRepository.save(insumo);
+        Boolean resultado = null;
+        for (int intento = 1; resultado == null; intento++) {
+            if (intento > MAX_INTENTOS_DESCUENTO) {
+                throw new IllegalStateException("No se pudo descontar stock del insumo " + idInsumo
+                    + ": el stock siguió cambiando tras " + MAX_INTENTOS_DESCUENTO + " intentos");
+            }
+            if (insumoRepository.restarSiAlcanza(idInsumo, cantidad, LocalDateTime.now()) == 1) {
+                resultado = true;
+            } else if (!insumoRepository.existsById(idInsumo)) {
+                throw new RuntimeException("Insumo no encontrado: " + idInsumo);
+            } else if (insumoRepository.agotarSiNoAlcanza(idInsumo, cantidad, LocalDateTime.now()) == 1) {
+                resultado = false;
+            }
+            // Si no: una compra repuso stock entre los dos UPDATE, reintentar el descuento
+        }
         
-        System.out.println("📦 Stock disminuido: " + insumo.getNombreInsumo() + 
-                          " -" + cantidad + " = " + insumo.getStockActual() +
-                          (resultado ? " ✅" : " ⚠️ Stock insuficiente"));
+        Insumo insumo = insumoRepository.findById(idInsumo).orElseThrow();
+        log.info("📦 Stock disminuido: {} -{} = {}{}", insumo.getNombreInsumo(), cantidad, insumo.getStockActual(),
+                 resultado ? " ✅" : " ⚠️ Stock insuficiente");
+        eventPublisher.publishEvent(new StockEvento(List.of(idInsumo)));
         
         return resultado;
     }
@@ -149,8 +212,10 @@ public class InsumoService {
         insumo.setStockActual(nuevoStock);
         insumo.setFechaActualizacion(LocalDateTime.now());
         
-        System.out.println("📦 Ajuste de stock: " + insumo.getNombreInsumo() + 
-                          " [" + stockAnterior + " → " + nuevoStock + "] Motivo: " + motivo);
+        log.info("📦 Ajuste de stock: {} [{} → {}] Motivo: {}", insumo.getNombreInsumo(), stockAnterior, nuevoStock, motivo);
+        eventPublisher.publishEvent(new StockEvento(List.of(idInsumo)));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.STOCK_AJUSTADO, "INSUMO", idInsumo,
+            insumo.getNombreInsumo(), null, stockAnterior + " → " + nuevoStock + " | Motivo: " + motivo));
         
         return insumoRepository.save(insumo);
     }
@@ -198,10 +263,15 @@ public class InsumoService {
     // ==========================================
     
     /**
-     * Busca insumos por texto
+     * Busca insumos por texto (sin tildes, prefijos y errores de tipeo),
+     * del más relevante al menos
      */
     public List<Insumo> buscar(String termino) {
-        return insumoRepository.findByNombreInsumoContainingIgnoreCase(termino);
+        List<Long> ids = buscadorCatalogo.buscarInsumos(termino);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return BuscadorCatalogo.enOrden(ids, insumoRepository.findAllById(ids), Insumo::getIdInsumo);
     }
     
     /**
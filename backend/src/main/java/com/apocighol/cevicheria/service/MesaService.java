@@ -1,12 +1,17 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.event.MesaEvento;
 import com.apocighol.cevicheria.model.Mesa;
 import com.apocighol.cevicheria.repository.MesaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -21,6 +26,12 @@ public class MesaService {
     @Autowired
     private MesaRepository mesaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
     // ==========================================
     // LISTAR TODAS LAS MESAS
     // ==========================================
@@ -60,7 +71,9 @@ public class MesaService {
             mesa.setCapacidadMesa(4);
         }
         
-        return mesaRepository.save(mesa);
+        Mesa mesaGuardada = mesaRepository.save(mesa);
+        eventPublisher.publishEvent(new MesaEvento(mesaGuardada, null, mesaGuardada.getEstadoMesa()));
+        return mesaGuardada;
     }
 
     // ==========================================
@@ -78,8 +91,11 @@ public class MesaService {
         // El negocio puede juntar mesas si necesitan más espacio
         
         // Ocupar la mesa
+        String estadoAnterior = mesa.getEstadoMesa();
         mesa.ocupar(personas, mesero);
-        return mesaRepository.save(mesa);
+        Mesa mesaOcupada = mesaRepository.save(mesa);
+        eventPublisher.publishEvent(new MesaEvento(mesaOcupada, estadoAnterior, mesaOcupada.getEstadoMesa()));
+        return mesaOcupada;
     }
 
     // ==========================================
@@ -89,12 +105,15 @@ public class MesaService {
         Mesa mesa = mesaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Mesa no encontrada"));
 
+        String estadoAnterior = mesa.getEstadoMesa();
         mesa.liberar();
         if (motivo != null && !motivo.trim().isEmpty()) {
             mesa.setMotivoLiberacion(motivo);
         }
         
-        return mesaRepository.save(mesa);
+        Mesa mesaLiberada = mesaRepository.save(mesa);
+        eventPublisher.publishEvent(new MesaEvento(mesaLiberada, estadoAnterior, mesaLiberada.getEstadoMesa()));
+        return mesaLiberada;
     }
 
     // ==========================================
@@ -105,12 +124,17 @@ public class MesaService {
                 .orElseThrow(() -> new IllegalArgumentException("Mesa no encontrada"));
 
         mesa.setTotalConsumoMesa(nuevoTotal);
-        return mesaRepository.save(mesa);
+        Mesa mesaActualizada = mesaRepository.save(mesa);
+        eventPublisher.publishEvent(new MesaEvento(mesaActualizada, mesaActualizada.getEstadoMesa(), mesaActualizada.getEstadoMesa()));
+        return mesaActualizada;
     }
 
     // ==========================================
     // ELIMINAR MESA
+    // 🔥 Con transacción: el AuditoriaEvento se registra tras el commit
+    // (sin ella RegistroAuditoria no lo recibe)
     // ==========================================
+    @Transactional
     public void eliminarMesa(Long id) {
         Mesa mesa = mesaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Mesa no encontrada"));
@@ -120,6 +144,9 @@ public class MesaService {
         }
 
         mesaRepository.delete(mesa);
+        eventPublisher.publishEvent(new MesaEvento(mesa, mesa.getEstadoMesa(), null));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.ELIMINADO, "MESA", id,
+            "Mesa " + mesa.getNumeroMesa(), null, null));
     }
 
     // ==========================================
@@ -142,4 +169,11 @@ public class MesaService {
     public long contarPorEstado(String estado) {
         return mesaRepository.countByEstadoMesa(estado);
     }
+
+    // ==========================================
+    // ESTADÍSTICAS (contadores en memoria)
+    // ==========================================
+    public Map<String, Object> obtenerEstadisticas() {
+        return estadisticasService.estadisticasMesas();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.CajaEvento;
+import com.apocighol.cevicheria.event.PedidoEvento;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.MovimientoCaja;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ==========================================
+ * MÉTRICAS DE NEGOCIO (Micrometer → /actuator/prometheus)
+ *
+ * - cevicheria.pedidos.estado{estado}: pedidos que entran a cada estado
+ * - cevicheria.ventas{metodo} y cevicheria.ventas.monto{metodo}: ventas por método de pago
+ * - cevicheria.mesas.ocupadas: mesas ocupadas ahora (de EstadisticasService, sin BD)
+ *
+ * Se cuentan con los eventos de dominio después del commit, igual que
+ * las estadísticas: un rollback no deja contadores inflados.
+ * Los tiempos de cada operación son @Timed en los servicios.
+ * ==========================================
+ */
+@Component
+public class MetricasNegocio {
+
+    private static final String[] METODOS = { "efectivo", "yape", "plin", "tarjeta", "otro" };
+
+    private final Map<EstadoPedido, Counter> pedidosPorEstado = new EnumMap<>(EstadoPedido.class);
+    private final Map<String, Counter> ventasPorMetodo = new HashMap<>();
+    private final Map<String, DistributionSummary> montosPorMetodo = new HashMap<>();
+
+    public MetricasNegocio(MeterRegistry registry, EstadisticasService estadisticasService) {
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            pedidosPorEstado.put(estado, Counter.builder("cevicheria.pedidos.estado")
+                .description("Pedidos que pasaron a cada estado")
+                .tag("estado", estado.name())
+                .register(registry));
+        }
+
+        for (String metodo : METODOS) {
+            ventasPorMetodo.put(metodo, Counter.builder("cevicheria.ventas")
+                .description("Ventas registradas en caja por método de pago")
+                .tag("metodo", metodo)
+                .register(registry));
+            montosPorMetodo.put(metodo, DistributionSummary.builder("cevicheria.ventas.monto")
+                .description("Monto de las ventas por método de pago")
+                .baseUnit("soles")
+                .tag("metodo", metodo)
+                .register(registry));
+        }
+
+        Gauge.builder("cevicheria.mesas.ocupadas", estadisticasService, EstadisticasService::mesasOcupadas)
+            .description("Mesas ocupadas en este momento")
+            .register(registry);
+    }
+
+    @TransactionalEventListener
+    public void onPedidoEvento(PedidoEvento evento) {
+        if (evento.tipo() != PedidoEvento.Tipo.ELIMINADO) {
+            pedidosPorEstado.get(evento.pedido().estadoPedido()).increment();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCajaEvento(CajaEvento evento) {
+        if (evento.tipo() != CajaEvento.Tipo.VENTA) {
+            return;
+        }
+        MovimientoCaja venta = evento.movimiento();
+        String metodo = venta.getMetodoPago() != null ? venta.getMetodoPago().toLowerCase() : "otro";
+        if (!ventasPorMetodo.containsKey(metodo)) {
+            metodo = "otro";
+        }
+        ventasPorMetodo.get(metodo).increment();
+        montosPorMetodo.get(metodo).record(venta.getMonto().centimos() / 100.0);
+    }
+}
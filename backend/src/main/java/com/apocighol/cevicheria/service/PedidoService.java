@@ -1,23 +1,31 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.dto.PedidoResumen;
+import com.apocighol.cevicheria.dto.SolicitudPedido;
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.event.PedidoEvento;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.CursorKeyset;
 import com.apocighol.cevicheria.model.Pedido;
 import com.apocighol.cevicheria.model.DetallePedido;
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.Pagina;
 import com.apocighol.cevicheria.repository.PedidoRepository;
-import com.apocighol.cevicheria.repository.DetallePedidoRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * ==========================================
@@ -27,8 +35,12 @@ import java.util.stream.Collectors;
  * - pedidosDelDia(): Para ADMIN
  * - pedidosActivosDelDia(): Para COCINA
  * - pedidosPorMeseroDelDia(): Para MESERO
+ *
+ * Lecturas: PedidoDetalle (con líneas) o PedidoResumen (solo cabecera),
+ * nunca la entidad; las mutaciones devuelven el Pedido ya con sus detalles.
  * ==========================================
  */
+@Slf4j
 @Service
 @Transactional
 public class PedidoService {
@@ -37,7 +49,16 @@ public class PedidoService {
     private PedidoRepository pedidoRepository;
 
     @Autowired
-    private DetallePedidoRepository detallePedidoRepository;
+    private GeneradorCodigos generadorCodigos;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TableroPedidos tableroPedidos;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
 
     // Opcional: si tienes RecetaService para descontar insumos
     // @Autowired
@@ -47,54 +68,53 @@ public class PedidoService {
     // CREAR PEDIDO
     // ==========================================
 
-    public Pedido crearPedido(Integer numeroMesa, String mesero, String nota, List<Map<String, Object>> productos) {
+    @Timed(value = "cevicheria.pedidos.creacion", description = "Alta de un pedido con sus detalles")
+    public Pedido crearPedido(SolicitudPedido solicitud) {
         
-        // Generar código único
-        String codigoPedido = "PED-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        String codigoPedido = generadorCodigos.siguiente(GeneradorCodigos.PEDIDO);
+        int numeroMesa = solicitud.mesa();
         
         Pedido pedido = new Pedido();
         pedido.setCodigoPedido(codigoPedido);
         pedido.setNumeroMesa(numeroMesa);
-        pedido.setMesero(mesero);
+        pedido.setMesero(solicitud.mesero());
         pedido.setFechaPedido(LocalDate.now());
         pedido.setHoraPedido(LocalTime.now());
-        pedido.setEstadoPedido("PENDIENTE");
-        pedido.setObservaciones(nota);
-        
-        BigDecimal totalPedido = BigDecimal.ZERO;
-        List<DetallePedido> detalles = new ArrayList<>();
-        
-        for (Map<String, Object> item : productos) {
-            String nombreProducto = (String) item.get("nombre");
-            String categoria = item.get("categoria") != null ? (String) item.get("categoria") : "Sin categoría";
-            Integer cantidad = Integer.valueOf(item.get("cantidad").toString());
-            BigDecimal precioUnitario = new BigDecimal(item.get("precioUnitario").toString());
-            BigDecimal subtotal = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
+        pedido.setEstadoPedido(EstadoPedido.PENDIENTE);
+        pedido.setObservaciones(solicitud.nota());
+        
+        // 🔥 Montos en céntimos (long): sin BigDecimal intermedios por línea.
+        // La solicitud ya llega tipada y validada (SolicitudPedido)
+        long totalCentimos = 0;
+        List<DetallePedido> detalles = new ArrayList<>(solicitud.productos().size());
+        
+        for (SolicitudPedido.Item item : solicitud.productos()) {
+            Dinero precioUnitario = item.precioUnitario();
+            Dinero subtotal = precioUnitario.por(item.cantidad());
             
             DetallePedido detalle = new DetallePedido();
-            detalle.setNombreProducto(nombreProducto);
-            detalle.setCantidad(cantidad);
+            detalle.setIdProducto(item.idProducto());
+            detalle.setNombreProducto(item.nombre());
+            detalle.setCantidad(item.cantidad());
             detalle.setPrecioUnitario(precioUnitario);
             detalle.setSubtotal(subtotal);
             detalle.setPedido(pedido);
             
             detalles.add(detalle);
-            totalPedido = totalPedido.add(subtotal);
+            totalCentimos += subtotal.centimos();
         }
         
+        Dinero totalPedido = Dinero.deCentimos(totalCentimos);
         pedido.setTotalPedido(totalPedido);
         pedido.setDetalles(detalles);
         
-        // Guardar
+        // Guardar: los detalles se insertan por cascada en el mismo batch JDBC
+        // que la cabecera (ver hibernate.jdbc.batch_size en application.properties)
         Pedido pedidoGuardado = pedidoRepository.save(pedido);
         
-        // Guardar detalles
-        for (DetallePedido detalle : detalles) {
-            detalle.setPedido(pedidoGuardado);
-            detallePedidoRepository.save(detalle);
-        }
+        log.info("✅ Pedido creado: {} | Mesa: {} | Total: S/. {}", codigoPedido, numeroMesa, totalPedido);
         
-        System.out.println("✅ Pedido creado: " + codigoPedido + " | Mesa: " + numeroMesa + " | Total: S/. " + totalPedido);
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.Tipo.CREADO, pedidoGuardado));
         
         return pedidoGuardado;
     }
@@ -106,34 +126,30 @@ public class PedidoService {
     /**
      * Para ADMIN: Todos los pedidos del día (incluye cobrados)
      */
-    public List<Pedido> pedidosDelDia() {
-        return pedidoRepository.findByFechaPedido(LocalDate.now());
+    public List<PedidoDetalle> pedidosDelDia() {
+        return tableroPedidos.pedidosDelDia();
     }
 
     /**
      * Para COCINA: Solo pedidos activos del día
      * Estados: PENDIENTE, PREPARANDO, LISTO, SERVIDO
      */
-    public List<Pedido> pedidosActivosDelDia() {
-        List<String> estadosActivos = Arrays.asList("PENDIENTE", "PREPARANDO", "LISTO", "SERVIDO");
-        
-        return pedidoRepository.findByFechaPedido(LocalDate.now())
-            .stream()
-            .filter(p -> estadosActivos.contains(p.getEstadoPedido().toUpperCase()))
-            .collect(Collectors.toList());
+    public List<PedidoDetalle> pedidosActivosDelDia() {
+        return tableroPedidos.pedidosActivos();
+    }
+
+    /**
+     * Para COCINA: una sola columna del tablero (ej. solo LISTO)
+     */
+    public List<PedidoDetalle> pedidosActivosPorEstado(String estado) {
+        return tableroPedidos.pedidosActivosPorEstado(estado);
     }
 
     /**
      * Para MESERO: Solo sus pedidos activos del día
      */
-    public List<Pedido> pedidosPorMeseroDelDia(String nombreMesero) {
-        List<String> estadosActivos = Arrays.asList("PENDIENTE", "PREPARANDO", "LISTO", "SERVIDO");
-        
-        return pedidoRepository.findByFechaPedido(LocalDate.now())
-            .stream()
-            .filter(p -> nombreMesero.equalsIgnoreCase(p.getMesero()))
-            .filter(p -> estadosActivos.contains(p.getEstadoPedido().toUpperCase()))
-            .collect(Collectors.toList());
+    public List<PedidoDetalle> pedidosPorMeseroDelDia(String nombreMesero) {
+        return tableroPedidos.pedidosActivosPorMesero(nombreMesero);
     }
 
     // ==========================================
@@ -144,76 +160,134 @@ public class PedidoService {
         return pedidoRepository.findAllByOrderByFechaPedidoDescHoraPedidoDesc();
     }
 
-    public Optional<Pedido> buscarPorId(Long id) {
-        return pedidoRepository.findById(id);
+    /**
+     * Historial paginado (más recientes primero). cursor null = primera página.
+     */
+    public Pagina<PedidoResumen> listarPagina(String cursor, int limite) {
+        Limit consulta = Limit.of(limite + 1);
+        List<PedidoResumen> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = pedidoRepository.resumenPrimeraPagina(consulta);
+        } else {
+            CursorKeyset despuesDe = CursorKeyset.decodificar(cursor, 3);
+            filas = pedidoRepository.resumenDespuesDe(despuesDe.fecha(0), despuesDe.hora(1), despuesDe.id(2), consulta);
+        }
+        return Pagina.de(filas, limite, p -> CursorKeyset.de(p.fechaPedido(), p.horaPedido(), p.idPedido()));
     }
 
-    public Optional<Pedido> buscarPorCodigo(String codigo) {
-        return pedidoRepository.findByCodigoPedido(codigo);
+    @Transactional(readOnly = true)
+    public Optional<PedidoDetalle> buscarPorId(Long id) {
+        return pedidoRepository.findById(id).map(PedidoDetalle::de);
     }
 
-    public List<Pedido> pedidosPorMesa(Integer numeroMesa) {
-        return pedidoRepository.findByNumeroMesaOrderByHoraPedidoDesc(numeroMesa);
+    @Transactional(readOnly = true)
+    public Optional<PedidoDetalle> buscarPorCodigo(String codigo) {
+        return pedidoRepository.findByCodigoPedido(codigo).map(PedidoDetalle::de);
     }
 
-    public List<Pedido> pedidosPendientesMesa(Integer numeroMesa) {
-        List<String> estadosPendientes = Arrays.asList("PENDIENTE", "PREPARANDO", "LISTO", "SERVIDO");
-        
-        return pedidoRepository.findByNumeroMesa(numeroMesa)
-            .stream()
-            .filter(p -> estadosPendientes.contains(p.getEstadoPedido().toUpperCase()))
-            .collect(Collectors.toList());
+    public List<PedidoResumen> pedidosPorMesa(Integer numeroMesa) {
+        return pedidoRepository.resumenPorMesa(numeroMesa);
+    }
+
+    public List<PedidoDetalle> pedidosPendientesMesa(Integer numeroMesa) {
+        return tableroPedidos.pedidosActivosPorMesa(numeroMesa);
     }
 
-    public List<Pedido> pedidosPorEstado(String estado) {
-        return pedidoRepository.findByEstadoPedido(estado);
+    public List<PedidoResumen> pedidosPorEstado(String estado) {
+        return pedidoRepository.resumenPorEstado(EstadoPedido.desde(estado));
     }
 
     // ==========================================
     // CAMBIAR ESTADO
     // ==========================================
 
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
     public Pedido cambiarEstado(Long id, String nuevoEstado) {
+        return cambiarEstado(id, EstadoPedido.desde(nuevoEstado));
+    }
+
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
+    public Pedido cambiarEstado(Long id, EstadoPedido nuevoEstado) {
         Pedido pedido = pedidoRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + id));
         
+        validarTransicion(pedido, nuevoEstado);
+        EstadoPedido anterior = pedido.getEstadoPedido();
         pedido.setEstadoPedido(nuevoEstado);
-        System.out.println("📋 Pedido " + pedido.getCodigoPedido() + " → " + nuevoEstado);
+        log.info("📋 Pedido {} → {}", pedido.getCodigoPedido(), nuevoEstado);
         
-        return pedidoRepository.save(pedido);
+        Pedido actualizado = pedidoRepository.save(pedido);
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.Tipo.ESTADO_CAMBIADO, actualizado, anterior));
+        return actualizado;
     }
 
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
     public Pedido marcarEntregado(Long id) {
-        return cambiarEstado(id, "ENTREGADO");
+        return cambiarEstado(id, EstadoPedido.ENTREGADO);
     }
 
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
     public Pedido marcarPagado(Long id) {
-        return cambiarEstado(id, "PAGADO");
+        return cambiarEstado(id, EstadoPedido.PAGADO);
     }
 
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
     public Pedido cancelarPedido(Long id) {
-        return cambiarEstado(id, "CANCELADO");
+        return cambiarEstado(id, EstadoPedido.CANCELADO);
+    }
+
+    private void validarTransicion(Pedido pedido, EstadoPedido nuevoEstado) {
+        if (!pedido.getEstadoPedido().puedePasarA(nuevoEstado)) {
+            throw new RuntimeException("No se puede pasar el pedido " + pedido.getCodigoPedido() +
+                " de " + pedido.getEstadoPedido() + " a " + nuevoEstado);
+        }
+    }
+
+    // ==========================================
+    // 🔥 COBRAR MESA
+    // ==========================================
+
+    /**
+     * Pasa a COBRADO todos los pedidos servidos/entregados de la mesa.
+     */
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
+    public List<Pedido> cobrarPedidosMesa(Integer numeroMesa) {
+        List<Pedido> pedidos = pedidoRepository.findByNumeroMesaAndEstadoPedidoIn(numeroMesa, EstadoPedido.POR_COBRAR);
+        
+        List<Pedido> cobrados = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            EstadoPedido anterior = pedido.getEstadoPedido();
+            pedido.setEstadoPedido(EstadoPedido.COBRADO);
+            Pedido cobrado = pedidoRepository.save(pedido);
+            cobrados.add(cobrado);
+            eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.Tipo.ESTADO_CAMBIADO, cobrado, anterior));
+        }
+        log.info("💰 Mesa {}: {} pedido(s) COBRADO", numeroMesa, cobrados.size());
+        return cobrados;
     }
 
     // ==========================================
     // 🔥 ANULAR PEDIDO CON MOTIVO
     // ==========================================
 
+    @Timed(value = "cevicheria.pedidos.transicion", description = "Cambio de estado de pedidos")
     public Pedido anularPedido(Long id, String motivo, String usuario) {
         Pedido pedido = pedidoRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + id));
         
-        // Guardar observaciones con motivo de anulación
-        String observacionesActuales = pedido.getObservaciones() != null ? pedido.getObservaciones() : "";
-        String nuevaObservacion = observacionesActuales + 
-            "\n[ANULADO] Motivo: " + motivo + " | Por: " + usuario + " | " + LocalDate.now() + " " + LocalTime.now();
+        validarTransicion(pedido, EstadoPedido.ANULADO);
+        EstadoPedido anterior = pedido.getEstadoPedido();
+        pedido.setEstadoPedido(EstadoPedido.ANULADO);
         
-        pedido.setObservaciones(nuevaObservacion.trim());
-        pedido.setEstadoPedido("ANULADO");
+        log.info("🗑️ Pedido {} ANULADO por {}. Motivo: {}", pedido.getCodigoPedido(), usuario, motivo);
         
-        System.out.println("🗑️ Pedido " + pedido.getCodigoPedido() + " ANULADO por " + usuario + ". Motivo: " + motivo);
-        
-        return pedidoRepository.save(pedido);
+        // El motivo va a la auditoría (tabla auditoria), ya no se concatena en observaciones
+        Pedido anulado = pedidoRepository.save(pedido);
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.Tipo.ANULADO, anulado, anterior));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.PEDIDO_ANULADO, "PEDIDO",
+            anulado.getIdPedido(), anulado.getCodigoPedido(), usuario,
+            "Motivo: " + motivo + " | Estado anterior: " + anterior + " | Total: S/. " + anulado.getTotalPedido()));
+        return anulado;
     }
 
     // ==========================================
@@ -221,32 +295,25 @@ public class PedidoService {
     // ==========================================
 
     public void eliminar(Long id) {
-        if (!pedidoRepository.existsById(id)) {
-            throw new RuntimeException("Pedido no encontrado: " + id);
-        }
-        pedidoRepository.deleteById(id);
-        System.out.println("🗑️ Pedido eliminado: " + id);
+        Pedido pedido = pedidoRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + id));
+        pedidoRepository.delete(pedido);
+        log.info("🗑️ Pedido eliminado: {}", id);
+        
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.Tipo.ELIMINADO, pedido, pedido.getEstadoPedido()));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.ELIMINADO, "PEDIDO", id,
+            pedido.getCodigoPedido(), null,
+            "Mesa " + pedido.getNumeroMesa() + " | Estado: " + pedido.getEstadoPedido() + " | Total: S/. " + pedido.getTotalPedido()));
     }
 
     // ==========================================
     // ESTADÍSTICAS
     // ==========================================
 
+    /**
+     * Contadores en memoria (EstadisticasService), sin consultas a BD
+     */
     public Map<String, Object> obtenerEstadisticas() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        LocalDate hoy = LocalDate.now();
-        
-        stats.put("totalPedidosHoy", pedidoRepository.countByFechaPedido(hoy));
-        stats.put("pedidosPendientes", pedidoRepository.countByEstadoPedido("PENDIENTE"));
-        stats.put("pedidosPreparando", pedidoRepository.countByEstadoPedido("PREPARANDO"));
-        stats.put("pedidosListos", pedidoRepository.countByEstadoPedido("LISTO"));
-        stats.put("pedidosServidos", pedidoRepository.countByEstadoPedido("SERVIDO"));
-        stats.put("pedidosPagados", pedidoRepository.countByEstadoPedido("PAGADO"));
-        
-        BigDecimal totalDia = pedidoRepository.sumTotalByFechaPedido(hoy);
-        stats.put("totalVentasHoy", totalDia != null ? totalDia : BigDecimal.ZERO);
-        
-        return stats;
+        return estadisticasService.estadisticasPedidos();
     }
-}
\ No newline at end of file
+}
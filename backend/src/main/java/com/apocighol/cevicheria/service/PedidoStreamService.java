@@ -0,0 +1,253 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.event.PedidoEvento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ==========================================
+ * PEDIDO STREAM SERVICE
+ *
+ * 🔥 Server-Sent Events para cocina y meseros:
+ * - Al conectar: un evento "snapshot" con los pedidos activos
+ * - Después: solo eventos "delta" cuando un pedido se crea,
+ *   cambia de estado, se anula o se elimina (tras el commit)
+ *
+ * Las lecturas a BD crecen con los cambios, no con
+ * pantallas × frecuencia de polling.
+ *
+ * Orden: cada delta lleva una secuencia global y cada pantalla tiene su
+ * propia cola FIFO que vacía un solo envío a la vez. Así PENDIENTE→PREPARANDO
+ * nunca llega después de PREPARANDO→LISTO, y lo que el snapshot ya incluye
+ * no se reenvía detrás de él.
+ * ==========================================
+ */
+@Service
+public class PedidoStreamService {
+
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    // Numera los deltas y los encola en todas las pantallas en el mismo orden
+    private final ReentrantLock lockSecuencia = new ReentrantLock();
+    private long secuencia = 0;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private TaskExecutor taskExecutor;
+
+    // ==========================================
+    // SUSCRIPCIÓN
+    // ==========================================
+
+    /**
+     * Registra una pantalla. Si mesero es null recibe todos los pedidos (cocina).
+     */
+    public SseEmitter suscribir(String mesero) {
+        return suscribir(mesero, new SseEmitter(TIMEOUT_MS));
+    }
+
+    SseEmitter suscribir(String mesero, SseEmitter emitter) {
+        Suscriptor suscriptor = new Suscriptor(emitter, mesero);
+
+        // Se registra ANTES de leer el snapshot: los deltas que lleguen mientras
+        // tanto quedan en cola y se envían justo después del snapshot
+        suscriptores.add(suscriptor);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+
+        // Los deltas numerados hasta aquí ya estaban confirmados: el snapshot los incluye
+        long incluidos = secuenciaActual();
+        List<PedidoDetalle> snapshot = mesero == null
+            ? pedidoService.pedidosActivosDelDia()
+            : pedidoService.pedidosPorMeseroDelDia(mesero);
+
+        suscriptor.enviarSnapshot(snapshot, incluidos);
+        return emitter;
+    }
+
+    public int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    // ==========================================
+    // DELTAS
+    // ==========================================
+
+    /**
+     * Sin pantallas conectadas no se lanza ninguna tarea: con hilos virtuales
+     * cada tarea del executor es un hilo nuevo que compite por CPU con los requests y, al
+     * llegar al límite de concurrencia, deja esperando al request que hizo commit.
+     * Aquí solo se numera y se encola; el envío lo hace la cola de cada pantalla.
+     */
+    @TransactionalEventListener
+    public void onPedidoEvento(PedidoEvento evento) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        lockSecuencia.lock();
+        try {
+            long numero = ++secuencia;
+            Map<String, Object> delta = new HashMap<>();
+            delta.put("tipo", evento.tipo());
+            delta.put("pedido", evento.pedido());
+            delta.put("secuencia", numero);
+
+            for (Suscriptor suscriptor : suscriptores) {
+                if (suscriptor.interesa(evento.pedido())) {
+                    suscriptor.encolar(new Delta(numero, delta));
+                }
+            }
+        } finally {
+            lockSecuencia.unlock();
+        }
+    }
+
+    private long secuenciaActual() {
+        lockSecuencia.lock();
+        try {
+            return secuencia;
+        } finally {
+            lockSecuencia.unlock();
+        }
+    }
+
+    /**
+     * Comentario SSE periódico: mantiene viva la conexión a través de proxies
+     * y detecta pantallas que se desconectaron sin avisar.
+     */
+    @Scheduled(fixedRate = 20000)
+    public void latido() {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (!suscriptor.enviarLatido()) {
+                suscriptores.remove(suscriptor);
+            }
+        }
+    }
+
+    // ==========================================
+    // SUSCRIPTOR
+    // ==========================================
+
+    private record Delta(long secuencia, Map<String, Object> datos) {
+    }
+
+    private final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final String mesero;
+        // lock: cola y banderas | lockEnvio: un solo send a la vez sobre el emitter
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReentrantLock lockEnvio = new ReentrantLock();
+        private final Queue<Delta> pendientes = new ArrayDeque<>();
+        private boolean snapshotEnviado = false;
+        private boolean enviando = false;
+
+        Suscriptor(SseEmitter emitter, String mesero) {
+            this.emitter = emitter;
+            this.mesero = mesero;
+        }
+
+        boolean interesa(PedidoDetalle pedido) {
+            return mesero == null || mesero.equalsIgnoreCase(pedido.mesero());
+        }
+
+        void enviarSnapshot(List<PedidoDetalle> pedidos, long incluidos) {
+            if (!enviar(SseEmitter.event().name("snapshot").data(pedidos))) {
+                return;
+            }
+            lock.lock();
+            try {
+                pendientes.removeIf(delta -> delta.secuencia() <= incluidos);
+                snapshotEnviado = true;
+                programarEnvio();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void encolar(Delta delta) {
+            lock.lock();
+            try {
+                pendientes.add(delta);
+                programarEnvio();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Con lock tomado: lanza el envío si hay algo que mandar y nadie lo está haciendo
+        private void programarEnvio() {
+            if (snapshotEnviado && !enviando && !pendientes.isEmpty()) {
+                enviando = true;
+                taskExecutor.execute(this::vaciar);
+            }
+        }
+
+        private void vaciar() {
+            while (true) {
+                Delta delta;
+                lock.lock();
+                try {
+                    delta = pendientes.poll();
+                    if (delta == null) {
+                        enviando = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!enviar(SseEmitter.event().name("delta").data(delta.datos()))) {
+                    lock.lock();
+                    try {
+                        pendientes.clear();
+                        enviando = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    return;
+                }
+            }
+        }
+
+        boolean enviarLatido() {
+            return enviar(SseEmitter.event().comment("ping"));
+        }
+
+        private boolean enviar(SseEmitter.SseEventBuilder evento) {
+            lockEnvio.lock();
+            try {
+                emitter.send(evento);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                suscriptores.remove(this);
+                return false;
+            } finally {
+                lockEnvio.unlock();
+            }
+        }
+    }
+}
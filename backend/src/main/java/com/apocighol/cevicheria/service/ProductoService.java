@@ -1,8 +1,13 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.dto.ProductoCarta;
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.event.ProductoEvento;
 import com.apocighol.cevicheria.model.Producto;
 import com.apocighol.cevicheria.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,6 +16,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * ==========================================
@@ -19,6 +26,7 @@ import java.util.Optional;
  * 🔥 Compatible con el Repository corregido
  * ==========================================
  */
+@Slf4j
 @Service
 @Transactional
 public class ProductoService {
@@ -26,6 +34,18 @@ public class ProductoService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private GeneradorCodigos generadorCodigos;
+
+    @Autowired
+    private CartaProductos cartaProductos;
+
+    private static final String SECUENCIA = "PROD";
+    private static final Pattern CODIGO_SECUENCIAL = Pattern.compile("PROD-(\\d{1,9})");
+
     // ==========================================
     // 🔥 GENERAR CÓDIGO SECUENCIAL AUTOMÁTICO
     // ==========================================
@@ -33,46 +53,29 @@ public class ProductoService {
     /**
      * Genera el siguiente código de producto automáticamente
      * Formato: PROD-001, PROD-002, PROD-003...
+     * 🔥 Sale de la secuencia PROD (2 sentencias, sin recorrer productos)
      */
     public String generarSiguienteCodigo() {
-        try {
-            // 🔥 CORREGIDO: Usar el método JPQL en lugar del nativo
-            Integer maxNumero = productoRepository.obtenerMaximoNumeroCodigo();
-            
-            if (maxNumero == null) {
-                maxNumero = 0;
-            }
-            
-            int siguienteNumero = maxNumero + 1;
-            String codigo = String.format("PROD-%03d", siguienteNumero);
-            
-            // Verificar que no exista (por si acaso)
-            while (productoRepository.existsByCodigoProducto(codigo)) {
-                siguienteNumero++;
-                codigo = String.format("PROD-%03d", siguienteNumero);
-            }
-            
-            System.out.println("✅ Código generado: " + codigo);
-            return codigo;
-            
-        } catch (Exception e) {
-            System.out.println("⚠️ Error en generación de código, usando fallback: " + e.getMessage());
-            
-            // Fallback: contar productos y agregar 1
-            long count = productoRepository.contarProductos();
-            String codigo = String.format("PROD-%03d", count + 1);
-            
-            // Verificar que no exista
-            int intentos = 0;
-            while (productoRepository.existsByCodigoProducto(codigo) && intentos < 100) {
-                count++;
-                codigo = String.format("PROD-%03d", count + 1);
-                intentos++;
-            }
-            
-            System.out.println("✅ Código generado (fallback): " + codigo);
-            return codigo;
-        }
+        String codigo = formatearCodigo(generadorCodigos.siguienteNumero(SECUENCIA, this::mayorNumeroExistente));
+        log.debug("✅ Código generado: {}", codigo);
+        return codigo;
+    }
+
+    /**
+     * Código que tocaría ahora, sin reservarlo (desde memoria)
+     */
+    public String vistaPreviaCodigo() {
+        return formatearCodigo(generadorCodigos.ultimoNumero(SECUENCIA, this::mayorNumeroExistente) + 1);
+    }
+
+    private static String formatearCodigo(long numero) {
+        return String.format("PROD-%03d", numero);
+    }
+
+    // Solo al crear la fila de la secuencia (una vez por base de datos)
+    private long mayorNumeroExistente() {
+        Integer maximo = productoRepository.obtenerMaximoNumeroCodigo();
+        return maximo != null ? maximo : 0;
     }
 
     // ==========================================
@@ -80,17 +83,24 @@ public class ProductoService {
     // ==========================================
 
     /**
-     * Lista todos los productos
+     * Foto de la carta en memoria (listados, disponibilidad, categorías y su ETag)
      */
-    public List<Producto> listarTodos() {
-        return productoRepository.findAllByOrderByNombreProductoAsc();
+    public CartaProductos.Carta carta() {
+        return cartaProductos.carta();
     }
 
     /**
-     * Lista productos disponibles
+     * Lista todos los productos (ordenados por nombre, desde la carta en memoria)
      */
-    public List<Producto> listarDisponibles() {
-        return productoRepository.findByDisponibleProductoTrue();
+    public List<ProductoCarta> listarTodos() {
+        return cartaProductos.carta().todos();
+    }
+
+    /**
+     * Lista productos disponibles (desde la carta en memoria)
+     */
+    public List<ProductoCarta> listarDisponibles() {
+        return cartaProductos.carta().disponibles();
     }
 
     /**
@@ -122,6 +132,11 @@ public class ProductoService {
             if (productoRepository.existsByCodigoProducto(producto.getCodigoProducto())) {
                 throw new RuntimeException("Ya existe un producto con el código: " + producto.getCodigoProducto());
             }
+            // Código manual tipo PROD-150: la secuencia sigue desde ahí
+            Matcher manual = CODIGO_SECUENCIAL.matcher(producto.getCodigoProducto());
+            if (manual.matches()) {
+                generadorCodigos.elevarHasta(SECUENCIA, Long.parseLong(manual.group(1)), this::mayorNumeroExistente);
+            }
         }
 
         // Validar nombre
@@ -140,7 +155,8 @@ public class ProductoService {
         }
 
         Producto guardado = productoRepository.save(producto);
-        System.out.println("✅ Producto creado: " + guardado.getCodigoProducto() + " - " + guardado.getNombreProducto());
+        eventPublisher.publishEvent(new ProductoEvento(guardado.getIdProducto()));
+        log.info("✅ Producto creado: {} - {}", guardado.getCodigoProducto(), guardado.getNombreProducto());
         
         return guardado;
     }
@@ -173,6 +189,7 @@ public class ProductoService {
             producto.setDisponibleProducto(datosActualizados.getDisponibleProducto());
         }
 
+        eventPublisher.publishEvent(new ProductoEvento(id));
         return productoRepository.save(producto);
     }
 
@@ -184,6 +201,7 @@ public class ProductoService {
             .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + id));
         
         producto.setDisponibleProducto(disponible);
+        eventPublisher.publishEvent(new ProductoEvento(id));
         return productoRepository.save(producto);
     }
 
@@ -191,11 +209,13 @@ public class ProductoService {
      * Eliminar producto
      */
     public void eliminar(Long id) {
-        if (!productoRepository.existsById(id)) {
-            throw new RuntimeException("Producto no encontrado: " + id);
-        }
-        productoRepository.deleteById(id);
-        System.out.println("🗑️ Producto eliminado: " + id);
+        Producto producto = productoRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + id));
+        productoRepository.delete(producto);
+        eventPublisher.publishEvent(new ProductoEvento(id));
+        log.info("🗑️ Producto eliminado: {}", id);
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.ELIMINADO, "PRODUCTO", id,
+            producto.getCodigoProducto(), null, producto.getNombreProducto()));
     }
 
     // ==========================================
@@ -203,17 +223,17 @@ public class ProductoService {
     // ==========================================
 
     /**
-     * Buscar por nombre
+     * Buscar por nombre (índice de la carta en memoria: sin tildes, prefijos y errores de tipeo)
      */
-    public List<Producto> buscarPorNombre(String nombre) {
-        return productoRepository.findByNombreProductoContainingIgnoreCase(nombre);
+    public List<ProductoCarta> buscarPorNombre(String nombre) {
+        return cartaProductos.carta().buscar(nombre);
     }
 
     /**
-     * Filtrar por categoría
+     * Filtrar por categoría (desde la carta en memoria)
      */
-    public List<Producto> filtrarPorCategoria(String categoria) {
-        return productoRepository.findByCategoriaProducto(categoria);
+    public List<ProductoCarta> filtrarPorCategoria(String categoria) {
+        return cartaProductos.carta().categoria(categoria);
     }
 
     // ==========================================
@@ -225,11 +245,12 @@ public class ProductoService {
      */
     public Map<String, Object> obtenerEstadisticas() {
         Map<String, Object> stats = new HashMap<>();
+        CartaProductos.Carta carta = cartaProductos.carta();
         
-        stats.put("totalProductos", productoRepository.count());
-        stats.put("disponibles", productoRepository.findByDisponibleProductoTrue().size());
-        stats.put("noDisponibles", productoRepository.findByDisponibleProductoFalse().size());
-        stats.put("siguienteCodigo", generarSiguienteCodigo());
+        stats.put("totalProductos", carta.total());
+        stats.put("disponibles", carta.totalDisponibles());
+        stats.put("noDisponibles", carta.total() - carta.totalDisponibles());
+        stats.put("siguienteCodigo", vistaPreviaCodigo());
         
         return stats;
     }
@@ -239,7 +260,7 @@ public class ProductoService {
      */
     public Map<String, String> obtenerSiguienteCodigo() {
         Map<String, String> response = new HashMap<>();
-        response.put("codigo", generarSiguienteCodigo());
+        response.put("codigo", vistaPreviaCodigo());
         return response;
     }
 }
\ No newline at end of file
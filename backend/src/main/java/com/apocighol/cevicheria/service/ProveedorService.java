@@ -1,8 +1,12 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.event.ProveedorEvento;
 import com.apocighol.cevicheria.model.Proveedor;
 import com.apocighol.cevicheria.repository.ProveedorRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,12 +17,19 @@ import java.util.Optional;
 /**
  * Servicio para gestión de Proveedores
  */
+@Slf4j
 @Service
 @Transactional
 public class ProveedorService {
     
     @Autowired
     private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private BuscadorCatalogo buscadorCatalogo;
     
     // ==========================================
     // CRUD BÁSICO
@@ -71,9 +82,11 @@ public class ProveedorService {
         proveedor.setFechaCreacion(LocalDateTime.now());
         proveedor.setActivoProveedor(true);
         
-        System.out.println("✅ Proveedor creado: " + proveedor.getNombreProveedor());
+        log.info("✅ Proveedor creado: {}", proveedor.getNombreProveedor());
         
-        return proveedorRepository.save(proveedor);
+        Proveedor guardado = proveedorRepository.save(proveedor);
+        eventPublisher.publishEvent(new ProveedorEvento(guardado.getIdProveedor()));
+        return guardado;
     }
     
     /**
@@ -104,7 +117,9 @@ public class ProveedorService {
         proveedor.setEmailProveedor(datosActualizados.getEmailProveedor());
         proveedor.setDireccionProveedor(datosActualizados.getDireccionProveedor());
         
-        return proveedorRepository.save(proveedor);
+        Proveedor guardado = proveedorRepository.save(proveedor);
+        eventPublisher.publishEvent(new ProveedorEvento(id));
+        return guardado;
     }
     
     /**
@@ -117,18 +132,20 @@ public class ProveedorService {
         proveedor.setActivoProveedor(false);
         proveedorRepository.save(proveedor);
         
-        System.out.println("🗑️ Proveedor desactivado: " + proveedor.getNombreProveedor());
+        log.info("🗑️ Proveedor desactivado: {}", proveedor.getNombreProveedor());
     }
     
     /**
      * Elimina un proveedor permanentemente
      */
     public void eliminar(Long id) {
-        if (!proveedorRepository.existsById(id)) {
-            throw new RuntimeException("Proveedor no encontrado");
-        }
-        proveedorRepository.deleteById(id);
-        System.out.println("🗑️ Proveedor eliminado permanentemente: " + id);
+        Proveedor proveedor = proveedorRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Proveedor no encontrado"));
+        proveedorRepository.delete(proveedor);
+        log.info("🗑️ Proveedor eliminado permanentemente: {}", id);
+        eventPublisher.publishEvent(new ProveedorEvento(id));
+        eventPublisher.publishEvent(new AuditoriaEvento(AuditoriaEvento.Tipo.ELIMINADO, "PROVEEDOR", id,
+            proveedor.getNombreProveedor(), null, null));
     }
     
     // ==========================================
@@ -136,10 +153,15 @@ public class ProveedorService {
     // ==========================================
     
     /**
-     * Busca proveedores por texto
+     * Busca proveedores por texto (sin tildes, prefijos y errores de tipeo),
+     * del más relevante al menos
      */
     public List<Proveedor> buscar(String termino) {
-        return proveedorRepository.findByNombreProveedorContainingIgnoreCase(termino);
+        List<Long> ids = buscadorCatalogo.buscarProveedores(termino);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return BuscadorCatalogo.enOrden(ids, proveedorRepository.findAllById(ids), Proveedor::getIdProveedor);
     }
     
     // ==========================================
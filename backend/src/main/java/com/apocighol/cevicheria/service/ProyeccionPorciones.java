@@ -0,0 +1,156 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.StockEvento;
+import com.apocighol.cevicheria.repository.InsumoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ==========================================
+ * PORCIONES DISPONIBLES POR PRODUCTO (proyección en memoria)
+ *
+ * porciones[p] = mínimo sobre su receta de stock / cantidadNecesaria
+ *
+ * 🔥 Incremental: un StockEvento confirmado relee solo el stock de
+ * esos insumos y recalcula solo los productos que los usan
+ * (índice inverso insumo → productos). Si la receta cambió
+ * (GrafoRecetas entrega otro grafo) se reconstruye completa.
+ * ==========================================
+ */
+@Component
+public class ProyeccionPorciones {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private GrafoRecetas.Grafo grafo;
+    private long[] stock;
+    private long[] porciones;
+    private int[] inicioUsos;
+    private int[] productosQueUsan;
+
+    @Autowired
+    private GrafoRecetas grafoRecetas;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    // ==========================================
+    // CONSULTA
+    // ==========================================
+
+    /**
+     * idProducto → porciones que se pueden preparar ahora (null si ningún insumo lo limita)
+     */
+    public Map<Long, Long> porcionesDisponibles() {
+        GrafoRecetas.Grafo vigente = grafoRecetas.grafo();
+
+        lock.readLock().lock();
+        try {
+            if (grafo == vigente) {
+                return aMapa();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (grafo != vigente) {
+                reconstruir(vigente);
+            }
+            return aMapa();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // ACTUALIZACIÓN
+    // ==========================================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockEvento(StockEvento evento) {
+        lock.writeLock().lock();
+        try {
+            if (grafo == null) {
+                return; // aún no se consultó: se construirá completa al pedirla
+            }
+
+            // Se relee dentro del lock: la última escritura siempre viene de la lectura más reciente
+            Set<Long> presentes = new HashSet<>();
+            for (Object[] fila : insumoRepository.findStockActualDe(evento.idsInsumo())) {
+                Long idInsumo = ((Number) fila[0]).longValue();
+                presentes.add(idInsumo);
+                actualizarInsumo(idInsumo, GrafoRecetas.aMilesimas((BigDecimal) fila[1], RoundingMode.FLOOR));
+            }
+            for (Long idInsumo : evento.idsInsumo()) {
+                if (!presentes.contains(idInsumo)) {
+                    actualizarInsumo(idInsumo, -1); // eliminado
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // INTERNOS
+    // ==========================================
+
+    private void reconstruir(GrafoRecetas.Grafo nuevo) {
+        grafo = nuevo;
+        stock = nuevo.stockEnMilesimas(insumoRepository.findStockActual());
+        porciones = new long[nuevo.cantidadProductos()];
+        for (int p = 0; p < porciones.length; p++) {
+            porciones[p] = nuevo.porciones(p, stock);
+        }
+
+        // Índice inverso (mismo formato que el grafo): productos de cada insumo
+        int insumos = nuevo.insumos().length;
+        inicioUsos = new int[insumos + 1];
+        for (int i : nuevo.insumoDeLinea()) {
+            inicioUsos[i + 1]++;
+        }
+        for (int i = 0; i < insumos; i++) {
+            inicioUsos[i + 1] += inicioUsos[i];
+        }
+        productosQueUsan = new int[nuevo.insumoDeLinea().length];
+        int[] siguiente = Arrays.copyOf(inicioUsos, insumos);
+        for (int p = 0; p < porciones.length; p++) {
+            for (int k = nuevo.inicio()[p]; k < nuevo.inicio()[p + 1]; k++) {
+                productosQueUsan[siguiente[nuevo.insumoDeLinea()[k]]++] = p;
+            }
+        }
+    }
+
+    private void actualizarInsumo(Long idInsumo, long milesimas) {
+        int i = Arrays.binarySearch(grafo.insumos(), idInsumo);
+        if (i < 0 || stock[i] == milesimas) {
+            return; // no está en ninguna receta, o no cambió
+        }
+        stock[i] = milesimas;
+
+        for (int u = inicioUsos[i]; u < inicioUsos[i + 1]; u++) {
+            int p = productosQueUsan[u];
+            porciones[p] = grafo.porciones(p, stock);
+        }
+    }
+
+    private Map<Long, Long> aMapa() {
+        Map<Long, Long> mapa = new LinkedHashMap<>();
+        for (int p = 0; p < porciones.length; p++) {
+            mapa.put(grafo.idProducto(p), porciones[p] >= 0 ? porciones[p] : null);
+        }
+        return mapa;
+    }
+}
@@ -1,23 +1,35 @@
 package com.apocighol.cevicheria.service;
 
+import com.apocighol.cevicheria.dto.ProductoVendido;
+import com.apocighol.cevicheria.dto.SolicitudReceta;
+import com.apocighol.cevicheria.event.RecetaEvento;
+import com.apocighol.cevicheria.event.StockEvento;
 import com.apocighol.cevicheria.model.Insumo;
 import com.apocighol.cevicheria.model.Receta;
 import com.apocighol.cevicheria.repository.InsumoRepository;
+import com.apocighol.cevicheria.repository.InsumoRepositoryCustom.DescuentoStock;
 import com.apocighol.cevicheria.repository.RecetaRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio para gestión de Recetas
  * Maneja la relación producto-insumo y el descuento automático
  */
+@Slf4j
 @Service
 @Transactional
 public class RecetaService {
@@ -29,7 +41,13 @@ public class RecetaService {
     private InsumoRepository insumoRepository;
     
     @Autowired
-    private InsumoService insumoService;
+    private GrafoRecetas grafoRecetas;
+    
+    @Autowired
+    private ProyeccionPorciones proyeccionPorciones;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     // ==========================================
     // CRUD DE RECETAS
@@ -53,15 +71,15 @@ public class RecetaService {
      * Asigna o actualiza la receta completa de un producto
      * Elimina la receta anterior y crea la nueva
      */
-    public List<Receta> asignarReceta(Long idProducto, List<Map<String, Object>> insumos) {
+    public List<Receta> asignarReceta(Long idProducto, List<SolicitudReceta.Item> insumos) {
         // Eliminar receta anterior
         recetaRepository.deleteByIdProducto(idProducto);
         
         List<Receta> nuevaReceta = new ArrayList<>();
         
-        for (Map<String, Object> insumoData : insumos) {
-            Long idInsumo = Long.valueOf(insumoData.get("idInsumo").toString());
-            BigDecimal cantidad = new BigDecimal(insumoData.get("cantidad").toString());
+        for (SolicitudReceta.Item item : insumos) {
+            Long idInsumo = item.idInsumo();
+            BigDecimal cantidad = item.cantidad();
             
             // Validar que el insumo existe
             if (!insumoRepository.existsById(idInsumo)) {
@@ -72,7 +90,8 @@ public class RecetaService {
             nuevaReceta.add(recetaRepository.save(receta));
         }
         
-        System.out.println("📋 Receta asignada al producto " + idProducto + " con " + nuevaReceta.size() + " insumos");
+        log.info("📋 Receta asignada al producto {} con {} insumos", idProducto, nuevaReceta.size());
+        eventPublisher.publishEvent(new RecetaEvento(idProducto));
         
         return nuevaReceta;
     }
@@ -83,6 +102,7 @@ public class RecetaService {
     public Receta agregarInsumoAReceta(Long idProducto, Long idInsumo, BigDecimal cantidad) {
         // Verificar si ya existe
         Receta existente = recetaRepository.findByProductoAndInsumo(idProducto, idInsumo);
+        eventPublisher.publishEvent(new RecetaEvento(idProducto));
         
         if (existente != null) {
             // Actualizar cantidad
@@ -100,6 +120,7 @@ public class RecetaService {
      */
     public void eliminarInsumoDeReceta(Long idProducto, Long idInsumo) {
         recetaRepository.deleteByProductoAndInsumo(idProducto, idInsumo);
+        eventPublisher.publishEvent(new RecetaEvento(idProducto));
     }
     
     /**
@@ -107,7 +128,8 @@ public class RecetaService {
      */
     public void eliminarReceta(Long idProducto) {
         recetaRepository.deleteByIdProducto(idProducto);
-        System.out.println("🗑️ Receta eliminada del producto " + idProducto);
+        log.info("🗑️ Receta eliminada del producto {}", idProducto);
+        eventPublisher.publishEvent(new RecetaEvento(idProducto));
     }
     
     // ==========================================
@@ -123,116 +145,146 @@ public class RecetaService {
      * @return Lista de insumos descontados con sus cantidades
      */
     public List<Map<String, Object>> descontarInsumosPorProducto(Long idProducto, int cantidadVendida) {
-        List<Receta> receta = recetaRepository.findByIdProducto(idProducto);
-        List<Map<String, Object>> resultado = new ArrayList<>();
+        Map<Long, Integer> unidades = new LinkedHashMap<>();
+        unidades.put(idProducto, cantidadVendida);
         
-        if (receta.isEmpty()) {
-            System.out.println("⚠️ Producto " + idProducto + " no tiene receta asignada");
-            return resultado;
-        }
-        
-        System.out.println("📦 Descontando insumos para " + cantidadVendida + " unidad(es) del producto " + idProducto);
-        
-        for (Receta item : receta) {
-            // Calcular cantidad total a descontar
-            BigDecimal cantidadTotal = item.getCantidadNecesaria()
-                    .multiply(BigDecimal.valueOf(cantidadVendida));
-            
-            // Descontar del stock
-            boolean descontado = insumoService.disminuirStock(item.getIdInsumo(), cantidadTotal);
-            
-            // Obtener info del insumo para el resultado
-            Insumo insumo = insumoRepository.findById(item.getIdInsumo()).orElse(null);
-            
-            Map<String, Object> info = new HashMap<>();
-            info.put("idInsumo", item.getIdInsumo());
-            info.put("nombreInsumo", insumo != null ? insumo.getNombreInsumo() : "Desconocido");
-            info.put("cantidadDescontada", cantidadTotal);
-            info.put("stockRestante", insumo != null ? insumo.getStockActual() : BigDecimal.ZERO);
-            info.put("descontadoCompletamente", descontado);
-            
-            resultado.add(info);
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (DescuentoStock descuento : descontarEnLote(unidades)) {
+            resultado.add(detalleDescuento(descuento));
         }
-        
         return resultado;
     }
     
     /**
      * Descuenta insumos para múltiples productos de un pedido
      * 
-     * @param productosDelPedido Lista de mapas con {idProducto, cantidad}
+     * 🔥 En lote: 1 consulta de recetas + 1 SELECT FOR UPDATE + 1 batch de UPDATE,
+     * sin importar cuántos productos o insumos tenga el pedido.
+     * Si dos productos usan el mismo insumo, se descuenta una sola vez (sumado).
+     * 
+     * @param productosDelPedido Productos vendidos con sus unidades
      * @return Resumen del descuento
      */
-    public Map<String, Object> descontarInsumosDePedido(List<Map<String, Object>> productosDelPedido) {
-        Map<String, Object> resumen = new HashMap<>();
+    @Timed(value = "cevicheria.stock.descuento", description = "Descuento de insumos de un pedido")
+    public Map<String, Object> descontarInsumosDePedido(List<ProductoVendido> productosDelPedido) {
+        Map<Long, Integer> unidades = new LinkedHashMap<>();
+        for (ProductoVendido producto : productosDelPedido) {
+            unidades.merge(producto.idProducto(), producto.cantidad(), Integer::sum);
+        }
+        
         List<Map<String, Object>> detalles = new ArrayList<>();
-        int totalInsumosDescontados = 0;
         List<String> alertasStockBajo = new ArrayList<>();
         
-        for (Map<String, Object> producto : productosDelPedido) {
-            Long idProducto = Long.valueOf(producto.get("idProducto").toString());
-            int cantidad = Integer.parseInt(producto.get("cantidad").toString());
-            
-            List<Map<String, Object>> descuentos = descontarInsumosPorProducto(idProducto, cantidad);
+        for (DescuentoStock descuento : descontarEnLote(unidades)) {
+            detalles.add(detalleDescuento(descuento));
             
-            for (Map<String, Object> descuento : descuentos) {
-                detalles.add(descuento);
-                totalInsumosDescontados++;
-                
-                // Verificar si quedó con stock bajo
-                BigDecimal stockRestante = (BigDecimal) descuento.get("stockRestante");
-                if (stockRestante.compareTo(BigDecimal.ZERO) <= 0) {
-                    alertasStockBajo.add(descuento.get("nombreInsumo") + " (AGOTADO)");
-                }
+            // Verificar si quedó agotado o bajo el mínimo
+            if (descuento.stockRestante().compareTo(BigDecimal.ZERO) <= 0) {
+                alertasStockBajo.add(descuento.nombreInsumo() + " (AGOTADO)");
+            } else if (descuento.stockRestante().compareTo(descuento.stockMinimo()) <= 0) {
+                alertasStockBajo.add(descuento.nombreInsumo() + " (STOCK BAJO)");
             }
         }
         
-        resumen.put("totalInsumosDescontados", totalInsumosDescontados);
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("totalInsumosDescontados", detalles.size());
         resumen.put("detalles", detalles);
         resumen.put("alertasStockBajo", alertasStockBajo);
         
-        System.out.println("✅ Descuento completado: " + totalInsumosDescontados + " insumos procesados");
+        log.debug("✅ Descuento completado: {} insumos procesados", detalles.size());
         
         if (!alertasStockBajo.isEmpty()) {
-            System.out.println("⚠️ ALERTAS DE STOCK: " + alertasStockBajo);
+            log.warn("⚠️ ALERTAS DE STOCK: {}", alertasStockBajo);
         }
         
         return resumen;
     }
     
+    /**
+     * Junta las recetas de todos los productos, suma la cantidad por insumo
+     * y aplica el descuento en una sola pasada
+     */
+    private List<DescuentoStock> descontarEnLote(Map<Long, Integer> unidadesPorProducto) {
+        List<Receta> recetas = recetaRepository.findByIdProductoIn(unidadesPorProducto.keySet());
+        
+        Map<Long, BigDecimal> porInsumo = new HashMap<>();
+        Set<Long> conReceta = new HashSet<>();
+        for (Receta item : recetas) {
+            BigDecimal cantidadTotal = item.getCantidadNecesaria()
+                    .multiply(BigDecimal.valueOf(unidadesPorProducto.get(item.getIdProducto())));
+            porInsumo.merge(item.getIdInsumo(), cantidadTotal, BigDecimal::add);
+            conReceta.add(item.getIdProducto());
+        }
+        
+        for (Long idProducto : unidadesPorProducto.keySet()) {
+            if (!conReceta.contains(idProducto)) {
+                log.warn("⚠️ Producto {} no tiene receta asignada", idProducto);
+            }
+        }
+        
+        List<DescuentoStock> descuentos = insumoRepository.descontarStockEnLote(porInsumo);
+        if (!porInsumo.isEmpty()) {
+            eventPublisher.publishEvent(new StockEvento(new ArrayList<>(porInsumo.keySet())));
+        }
+        return descuentos;
+    }
+    
+    private Map<String, Object> detalleDescuento(DescuentoStock descuento) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("idInsumo", descuento.idInsumo());
+        info.put("nombreInsumo", descuento.nombreInsumo());
+        info.put("cantidadDescontada", descuento.cantidadDescontada());
+        info.put("stockRestante", descuento.stockRestante());
+        info.put("descontadoCompletamente", descuento.descontadoCompletamente());
+        return info;
+    }
+    
     // ==========================================
     // VERIFICACIÓN DE DISPONIBILIDAD
     // ==========================================
     
     /**
      * Verifica si hay suficientes insumos para preparar un producto
+     * 🔥 La receta sale del grafo en memoria; el stock, de 1 sola consulta
      */
     public Map<String, Object> verificarDisponibilidad(Long idProducto, int cantidad) {
         Map<String, Object> resultado = new HashMap<>();
-        List<Receta> receta = recetaRepository.findByIdProducto(idProducto);
+        GrafoRecetas.Grafo grafo = grafoRecetas.grafo();
+        int p = grafo.indiceProducto(idProducto);
         
-        if (receta.isEmpty()) {
+        if (p < 0) {
             resultado.put("disponible", true);
             resultado.put("mensaje", "Producto sin receta asignada");
             return resultado;
         }
         
+        List<Long> idsInsumo = new ArrayList<>();
+        for (int k = grafo.inicio()[p]; k < grafo.inicio()[p + 1]; k++) {
+            idsInsumo.add(grafo.idInsumoDeLinea(k));
+        }
+        Map<Long, Insumo> insumos = new HashMap<>();
+        for (Insumo insumo : insumoRepository.findAllById(idsInsumo)) {
+            insumos.put(insumo.getIdInsumo(), insumo);
+        }
+        
         boolean disponible = true;
         List<Map<String, Object>> insuficientes = new ArrayList<>();
         
-        for (Receta item : receta) {
-            BigDecimal cantidadNecesaria = item.getCantidadNecesaria()
+        for (int k = grafo.inicio()[p]; k < grafo.inicio()[p + 1]; k++) {
+            BigDecimal cantidadNecesaria = BigDecimal.valueOf(grafo.cantidadDeLinea()[k], 3)
                     .multiply(BigDecimal.valueOf(cantidad));
             
-            Insumo insumo = insumoRepository.findById(item.getIdInsumo()).orElse(null);
+            Insumo insumo = insumos.get(grafo.idInsumoDeLinea(k));
+            BigDecimal stock = insumo != null && insumo.getStockActual() != null
+                    ? insumo.getStockActual() : BigDecimal.ZERO;
             
-            if (insumo == null || insumo.getStockActual().compareTo(cantidadNecesaria) < 0) {
+            if (insumo == null || stock.compareTo(cantidadNecesaria) < 0) {
                 disponible = false;
                 
                 Map<String, Object> info = new HashMap<>();
                 info.put("insumo", insumo != null ? insumo.getNombreInsumo() : "Desconocido");
                 info.put("necesario", cantidadNecesaria);
-                info.put("disponible", insumo != null ? insumo.getStockActual() : BigDecimal.ZERO);
+                info.put("disponible", stock);
                 insuficientes.add(info);
             }
         }
@@ -243,6 +295,31 @@ public class RecetaService {
         return resultado;
     }
     
+    /**
+     * Disponibilidad de todo el menú (productos con receta → ¿alcanza para 1 porción?)
+     * 🔥 1 consulta de stock + recorrido de arreglos en memoria
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Boolean> disponibilidadMenu() {
+        GrafoRecetas.Grafo grafo = grafoRecetas.grafo();
+        long[] stock = grafo.stockEnMilesimas(insumoRepository.findStockActual());
+        
+        Map<Long, Boolean> menu = new LinkedHashMap<>();
+        for (int p = 0; p < grafo.cantidadProductos(); p++) {
+            menu.put(grafo.idProducto(p), grafo.alcanza(p, 1, stock));
+        }
+        return menu;
+    }
+    
+    /**
+     * Porciones que se pueden preparar ahora de cada producto con receta
+     * (proyección incremental, ver ProyeccionPorciones)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Long> porcionesDisponibles() {
+        return proyeccionPorciones.porcionesDisponibles();
+    }
+    
     // ==========================================
     // CONSULTAS
     // ==========================================
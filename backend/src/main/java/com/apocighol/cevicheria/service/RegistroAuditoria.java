@@ -0,0 +1,230 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.model.EventoAuditoria;
+import com.apocighol.cevicheria.repository.EventoAuditoriaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ==========================================
+ * REGISTRO DE AUDITORÍA (append-only)
+ *
+ * 🔥 El hilo del request no espera I/O de auditoría: tras el commit
+ * el AuditoriaEvento solo se encola (cola acotada, offer sin bloqueo).
+ * Cada segundo el volcado toma la cola en lotes y:
+ *   1. escribe una línea JSON por evento en el logger AUDITORIA
+ *      (archivo rotativo, ver logback-spring.xml)
+ *   2. inserta el lote en la tabla auditoria (batch JDBC, su propia transacción)
+ *
+ * Si el INSERT falla, el lote se guarda aparte y se reintenta en los
+ * siguientes volcados antes de tomar más de la cola. Tras
+ * auditoria.max-reintentos se prueba evento por evento: solo el que la BD
+ * rechaza por sí mismo se descarta (queda en el archivo).
+ *
+ * Si la cola se llena (BD caída mucho tiempo) el evento se descarta y se
+ * cuenta en cevicheria.auditoria.descartados en vez de frenar una venta.
+ * ==========================================
+ */
+@Slf4j
+@Component
+public class RegistroAuditoria {
+
+    private static final Logger ARCHIVO = LoggerFactory.getLogger("AUDITORIA");
+
+    private final BlockingQueue<EventoAuditoria> cola;
+    private final int tamanoLote;
+    private final ReentrantLock lockVolcado = new ReentrantLock();
+    private final Counter descartados;
+    private final int maxReintentos;
+
+    // Lote que la BD rechazó (ya escrito en el archivo); solo se toca con lockVolcado
+    private List<EventoAuditoria> rechazado = List.of();
+    private int reintentos;
+
+    private final EventoAuditoriaRepository eventoAuditoriaRepository;
+    private final TransactionTemplate transaccion;
+    private final JsonMapper jsonMapper;
+
+    public RegistroAuditoria(EventoAuditoriaRepository eventoAuditoriaRepository,
+                             PlatformTransactionManager transactionManager,
+                             JsonMapper jsonMapper,
+                             MeterRegistry registry,
+                             @Value("${auditoria.capacidad-cola:10000}") int capacidadCola,
+                             @Value("${auditoria.tamano-lote:200}") int tamanoLote,
+                             @Value("${auditoria.max-reintentos:300}") int maxReintentos) {
+        this.eventoAuditoriaRepository = eventoAuditoriaRepository;
+        this.maxReintentos = maxReintentos;
+        this.jsonMapper = jsonMapper;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.tamanoLote = tamanoLote;
+
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.descartados = Counter.builder("cevicheria.auditoria.descartados")
+            .description("Eventos de auditoría descartados (cola llena o rechazados por la BD)")
+            .register(registry);
+        Gauge.builder("cevicheria.auditoria.pendientes", cola, BlockingQueue::size)
+            .description("Eventos de auditoría en cola esperando el volcado")
+            .register(registry);
+    }
+
+    // ==========================================
+    // ENCOLAR (hilo del request, después del commit)
+    // ==========================================
+
+    @TransactionalEventListener
+    public void onAuditoriaEvento(AuditoriaEvento evento) {
+        EventoAuditoria registro = new EventoAuditoria();
+        registro.setFechaHora(evento.fechaHora());
+        registro.setTipo(evento.tipo().name());
+        registro.setEntidad(evento.entidad());
+        registro.setIdEntidad(evento.idEntidad());
+        registro.setReferencia(recortar(evento.referencia(), 60));
+        registro.setUsuario(recortar(evento.usuario(), 100));
+        registro.setDetalle(recortar(evento.detalle(), 500));
+
+        if (!cola.offer(registro)) {
+            descartados.increment();
+            log.warn("⚠️ Cola de auditoría llena, evento descartado: {} {} {}",
+                     registro.getTipo(), registro.getEntidad(), registro.getIdEntidad());
+        }
+    }
+
+    // ==========================================
+    // VOLCADO (hilo del scheduler)
+    // ==========================================
+
+    /**
+     * Vacía la cola en lotes. También se llama al apagar la aplicación.
+     */
+    @Scheduled(fixedDelayString = "${auditoria.volcado-ms:1000}")
+    public void volcar() {
+        lockVolcado.lock();
+        try {
+            if (!rechazado.isEmpty() && !reintentar()) {
+                return; // la BD sigue fallando: la cola espera (y absorbe) hasta el próximo volcado
+            }
+
+            List<EventoAuditoria> lote = new ArrayList<>(tamanoLote);
+            while (cola.drainTo(lote, tamanoLote) > 0) {
+                for (EventoAuditoria registro : lote) {
+                    ARCHIVO.info(jsonMapper.writeValueAsString(registro));
+                }
+                if (!insertar(lote)) {
+                    log.error("❌ No se pudo guardar un lote de {} eventos de auditoría; se reintentará", lote.size());
+                    rechazado = lote;
+                    reintentos = 0;
+                    return;
+                }
+                log.debug("📝 Auditoría: {} evento(s) volcados", lote.size());
+                lote = new ArrayList<>(tamanoLote);
+            }
+        } finally {
+            lockVolcado.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void alApagar() {
+        volcar();
+        if (!rechazado.isEmpty()) {
+            log.error("❌ Al apagar quedaron {} eventos de auditoría sin guardar en la tabla (están en el archivo)",
+                      rechazado.size());
+        }
+    }
+
+    /**
+     * Vuelve a insertar el lote rechazado. Agotados los reintentos, uno
+     * por uno: el evento que falla solo se descarta, el resto se guarda.
+     */
+    private boolean reintentar() {
+        if (insertar(rechazado)) {
+            log.info("📝 Auditoría: lote de {} eventos guardado tras {} reintento(s)", rechazado.size(), reintentos + 1);
+            rechazado = List.of();
+            return true;
+        }
+        if (++reintentos < maxReintentos) {
+            return false;
+        }
+
+        int perdidos = 0;
+        for (EventoAuditoria registro : rechazado) {
+            if (!insertar(List.of(registro))) {
+                perdidos++;
+                descartados.increment();
+                log.error("❌ Evento de auditoría rechazado por la BD, queda solo en el archivo: {} {} {}",
+                          registro.getTipo(), registro.getEntidad(), registro.getIdEntidad());
+            }
+        }
+        log.warn("⚠️ Lote de auditoría resuelto evento por evento: {} guardados, {} descartados",
+                 rechazado.size() - perdidos, perdidos);
+        rechazado = List.of();
+        return true;
+    }
+
+    private boolean insertar(List<EventoAuditoria> lote) {
+        try {
+            transaccion.executeWithoutResult(estado -> eventoAuditoriaRepository.saveAll(lote));
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Fallo al insertar auditoría: {}", e.getMessage());
+            // El id que se asignó en la transacción deshecha no se reutiliza
+            lote.forEach(registro -> registro.setIdEvento(null));
+            return false;
+        }
+    }
+
+    // ==========================================
+    // CONSULTAS
+    // ==========================================
+
+    /**
+     * Historial de una entidad (ej. "PEDIDO", 15)
+     */
+    public List<EventoAuditoria> historial(String entidad, Long idEntidad) {
+        return eventoAuditoriaRepository.findByEntidadAndIdEntidadOrderByIdEventoAsc(entidad.toUpperCase(), idEntidad);
+    }
+
+    /**
+     * Últimos eventos entre dos fechas (inclusive), opcionalmente de un tipo
+     */
+    public List<EventoAuditoria> buscar(String tipo, LocalDate desde, LocalDate hasta, int limite) {
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.atTime(LocalTime.MAX);
+        if (tipo == null || tipo.isBlank()) {
+            return eventoAuditoriaRepository.findByFechaHoraBetweenOrderByIdEventoDesc(inicio, fin, Limit.of(limite));
+        }
+        AuditoriaEvento.Tipo valido = AuditoriaEvento.Tipo.valueOf(tipo.trim().toUpperCase());
+        return eventoAuditoriaRepository.findByTipoAndFechaHoraBetweenOrderByIdEventoDesc(
+            valido.name(), inicio, fin, Limit.of(limite));
+    }
+
+    private static String recortar(String texto, int maximo) {
+        return texto != null && texto.length() > maximo ? texto.substring(0, maximo) : texto;
+    }
+}
@@ -0,0 +1,211 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.event.PedidoEvento;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.repository.PedidoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * ==========================================
+ * TABLERO DE PEDIDOS DEL DÍA (en memoria)
+ *
+ * 🔥 Write-through: se reconstruye desde BD al arrancar y luego
+ * se actualiza con cada PedidoEvento confirmado (después del commit).
+ * Guarda PedidoDetalle (inmutable), no entidades: nada de proxies
+ * ni colecciones LAZY fuera de la sesión.
+ *
+ * - delDia: todos los pedidos de hoy (ADMIN)
+ * - activos: solo PENDIENTE → SERVIDO (COCINA)
+ * - índices de activos por estado, mesero y mesa
+ * Todos ordenados por id (orden de llegada), igual que la consulta original.
+ *
+ * Las consultas por rol cuestan O(resultado) y no tocan la BD.
+ * ==========================================
+ */
+@Slf4j
+@Component
+public class TableroPedidos {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile LocalDate fecha = LocalDate.now();
+    private final Map<Long, PedidoDetalle> delDia = new TreeMap<>();
+    private final Map<Long, PedidoDetalle> activos = new TreeMap<>();
+    private final Map<EstadoPedido, Map<Long, PedidoDetalle>> porEstado = new EnumMap<>(EstadoPedido.class);
+    private final Map<String, Map<Long, PedidoDetalle>> porMesero = new HashMap<>();
+    private final Map<Integer, Map<Long, PedidoDetalle>> porMesa = new HashMap<>();
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    // ==========================================
+    // CARGA Y ACTUALIZACIÓN
+    // ==========================================
+
+    /**
+     * La consulta va dentro del candado de escritura: Tomcat ya acepta
+     * pedidos antes de ApplicationReadyEvent y un PedidoEvento aplicado
+     * entre la consulta y limpiar() se borraría del tablero. Así, lo que
+     * confirmó antes de la consulta sale en ella y lo que confirma después
+     * espera al candado y se aplica encima.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        lock.writeLock().lock();
+        try {
+            LocalDate hoy = LocalDate.now();
+            List<PedidoDetalle> pedidos = PedidoDetalle.de(pedidoRepository.findByFechaPedido(hoy));
+            limpiar(hoy);
+            pedidos.forEach(this::indexar);
+            log.info("📋 Tablero de pedidos: {} activos de {} del día", activos.size(), delDia.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPedidoEvento(PedidoEvento evento) {
+        PedidoDetalle pedido = evento.pedido();
+
+        lock.writeLock().lock();
+        try {
+            verificarCambioDeDia();
+            desindexar(pedido.idPedido());
+            if (evento.tipo() != PedidoEvento.Tipo.ELIMINADO && fecha.equals(pedido.fechaPedido())) {
+                indexar(pedido);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // CONSULTAS (O(resultado))
+    // ==========================================
+
+    public List<PedidoDetalle> pedidosDelDia() {
+        return leer(() -> delDia.values());
+    }
+
+    public List<PedidoDetalle> pedidosActivos() {
+        return leer(() -> activos.values());
+    }
+
+    public List<PedidoDetalle> pedidosActivosPorEstado(String estado) {
+        return leer(() -> indice(porEstado, EstadoPedido.desde(estado)));
+    }
+
+    public List<PedidoDetalle> pedidosActivosPorMesero(String mesero) {
+        return leer(() -> indice(porMesero, mesero.toLowerCase()));
+    }
+
+    public List<PedidoDetalle> pedidosActivosPorMesa(Integer numeroMesa) {
+        return leer(() -> indice(porMesa, numeroMesa));
+    }
+
+    // ==========================================
+    // INTERNOS
+    // ==========================================
+
+    private List<PedidoDetalle> leer(Supplier<Collection<PedidoDetalle>> lectura) {
+        if (!fecha.equals(LocalDate.now())) {
+            lock.writeLock().lock();
+            try {
+                verificarCambioDeDia();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(lectura.get());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> Collection<PedidoDetalle> indice(Map<K, Map<Long, PedidoDetalle>> mapa, K clave) {
+        Map<Long, PedidoDetalle> pedidos = mapa.get(clave);
+        return pedidos != null ? pedidos.values() : Collections.emptyList();
+    }
+
+    private void verificarCambioDeDia() {
+        LocalDate hoy = LocalDate.now();
+        if (!fecha.equals(hoy)) {
+            limpiar(hoy);
+        }
+    }
+
+    private void limpiar(LocalDate hoy) {
+        fecha = hoy;
+        delDia.clear();
+        activos.clear();
+        porEstado.clear();
+        porMesero.clear();
+        porMesa.clear();
+    }
+
+    private void indexar(PedidoDetalle pedido) {
+        Long id = pedido.idPedido();
+        delDia.put(id, pedido);
+
+        EstadoPedido estado = pedido.estadoPedido();
+        if (!estado.esActivo()) {
+            return;
+        }
+
+        activos.put(id, pedido);
+        porEstado.computeIfAbsent(estado, k -> new TreeMap<>()).put(id, pedido);
+        if (pedido.mesero() != null) {
+            porMesero.computeIfAbsent(pedido.mesero().toLowerCase(), k -> new TreeMap<>()).put(id, pedido);
+        }
+        if (pedido.numeroMesa() != null) {
+            porMesa.computeIfAbsent(pedido.numeroMesa(), k -> new TreeMap<>()).put(id, pedido);
+        }
+    }
+
+    private void desindexar(Long id) {
+        delDia.remove(id);
+        PedidoDetalle anterior = activos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+
+        quitar(porEstado, anterior.estadoPedido(), id);
+        if (anterior.mesero() != null) {
+            quitar(porMesero, anterior.mesero().toLowerCase(), id);
+        }
+        if (anterior.numeroMesa() != null) {
+            quitar(porMesa, anterior.numeroMesa(), id);
+        }
+    }
+
+    private static <K> void quitar(Map<K, Map<Long, PedidoDetalle>> mapa, K clave, Long id) {
+        Map<Long, PedidoDetalle> pedidos = mapa.get(clave);
+        if (pedidos != null) {
+            pedidos.remove(id);
+            if (pedidos.isEmpty()) {
+                mapa.remove(clave);
+            }
+        }
+    }
+}
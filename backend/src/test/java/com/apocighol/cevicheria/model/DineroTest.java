@@ -0,0 +1,45 @@
+package com.apocighol.cevicheria.model;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DineroTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void leeTextoYBigDecimalConDosDecimales() {
+        assertThat(Dinero.de("25").centimos()).isEqualTo(2500);
+        assertThat(Dinero.de("25.5").centimos()).isEqualTo(2550);
+        assertThat(Dinero.de("-3.40").centimos()).isEqualTo(-340);
+        assertThat(Dinero.de("1.005").centimos()).isEqualTo(101);
+        assertThat(Dinero.de("1e2").centimos()).isEqualTo(10000);
+        assertThat(Dinero.de(new BigDecimal("12.345")).centimos()).isEqualTo(1235);
+        assertThatThrownBy(() -> Dinero.de("abc")).hasMessageContaining("Monto inválido");
+    }
+
+    @Test
+    void multiplicaSinPerderCentimos() {
+        assertThat(Dinero.de("18.90").por(3)).isEqualTo(Dinero.de("56.70"));
+        assertThat(Dinero.de("4.50").por(new BigDecimal("2.5"))).isEqualTo(Dinero.de("11.25"));
+    }
+
+    @Test
+    void jsonIgualQueConBigDecimal() {
+        DetallePedido detalle = new DetallePedido();
+        detalle.setPrecioUnitario(Dinero.de("25"));
+
+        assertThat(mapper.writeValueAsString(detalle)).contains("\"precioUnitario\":25.00");
+
+        assertThat(mapper.readValue("18.9", Dinero.class)).isEqualTo(Dinero.de("18.90"));
+        assertThat(mapper.readValue("\"18.90\"", Dinero.class)).isEqualTo(Dinero.de("18.90"));
+        assertThat(mapper.readValue("25", Dinero.class)).isEqualTo(Dinero.de("25.00"));
+        assertThat(mapper.readValue("-3.4", Dinero.class)).isEqualTo(Dinero.de("-3.40"));
+        assertThat(mapper.readValue("null", Dinero.class)).isNull();
+    }
+}
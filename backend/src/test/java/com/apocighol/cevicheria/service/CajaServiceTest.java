@@ -0,0 +1,138 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.model.Caja;
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.MovimientoCaja;
+import com.apocighol.cevicheria.repository.MovimientoCajaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.apocighol.cevicheria.service.Concurrencia.enParalelo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Caja abierta en memoria + unicidad garantizada por la BD
+ * + totales acumulados en memoria que siempre cuadran con movimientos_caja.
+ *
+ * Más consultas de estado simultáneas que conexiones en el pool (10):
+ * cada una vuelca lo pendiente sin pedir una segunda conexión.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CajaServiceTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private CajaService cajaService;
+
+    @Autowired
+    private AcumuladorCaja acumuladorCaja;
+
+    @Autowired
+    private MovimientoCajaRepository movimientoCajaRepository;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unaSolaCajaAbiertaYVentasSinBuscarla() throws Exception {
+        // Aperturas simultáneas: la restricción UNIQUE deja pasar solo una
+        List<Boolean> aperturas = enParalelo(HILOS, () -> {
+            try {
+                cajaService.abrirCaja(new BigDecimal("100"), "admin");
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        });
+        assertThat(aperturas.stream().filter(ok -> ok).count()).isEqualTo(1);
+        assertThat(cajaService.hayCajaAbierta()).isTrue();
+
+        // Con la caja ya en memoria la venta es solo el INSERT del movimiento: la fila de cajas no se toca
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        cajaService.registrarVenta(1, Dinero.de("5.50"), "Yape", null, null, "admin");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        List<Boolean> consultas = enParalelo(HILOS, () -> {
+            cajaService.registrarVenta(2, Dinero.de("1"), "Efectivo", Dinero.de("1"), Dinero.CERO, "mesero");
+            return cajaService.obtenerCajaAbierta() != null;
+        });
+        assertThat(consultas).containsOnly(true);
+        cajaService.registrarGasto("Hielo", Dinero.de("3"), "admin");
+
+        Caja caja = cajaService.obtenerCajaAbierta();
+        assertThat(caja.getTotalVentas()).isEqualByComparingTo("21.50");   // 5.50 + 16×1
+        assertThat(caja.getTotalEfectivo()).isEqualByComparingTo("16");
+        assertThat(caja.getTotalYape()).isEqualByComparingTo("5.50");
+        assertThat(caja.getTotalEgresos()).isEqualByComparingTo("3");
+
+        // Un movimiento que no pasó por memoria (p. ej. caída antes del volcado):
+        // al reiniciar los totales se reconstruyen desde movimientos_caja
+        MovimientoCaja perdido = new MovimientoCaja();
+        perdido.setIdCaja(caja.getIdCaja());
+        perdido.setTipoMovimiento("VENTA");
+        perdido.setMonto(Dinero.de("2.25"));
+        perdido.setMetodoPago("Plin");
+        movimientoCajaRepository.save(perdido);
+        acumuladorCaja.reconstruir();
+        assertThat(cajaService.obtenerCajaAbierta().getTotalPlin()).isEqualByComparingTo("2.25");
+
+        // Lo aún no volcado también entra en el cierre
+        cajaService.registrarVenta(4, Dinero.de("4"), "Efectivo", null, null, "admin");
+
+        // ...y en la reconciliación del dashboard (suma movimientos, no la fila atrasada)
+        estadisticasService.reconciliar();
+        assertThat(estadisticasService.estadisticasCaja())
+            .containsEntry("totalVentas", new BigDecimal("27.75"))
+            .containsEntry("totalEfectivo", new BigDecimal("20.00"));
+
+        Caja cerrada = cajaService.cerrarCaja(new BigDecimal("117"), "admin");
+        assertThat(cerrada.getEstadoCaja()).isEqualTo("CERRADA");
+        assertThat(cerrada.getTotalVentas()).isEqualByComparingTo("27.75");  // 21.50 + 2.25 + 4
+        assertThat(cerrada.getDiferencia()).isEqualByComparingTo("0");       // 100 + 20 - 3
+        assertThat(cajaService.hayCajaAbierta()).isFalse();
+        assertThatThrownBy(() -> cajaService.registrarVenta(3, Dinero.de("10"), "Efectivo", null, null, "admin"))
+            .hasMessageContaining("No hay caja abierta");
+
+        // Cerrada la anterior, se puede abrir otra
+        cajaService.abrirCaja(BigDecimal.ZERO, "admin");
+        assertThat(cajaService.hayCajaAbierta()).isTrue();
+        cajaService.cerrarCaja(BigDecimal.ZERO, "admin");
+    }
+
+    @Test
+    void cajasAbiertasAntiguasSinMarcaNoRompenLaReconciliacion() {
+        // Filas ABIERTA de antes de marca_abierta que la migración no llegó a cerrar
+        for (String codigo : List.of("CAJA-ANTIGUA-1", "CAJA-ANTIGUA-2")) {
+            jdbcTemplate.update("INSERT INTO cajas (codigo_caja, fecha_apertura, hora_apertura, estado_caja, version) " +
+                "VALUES (?, ?, ?, 'ABIERTA', 0)", codigo, LocalDate.now().minusDays(3), LocalTime.of(8, 0));
+        }
+        try {
+            estadisticasService.reconciliar();
+            assertThat(estadisticasService.estadisticasCaja())
+                .containsEntry("cajaAbierta", cajaService.hayCajaAbierta());
+        } finally {
+            jdbcTemplate.update("DELETE FROM cajas WHERE codigo_caja LIKE 'CAJA-ANTIGUA-%'");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.apocighol.cevicheria.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lanza la misma tarea en varios hilos a la vez (todos esperan la misma señal de salida).
+ * Un error en cualquier hilo hace fallar el test: si una tarea espera fallar, lo captura ella.
+ */
+final class Concurrencia {
+
+    private Concurrencia() {
+    }
+
+    static <T> List<T> enParalelo(int hilos, Callable<T> tarea) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                futuros.add(pool.submit(() -> {
+                    salida.await();
+                    return tarea.call();
+                }));
+            }
+            salida.countDown();
+
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
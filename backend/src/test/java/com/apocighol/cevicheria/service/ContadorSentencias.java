@@ -0,0 +1,97 @@
+package com.apocighol.cevicheria.service;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cuenta las sentencias que llegan al DataSource (Hibernate y JdbcTemplate por igual).
+ * Un executeBatch cuenta como una sola ida a la BD.
+ * Solo cuenta las del hilo que llamó a iniciar(): los @Scheduled no se cuelan.
+ */
+@TestConfiguration
+public class ContadorSentencias {
+
+    private static final AtomicInteger ejecutadas = new AtomicInteger();
+    private static volatile Thread hilo;
+
+    public static void iniciar() {
+        ejecutadas.set(0);
+        hilo = Thread.currentThread();
+    }
+
+    public static int ejecutadas() {
+        return ejecutadas.get();
+    }
+
+    @Bean
+    static BeanPostProcessor contarSentencias() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                return bean instanceof DataSource dataSource ? new Contando(dataSource) : bean;
+            }
+        };
+    }
+
+    private static class Contando extends DelegatingDataSource {
+
+        Contando(DataSource destino) {
+            super(destino);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return envolver(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String usuario, String clave) throws SQLException {
+            return envolver(super.getConnection(usuario, clave), Connection.class);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T envolver(T destino, Class<T> tipo) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (proxy, metodo, args) -> {
+            Object resultado = invocar(destino, metodo, args);
+            if (metodo.getName().startsWith("execute") && Thread.currentThread() == hilo) {
+                ejecutadas.incrementAndGet();
+            }
+            if (tipo != Connection.class) {
+                return resultado;
+            }
+            // Se conserva el tipo: Hibernate y JdbcTemplate piden PreparedStatement / CallableStatement
+            if (resultado instanceof CallableStatement sentencia) {
+                return envolver(sentencia, CallableStatement.class);
+            }
+            if (resultado instanceof PreparedStatement sentencia) {
+                return envolver(sentencia, PreparedStatement.class);
+            }
+            if (resultado instanceof Statement sentencia) {
+                return envolver(sentencia, Statement.class);
+            }
+            return resultado;
+        });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.repository.SecuenciaCodigoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Códigos pedidos a la vez (mismo milisegundo): ninguno se repite y
+ * la BD solo se toca una vez por bloque. Tampoco entre dos servidores
+ * que crean la fila del día al mismo tiempo.
+ *
+ * Productos: PROD-xxx sin recorrer la tabla de productos, continuando
+ * después de un código puesto a mano.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GeneradorCodigosTest {
+
+    private static final int HILOS = 16;
+    private static final int POR_HILO = 50;
+
+    @Autowired
+    private GeneradorCodigos generadorCodigos;
+
+    @Autowired
+    private SecuenciaCodigoRepository secuenciaRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void codigosSimultaneosNoSeRepiten() throws Exception {
+        String dia = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<List<String>>> futuros = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                futuros.add(executor.submit(() -> {
+                    salida.await();
+                    List<String> codigos = new ArrayList<>();
+                    for (int n = 0; n < POR_HILO; n++) {
+                        codigos.add(generadorCodigos.siguiente("PRUEBA"));
+                    }
+                    return codigos;
+                }));
+            }
+            salida.countDown();
+
+            Set<String> codigos = new HashSet<>();
+            for (Future<List<String>> futuro : futuros) {
+                codigos.addAll(futuro.get());
+            }
+
+            assertThat(codigos).hasSize(HILOS * POR_HILO);
+            assertThat(codigos).allMatch(c -> c.matches("PRUEBA-" + dia + "-\\d{4,}"));
+            assertThat(codigos).contains("PRUEBA-" + dia + "-0001", "PRUEBA-" + dia + "-0800");
+            // 800 códigos en bloques de 20 = 40 reservas, nada desperdiciado
+            assertThat(secuenciaRepository.ultimo("PRUEBA-" + dia)).isEqualTo(HILOS * POR_HILO);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void dosServidoresNoRepitenAunqueCreenLaFilaALaVez() throws Exception {
+        // Cada generador tiene su propia memoria y sus candados: como dos servidores
+        List<GeneradorCodigos> servidores = List.of(
+            new GeneradorCodigos(secuenciaRepository, transactionManager, 5),
+            new GeneradorCodigos(secuenciaRepository, transactionManager, 5));
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<List<String>>> futuros = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                GeneradorCodigos servidor = servidores.get(i % 2);
+                futuros.add(executor.submit(() -> {
+                    salida.await();
+                    List<String> codigos = new ArrayList<>();
+                    for (int n = 0; n < 10; n++) {
+                        codigos.add(servidor.siguiente("NODOS"));
+                    }
+                    return codigos;
+                }));
+            }
+            salida.countDown();
+
+            Set<String> codigos = new HashSet<>();
+            for (Future<List<String>> futuro : futuros) {
+                codigos.addAll(futuro.get());
+            }
+            assertThat(codigos).hasSize(HILOS * 10);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void codigosDeProductoSiguenLaSecuencia() throws Exception {
+        productoService.crear(producto("PROD-500"));
+        assertThat(productoService.obtenerSiguienteCodigo()).containsEntry("codigo", "PROD-501");
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<String>> futuros = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                futuros.add(executor.submit(() -> productoService.crear(producto("AUTO")).getCodigoProducto()));
+            }
+            Set<String> codigos = new HashSet<>();
+            for (Future<String> futuro : futuros) {
+                codigos.add(futuro.get());
+            }
+            assertThat(codigos).hasSize(HILOS).contains("PROD-501", "PROD-516");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Vista previa y estadísticas: el siguiente código sale de memoria
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertThat(productoService.obtenerSiguienteCodigo()).containsEntry("codigo", "PROD-517");
+        assertThat(stats.getPrepareStatementCount()).isZero();
+    }
+
+    private static Producto producto(String codigo) {
+        Producto producto = new Producto();
+        producto.setCodigoProducto(codigo);
+        producto.setNombreProducto("Producto " + System.nanoTime());
+        producto.setPrecioProducto(new BigDecimal("20.00"));
+        return producto;
+    }
+}
@@ -0,0 +1,174 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.InsumoEvento;
+import com.apocighol.cevicheria.model.Insumo;
+import com.apocighol.cevicheria.repository.InsumoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.apocighol.cevicheria.service.Concurrencia.enParalelo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Movimientos de stock concurrentes: ningún descuento se pierde.
+ *
+ * Búsqueda: sin tildes, por prefijo y con errores de tipeo; un cambio
+ * de nombre se ve en la siguiente búsqueda.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InsumoServiceTest {
+
+    private static final int HILOS = 32;
+
+    @Autowired
+    private InsumoService insumoService;
+
+    @MockitoSpyBean
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void descuentosSimultaneosNoPierdenActualizaciones() throws Exception {
+        Insumo limon = insumo("100");
+
+        List<Boolean> resultados = enParalelo(HILOS, () -> insumoService.disminuirStock(limon.getIdInsumo(), BigDecimal.ONE));
+
+        assertThat(resultados).containsOnly(true);
+        assertThat(stock(limon)).isEqualByComparingTo("68"); // 100 - 32×1
+    }
+
+    @Test
+    void sinStockSuficienteSoloDescuentaLoQueAlcanza() throws Exception {
+        Insumo pescado = insumo("20");
+
+        List<Boolean> resultados = enParalelo(HILOS, () -> insumoService.disminuirStock(pescado.getIdInsumo(), BigDecimal.ONE));
+
+        assertThat(resultados.stream().filter(ok -> ok).count()).isEqualTo(20);
+        assertThat(stock(pescado)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void comprasYVentasSimultaneasCuadran() throws Exception {
+        Insumo cebolla = insumo("50");
+
+        // Mitad de hilos compra 2, mitad vende 1: 50 + 16×2 - 16×1
+        List<Boolean> resultados = enParalelo(HILOS, new Callable<Boolean>() {
+            private final AtomicInteger turno = new AtomicInteger();
+
+            @Override
+            public Boolean call() {
+                if (turno.getAndIncrement() % 2 == 0) {
+                    insumoService.aumentarStock(cebolla.getIdInsumo(), new BigDecimal("2"));
+                    return true;
+                }
+                return insumoService.disminuirStock(cebolla.getIdInsumo(), BigDecimal.ONE);
+            }
+        });
+
+        assertThat(resultados).containsOnly(true);
+        assertThat(stock(cebolla)).isEqualByComparingTo("66");
+    }
+
+    @Test
+    void descuentoQueNuncaSeAsientaFallaEnVezDeGirar() {
+        Insumo aji = insumo("5");
+        Long id = aji.getIdInsumo();
+
+        // Una compra se cuela siempre entre los dos UPDATE
+        doReturn(0).when(insumoRepository).restarSiAlcanza(eq(id), any(), any());
+        doReturn(0).when(insumoRepository).agotarSiNoAlcanza(eq(id), any(), any());
+
+        assertThatThrownBy(() -> insumoService.disminuirStock(id, BigDecimal.ONE))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("10 intentos");
+        verify(insumoRepository, times(10)).restarSiAlcanza(eq(id), any(), any());
+        assertThat(stock(aji)).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void buscaSinTildesPorPrefijoYConErrores() {
+        Insumo limon = insumoService.crear(nuevo("Limón Tahití"));
+        Insumo limonada = insumoService.crear(nuevo("Limonada base"));
+        Insumo aji = insumoService.crear(nuevo("Ají limo"));
+        Insumo culantro = insumoService.crear(nuevo("Culantro"));
+
+        assertThat(ids(insumoService.buscar("limon"))).containsSubsequence(limon.getIdInsumo(), limonada.getIdInsumo());
+        assertThat(ids(insumoService.buscar("LIMO"))).startsWith(aji.getIdInsumo()).contains(limon.getIdInsumo());
+        assertThat(ids(insumoService.buscar("aji lim"))).containsExactly(aji.getIdInsumo());
+        assertThat(ids(insumoService.buscar("culatro"))).containsExactly(culantro.getIdInsumo());
+        assertThat(insumoService.buscar("tahiti limon xyz")).isEmpty();
+
+        insumoService.actualizar(culantro.getIdInsumo(), nuevo("Hierba buena"));
+        assertThat(insumoService.buscar("culantro")).isEmpty();
+        assertThat(ids(insumoService.buscar("hierbabuena"))).isEmpty();
+        assertThat(ids(insumoService.buscar("hierba"))).containsExactly(culantro.getIdInsumo());
+
+        insumoService.eliminar(limonada.getIdInsumo());
+        assertThat(ids(insumoService.buscar("limonada"))).isEmpty();
+    }
+
+    @Test
+    void trasElCommitElIndiceTomaElNombreDeLaFila() {
+        Insumo insumo = insumoService.crear(nuevo("Rocoto"));
+        assertThat(ids(insumoService.buscar("rocoto"))).containsExactly(insumo.getIdInsumo());
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            // La entidad queda en el contexto con el nombre viejo; la fila cambia por fuera de Hibernate
+            insumoRepository.findById(insumo.getIdInsumo()).orElseThrow();
+            jdbcTemplate.update("UPDATE insumos SET nombre_insumo = ? WHERE id_insumo = ?", "Ají panca", insumo.getIdInsumo());
+            eventPublisher.publishEvent(new InsumoEvento(insumo.getIdInsumo()));
+        });
+
+        assertThat(ids(insumoService.buscar("panca"))).containsExactly(insumo.getIdInsumo());
+        assertThat(insumoService.buscar("rocoto")).isEmpty();
+    }
+
+    private Insumo insumo(String stock) {
+        Insumo insumo = new Insumo();
+        insumo.setNombreInsumo("Insumo " + System.nanoTime());
+        insumo.setStockActual(new BigDecimal(stock));
+        insumo.setStockMinimo(BigDecimal.ONE);
+        return insumoRepository.save(insumo);
+    }
+
+    private static Insumo nuevo(String nombre) {
+        Insumo insumo = new Insumo();
+        insumo.setNombreInsumo(nombre);
+        insumo.setUnidadMedida("kg");
+        return insumo;
+    }
+
+    private static List<Long> ids(List<Insumo> insumos) {
+        return insumos.stream().map(Insumo::getIdInsumo).toList();
+    }
+
+    private BigDecimal stock(Insumo insumo) {
+        return insumoRepository.findById(insumo.getIdInsumo()).orElseThrow().getStockActual();
+    }
+}
@@ -0,0 +1,294 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.PedidoDetalle;
+import com.apocighol.cevicheria.dto.PedidoResumen;
+import com.apocighol.cevicheria.dto.SolicitudPedido;
+import com.apocighol.cevicheria.model.Dinero;
+import com.apocighol.cevicheria.model.EstadoPedido;
+import com.apocighol.cevicheria.model.EventoAuditoria;
+import com.apocighol.cevicheria.model.Pagina;
+import com.apocighol.cevicheria.model.Pedido;
+import com.apocighol.cevicheria.repository.PedidoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Round trips JDBC por pedido creado.
+ *
+ * Antes (IDENTITY + save de cada detalle): 1 INSERT de cabecera + 1 INSERT por detalle,
+ * es decir 1 + N round trips. Con secuencia pooled-lo y batching deben ser 2
+ * sentencias por pedido (cabecera + batch de detalles) sin importar N.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PedidoServiceTest {
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private RegistroAuditoria registroAuditoria;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private PedidoStreamService pedidoStreamService;
+
+    @MockitoSpyBean(name = "applicationTaskExecutor")
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @Test
+    void crearPedidoUsaRoundTripsConstantes() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Primer pedido: reserva los bloques de las secuencias
+        pedidoService.crearPedido(new SolicitudPedido(1, "juan", null, productos(1)));
+
+        for (int items : new int[] {1, 6, 10}) {
+            stats.clear();
+            Pedido pedido = pedidoService.crearPedido(new SolicitudPedido(2, "juan", "sin cebolla", productos(items)));
+            long sentencias = stats.getPrepareStatementCount();
+
+            assertThat(pedido.getIdPedido()).isNotNull();
+            // Las mismas 2 sentencias con 1, 6 o 10 items
+            assertThat(sentencias).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void tableroSigueLosCambiosDeEstado() {
+        Pedido pedido = pedidoService.crearPedido(new SolicitudPedido(7, "Rosa", null, productos(2)));
+        Long id = pedido.getIdPedido();
+
+        assertThat(pedidoService.pedidosActivosDelDia()).extracting(PedidoDetalle::idPedido).contains(id);
+        assertThat(pedidoService.pedidosPorMeseroDelDia("ROSA")).extracting(PedidoDetalle::idPedido).containsExactly(id);
+        assertThat(pedidoService.pedidosPendientesMesa(7)).extracting(PedidoDetalle::idPedido).containsExactly(id);
+
+        // Transición ilegal: no se puede cobrar un pedido que no salió de cocina
+        assertThatThrownBy(() -> pedidoService.cambiarEstado(id, "COBRADO"))
+            .isInstanceOf(RuntimeException.class);
+
+        pedidoService.cambiarEstado(id, "preparando");
+        pedidoService.cambiarEstado(id, "LISTO");
+        assertThat(pedidoService.pedidosActivosPorEstado("listo")).extracting(PedidoDetalle::idPedido).containsExactly(id);
+        assertThat(pedidoService.pedidosActivosPorEstado("PENDIENTE")).extracting(PedidoDetalle::idPedido).doesNotContain(id);
+
+        pedidoService.cambiarEstado(id, EstadoPedido.SERVIDO);
+        assertThat(pedidoService.cobrarPedidosMesa(7)).extracting(Pedido::getEstadoPedido).containsExactly(EstadoPedido.COBRADO);
+        assertThat(pedidoService.pedidosActivosDelDia()).extracting(PedidoDetalle::idPedido).doesNotContain(id);
+        assertThat(pedidoService.pedidosPendientesMesa(7)).isEmpty();
+        assertThat(pedidoService.pedidosDelDia()).extracting(PedidoDetalle::idPedido).contains(id);
+
+        pedidoService.eliminar(id);
+        assertThat(pedidoService.pedidosDelDia()).extracting(PedidoDetalle::idPedido).doesNotContain(id);
+    }
+
+    @Test
+    void estadisticasEnMemoriaCoincidenConLaBd() {
+        Pedido pedido = pedidoService.crearPedido(new SolicitudPedido(9, "Luis", null, productos(3)));
+        pedidoService.cambiarEstado(pedido.getIdPedido(), EstadoPedido.PREPARANDO);
+
+        Map<String, Object> stats = pedidoService.obtenerEstadisticas();
+        LocalDate hoy = LocalDate.now();
+
+        assertThat(stats.get("totalPedidosHoy")).isEqualTo(pedidoRepository.countByFechaPedido(hoy));
+        assertThat((BigDecimal) stats.get("totalVentasHoy")).isEqualByComparingTo(pedidoRepository.sumTotalByFechaPedido(hoy));
+        assertThat(stats.get("pedidosPreparando")).isEqualTo(pedidoRepository.countByEstadoPedido(EstadoPedido.PREPARANDO));
+        assertThat(stats.get("pedidosPendientes")).isEqualTo(pedidoRepository.countByEstadoPedido(EstadoPedido.PENDIENTE));
+    }
+
+    @Test
+    void anulacionQuedaEnAuditoriaSinTocarObservaciones() {
+        Pedido pedido = pedidoService.crearPedido(new SolicitudPedido(11, "Ana", "sin ají", productos(1)));
+        Long id = pedido.getIdPedido();
+
+        Pedido anulado = pedidoService.anularPedido(id, "Cliente se retiró", "admin");
+        assertThat(anulado.getObservaciones()).isEqualTo("sin ají");
+
+        // El evento se encoló tras el commit; el volcado lo lleva a la tabla
+        registroAuditoria.volcar();
+        List<EventoAuditoria> historial = registroAuditoria.historial("pedido", id);
+
+        assertThat(historial).hasSize(1);
+        assertThat(historial.get(0).getTipo()).isEqualTo("PEDIDO_ANULADO");
+        assertThat(historial.get(0).getReferencia()).isEqualTo(pedido.getCodigoPedido());
+        assertThat(historial.get(0).getUsuario()).isEqualTo("admin");
+        assertThat(historial.get(0).getDetalle()).contains("Cliente se retiró", "PENDIENTE");
+    }
+
+    @Test
+    void paginacionKeysetRecorreTodoSinRepetirNiSaltar() {
+        for (int i = 0; i < 5; i++) {
+            pedidoService.crearPedido(new SolicitudPedido(12, "Carlos", null, productos(1)));
+        }
+        List<Long> esperado = pedidoService.listarTodos().stream()
+            .sorted(Comparator.comparing(Pedido::getFechaPedido)
+                .thenComparing(Pedido::getHoraPedido)
+                .thenComparing(Pedido::getIdPedido)
+                .reversed())
+            .map(Pedido::getIdPedido)
+            .toList();
+
+        List<Long> recorrido = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<PedidoResumen> pagina = pedidoService.listarPagina(cursor, 2);
+            assertThat(pagina.items()).hasSizeLessThanOrEqualTo(2);
+            pagina.items().forEach(p -> recorrido.add(p.idPedido()));
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+
+        // Mismo orden (fecha, hora, id desc), sin duplicados ni huecos entre páginas
+        assertThat(recorrido).containsExactlyElementsOf(esperado);
+
+        assertThatThrownBy(() -> pedidoService.listarPagina("no-es-un-cursor", 2))
+            .hasMessageContaining("Cursor");
+    }
+
+    @Test
+    void historialLeeResumenesSinCargarEntidades() {
+        for (int i = 0; i < 6; i++) {
+            pedidoService.crearPedido(new SolicitudPedido(13, "Elena", null, productos(3)));
+        }
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Antes: entidades con sus detalles (EAGER) serializadas tal cual
+        stats.clear();
+        String entidades = transactionTemplate.execute(status -> {
+            List<Pedido> todos = pedidoService.listarTodos();
+            todos.forEach(p -> Hibernate.initialize(p.getDetalles()));
+            return jsonMapper.writeValueAsString(todos);
+        });
+        long sentenciasAntes = stats.getPrepareStatementCount();
+        long entidadesAntes = stats.getEntityLoadCount();
+
+        // Ahora: SELECT new PedidoResumen, una sola sentencia y ninguna entidad
+        stats.clear();
+        String resumenes = jsonMapper.writeValueAsString(pedidoService.listarPagina(null, Pagina.LIMITE_MAXIMO).items());
+        long sentenciasAhora = stats.getPrepareStatementCount();
+        long entidadesAhora = stats.getEntityLoadCount();
+
+        // Antes se cargaba cada pedido con sus detalles
+        assertThat(sentenciasAntes).isGreaterThan(sentenciasAhora);
+        assertThat(entidadesAntes).isGreaterThan(pedidoRepository.count());
+
+        assertThat(sentenciasAhora).isEqualTo(1);
+        assertThat(entidadesAhora).isZero();
+        assertThat(resumenes.length()).isLessThan(entidades.length() / 2);
+
+        // El detalle sigue saliendo completo, en un solo SELECT con JOIN (@EntityGraph)
+        Long id = pedidoService.listarPagina(null, 1).items().get(0).idPedido();
+        stats.clear();
+        PedidoDetalle detalle = pedidoService.buscarPorId(id).orElseThrow();
+        assertThat(detalle.detalles()).hasSize(3);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deltasLleganEnElOrdenDelCommit() throws Exception {
+        Long id = pedidoService.crearPedido(new SolicitudPedido(15, "Nora", null, productos(1))).getIdPedido();
+        PantallaGrabada pantalla = new PantallaGrabada();
+        pedidoStreamService.suscribir(null, pantalla);
+
+        // La primera tarea que recibe el executor arranca tarde
+        AtomicBoolean primera = new AtomicBoolean(true);
+        doAnswer(invocacion -> {
+            Runnable tarea = invocacion.getArgument(0);
+            long demora = primera.getAndSet(false) ? 200 : 0;
+            new Thread(() -> {
+                dormir(demora);
+                tarea.run();
+            }).start();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        pedidoService.cambiarEstado(id, EstadoPedido.PREPARANDO);
+        pedidoService.cambiarEstado(id, EstadoPedido.LISTO);
+
+        for (int i = 0; i < 100 && pantalla.estados(id).size() < 2; i++) {
+            Thread.sleep(20);
+        }
+        pantalla.complete();
+        pedidoService.eliminar(id);
+
+        // Aunque el envío de PREPARANDO arranque tarde, no llega detrás de LISTO
+        assertThat(pantalla.estados(id)).containsExactly(EstadoPedido.PREPARANDO, EstadoPedido.LISTO);
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pantalla de cocina en memoria: guarda los deltas en el orden en que llegan
+     */
+    private static class PantallaGrabada extends SseEmitter {
+
+        private final List<Map<?, ?>> deltas = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            for (DataWithMediaType parte : evento.build()) {
+                if (parte.getData() instanceof Map<?, ?> delta) {
+                    deltas.add(delta);
+                }
+            }
+        }
+
+        List<EstadoPedido> estados(Long idPedido) {
+            return deltas.stream()
+                .map(delta -> (PedidoDetalle) delta.get("pedido"))
+                .filter(pedido -> pedido.idPedido().equals(idPedido))
+                .map(PedidoDetalle::estadoPedido)
+                .toList();
+        }
+    }
+
+    private List<SolicitudPedido.Item> productos(int cantidad) {
+        List<SolicitudPedido.Item> productos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            productos.add(new SolicitudPedido.Item(null, "Ceviche " + i, "Ceviches", 2, Dinero.de("28.00")));
+        }
+        return productos;
+    }
+}
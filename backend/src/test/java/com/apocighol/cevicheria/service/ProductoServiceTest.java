@@ -0,0 +1,100 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.ProductoCarta;
+import com.apocighol.cevicheria.event.ProductoEvento;
+import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carta en memoria: las lecturas no tocan la BD y cada cambio
+ * confirmado publica una foto nueva (otra versión = otro ETag).
+ * Tras el commit la foto toma la fila de la BD, no la entidad que
+ * quedó en el contexto de persistencia de la transacción.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductoServiceTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cartaSeLeeDeMemoriaYCambiaDeVersionConCadaCambio() {
+        Producto ceviche = productoService.crear(producto("Ceviche carretillero", "Ceviches de la casa"));
+        Producto leche = productoService.crear(producto("Leche de tigre", "ceviches de la casa"));
+        CartaProductos.Carta antes = productoService.carta();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertThat(productoService.filtrarPorCategoria("CEVICHES DE LA CASA")).extracting(ProductoCarta::idProducto)
+            .containsExactly(ceviche.getIdProducto(), leche.getIdProducto());
+        assertThat(productoService.listarDisponibles()).extracting(ProductoCarta::idProducto)
+            .contains(ceviche.getIdProducto(), leche.getIdProducto());
+        productoService.obtenerEstadisticas();
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        productoService.cambiarDisponibilidad(leche.getIdProducto(), false);
+        CartaProductos.Carta despues = productoService.carta();
+
+        assertThat(despues.version()).isGreaterThan(antes.version());
+        assertThat(despues.etag()).isNotEqualTo(antes.etag());
+        assertThat(despues.disponibles()).extracting(ProductoCarta::idProducto).doesNotContain(leche.getIdProducto());
+        // La foto anterior no cambia: quien la estaba sirviendo no ve cambios a medias
+        assertThat(antes.disponibles()).extracting(ProductoCarta::idProducto).contains(leche.getIdProducto());
+
+        productoService.eliminar(ceviche.getIdProducto());
+        assertThat(productoService.listarTodos()).extracting(ProductoCarta::idProducto).doesNotContain(ceviche.getIdProducto());
+    }
+
+    @Test
+    void trasElCommitLaCartaRecargaLaFilaNoLaEntidadEnCache() {
+        Long id = productoService.crear(producto("Causa limeña", "Entradas")).getIdProducto();
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            // La entidad queda en el contexto con el nombre viejo; la fila cambia por fuera de Hibernate
+            productoRepository.findById(id).orElseThrow();
+            jdbcTemplate.update("UPDATE productos SET nombre_producto = ? WHERE id_producto = ?", "Causa de pulpo", id);
+            eventPublisher.publishEvent(new ProductoEvento(id));
+        });
+
+        assertThat(productoService.carta().producto(id)).map(ProductoCarta::nombreProducto).contains("Causa de pulpo");
+    }
+
+    private static Producto producto(String nombre, String categoria) {
+        Producto producto = new Producto();
+        producto.setCodigoProducto("AUTO");
+        producto.setNombreProducto(nombre);
+        producto.setCategoriaProducto(categoria);
+        producto.setPrecioProducto(new BigDecimal("25.00"));
+        return producto;
+    }
+}
@@ -0,0 +1,195 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.dto.ProductoVendido;
+import com.apocighol.cevicheria.dto.SolicitudReceta;
+import com.apocighol.cevicheria.model.Insumo;
+import com.apocighol.cevicheria.model.Producto;
+import com.apocighol.cevicheria.repository.InsumoRepository;
+import com.apocighol.cevicheria.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Descuento de insumos por receta (pedido completo en lote).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ContadorSentencias.class)
+class RecetaServiceTest {
+
+    @Autowired
+    private RecetaService recetaService;
+
+    @Autowired
+    private InsumoService insumoService;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void descuentoDePedidoSumaPorInsumoYUsaSentenciasConstantes() {
+        Insumo limon = insumo("Limón", "100", "20");
+        Insumo pescado = insumo("Pescado", "5", "1");
+        Long ceviche = producto("Ceviche simple");
+        Long leche = producto("Leche de tigre");
+
+        recetaService.asignarReceta(ceviche, List.of(
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("10")),
+            new SolicitudReceta.Item(pescado.getIdInsumo(), new BigDecimal("0.250"))));
+        recetaService.asignarReceta(leche, List.of(
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("6"))));
+
+        recetaService.porcionesDisponibles();
+        ContadorSentencias.iniciar();
+
+        Map<String, Object> resumen = recetaService.descontarInsumosDePedido(List.of(
+            new ProductoVendido(ceviche, 3),
+            new ProductoVendido(leche, 2)));
+
+        // Recetas, SELECT ... FOR UPDATE, un solo executeBatch y, tras el commit,
+        // la relectura del stock para la proyección de porciones
+        assertThat(ContadorSentencias.ejecutadas()).isEqualTo(4);
+
+        List<Map<String, Object>> detalles = (List<Map<String, Object>>) resumen.get("detalles");
+        assertThat(detalles).hasSize(2);
+        assertThat(stock(limon)).isEqualByComparingTo("58");     // 100 - (3×10 + 2×6)
+        assertThat(stock(pescado)).isEqualByComparingTo("4.25"); // 5 - 3×0.25
+        assertThat((List<String>) resumen.get("alertasStockBajo")).isEmpty();
+    }
+
+    @Test
+    void sentenciasDelDescuentoNoCrecenConLosInsumos() {
+        Long ceviche = producto("Ceviche mixto");
+        List<SolicitudReceta.Item> receta = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            receta.add(new SolicitudReceta.Item(insumo("Insumo " + i, "50", "0").getIdInsumo(), BigDecimal.ONE));
+        }
+        recetaService.asignarReceta(ceviche, receta);
+        recetaService.porcionesDisponibles();
+
+        ContadorSentencias.iniciar();
+        recetaService.descontarInsumosDePedido(List.of(new ProductoVendido(ceviche, 2)));
+
+        assertThat(ContadorSentencias.ejecutadas()).isEqualTo(4);
+    }
+
+    @Test
+    void insumoCargadoAntesDelDescuentoNoDevuelveElStockViejo() {
+        Insumo limon = insumo("Limón", "100", "20");
+        Long ceviche = producto("Ceviche clásico");
+        recetaService.asignarReceta(ceviche, List.of(
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("10"))));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            Insumo cargado = insumoRepository.findById(limon.getIdInsumo()).orElseThrow();
+            recetaService.descontarInsumosDePedido(List.of(new ProductoVendido(ceviche, 3)));
+
+            assertThat(cargado.getStockActual()).isEqualByComparingTo("70");
+            cargado.setStockMinimo(new BigDecimal("25"));
+            insumoRepository.save(cargado);
+        });
+
+        assertThat(stock(limon)).isEqualByComparingTo("70");
+    }
+
+    @Test
+    void disponibilidadDelMenuUsaElGrafoEnMemoriaYSeInvalidaAlCambiarLaReceta() {
+        Insumo pulpo = insumo("Pulpo", "1", "0");
+        Insumo limon = insumo("Limón", "30", "5");
+        Long pulpoOlivo = producto("Pulpo al olivo");
+        Long limonada = producto("Limonada");
+
+        recetaService.asignarReceta(pulpoOlivo, List.of(
+            new SolicitudReceta.Item(pulpo.getIdInsumo(), new BigDecimal("0.300")),
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("2"))));
+        recetaService.asignarReceta(limonada, List.of(
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("40"))));
+
+        Map<Long, Boolean> menu = recetaService.disponibilidadMenu();
+        assertThat(menu).containsEntry(pulpoOlivo, true).containsEntry(limonada, false);
+
+        // Con el grafo ya cargado solo se consulta el stock
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        recetaService.disponibilidadMenu();
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        recetaService.agregarInsumoAReceta(limonada, limon.getIdInsumo(), new BigDecimal("3"));
+        assertThat(recetaService.disponibilidadMenu()).containsEntry(limonada, true);
+        assertThat(recetaService.verificarDisponibilidad(pulpoOlivo, 4)).containsEntry("disponible", false);
+    }
+
+    @Test
+    void porcionesDisponiblesSeActualizanConCadaMovimientoDeStock() {
+        Insumo conchas = insumo("Conchas negras", "24", "6");
+        Insumo limon = insumo("Limón", "50", "10");
+        Long conchasNegras = producto("Ceviche de conchas negras");
+        Long leche = producto("Leche de tigre");
+
+        recetaService.asignarReceta(conchasNegras, List.of(
+            new SolicitudReceta.Item(conchas.getIdInsumo(), new BigDecimal("12")),
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("8"))));
+        recetaService.asignarReceta(leche, List.of(
+            new SolicitudReceta.Item(limon.getIdInsumo(), new BigDecimal("6"))));
+
+        assertThat(recetaService.porcionesDisponibles())
+            .containsEntry(conchasNegras, 2L)  // min(24/12, 50/8)
+            .containsEntry(leche, 8L);         // 50/6
+
+        recetaService.descontarInsumosPorProducto(leche, 3);  // limón 50 → 32
+        insumoService.aumentarStock(conchas.getIdInsumo(), new BigDecimal("36"));  // 60
+
+        // Los eventos ya actualizaron la proyección: la consulta no toca la BD
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        Map<Long, Long> porciones = recetaService.porcionesDisponibles();
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        assertThat(porciones)
+            .containsEntry(conchasNegras, 4L)  // min(60/12, 32/8)
+            .containsEntry(leche, 5L);         // 32/6
+    }
+
+    private Insumo insumo(String nombre, String stock, String minimo) {
+        Insumo insumo = new Insumo();
+        insumo.setNombreInsumo(nombre + " " + System.nanoTime());
+        insumo.setStockActual(new BigDecimal(stock));
+        insumo.setStockMinimo(new BigDecimal(minimo));
+        return insumoRepository.save(insumo);
+    }
+
+    private Long producto(String nombre) {
+        Producto producto = new Producto();
+        producto.setNombreProducto(nombre);
+        producto.setPrecioProducto(new BigDecimal("25.00"));
+        return productoRepository.save(producto).getIdProducto();
+    }
+
+    private BigDecimal stock(Insumo insumo) {
+        return insumoRepository.findById(insumo.getIdInsumo()).orElseThrow().getStockActual();
+    }
+}
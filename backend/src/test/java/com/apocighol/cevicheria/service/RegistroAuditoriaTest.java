@@ -0,0 +1,108 @@
+package com.apocighol.cevicheria.service;
+
+import com.apocighol.cevicheria.event.AuditoriaEvento;
+import com.apocighol.cevicheria.model.EventoAuditoria;
+import com.apocighol.cevicheria.model.Mesa;
+import com.apocighol.cevicheria.repository.EventoAuditoriaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Auditoría fuera de pedidos (mesa eliminada) y lotes que la BD rechaza:
+ * se reintentan en el siguiente volcado en vez de perderse de la tabla.
+ */
+@SpringBootTest(properties = "auditoria.max-reintentos=2")
+@ActiveProfiles("test")
+class RegistroAuditoriaTest {
+
+    @Autowired
+    private RegistroAuditoria registroAuditoria;
+
+    @Autowired
+    private MesaService mesaService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private EventoAuditoriaRepository eventoAuditoriaRepository;
+
+    @Test
+    void eliminarMesaQuedaEnAuditoria() {
+        Mesa mesa = new Mesa();
+        mesa.setNumeroMesa(901);
+        Long id = mesaService.crearMesa(mesa).getIdMesa();
+
+        mesaService.eliminarMesa(id);
+        registroAuditoria.volcar();
+
+        List<EventoAuditoria> historial = registroAuditoria.historial("mesa", id);
+        assertThat(historial).hasSize(1);
+        assertThat(historial.get(0).getTipo()).isEqualTo("ELIMINADO");
+        assertThat(historial.get(0).getReferencia()).isEqualTo("Mesa 901");
+    }
+
+    @Test
+    void loteRechazadoSeReintentaYSoloSeDescartaElEventoInvalido() {
+        // BD caída en el primer volcado: el lote espera al siguiente
+        AtomicInteger intentos = new AtomicInteger();
+        doThrow(new DataAccessResourceFailureException("BD caída"))
+            .when(eventoAuditoriaRepository).saveAll(argThat(lote -> contiene(lote, "CAIDA") && intentos.getAndIncrement() == 0));
+        publicar("CAIDA", 1L);
+        registroAuditoria.volcar();
+        assertThat(registroAuditoria.historial("CAIDA", 1L)).isEmpty();
+
+        registroAuditoria.volcar();
+        assertThat(registroAuditoria.historial("CAIDA", 1L)).hasSize(1);
+
+        // Un evento que la BD nunca acepta: tras los reintentos se guarda el resto del lote
+        doThrow(new DataAccessResourceFailureException("fila inválida"))
+            .when(eventoAuditoriaRepository).saveAll(argThat(lote -> contiene(lote, "INVALIDO")));
+        publicar("VALIDO", 2L);
+        publicar("INVALIDO", 3L);
+        publicar("VALIDO", 4L);
+        registroAuditoria.volcar();
+        registroAuditoria.volcar();
+        assertThat(registroAuditoria.historial("VALIDO", 2L)).isEmpty();
+
+        registroAuditoria.volcar();
+        assertThat(registroAuditoria.historial("VALIDO", 2L)).hasSize(1);
+        assertThat(registroAuditoria.historial("VALIDO", 4L)).hasSize(1);
+        assertThat(registroAuditoria.historial("INVALIDO", 3L)).isEmpty();
+
+        // La cola sigue fluyendo
+        publicar("VALIDO", 5L);
+        registroAuditoria.volcar();
+        assertThat(registroAuditoria.historial("VALIDO", 5L)).hasSize(1);
+    }
+
+    private void publicar(String entidad, Long id) {
+        transactionTemplate.executeWithoutResult(estado -> eventPublisher.publishEvent(
+            new AuditoriaEvento(AuditoriaEvento.Tipo.ELIMINADO, entidad, id, null, "test", null)));
+    }
+
+    private static boolean contiene(Iterable<EventoAuditoria> lote, String entidad) {
+        for (EventoAuditoria registro : lote) {
+            if (entidad.equals(registro.getEntidad())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -255,3 +255,106 @@ ALTER TABLE mesas ADD COLUMN motivo_liberacion VARCHAR(200) NULL;
 
 
 
+
+
+-- 17/10/2026
+-- Pedidos y detalle_pedidos pasan de AUTO_INCREMENT a secuencia (pooled-lo, bloques de 50)
+-- para poder insertar cabecera + detalles en batch. En MySQL Hibernate emula la
+-- secuencia con una tabla de una fila; hay que arrancarla después del último ID usado.
+use cevicheria_db;
+
+CREATE TABLE IF NOT EXISTS pedidos_seq (next_val BIGINT);
+DELETE FROM pedidos_seq;
+INSERT INTO pedidos_seq (next_val) SELECT COALESCE(MAX(id_pedido), 0) + 1 FROM pedidos;
+
+CREATE TABLE IF NOT EXISTS detalle_pedidos_seq (next_val BIGINT);
+DELETE FROM detalle_pedidos_seq;
+INSERT INTO detalle_pedidos_seq (next_val) SELECT COALESCE(MAX(id_detalle), 0) + 1 FROM detalle_pedidos;
+
+-- 17/10/2026
+-- estado_pedido pasa a ser un enum en Java (EstadoPedido). Se guarda siempre en MAYÚSCULAS
+-- para que las consultas IN (...) usen el índice sin UPPER(); normalizar filas antiguas.
+use cevicheria_db;
+
+UPDATE pedidos SET estado_pedido = UPPER(TRIM(estado_pedido));
+UPDATE pedidos SET estado_pedido = 'PENDIENTE' WHERE estado_pedido IS NULL;
+
+ALTER TABLE pedidos MODIFY estado_pedido VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE';
+CREATE INDEX idx_estado_pedido ON pedidos (estado_pedido);
+CREATE INDEX idx_mesa_estado_pedido ON pedidos (numero_mesa, estado_pedido);
+
+-- 17/10/2026
+-- Una sola caja abierta garantizada por la BD: marca_abierta = 1 mientras está ABIERTA,
+-- NULL al cerrar (UNIQUE admite muchos NULL). version = bloqueo optimista de la fila.
+-- Si hubiera varias ABIERTA de antes, solo la más reciente queda marcada;
+-- las demás se cierran con su fecha de apertura y una observación.
+use cevicheria_db;
+
+ALTER TABLE cajas ADD COLUMN marca_abierta BOOLEAN NULL;
+ALTER TABLE cajas ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE cajas SET marca_abierta = 1
+WHERE id_caja = (SELECT id FROM (SELECT MAX(id_caja) AS id FROM cajas WHERE estado_caja = 'ABIERTA') ultima);
+
+UPDATE cajas SET estado_caja = 'CERRADA',
+    fecha_cierre = COALESCE(fecha_cierre, fecha_apertura),
+    hora_cierre = COALESCE(hora_cierre, hora_apertura),
+    observaciones = CONCAT_WS(' ', observaciones, '[Cerrada por migración: había otra caja abierta más reciente]')
+WHERE estado_caja = 'ABIERTA' AND marca_abierta IS NULL;
+
+ALTER TABLE cajas ADD CONSTRAINT uk_caja_abierta UNIQUE (marca_abierta);
+
+-- 18/10/2026
+-- Paginación keyset de los listados (GET /api/pedidos, /api/caja/historial, /api/compras,
+-- /api/insumos): cada página es un rango sobre el mismo orden del listado, sin OFFSET.
+use cevicheria_db;
+
+CREATE INDEX idx_pedidos_fecha_hora ON pedidos (fecha_pedido, hora_pedido, id_pedido);
+CREATE INDEX idx_cajas_estado_fecha_hora ON cajas (estado_caja, fecha_apertura, hora_apertura, id_caja);
+CREATE INDEX idx_compras_fecha_hora ON compras (fecha_compra, hora_compra, id_compra);
+CREATE INDEX idx_insumos_nombre ON insumos (nombre_insumo, id_insumo);
+
+-- 18/10/2026
+-- Códigos legibles y sin choques: PED-20261018-0042, CAJA-..., COMP-...
+-- Una fila por prefijo y día con el último número reservado; el backend
+-- la avanza de a bloques (codigos.tamano-bloque) y reparte desde memoria.
+use cevicheria_db;
+
+CREATE TABLE IF NOT EXISTS secuencias_codigo (
+    clave VARCHAR(30) NOT NULL PRIMARY KEY,
+    ultimo BIGINT NOT NULL
+);
+
+-- 18/10/2026
+-- Códigos de producto PROD-001... desde secuencias_codigo (fila 'PROD', sin día).
+-- Se siembra con el mayor código existente para no recorrer productos al crear.
+use cevicheria_db;
+
+INSERT INTO secuencias_codigo (clave, ultimo)
+SELECT 'PROD', COALESCE(MAX(CAST(SUBSTRING(codigo_producto, 6) AS UNSIGNED)), 0)
+FROM productos WHERE codigo_producto LIKE 'PROD-%'
+ON DUPLICATE KEY UPDATE ultimo = GREATEST(ultimo, VALUES(ultimo));
+
+-- 18/10/2026
+-- Auditoría append-only (RegistroAuditoria): una fila por evento, insertada en lotes.
+-- El id sale de una secuencia (bloques de 50) para poder insertar en batch; en MySQL
+-- Hibernate la emula con la tabla auditoria_seq.
+use cevicheria_db;
+
+CREATE TABLE IF NOT EXISTS auditoria (
+    id_evento BIGINT NOT NULL PRIMARY KEY,
+    fecha_hora DATETIME(6) NOT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    entidad VARCHAR(30) NOT NULL,
+    id_entidad BIGINT NULL,
+    referencia VARCHAR(60) NULL,
+    usuario VARCHAR(100) NULL,
+    detalle VARCHAR(500) NULL,
+    INDEX idx_auditoria_entidad (entidad, id_entidad),
+    INDEX idx_auditoria_tipo_fecha (tipo, fecha_hora)
+);
+
+CREATE TABLE IF NOT EXISTS auditoria_seq (next_val BIGINT);
+INSERT INTO auditoria_seq (next_val)
+SELECT COALESCE((SELECT MAX(id_evento) FROM auditoria), 0) + 1
+WHERE NOT EXISTS (SELECT 1 FROM auditoria_seq);
@@ -356,6 +356,38 @@ function obtenerHoraActual() {
     return `${hora}:${min}`;
 }
 
+// 🔥 Una página de un listado paginado del backend; siguienteCursor es null en la última
+async function obtenerPagina(url, limite, cursor = null) {
+    const separador = url.includes('?') ? '&' : '?';
+    let pagina = `${url}${separador}limite=${limite}`;
+    if (cursor) {
+        pagina += `&cursor=${encodeURIComponent(cursor)}`;
+    }
+
+    const response = await fetch(pagina);
+    if (!response.ok) {
+        throw new Error(`Error ${response.status} al cargar ${url}`);
+    }
+    return {
+        items: await response.json(),
+        siguienteCursor: response.headers.get('X-Siguiente-Cursor')
+    };
+}
+
+// 🔥 Sigue la cabecera X-Siguiente-Cursor hasta la última página y devuelve todo junto.
+// Solo para catálogos cortos (selects); los listados usan obtenerPagina + "Cargar más"
+async function obtenerTodasLasPaginas(url, limite = 200) {
+    const items = [];
+    let cursor = null;
+
+    do {
+        const pagina = await obtenerPagina(url, limite, cursor);
+        items.push(...pagina.items);
+        cursor = pagina.siguienteCursor;
+    } while (cursor);
+    return items;
+}
+
 // ==========================================
 // 8. INICIALIZACIÓN DE DATOS POR DEFECTO
 // ==========================================
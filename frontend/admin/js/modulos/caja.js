@@ -260,7 +260,8 @@
     
     async function cargarHistorial() {
         try {
-            const response = await fetch(`${API_URL}/caja/historial`);
+            // Solo se muestran las 10 más recientes
+            const response = await fetch(`${API_URL}/caja/historial?limite=10`);
             if (response.ok) {
                 historialData = await response.json();
                 console.log('📊 Historial cargado:', historialData.length, 'cajas');
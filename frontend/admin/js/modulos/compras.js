@@ -9,8 +9,11 @@
     // ==========================================
     
     const API_URL = 'http://localhost:8085/api';
+    const COMPRAS_POR_PAGINA = 20;
     let proveedoresData = [];
     let comprasData = [];
+    let cursorCompras = null;
+    let comprasDelPeriodo = null;  // null = sin filtro de fechas
     let insumosData = [];
     let tabActualCompras = 'proveedores';
     
@@ -24,7 +27,6 @@
         
         await cargarProveedores();
         await cargarCompras();
-        await cargarInsumos();
         
         renderizarProveedores();
         renderizarHistorialCompras();
@@ -55,29 +57,37 @@
     
     async function cargarCompras() {
         try {
-            const response = await fetch(`${API_URL}/compras`);
-            
-            if (response.ok) {
-                comprasData = await response.json();
-                console.log(`📊 ${comprasData.length} compras cargadas desde BD`);
-            } else {
-                console.error('❌ Error al cargar compras');
-                comprasData = [];
-            }
+            // Solo la primera página; el resto con "Cargar más"
+            const pagina = await obtenerPagina(`${API_URL}/compras`, COMPRAS_POR_PAGINA);
+            comprasData = pagina.items;
+            cursorCompras = pagina.siguienteCursor;
+            console.log(`📊 ${comprasData.length} compras cargadas desde BD`);
         } catch (error) {
             console.error('❌ Error de conexión:', error);
             comprasData = [];
+            cursorCompras = null;
+        }
+    }
+    
+    async function cargarMasCompras() {
+        if (!cursorCompras) return;
+        
+        try {
+            const pagina = await obtenerPagina(`${API_URL}/compras`, COMPRAS_POR_PAGINA, cursorCompras);
+            comprasData.push(...pagina.items);
+            cursorCompras = pagina.siguienteCursor;
+            renderizarHistorialCompras();
+        } catch (error) {
+            console.error('❌ Error de conexión:', error);
+            mostrarNotificacion('Error al cargar más compras', 'error');
         }
     }
     
     async function cargarInsumos() {
         try {
-            const response = await fetch(`${API_URL}/insumos`);
-            
-            if (response.ok) {
-                insumosData = await response.json();
-                console.log(`📊 ${insumosData.length} insumos disponibles`);
-            }
+            // Catálogo para el select y los nombres del detalle: solo los campos que se usan
+            insumosData = await obtenerTodasLasPaginas(`${API_URL}/insumos?campos=idInsumo,nombreInsumo,unidadMedida`);
+            console.log(`📊 ${insumosData.length} insumos disponibles`);
         } catch (error) {
             console.error('❌ Error al cargar insumos:', error);
             insumosData = [];
@@ -578,21 +588,8 @@
             return;
         }
         
-        // Filtrar por fechas si existen los inputs
-        let comprasFiltradas = [...comprasData];
-        
-        const inputDesde = document.getElementById('fecha-desde-compras');
-        const inputHasta = document.getElementById('fecha-hasta-compras');
-        
-        if (inputDesde && inputDesde.value && inputHasta && inputHasta.value) {
-            const fechaDesde = new Date(inputDesde.value + 'T00:00:00');
-            const fechaHasta = new Date(inputHasta.value + 'T23:59:59');
-            
-            comprasFiltradas = comprasFiltradas.filter(compra => {
-                const fechaCompra = new Date(compra.fechaCompra + 'T00:00:00');
-                return fechaCompra >= fechaDesde && fechaCompra <= fechaHasta;
-            });
-        }
+        // Con filtro de fechas se muestra lo que devolvió el backend para ese período
+        const comprasFiltradas = comprasDelPeriodo || comprasData;
         
         if (comprasFiltradas.length === 0) {
             contenedor.innerHTML = `
@@ -607,6 +604,13 @@
             <div class="lista-compras">
                 ${comprasFiltradas.map(compra => crearTarjetaCompra(compra)).join('')}
             </div>
+            ${!comprasDelPeriodo && cursorCompras ? `
+                <div style="text-align: center; margin-top: 15px;">
+                    <button class="btn btn-secundario" onclick="cargarMasCompras()">
+                        <i class="fas fa-chevron-down"></i> Cargar más
+                    </button>
+                </div>
+            ` : ''}
         `;
     }
     
@@ -652,6 +656,9 @@
             }
             
             const compra = await response.json();
+            if (insumosData.length === 0) {
+                await cargarInsumos();
+            }
             const proveedor = proveedoresData.find(p => p.idProveedor === compra.idProveedor);
             
             let contenido = `
@@ -705,7 +712,26 @@
         }
     }
     
-    function filtrarCompras() {
+    async function filtrarCompras() {
+        const desde = document.getElementById('fecha-desde-compras')?.value;
+        const hasta = document.getElementById('fecha-hasta-compras')?.value;
+        
+        comprasDelPeriodo = null;
+        if (desde && hasta) {
+            try {
+                const response = await fetch(`${API_URL}/compras/fecha?inicio=${desde}&fin=${hasta}`);
+                if (!response.ok) {
+                    mostrarNotificacion('Error al filtrar compras', 'error');
+                    return;
+                }
+                comprasDelPeriodo = await response.json();
+            } catch (error) {
+                console.error('❌ Error de conexión:', error);
+                mostrarNotificacion('Error de conexión', 'error');
+                return;
+            }
+        }
+        
         renderizarHistorialCompras();
         mostrarNotificacion('Filtro aplicado', 'exito');
     }
@@ -724,6 +750,7 @@
     window.calcularTotalCompra = calcularTotalCompra;
     window.verDetalleCompra = verDetalleCompra;
     window.filtrarCompras = filtrarCompras;
+    window.cargarMasCompras = cargarMasCompras;
     
     // ==========================================
     // EXPORTAR API PÚBLICA DEL MÓDULO
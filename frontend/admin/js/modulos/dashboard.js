@@ -13,83 +13,66 @@
     async function inicializar() {
         console.log('📊 Inicializando Dashboard...');
         
-        await cargarEstadisticas();
-        await cargarMesasOcupadas();
-        await cargarPedidosActivos();
+        await cargarSnapshot();
         
-        // Actualizar cada 30 segundos
-        setInterval(async () => {
-            await cargarEstadisticas();
-            await cargarMesasOcupadas();
-            await cargarPedidosActivos();
-        }, 30000);
+        // Actualizar cada 30 segundos (304 si nada cambió)
+        setInterval(cargarSnapshot, 30000);
         
         console.log('✅ Dashboard inicializado');
     }
     
     // ==========================================
-    // 🔥 CARGAR ESTADÍSTICAS DESDE API
+    // 🔥 SNAPSHOT ÚNICO (ETag / 304)
     // ==========================================
     
-    async function cargarEstadisticas() {
+    let ultimaVersion = null;
+    
+    /**
+     * Una sola llamada para todo el dashboard.
+     * cache: 'no-cache' hace que el navegador revalide con If-None-Match:
+     * si el servidor responde 304 se reutiliza el cuerpo guardado
+     * y, como la versión es la misma, no se vuelve a pintar nada.
+     */
+    async function cargarSnapshot() {
         try {
-            // 1. Obtener ventas de caja
-            let ventasHoy = 0;
-            try {
-                const cajaResponse = await fetch(`${API_URL}/caja/estadisticas`);
-                if (cajaResponse.ok) {
-                    const cajaData = await cajaResponse.json();
-                    ventasHoy = parseFloat(cajaData.ventasHoy || cajaData.totalVentas || 0);
-                }
-            } catch (e) {
-                console.error('Error cargando caja:', e);
-            }
-            
-            // 2. Obtener mesas ocupadas
-            let mesasOcupadas = 0;
-            let totalMesas = 15;
-            try {
-                const mesasResponse = await fetch(`${API_URL}/mesas`);
-                if (mesasResponse.ok) {
-                    const mesas = await mesasResponse.json();
-                    totalMesas = mesas.length;
-                    mesasOcupadas = mesas.filter(m => 
-                        (m.estadoMesa || m.estado) === 'ocupada'
-                    ).length;
-                }
-            } catch (e) {
-                console.error('Error cargando mesas:', e);
-            }
-            
-            // 3. Obtener pedidos activos
-            let pedidosActivos = 0;
-            try {
-                const pedidosResponse = await fetch(`${API_URL}/pedidos/hoy`);
-                if (pedidosResponse.ok) {
-                    const pedidos = await pedidosResponse.json();
-                    pedidosActivos = pedidos.length;
-                }
-            } catch (e) {
-                console.error('Error cargando pedidos:', e);
-            }
-            
-            // 4. Calcular ticket promedio
-            let ticketPromedio = 0;
-            if (pedidosActivos > 0 && ventasHoy > 0) {
-                ticketPromedio = ventasHoy / pedidosActivos;
-            }
+            const response = await fetch(`${API_URL}/dashboard/snapshot`, { cache: 'no-cache' });
+            if (!response.ok) return;
             
-            // Actualizar UI
-            actualizarTarjeta('ventas-hoy', `S/. ${ventasHoy.toFixed(2)}`);
-            actualizarTarjeta('mesas-ocupadas', `${mesasOcupadas}/${totalMesas}`);
-            actualizarTarjeta('pedidos-activos', pedidosActivos);
-            actualizarTarjeta('ticket-promedio', `S/. ${ticketPromedio.toFixed(2)}`);
+            const snapshot = await response.json();
+            if (snapshot.version === ultimaVersion) return;
+            ultimaVersion = snapshot.version;
             
+            renderizarEstadisticas(snapshot);
+            renderizarMesasOcupadas(snapshot.listaMesasOcupadas || []);
+            renderizarPedidosActivos(snapshot.ultimosPedidos || []);
         } catch (error) {
-            console.error('❌ Error cargando estadísticas:', error);
+            console.error('❌ Error cargando dashboard:', error);
         }
     }
     
+    // ==========================================
+    // 🔥 TARJETAS DE ESTADÍSTICAS
+    // ==========================================
+    
+    function renderizarEstadisticas(snapshot) {
+        const ventasHoy = parseFloat(snapshot.ventasHoy || 0);
+        const mesasOcupadas = snapshot.mesasOcupadas || 0;
+        const totalMesas = snapshot.totalMesas || 0;
+        const pedidosHoy = snapshot.pedidosHoy || 0;
+        
+        // Calcular ticket promedio
+        let ticketPromedio = 0;
+        if (pedidosHoy > 0 && ventasHoy > 0) {
+            ticketPromedio = ventasHoy / pedidosHoy;
+        }
+        
+        // Actualizar UI
+        actualizarTarjeta('ventas-hoy', `S/. ${ventasHoy.toFixed(2)}`);
+        actualizarTarjeta('mesas-ocupadas', `${mesasOcupadas}/${totalMesas}`);
+        actualizarTarjeta('pedidos-activos', pedidosHoy);
+        actualizarTarjeta('ticket-promedio', `S/. ${ticketPromedio.toFixed(2)}`);
+    }
+    
     function actualizarTarjeta(id, valor) {
         const elemento = document.getElementById(id);
         if (elemento) {
@@ -98,51 +81,40 @@
     }
     
     // ==========================================
-    // CARGAR MESAS OCUPADAS
+    // MESAS OCUPADAS
     // ==========================================
     
-    async function cargarMesasOcupadas() {
+    function renderizarMesasOcupadas(ocupadas) {
         const contenedor = document.getElementById('lista-mesas-ocupadas');
         if (!contenedor) return;
         
-        try {
-            const response = await fetch(`${API_URL}/mesas`);
-            if (response.ok) {
-                const mesas = await response.json();
-                const ocupadas = mesas.filter(m => (m.estadoMesa || m.estado) === 'ocupada');
-                
-                if (ocupadas.length === 0) {
-                    contenedor.innerHTML = '<p class="sin-datos">No hay mesas ocupadas</p>';
-                    return;
-                }
-                
-                contenedor.innerHTML = ocupadas.map(mesa => {
-                    const numero = mesa.numeroMesa || mesa.numero;
-                    const mesero = mesa.mesero || 'Sin asignar';
-                    const personas = mesa.cantidadPersonas || 0;
-                    const total = parseFloat(mesa.totalConsumoMesa || mesa.totalGastado || 0);
-                    const tiempo = calcularTiempo(mesa.horaInicio);
-                    
-                    return `
-                        <div class="item-mesa-ocupada">
-                            <div class="mesa-info">
-                                <i class="fas fa-utensils"></i>
-                                <strong>Mesa ${numero}</strong>
-                            </div>
-                            <div class="mesa-detalles">
-                                <span><i class="fas fa-user"></i> ${mesero}</span>
-                                <span><i class="fas fa-users"></i> ${personas} personas</span>
-                                <span><i class="fas fa-clock"></i> ${tiempo}</span>
-                            </div>
-                            <div class="mesa-total">S/. ${total.toFixed(2)}</div>
-                        </div>
-                    `;
-                }).join('');
-            }
-        } catch (error) {
-            console.error('Error cargando mesas:', error);
-            contenedor.innerHTML = '<p class="sin-datos">Error al cargar mesas</p>';
+        if (ocupadas.length === 0) {
+            contenedor.innerHTML = '<p class="sin-datos">No hay mesas ocupadas</p>';
+            return;
         }
+        
+        contenedor.innerHTML = ocupadas.map(mesa => {
+            const numero = mesa.numeroMesa;
+            const mesero = mesa.mesero || 'Sin asignar';
+            const personas = mesa.personas || 0;
+            const total = parseFloat(mesa.totalConsumo || 0);
+            const tiempo = calcularTiempo(mesa.horaOcupacion);
+            
+            return `
+                <div class="item-mesa-ocupada">
+                    <div class="mesa-info">
+                        <i class="fas fa-utensils"></i>
+                        <strong>Mesa ${numero}</strong>
+                    </div>
+                    <div class="mesa-detalles">
+                        <span><i class="fas fa-user"></i> ${mesero}</span>
+                        <span><i class="fas fa-users"></i> ${personas} personas</span>
+                        <span><i class="fas fa-clock"></i> ${tiempo}</span>
+                    </div>
+                    <div class="mesa-total">S/. ${total.toFixed(2)}</div>
+                </div>
+            `;
+        }).join('');
     }
     
     function calcularTiempo(horaInicio) {
@@ -175,68 +147,49 @@
     }
     
     // ==========================================
-    // CARGAR PEDIDOS ACTIVOS
+    // ÚLTIMOS PEDIDOS DEL DÍA
     // ==========================================
     
-    async function cargarPedidosActivos() {
+    function renderizarPedidosActivos(ultimos) {
         const contenedor = document.getElementById('lista-pedidos-activos');
         if (!contenedor) return;
         
-        try {
-            const response = await fetch(`${API_URL}/pedidos/hoy`);
-            if (response.ok) {
-                const pedidos = await response.json();
-                
-                // Ordenar por hora más reciente
-                pedidos.sort((a, b) => {
-                    const horaA = a.horaPedido || '00:00';
-                    const horaB = b.horaPedido || '00:00';
-                    return horaB.localeCompare(horaA);
-                });
-                
-                // Mostrar últimos 10
-                const ultimos = pedidos.slice(0, 10);
-                
-                if (ultimos.length === 0) {
-                    contenedor.innerHTML = '<p class="sin-datos">No hay pedidos hoy</p>';
-                    return;
-                }
-                
-                contenedor.innerHTML = ultimos.map(pedido => {
-                    const estado = pedido.estadoPedido || 'PENDIENTE';
-                    const mesa = pedido.numeroMesa || 'N/A';
-                    const mesero = pedido.mesero || 'Sin asignar';
-                    const total = parseFloat(pedido.totalPedido || 0);
-                    const hora = pedido.horaPedido ? pedido.horaPedido.substring(0, 5) : '--:--';
-                    
-                    let claseEstado = 'badge-secundario';
-                    if (estado === 'PENDIENTE') claseEstado = 'badge-warning';
-                    else if (estado === 'PREPARANDO') claseEstado = 'badge-info';
-                    else if (estado === 'SERVIDO' || estado === 'ENTREGADO') claseEstado = 'badge-success';
-                    else if (estado === 'PAGADO' || estado === 'COBRADO') claseEstado = 'badge-primary';
-                    else if (estado === 'CANCELADO') claseEstado = 'badge-danger';
-                    
-                    return `
-                        <div class="item-pedido-activo">
-                            <div class="pedido-codigo">
-                                <i class="fas fa-receipt"></i>
-                                <span>${pedido.codigoPedido || 'PED-???'}</span>
-                                <span class="badge ${claseEstado}">${estado}</span>
-                            </div>
-                            <div class="pedido-detalles">
-                                <span><i class="fas fa-utensils"></i> Mesa ${mesa}</span>
-                                <span><i class="fas fa-user"></i> ${mesero}</span>
-                                <span><i class="fas fa-clock"></i> ${hora}</span>
-                            </div>
-                            <div class="pedido-total">S/. ${total.toFixed(2)}</div>
-                        </div>
-                    `;
-                }).join('');
-            }
-        } catch (error) {
-            console.error('Error cargando pedidos:', error);
-            contenedor.innerHTML = '<p class="sin-datos">Error al cargar pedidos</p>';
+        // Ya vienen ordenados por hora (más reciente primero) y limitados a 10
+        if (ultimos.length === 0) {
+            contenedor.innerHTML = '<p class="sin-datos">No hay pedidos hoy</p>';
+            return;
         }
+        
+        contenedor.innerHTML = ultimos.map(pedido => {
+            const estado = pedido.estadoPedido || 'PENDIENTE';
+            const mesa = pedido.numeroMesa || 'N/A';
+            const mesero = pedido.mesero || 'Sin asignar';
+            const total = parseFloat(pedido.totalPedido || 0);
+            const hora = pedido.horaPedido ? pedido.horaPedido.substring(0, 5) : '--:--';
+            
+            let claseEstado = 'badge-secundario';
+            if (estado === 'PENDIENTE') claseEstado = 'badge-warning';
+            else if (estado === 'PREPARANDO') claseEstado = 'badge-info';
+            else if (estado === 'SERVIDO' || estado === 'ENTREGADO') claseEstado = 'badge-success';
+            else if (estado === 'PAGADO' || estado === 'COBRADO') claseEstado = 'badge-primary';
+            else if (estado === 'CANCELADO') claseEstado = 'badge-danger';
+            
+            return `
+                <div class="item-pedido-activo">
+                    <div class="pedido-codigo">
+                        <i class="fas fa-receipt"></i>
+                        <span>${pedido.codigoPedido || 'PED-???'}</span>
+                        <span class="badge ${claseEstado}">${estado}</span>
+                    </div>
+                    <div class="pedido-detalles">
+                        <span><i class="fas fa-utensils"></i> Mesa ${mesa}</span>
+                        <span><i class="fas fa-user"></i> ${mesero}</span>
+                        <span><i class="fas fa-clock"></i> ${hora}</span>
+                    </div>
+                    <div class="pedido-total">S/. ${total.toFixed(2)}</div>
+                </div>
+            `;
+        }).join('');
     }
     
     // ==========================================
@@ -245,12 +198,10 @@
     
     window.Dashboard = {
         inicializar: inicializar,
-        cargarEstadisticas: cargarEstadisticas,
-        cargarMesasOcupadas: cargarMesasOcupadas,
-        cargarPedidosActivos: cargarPedidosActivos
+        cargarSnapshot: cargarSnapshot
     };
     
-    console.log('✅ Módulo Dashboard cargado - API REST');
+    console.log('✅ Módulo Dashboard cargado - API REST (snapshot + ETag)');
 })();
 
 // Estilos
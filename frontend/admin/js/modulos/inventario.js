@@ -9,7 +9,11 @@
     // ==========================================
     
     const API_URL = 'http://localhost:8085/api';
+    const INSUMOS_POR_PAGINA = 50;
     let insumosData = [];
+    let cursorInsumos = null;
+    let insumosStockBajo = [];
+    let catalogoInsumos = null;  // id/nombre/unidad de todos, para recetas (se carga al usarlo)
     let productosData = [];
     let tabActualInventario = 'insumos';
     let filtroActualInsumos = 'todos';
@@ -24,8 +28,8 @@
         await cargarInsumos();
         await cargarProductos();
         
+        // La pestaña de recetas se arma al abrirla
         renderizarInsumos();
-        renderizarRecetas();
         
         console.log('✅ Módulo Inventario inicializado');
     }
@@ -35,18 +39,65 @@
     // ==========================================
     
     async function cargarInsumos() {
+        catalogoInsumos = null;
         try {
-            const response = await fetch(`${API_URL}/insumos`);
-            if (response.ok) {
-                insumosData = await response.json();
-                console.log(`📊 ${insumosData.length} insumos cargados`);
-            }
+            // Solo la primera página; el resto con "Cargar más"
+            const pagina = await obtenerPagina(`${API_URL}/insumos`, INSUMOS_POR_PAGINA);
+            insumosData = pagina.items;
+            cursorInsumos = pagina.siguienteCursor;
+            console.log(`📊 ${insumosData.length} insumos cargados`);
         } catch (error) {
             console.error('❌ Error:', error);
             insumosData = [];
+            cursorInsumos = null;
+        }
+        
+        if (filtroActualInsumos === 'stock-bajo') {
+            await cargarStockBajo();
+        }
+    }
+    
+    async function cargarMasInsumos() {
+        if (!cursorInsumos) return;
+        
+        try {
+            const pagina = await obtenerPagina(`${API_URL}/insumos`, INSUMOS_POR_PAGINA, cursorInsumos);
+            insumosData.push(...pagina.items);
+            cursorInsumos = pagina.siguienteCursor;
+            renderizarInsumos();
+        } catch (error) {
+            console.error('❌ Error:', error);
+            mostrarNotificacion('Error al cargar más insumos', 'error');
         }
     }
     
+    async function cargarStockBajo() {
+        try {
+            const response = await fetch(`${API_URL}/insumos/stock-bajo`);
+            insumosStockBajo = response.ok ? await response.json() : [];
+        } catch (error) {
+            console.error('❌ Error:', error);
+            insumosStockBajo = [];
+        }
+    }
+    
+    async function cargarCatalogoInsumos() {
+        if (catalogoInsumos) return;
+        
+        try {
+            catalogoInsumos = await obtenerTodasLasPaginas(`${API_URL}/insumos?campos=idInsumo,nombreInsumo,unidadMedida`);
+        } catch (error) {
+            console.error('❌ Error:', error);
+            catalogoInsumos = [];
+        }
+    }
+    
+    // Insumo de las tarjetas visibles (página cargada o filtro de stock bajo)
+    function buscarInsumo(idInsumo) {
+        return insumosData.find(i => i.idInsumo === idInsumo)
+            || insumosStockBajo.find(i => i.idInsumo === idInsumo);
+    }
+    
     async function cargarProductos() {
         try {
             const response = await fetch(`${API_URL}/productos`);
@@ -100,13 +151,8 @@
         const contenedor = document.getElementById('lista-insumos');
         if (!contenedor) return;
         
-        let insumosFiltrados = insumosData;
-        
-        if (filtroActualInsumos === 'stock-bajo') {
-            insumosFiltrados = insumosData.filter(i => 
-                parseFloat(i.stockActual) <= parseFloat(i.stockMinimo)
-            );
-        }
+        const stockBajo = filtroActualInsumos === 'stock-bajo';
+        const insumosFiltrados = stockBajo ? insumosStockBajo : insumosData;
         
         if (insumosFiltrados.length === 0) { 
             contenedor.innerHTML = `
@@ -124,6 +170,13 @@
             <div class="grid-insumos">
                 ${insumosFiltrados.map(insumo => crearTarjetaInsumo(insumo)).join('')}
             </div>
+            ${!stockBajo && cursorInsumos ? `
+                <div style="text-align: center; margin-top: 15px;">
+                    <button class="btn btn-secundario" onclick="cargarMasInsumos()">
+                        <i class="fas fa-chevron-down"></i> Cargar más
+                    </button>
+                </div>
+            ` : ''}
         `;
     }
     
@@ -262,7 +315,7 @@
     }
     
     function editarInsumo(idInsumo) {
-        const insumo = insumosData.find(i => i.idInsumo === idInsumo);
+        const insumo = buscarInsumo(idInsumo);
         if (!insumo) return;
         
         let contenido = `
@@ -321,7 +374,7 @@
     }
     
     async function eliminarInsumo(idInsumo) {
-        const insumo = insumosData.find(i => i.idInsumo === idInsumo);
+        const insumo = buscarInsumo(idInsumo);
         if (!insumo) return;
         
         if (!confirmar(`¿Eliminar el insumo "${insumo.nombreInsumo}"?`)) return;
@@ -344,7 +397,7 @@
     // ==========================================
     
     function ajustarStockModal(idInsumo) {
-        const insumo = insumosData.find(i => i.idInsumo === idInsumo);
+        const insumo = buscarInsumo(idInsumo);
         if (!insumo) return;
         
         let contenido = `
@@ -414,8 +467,11 @@
         document.getElementById('modal-btn-confirmar').style.display = 'inline-flex';
     }
     
-    function filtrarInsumos(filtro) {
+    async function filtrarInsumos(filtro) {
         filtroActualInsumos = filtro;
+        if (filtro === 'stock-bajo') {
+            await cargarStockBajo();
+        }
         renderizarInsumos();
     }
     
@@ -428,6 +484,7 @@
         if (!contenedor) return;
         
         await cargarProductos();
+        await cargarCatalogoInsumos();
         
         if (productosData.length === 0) {
             contenedor.innerHTML = '<div class="mensaje-vacio"><p>No hay productos en el menú</p></div>';
@@ -459,7 +516,7 @@
                             <strong>Insumos:</strong>
                             <ul>
                                 ${receta.map(r => {
-                                    const insumo = insumosData.find(i => i.idInsumo === r.idInsumo);
+                                    const insumo = catalogoInsumos.find(i => i.idInsumo === r.idInsumo);
                                     return `<li>${r.cantidadNecesaria} ${insumo?.unidadMedida || ''} - ${insumo?.nombreInsumo || 'Insumo'}</li>`;
                                 }).join('')}
                             </ul>
@@ -495,6 +552,7 @@
     async function asignarReceta() {
         // Abrir modal para seleccionar producto y asignar receta
         await cargarProductos();
+        await cargarCatalogoInsumos();
         
         if (productosData.length === 0) {
             mostrarNotificacion('No hay productos disponibles', 'error');
@@ -549,6 +607,8 @@
             return;
         }
         
+        await cargarCatalogoInsumos();
+        
         // Cargar receta existente
         let recetaExistente = [];
         try {
@@ -599,7 +659,7 @@
             <div class="fila-insumo-receta" data-index="${index}">
                 <select class="insumo-select">
                     <option value="">-- Selecciona insumo --</option>
-                    ${insumosData.map(i => `
+                    ${catalogoInsumos.map(i => `
                         <option value="${i.idInsumo}" ${recetaItem && recetaItem.idInsumo === i.idInsumo ? 'selected' : ''}>
                             ${i.nombreInsumo} (${i.unidadMedida})
                         </option>
@@ -685,6 +745,7 @@
     window.eliminarInsumo = eliminarInsumo;
     window.ajustarStockModal = ajustarStockModal;
     window.filtrarInsumos = filtrarInsumos;
+    window.cargarMasInsumos = cargarMasInsumos;
     window.asignarReceta = asignarReceta;  // 🔥 NUEVA FUNCIÓN
     window.editarReceta = editarReceta;
     window.agregarFilaInsumoReceta = agregarFilaInsumoReceta;
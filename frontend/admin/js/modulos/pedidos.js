@@ -15,6 +15,7 @@
     const API_PRODUCTOS = 'http://localhost:8085/api/productos';
     const API_MESAS = 'http://localhost:8085/api/mesas';
     const API_PEDIDOS = 'http://localhost:8085/api/pedidos';
+    const API_RECETAS = 'http://localhost:8085/api/recetas';
     
     // ==========================================
     // VARIABLES PRIVADAS
@@ -24,6 +25,7 @@
     let estadoFiltroActual = 'todos';
     let productosAPI = [];
     let mesasAPI = [];
+    let porcionesAPI = null;
     
     // ==========================================
     // INICIALIZACIÓN
@@ -51,6 +53,9 @@
         
         // Renderizar
         renderizarPedidos();
+        
+        // 🔥 COCINA y MESERO reciben cambios por SSE (sin polling)
+        conectarStreamPedidos();
 
         // Ocultar botón "Nuevo Pedido" si es COCINA
         if (rolActual === 'COCINA') {
@@ -149,27 +154,7 @@
             
             const pedidosBackend = await response.json();
             
-            pedidosData = pedidosBackend.map(p => ({
-                id: p.codigoPedido,
-                idBackend: p.idPedido,
-                mesa: p.numeroMesa,
-                mesero: p.nombreMesero || 'Sin asignar',
-                estado: p.estadoPedido || 'pendiente',
-                fecha: p.fechaPedido,
-                hora: p.horaPedido ? p.horaPedido.substring(0, 5) : '--:--',
-                subtotal: parseFloat(p.subtotalPedido) || 0,
-                descuento: parseFloat(p.descuentoPedido) || 0,
-                total: parseFloat(p.totalPedido) || 0,
-                notaEspecial: p.notaPedido || '',
-                productos: (p.productos || []).map(prod => ({
-                    id: prod.idDetalle,
-                    nombre: prod.nombreProducto,
-                    categoria: prod.categoriaProducto || 'Sin categoría', // 🔥 AHORA INCLUYE CATEGORÍA
-                    cantidad: prod.cantidad,
-                    precioUnitario: parseFloat(prod.precioUnitario) || 0,
-                    subtotal: parseFloat(prod.subtotal) || 0
-                }))
-            }));
+            pedidosData = pedidosBackend.map(mapearPedido);
             
             console.log(`✅ ${pedidosData.length} pedidos cargados para ${rolActual}`);
             return pedidosData;
@@ -181,6 +166,92 @@
         }
     }
     
+    function mapearPedido(p) {
+        return {
+            id: p.codigoPedido,
+            idBackend: p.idPedido,
+            mesa: p.numeroMesa,
+            mesero: p.nombreMesero || 'Sin asignar',
+            estado: (p.estadoPedido || 'pendiente').toLowerCase(),
+            fecha: p.fechaPedido,
+            hora: p.horaPedido ? p.horaPedido.substring(0, 5) : '--:--',
+            subtotal: parseFloat(p.subtotalPedido) || 0,
+            descuento: parseFloat(p.descuentoPedido) || 0,
+            total: parseFloat(p.totalPedido) || 0,
+            notaEspecial: p.notaPedido || '',
+            productos: (p.productos || []).map(prod => ({
+                id: prod.idDetalle,
+                nombre: prod.nombreProducto,
+                categoria: prod.categoriaProducto || 'Sin categoría', // 🔥 AHORA INCLUYE CATEGORÍA
+                cantidad: prod.cantidad,
+                precioUnitario: parseFloat(prod.precioUnitario) || 0,
+                subtotal: parseFloat(prod.subtotal) || 0
+            }))
+        };
+    }
+    
+    // ==========================================
+    // 🔥 STREAM EN TIEMPO REAL (COCINA / MESERO)
+    // ==========================================
+    
+    const ESTADOS_ACTIVOS = ['PENDIENTE', 'PREPARANDO', 'LISTO', 'SERVIDO'];
+    let streamPedidos = null;
+    let ultimaSecuencia = 0;
+    
+    /**
+     * Snapshot al conectar + deltas por cada cambio.
+     * EventSource reconecta solo y el servidor vuelve a mandar el snapshot.
+     */
+    function conectarStreamPedidos() {
+        const rolActual = window.sesionActual ? window.sesionActual.rol : '';
+        const nombreUsuario = window.sesionActual ? window.sesionActual.nombre : '';
+        
+        if (streamPedidos) {
+            streamPedidos.close();
+            streamPedidos = null;
+        }
+        if (typeof EventSource === 'undefined') return;
+        
+        let url;
+        if (rolActual === 'COCINA') {
+            url = `${API_PEDIDOS}/stream`;
+        } else if (rolActual === 'MESERO') {
+            url = `${API_PEDIDOS}/stream?mesero=${encodeURIComponent(nombreUsuario)}`;
+        } else {
+            return;
+        }
+        
+        streamPedidos = new EventSource(url);
+        
+        streamPedidos.addEventListener('snapshot', (e) => {
+            ultimaSecuencia = 0;
+            pedidosData = JSON.parse(e.data).map(mapearPedido);
+            renderizarPedidos();
+        });
+        
+        streamPedidos.addEventListener('delta', (e) => {
+            const delta = JSON.parse(e.data);
+            // El servidor ya los manda en orden; un delta viejo nunca revive un pedido cerrado
+            if (delta.secuencia <= ultimaSecuencia) return;
+            ultimaSecuencia = delta.secuencia;
+            const pedido = mapearPedido(delta.pedido);
+            const indice = pedidosData.findIndex(p => p.idBackend === pedido.idBackend);
+            const sigueActivo = delta.tipo !== 'ELIMINADO'
+                && ESTADOS_ACTIVOS.includes(String(pedido.estado).toUpperCase());
+            
+            if (!sigueActivo) {
+                if (indice >= 0) pedidosData.splice(indice, 1);
+            } else if (indice >= 0) {
+                pedidosData[indice] = pedido;
+            } else {
+                pedidosData.push(pedido);
+            }
+            renderizarPedidos();
+        });
+        
+        console.log(`📡 Stream de pedidos conectado (${rolActual})`);
+    }
+    
     // ==========================================
     // CARGAR PRODUCTOS DESDE API
     // ==========================================
@@ -214,6 +285,23 @@
         }
     }
     
+    // ==========================================
+    // 🔥 PORCIONES DISPONIBLES (proyección del backend, sin tocar BD)
+    // ==========================================
+    
+    async function cargarPorcionesDesdeAPI() {
+        try {
+            const response = await fetch(`${API_RECETAS}/porciones-disponibles`);
+            
+            if (!response.ok) throw new Error('Error al cargar porciones');
+            
+            porcionesAPI = await response.json();
+        } catch (error) {
+            console.error('❌ Error cargando porciones:', error);
+            porcionesAPI = null;
+        }
+    }
+    
     // ==========================================
     // CARGAR MESAS DESDE API
     // ==========================================
@@ -820,6 +908,7 @@
             return;
         }
         
+        await cargarPorcionesDesdeAPI();
         const productosConStock = obtenerProductosConDisponibilidad(productosFiltrados);
         
         resultadosDiv.innerHTML = `
@@ -837,6 +926,7 @@
                                 <small>${p.descripcion || ''}</small>
                                 <br>
                                 <small style="color: #666;">📁 ${p.categoria}</small>
+                                ${p.porciones != null ? '<br><small style="color: #666;">🍽️ Alcanza para ' + p.porciones + ' porciones</small>' : ''}
                                 ${deshabilitado ? '<br><small style="color: var(--color-peligro);">' + p.motivoNoDisponible + '</small>' : ''}
                                 <br>
                                 <span style="color: var(--color-exito); font-weight: bold;">
@@ -905,6 +995,20 @@
     }
     
     function obtenerProductosConDisponibilidad(productos) {
+        // Con la proyección del backend: 0 porciones = sin stock
+        if (porcionesAPI) {
+            return productos.map(producto => {
+                const porciones = porcionesAPI[producto.id];
+                const stockDisponible = porciones == null || porciones > 0;
+                return {
+                    ...producto,
+                    porciones,
+                    stockDisponible,
+                    motivoNoDisponible: stockDisponible ? null : 'Sin insumos suficientes para 1 porción'
+                };
+            });
+        }
+        
         const recetas = obtenerDatos('recetas') || [];
         const insumos = obtenerDatos('insumos') || [];
         